@@ -1,6 +1,8 @@
 package org.petrinet.client;
 
+import java.math.BigInteger;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Data Transfer Object for Petri net analysis results.
@@ -11,17 +13,50 @@ public class AnalysisResultDTO {
     private String details;
     private boolean hasDeadlock;
     private int reachableStatesCount;
+    private BigInteger reachableStatesTotal;
+    private int decisionDiagramNodes;
     private int exploredStatesCount;
     private boolean reachedMaxLimit;
+    private boolean reachedTimeLimit;
+    private boolean reachedMemoryLimit;
+    private boolean cancelled;
+    private long bytesSpilled;
+    private int spillPasses;
+    private BigInteger symmetryGroupSize;
     private int enabledTransitionsCount;
     private int boundedPlacesCount;
     private int unboundedPlacesCount;
+    private List<String> unboundedPlaces;
+    private Map<String, Integer> placeBounds;
+    private List<Map<String, Long>> placeInvariants;
+    private List<Map<String, Long>> transitionInvariants;
+    private boolean coveredByPlaceInvariants;
+    private boolean coveredByTransitionInvariants;
+    private Map<String, String> transitionLiveness;
+    private List<String> deadlockTrace;
+    private Map<String, Integer> deadlockMarking;
     private int[][] incidenceMatrix;
+    private SparseMatrixDTO sparseIncidenceMatrix;
     private int regularArcsCount;
     private int inhibitorArcsCount;
     private int bidirectionalArcsCount;
     private int isolatedPlacesCount;
     private int isolatedTransitionsCount;
+    private int stronglyConnectedComponentsCount;
+    private boolean stronglyConnected;
+    private List<String> sourceTransitions;
+    private List<String> sinkTransitions;
+    private int maxInDegree;
+    private int maxOutDegree;
+    private boolean stateMachine;
+    private boolean markedGraph;
+    private List<List<String>> minimalSiphons;
+    private List<List<String>> maximalTraps;
+    private Boolean commonerConditionHolds;
+    private Boolean deadlockFree;
+    private Boolean live;
+    private boolean freeChoice;
+    private boolean extendedFreeChoice;
     private List<String> reachableStates;
 
     // Constructors
@@ -65,6 +100,22 @@ public class AnalysisResultDTO {
         this.reachableStatesCount = reachableStatesCount;
     }
 
+    public BigInteger getReachableStatesTotal() {
+        return reachableStatesTotal;
+    }
+
+    public void setReachableStatesTotal(BigInteger reachableStatesTotal) {
+        this.reachableStatesTotal = reachableStatesTotal;
+    }
+
+    public int getDecisionDiagramNodes() {
+        return decisionDiagramNodes;
+    }
+
+    public void setDecisionDiagramNodes(int decisionDiagramNodes) {
+        this.decisionDiagramNodes = decisionDiagramNodes;
+    }
+
     public int getExploredStatesCount() {
         return exploredStatesCount;
     }
@@ -81,6 +132,54 @@ public class AnalysisResultDTO {
         this.reachedMaxLimit = reachedMaxLimit;
     }
 
+    public boolean isReachedTimeLimit() {
+        return reachedTimeLimit;
+    }
+
+    public void setReachedTimeLimit(boolean reachedTimeLimit) {
+        this.reachedTimeLimit = reachedTimeLimit;
+    }
+
+    public boolean isReachedMemoryLimit() {
+        return reachedMemoryLimit;
+    }
+
+    public void setReachedMemoryLimit(boolean reachedMemoryLimit) {
+        this.reachedMemoryLimit = reachedMemoryLimit;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void setCancelled(boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    public long getBytesSpilled() {
+        return bytesSpilled;
+    }
+
+    public void setBytesSpilled(long bytesSpilled) {
+        this.bytesSpilled = bytesSpilled;
+    }
+
+    public int getSpillPasses() {
+        return spillPasses;
+    }
+
+    public void setSpillPasses(int spillPasses) {
+        this.spillPasses = spillPasses;
+    }
+
+    public BigInteger getSymmetryGroupSize() {
+        return symmetryGroupSize;
+    }
+
+    public void setSymmetryGroupSize(BigInteger symmetryGroupSize) {
+        this.symmetryGroupSize = symmetryGroupSize;
+    }
+
     public int getEnabledTransitionsCount() {
         return enabledTransitionsCount;
     }
@@ -105,6 +204,78 @@ public class AnalysisResultDTO {
         this.unboundedPlacesCount = unboundedPlacesCount;
     }
 
+    public List<String> getUnboundedPlaces() {
+        return unboundedPlaces;
+    }
+
+    public void setUnboundedPlaces(List<String> unboundedPlaces) {
+        this.unboundedPlaces = unboundedPlaces;
+    }
+
+    public Map<String, Integer> getPlaceBounds() {
+        return placeBounds;
+    }
+
+    public void setPlaceBounds(Map<String, Integer> placeBounds) {
+        this.placeBounds = placeBounds;
+    }
+
+    public List<Map<String, Long>> getPlaceInvariants() {
+        return placeInvariants;
+    }
+
+    public void setPlaceInvariants(List<Map<String, Long>> placeInvariants) {
+        this.placeInvariants = placeInvariants;
+    }
+
+    public List<Map<String, Long>> getTransitionInvariants() {
+        return transitionInvariants;
+    }
+
+    public void setTransitionInvariants(List<Map<String, Long>> transitionInvariants) {
+        this.transitionInvariants = transitionInvariants;
+    }
+
+    public boolean isCoveredByPlaceInvariants() {
+        return coveredByPlaceInvariants;
+    }
+
+    public void setCoveredByPlaceInvariants(boolean coveredByPlaceInvariants) {
+        this.coveredByPlaceInvariants = coveredByPlaceInvariants;
+    }
+
+    public boolean isCoveredByTransitionInvariants() {
+        return coveredByTransitionInvariants;
+    }
+
+    public void setCoveredByTransitionInvariants(boolean coveredByTransitionInvariants) {
+        this.coveredByTransitionInvariants = coveredByTransitionInvariants;
+    }
+
+    public Map<String, String> getTransitionLiveness() {
+        return transitionLiveness;
+    }
+
+    public void setTransitionLiveness(Map<String, String> transitionLiveness) {
+        this.transitionLiveness = transitionLiveness;
+    }
+
+    public List<String> getDeadlockTrace() {
+        return deadlockTrace;
+    }
+
+    public void setDeadlockTrace(List<String> deadlockTrace) {
+        this.deadlockTrace = deadlockTrace;
+    }
+
+    public Map<String, Integer> getDeadlockMarking() {
+        return deadlockMarking;
+    }
+
+    public void setDeadlockMarking(Map<String, Integer> deadlockMarking) {
+        this.deadlockMarking = deadlockMarking;
+    }
+
     public int[][] getIncidenceMatrix() {
         return incidenceMatrix;
     }
@@ -113,6 +284,14 @@ public class AnalysisResultDTO {
         this.incidenceMatrix = incidenceMatrix;
     }
 
+    public SparseMatrixDTO getSparseIncidenceMatrix() {
+        return sparseIncidenceMatrix;
+    }
+
+    public void setSparseIncidenceMatrix(SparseMatrixDTO sparseIncidenceMatrix) {
+        this.sparseIncidenceMatrix = sparseIncidenceMatrix;
+    }
+
     public int getRegularArcsCount() {
         return regularArcsCount;
     }
@@ -153,6 +332,126 @@ public class AnalysisResultDTO {
         this.isolatedTransitionsCount = isolatedTransitionsCount;
     }
 
+    public int getStronglyConnectedComponentsCount() {
+        return stronglyConnectedComponentsCount;
+    }
+
+    public void setStronglyConnectedComponentsCount(int stronglyConnectedComponentsCount) {
+        this.stronglyConnectedComponentsCount = stronglyConnectedComponentsCount;
+    }
+
+    public boolean isStronglyConnected() {
+        return stronglyConnected;
+    }
+
+    public void setStronglyConnected(boolean stronglyConnected) {
+        this.stronglyConnected = stronglyConnected;
+    }
+
+    public List<String> getSourceTransitions() {
+        return sourceTransitions;
+    }
+
+    public void setSourceTransitions(List<String> sourceTransitions) {
+        this.sourceTransitions = sourceTransitions;
+    }
+
+    public List<String> getSinkTransitions() {
+        return sinkTransitions;
+    }
+
+    public void setSinkTransitions(List<String> sinkTransitions) {
+        this.sinkTransitions = sinkTransitions;
+    }
+
+    public int getMaxInDegree() {
+        return maxInDegree;
+    }
+
+    public void setMaxInDegree(int maxInDegree) {
+        this.maxInDegree = maxInDegree;
+    }
+
+    public int getMaxOutDegree() {
+        return maxOutDegree;
+    }
+
+    public void setMaxOutDegree(int maxOutDegree) {
+        this.maxOutDegree = maxOutDegree;
+    }
+
+    public boolean isStateMachine() {
+        return stateMachine;
+    }
+
+    public void setStateMachine(boolean stateMachine) {
+        this.stateMachine = stateMachine;
+    }
+
+    public boolean isMarkedGraph() {
+        return markedGraph;
+    }
+
+    public void setMarkedGraph(boolean markedGraph) {
+        this.markedGraph = markedGraph;
+    }
+
+    public List<List<String>> getMinimalSiphons() {
+        return minimalSiphons;
+    }
+
+    public void setMinimalSiphons(List<List<String>> minimalSiphons) {
+        this.minimalSiphons = minimalSiphons;
+    }
+
+    public List<List<String>> getMaximalTraps() {
+        return maximalTraps;
+    }
+
+    public void setMaximalTraps(List<List<String>> maximalTraps) {
+        this.maximalTraps = maximalTraps;
+    }
+
+    public Boolean getCommonerConditionHolds() {
+        return commonerConditionHolds;
+    }
+
+    public void setCommonerConditionHolds(Boolean commonerConditionHolds) {
+        this.commonerConditionHolds = commonerConditionHolds;
+    }
+
+    public Boolean getDeadlockFree() {
+        return deadlockFree;
+    }
+
+    public void setDeadlockFree(Boolean deadlockFree) {
+        this.deadlockFree = deadlockFree;
+    }
+
+    public Boolean getLive() {
+        return live;
+    }
+
+    public void setLive(Boolean live) {
+        this.live = live;
+    }
+
+    public boolean isFreeChoice() {
+        return freeChoice;
+    }
+
+    public void setFreeChoice(boolean freeChoice) {
+        this.freeChoice = freeChoice;
+    }
+
+    public boolean isExtendedFreeChoice() {
+        return extendedFreeChoice;
+    }
+
+    public void setExtendedFreeChoice(boolean extendedFreeChoice) {
+        this.extendedFreeChoice = extendedFreeChoice;
+    }
+
     public List<String> getReachableStates() {
         return reachableStates;
     }
@@ -0,0 +1,19 @@
+package org.petrinet.client;
+
+import java.util.List;
+
+/**
+ * DTO for batch validation requests: one Petri net, extending the base PetriNetDTO, and the
+ * scenarios to validate it against.
+ */
+public class BatchValidationDTO extends PetriNetDTO {
+    private List<ValidationScenarioDTO> scenarios;
+
+    public List<ValidationScenarioDTO> getScenarios() {
+        return scenarios;
+    }
+
+    public void setScenarios(List<ValidationScenarioDTO> scenarios) {
+        this.scenarios = scenarios;
+    }
+}
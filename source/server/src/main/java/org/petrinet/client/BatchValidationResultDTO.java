@@ -0,0 +1,66 @@
+package org.petrinet.client;
+
+import java.util.List;
+
+/**
+ * Result object for batch validation operations: one result per scenario, in request order,
+ * and a summary over all of them.
+ */
+public class BatchValidationResultDTO {
+    private List<ValidationResultDTO> results;
+    private int scenarioCount;
+    private int passedCount;
+    private int failedCount;
+    private List<String> failedScenarioIds;
+    private long elapsedMillis;  // Wall-clock time spent validating all scenarios
+
+    public BatchValidationResultDTO() {}
+
+    public List<ValidationResultDTO> getResults() {
+        return results;
+    }
+
+    public void setResults(List<ValidationResultDTO> results) {
+        this.results = results;
+    }
+
+    public int getScenarioCount() {
+        return scenarioCount;
+    }
+
+    public void setScenarioCount(int scenarioCount) {
+        this.scenarioCount = scenarioCount;
+    }
+
+    public int getPassedCount() {
+        return passedCount;
+    }
+
+    public void setPassedCount(int passedCount) {
+        this.passedCount = passedCount;
+    }
+
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(int failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public List<String> getFailedScenarioIds() {
+        return failedScenarioIds;
+    }
+
+    public void setFailedScenarioIds(List<String> failedScenarioIds) {
+        this.failedScenarioIds = failedScenarioIds;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+}
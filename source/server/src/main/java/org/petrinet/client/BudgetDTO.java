@@ -0,0 +1,53 @@
+package org.petrinet.client;
+
+/**
+ * Limits a client asks for on a single analysis or validation request. Every field is optional:
+ * an unset field takes the server default, and a value above the server maximum is capped to it.
+ */
+public class BudgetDTO {
+    private Integer maxStates;  // Distinct markings, coverability nodes, rows or siphons an analysis may produce
+    private Integer maxSteps;  // Transitions a validation may fire
+    private Long timeLimitMillis;  // Wall-clock budget of the whole request
+    private Long memoryBudgetBytes;  // Memory an exploration may use for the markings it keeps
+
+    public BudgetDTO() {}
+
+    public BudgetDTO(Integer maxStates, Integer maxSteps, Long timeLimitMillis, Long memoryBudgetBytes) {
+        this.maxStates = maxStates;
+        this.maxSteps = maxSteps;
+        this.timeLimitMillis = timeLimitMillis;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+    }
+
+    public Integer getMaxStates() {
+        return maxStates;
+    }
+
+    public void setMaxStates(Integer maxStates) {
+        this.maxStates = maxStates;
+    }
+
+    public Integer getMaxSteps() {
+        return maxSteps;
+    }
+
+    public void setMaxSteps(Integer maxSteps) {
+        this.maxSteps = maxSteps;
+    }
+
+    public Long getTimeLimitMillis() {
+        return timeLimitMillis;
+    }
+
+    public void setTimeLimitMillis(Long timeLimitMillis) {
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    public Long getMemoryBudgetBytes() {
+        return memoryBudgetBytes;
+    }
+
+    public void setMemoryBudgetBytes(Long memoryBudgetBytes) {
+        this.memoryBudgetBytes = memoryBudgetBytes;
+    }
+}
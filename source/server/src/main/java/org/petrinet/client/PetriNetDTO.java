@@ -8,6 +8,7 @@ public class PetriNetDTO {
     private List<ArcDTO> arcs;
     private String selectedTransitionId;
     private Boolean deterministicMode;
+    private BudgetDTO budget;  // Optional limits for an analysis or validation of this net
 
     public PetriNetDTO() {}
 
@@ -56,4 +57,12 @@ public class PetriNetDTO {
     public void setDeterministicMode(Boolean deterministicMode) {
         this.deterministicMode = deterministicMode;
     }
+
+    public BudgetDTO getBudget() {
+        return budget;
+    }
+
+    public void setBudget(BudgetDTO budget) {
+        this.budget = budget;
+    }
 }
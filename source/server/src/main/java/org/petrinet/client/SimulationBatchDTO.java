@@ -0,0 +1,61 @@
+package org.petrinet.client;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One event of a streamed simulation run.
+ * A batch carries the transitions fired since the previous batch and the token counts they changed;
+ * the last batch of a run also carries the reason it stopped and the transitions enabled at the end.
+ */
+public class SimulationBatchDTO {
+    private long firstStep;  // Number of transitions fired before this batch
+    private List<String> firedTransitions;  // Transition IDs in firing order
+    private Map<String, Integer> changedPlaces;  // Map of place ID to its token count after the batch, for places whose count changed
+    private String stopReason;  // STEP_LIMIT, DEADLOCK or CONFLICT on the last batch, null before
+    private List<String> enabledTransitions;  // Transitions enabled in the final marking, on the last batch only
+
+    // Default constructor
+    public SimulationBatchDTO() {}
+
+    // Getters and setters
+    public long getFirstStep() {
+        return firstStep;
+    }
+
+    public void setFirstStep(long firstStep) {
+        this.firstStep = firstStep;
+    }
+
+    public List<String> getFiredTransitions() {
+        return firedTransitions;
+    }
+
+    public void setFiredTransitions(List<String> firedTransitions) {
+        this.firedTransitions = firedTransitions;
+    }
+
+    public Map<String, Integer> getChangedPlaces() {
+        return changedPlaces;
+    }
+
+    public void setChangedPlaces(Map<String, Integer> changedPlaces) {
+        this.changedPlaces = changedPlaces;
+    }
+
+    public String getStopReason() {
+        return stopReason;
+    }
+
+    public void setStopReason(String stopReason) {
+        this.stopReason = stopReason;
+    }
+
+    public List<String> getEnabledTransitions() {
+        return enabledTransitions;
+    }
+
+    public void setEnabledTransitions(List<String> enabledTransitions) {
+        this.enabledTransitions = enabledTransitions;
+    }
+}
@@ -0,0 +1,70 @@
+package org.petrinet.client;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result object for the steps of a simulation session.
+ * The net and its marking stay on the server, so a step only carries the transition it fired and the
+ * token counts that changed; the client applies them to the net it registered.
+ */
+public class SimulationDeltaDTO {
+    private String sessionId;
+    private long step;  // Number of transitions fired in the session so far
+    private String outcome;  // CREATED, FIRED, CONFLICT or DEADLOCK
+    private String firedTransitionId;  // Null unless a transition fired
+    private Map<String, Integer> changedPlaces;  // Map of place ID to its new token count, for places whose count changed
+    private List<String> enabledTransitions;  // Transitions enabled after the step
+
+    // Default constructor
+    public SimulationDeltaDTO() {}
+
+    // Getters and setters
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public long getStep() {
+        return step;
+    }
+
+    public void setStep(long step) {
+        this.step = step;
+    }
+
+    public String getOutcome() {
+        return outcome;
+    }
+
+    public void setOutcome(String outcome) {
+        this.outcome = outcome;
+    }
+
+    public String getFiredTransitionId() {
+        return firedTransitionId;
+    }
+
+    public void setFiredTransitionId(String firedTransitionId) {
+        this.firedTransitionId = firedTransitionId;
+    }
+
+    public Map<String, Integer> getChangedPlaces() {
+        return changedPlaces;
+    }
+
+    public void setChangedPlaces(Map<String, Integer> changedPlaces) {
+        this.changedPlaces = changedPlaces;
+    }
+
+    public List<String> getEnabledTransitions() {
+        return enabledTransitions;
+    }
+
+    public void setEnabledTransitions(List<String> enabledTransitions) {
+        this.enabledTransitions = enabledTransitions;
+    }
+}
@@ -0,0 +1,63 @@
+package org.petrinet.client;
+
+/**
+ * Message of the simulation WebSocket channel, in either direction.
+ * The client opens a session with its net, then steps it or fires the transition of its choice; the
+ * server answers every message with the resulting delta, pushes a conflict as soon as a firing leads
+ * to one in deterministic mode, and reports failures as errors.
+ */
+public class SimulationMessageDTO {
+    private String type;  // OPEN, STEP, FIRE or CLOSE from the client; DELTA or ERROR from the server
+    private PetriNetDTO net;  // The net to simulate, on OPEN only
+    private String transitionId;  // The transition to fire, on FIRE only
+    private SimulationDeltaDTO delta;  // The result of the request, on DELTA only
+    private String message;  // What went wrong, on ERROR only
+
+    // Default constructor
+    public SimulationMessageDTO() {}
+
+    public SimulationMessageDTO(String type) {
+        this.type = type;
+    }
+
+    // Getters and setters
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public PetriNetDTO getNet() {
+        return net;
+    }
+
+    public void setNet(PetriNetDTO net) {
+        this.net = net;
+    }
+
+    public String getTransitionId() {
+        return transitionId;
+    }
+
+    public void setTransitionId(String transitionId) {
+        this.transitionId = transitionId;
+    }
+
+    public SimulationDeltaDTO getDelta() {
+        return delta;
+    }
+
+    public void setDelta(SimulationDeltaDTO delta) {
+        this.delta = delta;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
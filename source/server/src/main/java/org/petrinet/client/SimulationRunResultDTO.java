@@ -0,0 +1,69 @@
+package org.petrinet.client;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result object for multi-step simulation runs.
+ * Instead of the full net, it carries only the final marking and the sequence of fired transitions.
+ */
+public class SimulationRunResultDTO {
+    private int stepsExecuted;
+    private String stopReason;  // STEP_LIMIT, DEADLOCK or CONFLICT
+    private List<String> firingSequence;  // Transition IDs in firing order
+    private Map<String, Integer> finalMarking;  // Map of place ID to its token count after the run
+    private List<String> enabledTransitions;  // Transitions enabled in the final marking
+    private Boolean deterministicMode;
+
+    // Default constructor
+    public SimulationRunResultDTO() {}
+
+    // Getters and setters
+    public int getStepsExecuted() {
+        return stepsExecuted;
+    }
+
+    public void setStepsExecuted(int stepsExecuted) {
+        this.stepsExecuted = stepsExecuted;
+    }
+
+    public String getStopReason() {
+        return stopReason;
+    }
+
+    public void setStopReason(String stopReason) {
+        this.stopReason = stopReason;
+    }
+
+    public List<String> getFiringSequence() {
+        return firingSequence;
+    }
+
+    public void setFiringSequence(List<String> firingSequence) {
+        this.firingSequence = firingSequence;
+    }
+
+    public Map<String, Integer> getFinalMarking() {
+        return finalMarking;
+    }
+
+    public void setFinalMarking(Map<String, Integer> finalMarking) {
+        this.finalMarking = finalMarking;
+    }
+
+    public List<String> getEnabledTransitions() {
+        return enabledTransitions;
+    }
+
+    public void setEnabledTransitions(List<String> enabledTransitions) {
+        this.enabledTransitions = enabledTransitions;
+    }
+
+    public Boolean getDeterministicMode() {
+        return deterministicMode;
+    }
+
+    public void setDeterministicMode(Boolean deterministicMode) {
+        this.deterministicMode = deterministicMode;
+    }
+}
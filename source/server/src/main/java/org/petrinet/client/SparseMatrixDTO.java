@@ -0,0 +1,65 @@
+package org.petrinet.client;
+
+/**
+ * A sparse integer matrix in compressed sparse row (CSR) form.
+ * The non-zero entries of row {@code r} are at positions {@code rowPointers[r]} (inclusive) to
+ * {@code rowPointers[r + 1]} (exclusive) of {@code columnIndices} and {@code values}, in ascending
+ * column order. Omitted entries are zero.
+ */
+public class SparseMatrixDTO {
+    private int rows;
+    private int columns;
+    private int[] rowPointers;  // rows + 1 offsets into columnIndices and values
+    private int[] columnIndices;
+    private int[] values;
+
+    public SparseMatrixDTO() {}
+
+    public SparseMatrixDTO(int rows, int columns, int[] rowPointers, int[] columnIndices, int[] values) {
+        this.rows = rows;
+        this.columns = columns;
+        this.rowPointers = rowPointers;
+        this.columnIndices = columnIndices;
+        this.values = values;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public void setRows(int rows) {
+        this.rows = rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public void setColumns(int columns) {
+        this.columns = columns;
+    }
+
+    public int[] getRowPointers() {
+        return rowPointers;
+    }
+
+    public void setRowPointers(int[] rowPointers) {
+        this.rowPointers = rowPointers;
+    }
+
+    public int[] getColumnIndices() {
+        return columnIndices;
+    }
+
+    public void setColumnIndices(int[] columnIndices) {
+        this.columnIndices = columnIndices;
+    }
+
+    public int[] getValues() {
+        return values;
+    }
+
+    public void setValues(int[] values) {
+        this.values = values;
+    }
+}
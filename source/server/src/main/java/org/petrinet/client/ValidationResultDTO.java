@@ -7,11 +7,15 @@ import java.util.Map;
  * Result object for Petri net validation operations.
  */
 public class ValidationResultDTO {
+    private String scenarioId;  // Only populated in the results of a batch validation
     private boolean valid;
     private String message;
     private List<String> conflictingTransitions;  // Only populated if there's a conflict
     private PetriNetDTO finalState;  // The final state of the Petri net after validation
     private Map<String, Boolean> outputMatches;  // Map of place ID to whether its actual tokens matched the expected count
+    private boolean reachedStepLimit;  // Whether the simulation fired as many transitions as its budget allows
+    private boolean reachedTimeLimit;  // Whether the simulation ran out of wall-clock time
+    private boolean cancelled;  // Whether the simulation was cancelled before it finished
     
     // Default constructor
     public ValidationResultDTO() {}
@@ -23,6 +27,14 @@ public class ValidationResultDTO {
     }
     
     // Getters and setters
+    public String getScenarioId() {
+        return scenarioId;
+    }
+    
+    public void setScenarioId(String scenarioId) {
+        this.scenarioId = scenarioId;
+    }
+    
     public boolean isValid() {
         return valid;
     }
@@ -62,4 +74,28 @@ public class ValidationResultDTO {
     public void setOutputMatches(Map<String, Boolean> outputMatches) {
         this.outputMatches = outputMatches;
     }
-}
\ No newline at end of file
+    
+    public boolean isReachedStepLimit() {
+        return reachedStepLimit;
+    }
+    
+    public void setReachedStepLimit(boolean reachedStepLimit) {
+        this.reachedStepLimit = reachedStepLimit;
+    }
+    
+    public boolean isReachedTimeLimit() {
+        return reachedTimeLimit;
+    }
+    
+    public void setReachedTimeLimit(boolean reachedTimeLimit) {
+        this.reachedTimeLimit = reachedTimeLimit;
+    }
+    
+    public boolean isCancelled() {
+        return cancelled;
+    }
+    
+    public void setCancelled(boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+}
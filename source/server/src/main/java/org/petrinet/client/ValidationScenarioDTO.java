@@ -0,0 +1,45 @@
+package org.petrinet.client;
+
+import java.util.List;
+
+/**
+ * One test case of a batch validation: the initial tokens to apply and the token counts expected
+ * once no transition can fire any more.
+ */
+public class ValidationScenarioDTO {
+    private String id;  // Echoed in the scenario's result; defaults to its position in the batch
+    private List<PlaceDTO> inputConfigs;
+    private List<PlaceDTO> expectedOutputs;
+
+    public ValidationScenarioDTO() {}
+
+    public ValidationScenarioDTO(String id, List<PlaceDTO> inputConfigs, List<PlaceDTO> expectedOutputs) {
+        this.id = id;
+        this.inputConfigs = inputConfigs;
+        this.expectedOutputs = expectedOutputs;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public List<PlaceDTO> getInputConfigs() {
+        return inputConfigs;
+    }
+
+    public void setInputConfigs(List<PlaceDTO> inputConfigs) {
+        this.inputConfigs = inputConfigs;
+    }
+
+    public List<PlaceDTO> getExpectedOutputs() {
+        return expectedOutputs;
+    }
+
+    public void setExpectedOutputs(List<PlaceDTO> expectedOutputs) {
+        this.expectedOutputs = expectedOutputs;
+    }
+}
@@ -0,0 +1,309 @@
+package org.petrinet.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Server-wide limits for state-space analysis, validation and simulation sessions, bound from the
+ * {@code petrinet.analysis.*} properties. The state, step, time and memory limits are the defaults of
+ * every request; a request may ask for other values through its budget, up to the {@code maxRequest*} limits.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "petrinet.analysis")
+public class AnalysisProperties {
+
+    /**
+     * Where explorations keep the markings they have already visited.
+     */
+    public enum VisitedStore {
+        /** A concurrent hash set on the Java heap. */
+        HEAP,
+        /**
+         * A striped open-addressing hash table in direct memory, limited by {@link #memoryBudget}.
+         * Its buffers are only freed once the garbage collector reclaims them, so back-to-back large
+         * explorations may together exceed {@code -XX:MaxDirectMemorySize}.
+         */
+        OFF_HEAP,
+        /**
+         * Spill files under {@link #workDirectory}, with duplicates detected in a delayed pass
+         * per level. Both the frontier and the visited markings are kept on disk.
+         */
+        DISK
+    }
+
+    /** Maximum number of distinct markings a reachability exploration may visit. */
+    private int maxStates = 100_000;
+
+    /** Maximum number of transitions a validation may fire before it is reported as a potential infinite loop. */
+    private int maxSteps = 1000;
+
+    /** Wall-clock budget for a single request, in milliseconds. */
+    private long timeLimitMillis = 10_000;
+
+    /**
+     * Wall-clock budget for the minimal siphon enumeration of a structural analysis, in milliseconds,
+     * within that of the request. The enumeration is exponential in the worst case, so it gets a
+     * share of its own rather than the whole request budget.
+     */
+    private long siphonTimeLimitMillis = 1000;
+
+    /**
+     * Number of worker threads used by parallel explorations and batch validations run outside the
+     * analysis executor; 0 uses all available processors but one. Requests run on the analysis
+     * executor use its workers instead.
+     */
+    private int parallelism = 0;
+
+    /** Store used for the visited markings of a reachability exploration. */
+    private VisitedStore visitedStore = VisitedStore.HEAP;
+
+    /**
+     * Memory an exploration may use for the markings it keeps. The off-heap store reserves it as
+     * direct memory, so it must then stay below the JVM's {@code -XX:MaxDirectMemorySize}, which
+     * defaults to the maximum heap size. Heap-based engines check it against an estimate of their
+     * footprint.
+     */
+    private DataSize memoryBudget = DataSize.ofMegabytes(256);
+
+    /** Largest state budget a single request may ask for. */
+    private int maxRequestStates = 10_000_000;
+
+    /** Largest step budget a single request may ask for. */
+    private int maxRequestSteps = 1_000_000;
+
+    /** Largest wall-clock budget a single request may ask for, in milliseconds. */
+    private long maxRequestTimeLimitMillis = 300_000;
+
+    /** Largest memory budget a single request may ask for. */
+    private DataSize maxRequestMemoryBudget = DataSize.ofGigabytes(1);
+
+    /** Directory under which disk-based explorations create their temporary spill files. */
+    private Path workDirectory = Path.of(System.getProperty("java.io.tmpdir"), "petrinet-analysis");
+
+    /** Number of hash partitions the spill files of a disk-based exploration are split into. */
+    private int spillPartitions = 64;
+
+    /**
+     * Whether reachability and deadlock explorations only fire the transitions of a stubborn set in
+     * each marking. Deadlocks are preserved, but reachable state counts describe the reduced state space.
+     */
+    private boolean partialOrderReduction = false;
+
+    /**
+     * Whether reachability explorations replace every marking by a canonical representative under the
+     * structural automorphisms of the net. Reachable state counts then count orbits of markings.
+     */
+    private boolean symmetryReduction = false;
+
+    /**
+     * Total size of the compiled nets kept between requests, counted in places, transitions, arcs and
+     * arc references; 0 disables the cache.
+     */
+    private int compiledNetCacheSize = 250_000;
+
+    /** Maximum number of simulation sessions kept at once; the least recently used one is closed to make room. */
+    private int maxSessions = 1000;
+
+    /** How long a simulation session may stay unused before it is closed. */
+    private Duration sessionIdleTimeout = Duration.ofMinutes(30);
+
+    /** Number of analysis and validation requests that run at once; 0 uses all available processors but one. */
+    private int analysisConcurrency = 0;
+
+    /** Number of analysis and validation requests that may wait for a running one before requests are rejected. */
+    private int analysisQueueDepth = 32;
+
+    /** Number of simulation runs that may be streamed at once; further stream requests are rejected. */
+    private int maxStreams = 16;
+
+    public int getMaxStates() {
+        return maxStates;
+    }
+
+    public void setMaxStates(int maxStates) {
+        this.maxStates = maxStates;
+    }
+
+    public int getMaxSteps() {
+        return maxSteps;
+    }
+
+    public void setMaxSteps(int maxSteps) {
+        this.maxSteps = maxSteps;
+    }
+
+    public long getTimeLimitMillis() {
+        return timeLimitMillis;
+    }
+
+    public void setTimeLimitMillis(long timeLimitMillis) {
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    public long getSiphonTimeLimitMillis() {
+        return siphonTimeLimitMillis;
+    }
+
+    public void setSiphonTimeLimitMillis(long siphonTimeLimitMillis) {
+        this.siphonTimeLimitMillis = siphonTimeLimitMillis;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public VisitedStore getVisitedStore() {
+        return visitedStore;
+    }
+
+    public void setVisitedStore(VisitedStore visitedStore) {
+        this.visitedStore = visitedStore;
+    }
+
+    public DataSize getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    public void setMemoryBudget(DataSize memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    public int getMaxRequestStates() {
+        return maxRequestStates;
+    }
+
+    public void setMaxRequestStates(int maxRequestStates) {
+        this.maxRequestStates = maxRequestStates;
+    }
+
+    public int getMaxRequestSteps() {
+        return maxRequestSteps;
+    }
+
+    public void setMaxRequestSteps(int maxRequestSteps) {
+        this.maxRequestSteps = maxRequestSteps;
+    }
+
+    public long getMaxRequestTimeLimitMillis() {
+        return maxRequestTimeLimitMillis;
+    }
+
+    public void setMaxRequestTimeLimitMillis(long maxRequestTimeLimitMillis) {
+        this.maxRequestTimeLimitMillis = maxRequestTimeLimitMillis;
+    }
+
+    public DataSize getMaxRequestMemoryBudget() {
+        return maxRequestMemoryBudget;
+    }
+
+    public void setMaxRequestMemoryBudget(DataSize maxRequestMemoryBudget) {
+        this.maxRequestMemoryBudget = maxRequestMemoryBudget;
+    }
+
+    public Path getWorkDirectory() {
+        return workDirectory;
+    }
+
+    public void setWorkDirectory(Path workDirectory) {
+        this.workDirectory = workDirectory;
+    }
+
+    public int getSpillPartitions() {
+        return spillPartitions;
+    }
+
+    public void setSpillPartitions(int spillPartitions) {
+        this.spillPartitions = spillPartitions;
+    }
+
+    public boolean isPartialOrderReduction() {
+        return partialOrderReduction;
+    }
+
+    public void setPartialOrderReduction(boolean partialOrderReduction) {
+        this.partialOrderReduction = partialOrderReduction;
+    }
+
+    public boolean isSymmetryReduction() {
+        return symmetryReduction;
+    }
+
+    public void setSymmetryReduction(boolean symmetryReduction) {
+        this.symmetryReduction = symmetryReduction;
+    }
+
+    public int getCompiledNetCacheSize() {
+        return compiledNetCacheSize;
+    }
+
+    public void setCompiledNetCacheSize(int compiledNetCacheSize) {
+        this.compiledNetCacheSize = compiledNetCacheSize;
+    }
+
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    public void setMaxSessions(int maxSessions) {
+        this.maxSessions = maxSessions;
+    }
+
+    public Duration getSessionIdleTimeout() {
+        return sessionIdleTimeout;
+    }
+
+    public void setSessionIdleTimeout(Duration sessionIdleTimeout) {
+        this.sessionIdleTimeout = sessionIdleTimeout;
+    }
+
+    public int getAnalysisConcurrency() {
+        return analysisConcurrency;
+    }
+
+    public void setAnalysisConcurrency(int analysisConcurrency) {
+        this.analysisConcurrency = analysisConcurrency;
+    }
+
+    public int getAnalysisQueueDepth() {
+        return analysisQueueDepth;
+    }
+
+    public void setAnalysisQueueDepth(int analysisQueueDepth) {
+        this.analysisQueueDepth = analysisQueueDepth;
+    }
+
+    public int getMaxStreams() {
+        return maxStreams;
+    }
+
+    public void setMaxStreams(int maxStreams) {
+        this.maxStreams = maxStreams;
+    }
+
+    /**
+     * @return The configured parallelism, or all available processors but one if none is set.
+     */
+    public int getEffectiveParallelism() {
+        return parallelism > 0 ? parallelism : defaultWorkerCount();
+    }
+
+    /**
+     * @return The configured analysis concurrency, or all available processors but one if none is set.
+     */
+    public int getEffectiveAnalysisConcurrency() {
+        return analysisConcurrency > 0 ? analysisConcurrency : defaultWorkerCount();
+    }
+
+    // One processor is left to request handling and the garbage collector
+    private static int defaultWorkerCount() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    }
+}
@@ -7,17 +7,21 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig {
+
+    /** Origins of the client, allowed on the REST endpoints and the WebSocket channel alike. */
+    static final String[] ALLOWED_ORIGINS = {
+        "http://localhost:5173",
+        "https://pats-app-652197520510.us-central1.run.app",
+        "https://mypetri.net"
+    };
+
     @Bean
     public WebMvcConfigurer corsConfigurer() {
         return new WebMvcConfigurer() {
             @Override
             public void addCorsMappings(CorsRegistry registry) {
                 registry.addMapping("/api/**")
-                        .allowedOrigins(
-                            "http://localhost:5173",
-                            "https://pats-app-652197520510.us-central1.run.app",
-                            "https://mypetri.net"
-                        )
+                        .allowedOrigins(ALLOWED_ORIGINS)
                         .allowedMethods("GET", "POST", "PUT", "DELETE")
                         .allowedHeaders("*")
                         .allowCredentials(true);
@@ -0,0 +1,26 @@
+package org.petrinet.config;
+
+import org.petrinet.controller.SimulationSocketHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final SimulationSocketHandler simulationSocketHandler;
+
+    @Autowired
+    public WebSocketConfig(SimulationSocketHandler simulationSocketHandler) {
+        this.simulationSocketHandler = simulationSocketHandler;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(simulationSocketHandler, "/ws/simulation")
+                .setAllowedOrigins(WebConfig.ALLOWED_ORIGINS);
+    }
+}
@@ -2,69 +2,96 @@ package org.petrinet.controller;
 
 import org.petrinet.client.AnalysisResultDTO;
 import org.petrinet.client.PetriNetDTO;
+import org.petrinet.service.AnalysisExecutor;
+import org.petrinet.service.CompiledNetCache;
 import org.petrinet.service.PetriNetAnalysisService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
 @RestController
 @RequestMapping("/api/analysis")
 public class PetriNetAnalysisController {
 
     private final PetriNetAnalysisService analysisService;
+    private final AnalysisExecutor analysisExecutor;
 
     @Autowired
-    public PetriNetAnalysisController(PetriNetAnalysisService analysisService) {
+    public PetriNetAnalysisController(PetriNetAnalysisService analysisService, AnalysisExecutor analysisExecutor) {
         this.analysisService = analysisService;
+        this.analysisExecutor = analysisExecutor;
     }
 
     @PostMapping("/reachable-states")
-    public ResponseEntity<AnalysisResultDTO> analyzeReachableStates(@RequestBody PetriNetDTO petriNetDTO) {
-        try {
-            AnalysisResultDTO result = analysisService.analyzeReachableStates(petriNetDTO);
-            return ResponseEntity.ok(result);
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(new AnalysisResultDTO("Reachable States", "Error: " + e.getMessage()));
-        }
+    public ResponseEntity<AnalysisResultDTO> analyzeReachableStates(@RequestBody PetriNetDTO petriNetDTO,
+                                                                    @RequestParam(defaultValue = "explicit") String mode) {
+        return analyze("Reachable States", () -> switch (mode.toLowerCase()) {
+            case "explicit" -> analysisService.analyzeReachableStates(petriNetDTO);
+            case "symbolic" -> analysisService.analyzeReachableStatesSymbolically(petriNetDTO);
+            default -> throw new IllegalArgumentException("Unknown reachability mode: " + mode);
+        });
     }
 
     @PostMapping("/liveness")
     public ResponseEntity<AnalysisResultDTO> analyzeLiveness(@RequestBody PetriNetDTO petriNetDTO) {
-        try {
-            AnalysisResultDTO result = analysisService.analyzeLiveness(petriNetDTO);
-            return ResponseEntity.ok(result);
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(new AnalysisResultDTO("Liveness", "Error: " + e.getMessage()));
-        }
+        return analyze("Liveness", () -> analysisService.analyzeLiveness(petriNetDTO));
+    }
+
+    @PostMapping("/deadlock")
+    public ResponseEntity<AnalysisResultDTO> analyzeDeadlock(@RequestBody PetriNetDTO petriNetDTO) {
+        return analyze("Deadlock", () -> analysisService.analyzeDeadlock(petriNetDTO));
     }
 
     @PostMapping("/boundedness")
     public ResponseEntity<AnalysisResultDTO> analyzeBoundedness(@RequestBody PetriNetDTO petriNetDTO) {
-        try {
-            AnalysisResultDTO result = analysisService.analyzeBoundedness(petriNetDTO);
-            return ResponseEntity.ok(result);
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(new AnalysisResultDTO("Boundedness", "Error: " + e.getMessage()));
-        }
+        return analyze("Boundedness", () -> analysisService.analyzeBoundedness(petriNetDTO));
     }
 
     @PostMapping("/incidence-matrix")
-    public ResponseEntity<AnalysisResultDTO> computeIncidenceMatrix(@RequestBody PetriNetDTO petriNetDTO) {
-        try {
-            AnalysisResultDTO result = analysisService.computeIncidenceMatrix(petriNetDTO);
-            return ResponseEntity.ok(result);
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(new AnalysisResultDTO("Incidence Matrix", "Error: " + e.getMessage()));
-        }
+    public ResponseEntity<AnalysisResultDTO> computeIncidenceMatrix(@RequestBody PetriNetDTO petriNetDTO,
+                                                                    @RequestParam(defaultValue = "dense") String format) {
+        return analyze("Incidence Matrix", () -> switch (format.toLowerCase()) {
+            case "dense" -> analysisService.computeIncidenceMatrix(petriNetDTO);
+            case "sparse" -> analysisService.computeSparseIncidenceMatrix(petriNetDTO);
+            default -> throw new IllegalArgumentException("Unknown incidence matrix format: " + format);
+        });
+    }
+
+    @PostMapping("/invariants")
+    public ResponseEntity<AnalysisResultDTO> analyzeInvariants(@RequestBody PetriNetDTO petriNetDTO) {
+        return analyze("Invariants", () -> analysisService.analyzeInvariants(petriNetDTO));
     }
 
     @PostMapping("/structural")
     public ResponseEntity<AnalysisResultDTO> performStructuralAnalysis(@RequestBody PetriNetDTO petriNetDTO) {
+        return analyze("Structural Analysis", () -> analysisService.performStructuralAnalysis(petriNetDTO));
+    }
+
+    /**
+     * Reports how well the compiled net cache shared by all analyses is doing, e.g. to size it.
+     */
+    @GetMapping("/cache")
+    public ResponseEntity<CompiledNetCache.Stats> getCompiledNetCacheStats() {
+        return ResponseEntity.ok(analysisService.getCompiledNetCacheStats());
+    }
+
+    /**
+     * Runs an analysis on the analysis executor. A request that finds the executor saturated is
+     * answered with 429 Too Many Requests, and one whose analysis fails with 400 Bad Request.
+     */
+    private ResponseEntity<AnalysisResultDTO> analyze(String analysisType, Supplier<AnalysisResultDTO> analysis) {
         try {
-            AnalysisResultDTO result = analysisService.performStructuralAnalysis(petriNetDTO);
-            return ResponseEntity.ok(result);
+            return ResponseEntity.ok(analysisExecutor.execute(analysis));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("Retry-After", "1")
+                    .body(new AnalysisResultDTO(analysisType, "Error: " + e.getMessage()));
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body(new AnalysisResultDTO("Structural Analysis", "Error: " + e.getMessage()));
+            return ResponseEntity.badRequest().body(new AnalysisResultDTO(analysisType, "Error: " + e.getMessage()));
         }
     }
-} 
\ No newline at end of file
+}
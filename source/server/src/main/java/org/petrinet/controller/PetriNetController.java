@@ -1,22 +1,44 @@
 package org.petrinet.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.petrinet.service.PetriNetService;
+import org.petrinet.service.SimulationRun;
+import org.petrinet.service.SimulationSessionService;
 import org.petrinet.client.PetriNetDTO;
+import org.petrinet.client.SimulationDeltaDTO;
+import org.petrinet.client.SimulationRunResultDTO;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 public class PetriNetController {
 
+    // Time a streamed run gets beyond its own time limit to deliver its end event
+    private static final long STREAM_TIMEOUT_GRACE_MILLIS = 5_000;
+
     private final PetriNetService petriNetService;
+    private final SimulationSessionService sessionService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public PetriNetController(PetriNetService petriNetService) {
+    public PetriNetController(PetriNetService petriNetService, SimulationSessionService sessionService,
+                              ObjectMapper objectMapper) {
         this.petriNetService = petriNetService;
+        this.sessionService = sessionService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping("/api/process/page/{pageId}/process")
@@ -32,6 +54,58 @@ public class PetriNetController {
         }
     }
     
+    @PostMapping("/api/process/page/{pageId}/run")
+    public ResponseEntity<?> runPetriNet(
+            @PathVariable String pageId,
+            @RequestParam(defaultValue = "1") int steps,
+            @RequestParam(required = false) String until,
+            @RequestBody PetriNetDTO currentPetriNetState) {
+        try {
+            SimulationRunResultDTO runResult = petriNetService.runPetriNet(currentPetriNetState, steps, until);
+            return ResponseEntity.ok(runResult);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error running Petri net for page " + pageId + ": " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/api/process/page/{pageId}/run/stream")
+    public ResponseEntity<?> streamPetriNet(
+            @PathVariable String pageId,
+            @RequestParam(defaultValue = "1000") long steps,
+            @RequestParam(required = false) String until,
+            @RequestParam(defaultValue = "64") int batchSize,
+            @RequestBody PetriNetDTO currentPetriNetState) {
+        SimulationRun run;
+        try {
+            run = petriNetService.openRun(currentPetriNetState, steps, until, batchSize);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error streaming Petri net run for page " + pageId + ": " + e.getMessage());
+        }
+        // Server-Sent Events, one per batch and a final "end" one with the stop reason. Each event is
+        // written before the next batch fires, so a slow client slows the run down instead of piling up events
+        ResponseBodyEmitter events = new ResponseBodyEmitter(run.getTimeLimitMillis() + STREAM_TIMEOUT_GRACE_MILLIS);
+        events.onTimeout(run::cancel);
+        events.onError(error -> run.cancel());
+        try {
+            petriNetService.stream(run, batch -> {
+                String event = batch.getStopReason() == null ? "batch" : "end";
+                events.send(("event: " + event + "\ndata: " + objectMapper.writeValueAsString(batch) + "\n\n")
+                        .getBytes(StandardCharsets.UTF_8));
+            }).whenComplete((ignored, error) -> {
+                if (error == null) {
+                    events.complete();
+                } else {
+                    events.completeWithError(error);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("Retry-After", "1")
+                    .body("Error streaming Petri net run for page " + pageId + ": " + e.getMessage());
+        }
+        return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(events);
+    }
+
     @PostMapping("/api/process/resolve/page/{pageId}/resolve")
     public ResponseEntity<?> resolveConflict(
             @PathVariable String pageId,
@@ -49,4 +123,55 @@ public class PetriNetController {
             return ResponseEntity.badRequest().body("Error resolving conflict for page " + pageId + ": " + e.getMessage());
         }
     }
+
+    @PostMapping("/api/process/page/{pageId}/session")
+    public ResponseEntity<?> createSession(
+            @PathVariable String pageId,
+            @RequestBody PetriNetDTO currentPetriNetState) {
+        try {
+            SimulationDeltaDTO session = sessionService.createSession(currentPetriNetState);
+            return ResponseEntity.ok(session);
+        } catch (IllegalStateException e) {
+            // Every session is pinned by an open simulation channel
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("Retry-After", "1")
+                    .body("Error creating simulation session for page " + pageId + ": " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error creating simulation session for page " + pageId + ": " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/api/process/session/{sessionId}/step")
+    public ResponseEntity<?> stepSession(@PathVariable String sessionId) {
+        try {
+            SimulationDeltaDTO delta = sessionService.step(sessionId);
+            return ResponseEntity.ok(delta);
+        } catch (NoSuchElementException e) {
+            // The client registers its net again to get a new session
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error stepping simulation session " + sessionId + ": " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/api/process/session/{sessionId}/fire/{transitionId}")
+    public ResponseEntity<?> fireInSession(
+            @PathVariable String sessionId,
+            @PathVariable String transitionId) {
+        try {
+            SimulationDeltaDTO delta = sessionService.fire(sessionId, transitionId);
+            return ResponseEntity.ok(delta);
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error firing transition in simulation session " + sessionId + ": " + e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/api/process/session/{sessionId}")
+    public ResponseEntity<?> closeSession(@PathVariable String sessionId) {
+        return sessionService.closeSession(sessionId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
 }
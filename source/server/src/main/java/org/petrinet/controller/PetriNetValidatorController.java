@@ -1,26 +1,36 @@
 package org.petrinet.controller;
 
+import org.petrinet.client.BatchValidationDTO;
+import org.petrinet.client.BatchValidationResultDTO;
 import org.petrinet.client.PetriNetValidationDTO;
 import org.petrinet.client.ValidationResultDTO;
+import org.petrinet.service.AnalysisExecutor;
 import org.petrinet.service.PetriNetValidatorService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.RejectedExecutionException;
+
 /**
  * Controller for Petri net validation operations.
+ * Validations run on the {@link AnalysisExecutor}; when it is saturated, requests are answered
+ * with 429 Too Many Requests.
  */
 @RestController
 public class PetriNetValidatorController {
 
     private final PetriNetValidatorService validatorService;
+    private final AnalysisExecutor analysisExecutor;
 
     @Autowired
-    public PetriNetValidatorController(PetriNetValidatorService validatorService) {
+    public PetriNetValidatorController(PetriNetValidatorService validatorService, AnalysisExecutor analysisExecutor) {
         this.validatorService = validatorService;
+        this.analysisExecutor = analysisExecutor;
     }
 
     /**
@@ -35,8 +45,36 @@ public class PetriNetValidatorController {
             @PathVariable String pageId,
             @RequestBody PetriNetValidationDTO requestDTO) {
         try {
-            ValidationResultDTO result = validatorService.validatePetriNet(requestDTO);
+            ValidationResultDTO result = analysisExecutor.execute(() -> validatorService.validatePetriNet(requestDTO));
+            return ResponseEntity.ok(result);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("Retry-After", "1")
+                    .body("Error validating Petri net for page " + pageId + ": " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error validating Petri net for page " + pageId + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Endpoint for validating a Petri net against many input/expected-output scenarios at once.
+     * The net is compiled once and the scenarios run in parallel.
+     *
+     * @param pageId The page ID for context if needed by service/logging
+     * @param requestDTO The batch request containing the Petri net and its scenarios
+     * @return The result of every scenario with a summary, or an error message
+     */
+    @PostMapping("/api/page/{pageId}/validate/batch")
+    public ResponseEntity<?> validateBatch(
+            @PathVariable String pageId,
+            @RequestBody BatchValidationDTO requestDTO) {
+        try {
+            BatchValidationResultDTO result = analysisExecutor.execute(() -> validatorService.validateBatch(requestDTO));
             return ResponseEntity.ok(result);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("Retry-After", "1")
+                    .body("Error validating Petri net for page " + pageId + ": " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error validating Petri net for page " + pageId + ": " + e.getMessage());
         }
@@ -0,0 +1,133 @@
+package org.petrinet.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.petrinet.client.SimulationDeltaDTO;
+import org.petrinet.client.SimulationMessageDTO;
+import org.petrinet.service.SimulationSessionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Simulation channel over a WebSocket, for interactive stepping without a request per step.
+ * Each connection holds at most one simulation session, whose compiled net and marking stay on the
+ * server: a step or a firing is a few bytes each way and is handled without compiling or mapping the
+ * net. In deterministic mode, opening a net that starts in a conflict, or a firing that leads to one,
+ * is followed by a pushed {@code CONFLICT} delta, so the client can ask the user to pick a transition
+ * right away. The session is pinned for as long as the connection is open, so neither the idle
+ * timeout nor the session limit of the REST sessions closes it, and it is closed with the connection.
+ */
+@Component
+public class SimulationSocketHandler extends TextWebSocketHandler {
+
+    private static final String SESSION_ID = "simulationSessionId";
+    private static final String DETERMINISTIC_MODE = "deterministicMode";
+
+    private final SimulationSessionService sessionService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public SimulationSocketHandler(SimulationSessionService sessionService, ObjectMapper objectMapper) {
+        this.sessionService = sessionService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession socket, TextMessage message) throws IOException {
+        SimulationDeltaDTO delta;
+        try {
+            SimulationMessageDTO request = objectMapper.readValue(message.getPayload(), SimulationMessageDTO.class);
+            delta = handle(socket, request);
+        } catch (Exception e) {
+            SimulationMessageDTO error = new SimulationMessageDTO("ERROR");
+            error.setMessage("Error handling simulation message: " + e.getMessage());
+            send(socket, error);
+            return;
+        }
+        if (delta == null) {
+            return;
+        }
+        send(socket, toMessage(delta));
+
+        boolean deterministicMode = Boolean.TRUE.equals(socket.getAttributes().get(DETERMINISTIC_MODE));
+        // Both the initial marking and the marking after a firing may start in a conflict
+        boolean newMarking = "CREATED".equals(delta.getOutcome()) || "FIRED".equals(delta.getOutcome());
+        if (deterministicMode && newMarking && delta.getEnabledTransitions().size() > 1) {
+            SimulationDeltaDTO conflict = new SimulationDeltaDTO();
+            conflict.setSessionId(delta.getSessionId());
+            conflict.setStep(delta.getStep());
+            conflict.setOutcome("CONFLICT");
+            conflict.setChangedPlaces(Map.of());
+            conflict.setEnabledTransitions(delta.getEnabledTransitions());
+            send(socket, toMessage(conflict));
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession socket, CloseStatus status) {
+        Object sessionId = socket.getAttributes().remove(SESSION_ID);
+        if (sessionId != null) {
+            sessionService.closeSession((String) sessionId);
+        }
+    }
+
+    /**
+     * @return The delta to answer with, or {@code null} if there is nothing to answer.
+     */
+    private SimulationDeltaDTO handle(WebSocketSession socket, SimulationMessageDTO request) {
+        String type = request.getType() == null ? "" : request.getType().toUpperCase();
+        Map<String, Object> attributes = socket.getAttributes();
+        switch (type) {
+            case "OPEN" -> {
+                if (request.getNet() == null) {
+                    throw new IllegalArgumentException("No net to open a session for");
+                }
+                // Opening again replaces the session of the connection
+                afterConnectionClosed(socket, CloseStatus.NORMAL);
+                SimulationDeltaDTO created = sessionService.createSession(request.getNet(), true);
+                attributes.put(SESSION_ID, created.getSessionId());
+                attributes.put(DETERMINISTIC_MODE, Boolean.TRUE.equals(request.getNet().getDeterministicMode()));
+                return created;
+            }
+            case "STEP" -> {
+                return sessionService.step(requireSession(attributes));
+            }
+            case "FIRE" -> {
+                if (request.getTransitionId() == null || request.getTransitionId().isEmpty()) {
+                    throw new IllegalArgumentException("No transition selected to fire");
+                }
+                return sessionService.fire(requireSession(attributes), request.getTransitionId());
+            }
+            case "CLOSE" -> {
+                afterConnectionClosed(socket, CloseStatus.NORMAL);
+                return null;
+            }
+            default -> throw new IllegalArgumentException("Unsupported message type: " + request.getType()
+                    + ". Expected 'OPEN', 'STEP', 'FIRE' or 'CLOSE'");
+        }
+    }
+
+    private static String requireSession(Map<String, Object> attributes) {
+        Object sessionId = attributes.get(SESSION_ID);
+        if (sessionId == null) {
+            throw new IllegalStateException("No simulation session is open on this connection");
+        }
+        return (String) sessionId;
+    }
+
+    private static SimulationMessageDTO toMessage(SimulationDeltaDTO delta) {
+        SimulationMessageDTO message = new SimulationMessageDTO("DELTA");
+        message.setDelta(delta);
+        return message;
+    }
+
+    private void send(WebSocketSession socket, SimulationMessageDTO message) throws IOException {
+        socket.sendMessage(new TextMessage(objectMapper.writeValueAsString(message)));
+    }
+}
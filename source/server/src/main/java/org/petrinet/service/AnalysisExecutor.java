@@ -0,0 +1,118 @@
+package org.petrinet.service;
+
+import jakarta.annotation.PreDestroy;
+import org.petrinet.config.AnalysisProperties;
+import org.petrinet.service.engine.Deadline;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs CPU-bound analysis and validation jobs on a pool of their own, so that they never hold the
+ * threads serving interactive requests. The pool is a work-stealing pool with a fixed number of
+ * workers, which it does not grow even when a job blocks. Jobs beyond the workers wait in its queue,
+ * and a job arriving when the queue is full is rejected at once, so that the caller can tell its
+ * client to retry later instead of letting requests pile up.
+ * <p>
+ * The calling thread waits for its job to finish. With request handling on virtual threads this costs
+ * no platform thread, and the caller sees the exceptions of the job unchanged. If the caller is
+ * interrupted while waiting, the request budgets the job started are cancelled, so its engines stop
+ * at their next check, and a job that has not started yet is skipped. The caller still waits for the
+ * job to end before it returns, so a job keeps its slot for as long as it actually runs.
+ * <p>
+ * Parallel explorations and batch validations started by a job run on the job's own pool, through
+ * {@link #poolOf(ForkJoinPool)}, so that an admitted job never needs workers beyond those of the executor.
+ */
+@Component
+public class AnalysisExecutor {
+
+    private final ForkJoinPool pool;
+    private final int capacity;
+    private final AtomicInteger admitted = new AtomicInteger();
+
+    /**
+     * Creates an executor with the default limits of {@link AnalysisProperties}.
+     */
+    public AnalysisExecutor() {
+        this(new AnalysisProperties());
+    }
+
+    /**
+     * @param analysisProperties The server settings, which give the number of jobs that run at once
+     *                           and the number that may wait for them.
+     */
+    @Autowired
+    public AnalysisExecutor(AnalysisProperties analysisProperties) {
+        int workers = analysisProperties.getEffectiveAnalysisConcurrency();
+        this.capacity = workers + Math.max(0, analysisProperties.getAnalysisQueueDepth());
+        // No compensation threads: a blocked job keeps its worker instead of adding one
+        this.pool = new ForkJoinPool(workers, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null,
+                false, workers, workers, 1, ignored -> true, 60, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Runs a job on the pool and waits for its result.
+     *
+     * @param job The job to run.
+     * @return The result of the job.
+     * @throws RejectedExecutionException If all workers are busy and the queue is full.
+     * @throws RuntimeException Whatever the job threw.
+     */
+    public <T> T execute(Supplier<T> job) {
+        if (admitted.incrementAndGet() > capacity) {
+            admitted.decrementAndGet();
+            throw new RejectedExecutionException("The server is busy with " + capacity
+                    + " analyses, retry later");
+        }
+        try {
+            Deadline cancellation = Deadline.unlimited();
+            // Unlike a pool task, a future completes with the very exception the job threw
+            CompletableFuture<T> result = CompletableFuture.supplyAsync(() -> {
+                if (cancellation.isCancelled()) {
+                    throw new CancellationException("The analysis was cancelled before it started");
+                }
+                return RequestBudget.runCancellable(cancellation, job);
+            }, pool);
+            try {
+                return result.get();
+            } catch (InterruptedException e) {
+                cancellation.cancel();
+                // Cancelling the future would not stop the job, so wait, without interruption, for it to see the cancellation
+                result.exceptionally(failure -> null).join();
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for the analysis");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                if (e.getCause() instanceof Error error) throw error;
+                throw new IllegalStateException(e.getCause());
+            }
+        } finally {
+            admitted.decrementAndGet();
+        }
+    }
+
+    /**
+     * @param fallback The pool to use when the current thread is not a pool worker.
+     * @return The pool the current thread works for, which is the executor's pool inside a job, or
+     *         the fallback pool otherwise, e.g. when a service is called directly.
+     */
+    static ForkJoinPool poolOf(ForkJoinPool fallback) {
+        ForkJoinPool current = ForkJoinTask.getPool();
+        return current != null ? current : fallback;
+    }
+
+    /**
+     * @return The number of jobs running or waiting.
+     */
+    public int getAdmittedCount() {
+        return admitted.get();
+    }
+}
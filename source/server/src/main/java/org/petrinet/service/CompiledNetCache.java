@@ -0,0 +1,232 @@
+package org.petrinet.service;
+
+import org.petrinet.client.PetriNetDTO;
+import org.petrinet.config.AnalysisProperties;
+import org.petrinet.service.engine.Deadline;
+import org.petrinet.service.engine.NetSymmetries;
+import org.petrinet.service.model.CompiledNet;
+import org.petrinet.service.model.NetFingerprint;
+import org.petrinet.util.PetriNetMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compiled nets shared by the requests of all services, keyed by the {@link NetFingerprint} of their
+ * structure. Successive steps on the same page only differ in their marking, so after the first one a
+ * request costs a fingerprint pass over the DTO instead of a full mapping and compilation.
+ * <p>
+ * The cache is bounded by the total size of its nets, counted in places, transitions, arcs and arc
+ * references, and evicts the least recently used nets first. A net larger than the whole cache is
+ * compiled for its request but not kept. Nets are compiled outside the lock, so two requests missing
+ * on the same net at once both compile it and the first one to finish is kept.
+ * <p>
+ * The symmetry group of a cached net is computed once and kept with it. It is not counted in the
+ * size of the entry; {@link NetSymmetries} bounds the memory of its transversals.
+ */
+@Component
+public class CompiledNetCache {
+
+    private final long maxSize;
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<NetFingerprint, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<CompiledNet, Entry> entriesByNet = new IdentityHashMap<>();
+    private long size;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates a cache with the default size of {@link AnalysisProperties}.
+     */
+    public CompiledNetCache() {
+        this(new AnalysisProperties());
+    }
+
+    /**
+     * @param analysisProperties The server settings, whose compiled net cache size bounds the cache.
+     */
+    @Autowired
+    public CompiledNetCache(AnalysisProperties analysisProperties) {
+        this.maxSize = Math.max(0, analysisProperties.getCompiledNetCacheSize());
+    }
+
+    /**
+     * Returns the compiled structure of a net, compiling it only if no net with the same structure is cached.
+     *
+     * @param dto The Petri net to compile. Its token counts and enabled flags are ignored.
+     * @return The compiled structure of the net, possibly shared with other requests.
+     * @throws IllegalArgumentException If the net cannot be compiled, as for {@link PetriNetMapper#dtoToCompiledNet}.
+     */
+    public CompiledNet get(PetriNetDTO dto) {
+        if (maxSize == 0) {
+            return PetriNetMapper.dtoToCompiledNet(dto);
+        }
+        NetFingerprint fingerprint = PetriNetMapper.dtoToFingerprint(dto);
+        synchronized (this) {
+            Entry cached = entries.get(fingerprint);
+            if (cached != null) {
+                hits++;
+                return cached.net;
+            }
+            misses++;
+        }
+
+        CompiledNet net = PetriNetMapper.dtoToCompiledNet(dto);
+        long netSize = sizeOf(net);
+        if (netSize > maxSize) {
+            return net;
+        }
+        synchronized (this) {
+            Entry entry = new Entry(net, netSize);
+            Entry existing = entries.putIfAbsent(fingerprint, entry);
+            if (existing != null) {
+                return existing.net;
+            }
+            entriesByNet.put(net, entry);
+            size += netSize;
+            Iterator<Entry> leastRecentlyUsed = entries.values().iterator();
+            while (size > maxSize) {
+                Entry evicted = leastRecentlyUsed.next();
+                size -= evicted.size;
+                entriesByNet.remove(evicted.net);
+                leastRecentlyUsed.remove();
+                evictions++;
+            }
+        }
+        return net;
+    }
+
+    /**
+     * Returns the symmetry group of a net, computing it only if the net is not cached with its group.
+     * A group cut short by the deadline is returned but not kept, so a later request with more time
+     * can complete it.
+     *
+     * @param net A net returned by {@link #get(PetriNetDTO)}.
+     * @param deadline The wall-clock budget of the request, for the search if it has to run.
+     * @return The symmetries of the net, possibly shared with other requests.
+     */
+    public NetSymmetries getSymmetries(CompiledNet net, Deadline deadline) {
+        synchronized (this) {
+            Entry cached = entriesByNet.get(net);
+            if (cached != null && cached.symmetries != null) {
+                return cached.symmetries;
+            }
+        }
+
+        NetSymmetries symmetries = NetSymmetries.of(net, deadline);
+        if (symmetries.isTimeLimitReached()) {
+            return symmetries;
+        }
+        synchronized (this) {
+            Entry cached = entriesByNet.get(net);
+            if (cached != null) {
+                if (cached.symmetries != null) {
+                    return cached.symmetries;
+                }
+                cached.symmetries = symmetries;
+            }
+        }
+        return symmetries;
+    }
+
+    /**
+     * Removes every cached net. The counters are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        entriesByNet.clear();
+        size = 0;
+    }
+
+    /**
+     * @return A consistent snapshot of the counters and the current content of the cache.
+     */
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, evictions, entries.size(), size, maxSize);
+    }
+
+    private static long sizeOf(CompiledNet net) {
+        long size = net.getPlaceCount() + net.getTransitionCount() + net.getArcs().size();
+        for (int t = 0; t < net.getTransitionCount(); t++) {
+            size += net.getTransitionArcIds(t).size();
+        }
+        // Empty nets still take an entry
+        return Math.max(1, size);
+    }
+
+    private static final class Entry {
+        private final CompiledNet net;
+        private final long size;
+        // Computed on first use, under the lock of the cache
+        private NetSymmetries symmetries;
+
+        private Entry(CompiledNet net, long size) {
+            this.net = net;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Hit, miss and eviction counts since the cache was created, and its size at the time of the snapshot.
+     */
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int entries;
+        private final long size;
+        private final long maxSize;
+
+        Stats(long hits, long misses, long evictions, int entries, long size, long maxSize) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.entries = entries;
+            this.size = size;
+            this.maxSize = maxSize;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        /**
+         * @return The share of lookups that found their net, or 0 before the first lookup.
+         */
+        public double getHitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+
+        /**
+         * @return The number of nets in the cache.
+         */
+        public int getEntries() {
+            return entries;
+        }
+
+        /**
+         * @return The total size of the nets in the cache, in places, transitions, arcs and arc references.
+         */
+        public long getSize() {
+            return size;
+        }
+
+        public long getMaxSize() {
+            return maxSize;
+        }
+    }
+}
@@ -1,33 +1,114 @@
 package org.petrinet.service;
 
 import org.petrinet.client.*;
+import org.petrinet.config.AnalysisProperties;
+import org.petrinet.service.engine.CoverabilityExplorer;
+import org.petrinet.service.engine.DeadlockSearch;
+import org.petrinet.service.engine.ExternalReachabilityExplorer;
+import org.petrinet.service.engine.FarkasSemiflows;
+import org.petrinet.service.engine.HeapVisitedStore;
+import org.petrinet.service.engine.NetStructure;
+import org.petrinet.service.engine.NetSymmetries;
+import org.petrinet.service.engine.OffHeapVisitedStore;
+import org.petrinet.service.engine.ReachabilityExplorer;
+import org.petrinet.service.engine.ReachabilityGraph;
+import org.petrinet.service.engine.SiphonsAndTraps;
+import org.petrinet.service.engine.StronglyConnectedComponents;
+import org.petrinet.service.engine.StubbornSets;
+import org.petrinet.service.engine.SymbolicReachabilityExplorer;
+import org.petrinet.service.engine.VisitedStateStore;
 import org.petrinet.service.model.*;
 import org.petrinet.util.PetriNetMapper;
 import org.petrinet.util.PetriNetUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PreDestroy;
+import java.math.BigInteger;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 
 /**
  * Service for analyzing Petri net properties and characteristics.
  * This service provides various analysis methods including reachability analysis,
  * liveness analysis, boundedness analysis, and structural analysis.
+ * Every analysis runs within the budget of its request, see {@link PetriNetDTO#getBudget()}: the
+ * state, time and memory limits it asks for, capped by the server-wide limits of
+ * {@link AnalysisProperties}, which also provide the defaults. A request still running when the
+ * service shuts down is cancelled and returns what it found so far.
  */
 @Service
 public class PetriNetAnalysisService {
 
+    private static final String LIVE = "L4";
+    private static final String DEAD = "L0";
+    // Rough heap footprint of a decision diagram node with its unique table and cache entries
+    private static final long BYTES_PER_DIAGRAM_NODE = 128;
+
     private final PetriNetService petriNetService;
+    private final AnalysisProperties analysisProperties;
+    private final CompiledNetCache compiledNets;
+    private final RequestBudget.Tracker budgets;
+    private final ForkJoinPool explorationPool;
 
-    @Autowired
+    /**
+     * Creates the service with the default analysis limits of {@link AnalysisProperties}.
+     *
+     * @param petriNetService The service used to evaluate and fire transitions.
+     */
     public PetriNetAnalysisService(PetriNetService petriNetService) {
+        this(petriNetService, new AnalysisProperties());
+    }
+
+    /**
+     * Creates the service with a compiled net cache of its own.
+     *
+     * @param petriNetService The service used to evaluate and fire transitions.
+     * @param analysisProperties The server limits and analysis settings.
+     */
+    public PetriNetAnalysisService(PetriNetService petriNetService, AnalysisProperties analysisProperties) {
+        this(petriNetService, analysisProperties, new CompiledNetCache(analysisProperties));
+    }
+
+    @Autowired
+    public PetriNetAnalysisService(PetriNetService petriNetService, AnalysisProperties analysisProperties,
+                                   CompiledNetCache compiledNets) {
         this.petriNetService = petriNetService;
+        this.compiledNets = compiledNets;
+        this.analysisProperties = analysisProperties;
+        this.budgets = new RequestBudget.Tracker(analysisProperties);
+        this.explorationPool = new ForkJoinPool(analysisProperties.getEffectiveParallelism());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        budgets.cancelAll();
+        explorationPool.shutdownNow();
+    }
+
+    /**
+     * @return The hit, miss and eviction counts of the compiled net cache the analyses share with
+     *         the other services, and its current size.
+     */
+    public CompiledNetCache.Stats getCompiledNetCacheStats() {
+        return compiledNets.getStats();
     }
 
     /**
      * Analyzes reachable states from the current marking.
      * Computes all possible states (markings) the net can reach from the current state.
+     * The reachability graph is explored breadth-first in parallel on a work-stealing pool, that of
+     * the {@link AnalysisExecutor} when the analysis is one of its jobs,
+     * within the state, time and memory budgets of the request.
+     * Visited markings are kept in the configured visited store, on the heap by default. With the disk
+     * store, the frontier and visited markings are spilled to files and deduplicated level by level.
+     * With partial-order reduction enabled, only a stubborn set of transitions is fired from each
+     * marking: dead markings are still all found, but the state count is that of the reduced space.
+     * With symmetry reduction enabled, markings are canonicalized under the automorphisms of the net,
+     * so the count is one of orbits of markings, and the size of the symmetry group is reported. The
+     * group is computed once per cached net, within the time limit of the request.
      *
      * @param petriNetDTO The current state of the Petri net
      * @return AnalysisResultDTO containing reachable states and analysis details
@@ -35,61 +116,149 @@ public class PetriNetAnalysisService {
     public AnalysisResultDTO analyzeReachableStates(PetriNetDTO petriNetDTO) {
         AnalysisResultDTO result = new AnalysisResultDTO();
         result.setAnalysisType("Reachable States");
-        
-        Set<String> reachableStates = new HashSet<>();
-        Queue<PetriNetDTO> statesToExplore = new LinkedList<>();
-        statesToExplore.add(PetriNetUtils.createDeepCopy(petriNetDTO));
-        
-        int maxStates = 1000; // Safety limit
-        int exploredStates = 0;
-        
-        while (!statesToExplore.isEmpty() && exploredStates < maxStates) {
-            PetriNetDTO currentState = statesToExplore.poll();
-            String stateSignature = PetriNetUtils.createStateSignature(currentState);
-            
-            if (reachableStates.contains(stateSignature)) {
-                continue; // Already explored
-            }
-            
-            reachableStates.add(stateSignature);
-            exploredStates++;
-            
-            // Find all enabled transitions in current state
-            Map<String, Place> placesMap = PetriNetMapper.mapPlacesToMap(currentState.getPlaces());
-            Map<String, Arc> arcsMap = PetriNetMapper.mapArcsToMap(currentState.getArcs());
-            List<Transition> transitions = PetriNetMapper.dtoToTransitionList(currentState.getTransitions());
-            
-            List<Transition> enabledTransitions = transitions.stream()
-                .filter(t -> petriNetService.evaluateTransition(t, arcsMap, placesMap))
-                .collect(Collectors.toList());
-            
-            // Explore next states by firing each enabled transition
-            for (Transition enabledTransition : enabledTransitions) {
-                PetriNetDTO nextState = PetriNetUtils.createDeepCopy(currentState);
-                Map<String, Place> nextPlacesMap = PetriNetMapper.mapPlacesToMap(nextState.getPlaces());
-                Map<String, Arc> nextArcsMap = PetriNetMapper.mapArcsToMap(nextState.getArcs());
-                
-                // Fire the transition
-                petriNetService.updateTokensForFiringTransition(enabledTransition, nextArcsMap, nextPlacesMap);
-                
-                // Convert back to DTO and add to exploration queue
-                PetriNetDTO firedState = PetriNetUtils.convertDomainModelsToDTO(nextPlacesMap, transitions, nextArcsMap, nextState);
-                statesToExplore.add(firedState);
-            }
+        RequestBudget budget = budgets.start(petriNetDTO.getBudget());
+
+        CompiledNet net = compiledNets.get(petriNetDTO);
+        int[] initialMarking = PetriNetMapper.dtoToMarking(net, petriNetDTO.getPlaces());
+
+        StubbornSets reduction = createReduction(net);
+        NetSymmetries symmetries = analysisProperties.isSymmetryReduction()
+                ? compiledNets.getSymmetries(net, budget.getDeadline()) : null;
+        String reductionNote = (reduction != null ? " with partial-order reduction" : "") +
+                (symmetries != null ? " with symmetry reduction (group of size " + symmetries.getGroupSize() +
+                        (symmetries.isComplete() ? "" : " or more") + ")" : "");
+        if (symmetries != null) {
+            result.setSymmetryGroupSize(symmetries.getGroupSize());
+        }
+
+        if (analysisProperties.getVisitedStore() == AnalysisProperties.VisitedStore.DISK) {
+            ExternalReachabilityExplorer explorer = new ExternalReachabilityExplorer(net,
+                    analysisProperties.getWorkDirectory(), analysisProperties.getSpillPartitions(),
+                    budget.getMaxStates(), budget.getMemoryBytes(), budget.getDeadline(), reduction, symmetries);
+            ExternalReachabilityExplorer.Result exploration = explorer.explore(initialMarking);
+
+            result.setReachableStatesCount(exploration.getReachableStates());
+            result.setExploredStatesCount(exploration.getExploredStates());
+            result.setHasDeadlock(exploration.getDeadStates() > 0);
+            result.setReachedMaxLimit(exploration.isStateLimitReached());
+            result.setReachedTimeLimit(exploration.isTimeLimitReached());
+            result.setReachedMemoryLimit(exploration.isMemoryLimitReached());
+            result.setBytesSpilled(exploration.getBytesSpilled());
+            result.setSpillPasses(exploration.getPasses());
+            result.setDetails("Found " + exploration.getReachableStates() + " reachable states" +
+                             (exploration.isStateLimitReached() ? " (limited by safety threshold)" : "") +
+                             timeLimitNote(exploration.isTimeLimitReached(), budget) +
+                             (exploration.isMemoryLimitReached() ? " (stopped by memory budget)" : "") +
+                             " using " + exploration.getPasses() + " disk passes" + reductionNote);
+            return reportBudget(result, budget);
+        }
+
+        ReachabilityExplorer explorer = new ReachabilityExplorer(net, AnalysisExecutor.poolOf(explorationPool),
+                budget.getMaxStates(), budget.getDeadline(), reduction, symmetries);
+        ReachabilityExplorer.Result exploration = explorer.explore(initialMarking, createVisitedStore(budget));
+
+        result.setReachableStatesCount(exploration.getReachableStates());
+        result.setExploredStatesCount(exploration.getExploredStates());
+        result.setHasDeadlock(exploration.getDeadStates() > 0);
+        result.setReachedMaxLimit(exploration.isStateLimitReached());
+        result.setReachedTimeLimit(exploration.isTimeLimitReached());
+        result.setReachedMemoryLimit(exploration.isMemoryLimitReached());
+        result.setDetails("Found " + exploration.getReachableStates() + " reachable states" +
+                         (exploration.isStateLimitReached() ? " (limited by safety threshold)" : "") +
+                         timeLimitNote(exploration.isTimeLimitReached(), budget) +
+                         (exploration.isMemoryLimitReached() ? " (stopped by memory budget)" : "") +
+                         reductionNote);
+
+        return reportBudget(result, budget);
+    }
+
+    /**
+     * Computes the reachable states symbolically, as a multi-valued decision diagram with one level
+     * per place, instead of enumerating them one by one. This suits safe and small-capacity nets with
+     * huge state spaces: the exact number of states is reported in {@code reachableStatesTotal} even
+     * when it does not fit {@code reachableStatesCount}. The diagram is limited by the configured
+     * time budget of the request and by a node budget derived from its memory budget.
+     *
+     * @param petriNetDTO The current state of the Petri net
+     * @return AnalysisResultDTO containing the number of reachable states and analysis details
+     */
+    public AnalysisResultDTO analyzeReachableStatesSymbolically(PetriNetDTO petriNetDTO) {
+        AnalysisResultDTO result = new AnalysisResultDTO();
+        result.setAnalysisType("Reachable States");
+        RequestBudget budget = budgets.start(petriNetDTO.getBudget());
+
+        CompiledNet net = compiledNets.get(petriNetDTO);
+        int[] initialMarking = PetriNetMapper.dtoToMarking(net, petriNetDTO.getPlaces());
+        long maxNodes = budget.getMemoryBytes() / BYTES_PER_DIAGRAM_NODE;
+        SymbolicReachabilityExplorer.Result exploration = new SymbolicReachabilityExplorer(net,
+                (int) Math.min(Integer.MAX_VALUE, maxNodes), budget.getDeadline())
+                .explore(initialMarking);
+
+        BigInteger states = exploration.getReachableStates();
+        result.setReachableStatesTotal(states);
+        result.setReachableStatesCount(states.min(BigInteger.valueOf(Integer.MAX_VALUE)).intValue());
+        result.setHasDeadlock(exploration.getDeadStates().signum() > 0);
+        result.setReachedTimeLimit(exploration.isTimeLimitReached());
+        result.setReachedMemoryLimit(exploration.isNodeLimitReached());
+        result.setDecisionDiagramNodes(exploration.getNodeCount());
+        result.setDetails("Found " + states + " reachable states symbolically" +
+                         timeLimitNote(exploration.isTimeLimitReached(), budget) +
+                         (exploration.isNodeLimitReached() ? " (stopped by memory budget)" : "") +
+                         " using " + exploration.getNodeCount() + " decision diagram nodes in " +
+                         exploration.getIterations() + " iterations");
+        return reportBudget(result, budget);
+    }
+
+    /**
+     * Records whether the request was cancelled. A cancelled engine stops as if its time limit had
+     * been reached, so the time limit is only reported for requests that were not cancelled.
+     */
+    private static AnalysisResultDTO reportBudget(AnalysisResultDTO result, RequestBudget budget) {
+        if (budget.getDeadline().isCancelled()) {
+            result.setCancelled(true);
+            result.setReachedTimeLimit(false);
         }
-        
-        result.setReachableStatesCount(reachableStates.size());
-        result.setExploredStatesCount(exploredStates);
-        result.setReachedMaxLimit(exploredStates >= maxStates);
-        result.setDetails("Found " + reachableStates.size() + " reachable states" + 
-                         (exploredStates >= maxStates ? " (limited by safety threshold)" : ""));
-        
         return result;
     }
 
+    private static String timeLimitNote(boolean timeLimitReached, RequestBudget budget) {
+        if (!timeLimitReached) return "";
+        return budget.getDeadline().isCancelled() ? " (cancelled)" : " (stopped by time limit)";
+    }
+
+    /**
+     * Creates the stubborn sets used to reduce explorations, or returns {@code null} if partial-order
+     * reduction is disabled.
+     */
+    private StubbornSets createReduction(CompiledNet net) {
+        return analysisProperties.isPartialOrderReduction() ? new StubbornSets(net) : null;
+    }
+
+    /**
+     * Creates an empty visited-state store of the configured kind for one exploration.
+     */
+    private VisitedStateStore createVisitedStore(RequestBudget budget) {
+        if (analysisProperties.getVisitedStore() == AnalysisProperties.VisitedStore.OFF_HEAP) {
+            return new OffHeapVisitedStore(budget.getMemoryBytes());
+        }
+        return new HeapVisitedStore(budget.getMemoryBytes());
+    }
+
     /**
      * Analyzes liveness properties of the Petri net.
      * Checks for deadlocks or livelocks; ensures transitions can eventually fire again.
+     * The reachability graph is built in CSR form and decomposed into strongly connected components,
+     * which gives every transition its liveness level:
+     * <ul>
+     *   <li>L0 (dead): it labels no edge of the graph;</li>
+     *   <li>L1: it labels some edge, i.e. it can fire at least once;</li>
+     *   <li>L3: it labels an edge inside a component, so it can fire infinitely often (on a finite
+     *       graph this coincides with L2);</li>
+     *   <li>L4 (live): it is enabled somewhere in every terminal component, so it can fire again
+     *       from every reachable marking.</li>
+     * </ul>
+     * If the graph exceeds the configured budgets, only the levels that a partial graph proves are
+     * reported (L1 and L3), and transitions not seen firing are reported as unknown.
      *
      * @param petriNetDTO The current state of the Petri net
      * @return AnalysisResultDTO containing liveness analysis details
@@ -97,34 +266,154 @@ public class PetriNetAnalysisService {
     public AnalysisResultDTO analyzeLiveness(PetriNetDTO petriNetDTO) {
         AnalysisResultDTO result = new AnalysisResultDTO();
         result.setAnalysisType("Liveness Analysis");
-        
-        Map<String, Place> placesMap = PetriNetMapper.mapPlacesToMap(petriNetDTO.getPlaces());
-        Map<String, Arc> arcsMap = PetriNetMapper.mapArcsToMap(petriNetDTO.getArcs());
-        List<Transition> transitions = PetriNetMapper.dtoToTransitionList(petriNetDTO.getTransitions());
-        
+        RequestBudget budget = budgets.start(petriNetDTO.getBudget());
+
+        CompiledNet net = compiledNets.get(petriNetDTO);
+        int[] initialMarking = PetriNetMapper.dtoToMarking(net, petriNetDTO.getPlaces());
+
         // Check current enabled transitions
-        List<Transition> currentlyEnabled = transitions.stream()
-            .filter(t -> petriNetService.evaluateTransition(t, arcsMap, placesMap))
-            .collect(Collectors.toList());
-        
-        if (currentlyEnabled.isEmpty() && !transitions.isEmpty()) {
-            result.setDetails("DEADLOCK DETECTED: No transitions are currently enabled.");
+        int currentlyEnabled = 0;
+        for (int t = 0; t < net.getTransitionCount(); t++) {
+            if (net.isEnabled(t, initialMarking)) currentlyEnabled++;
+        }
+        result.setEnabledTransitionsCount(currentlyEnabled);
+
+        ReachabilityGraph graph = ReachabilityGraph.build(net, initialMarking,
+                budget.getMaxStates(), budget.getMemoryBytes(), budget.getDeadline());
+        String[] levels = livenessLevels(net, graph, new StronglyConnectedComponents(graph));
+
+        Map<String, String> transitionLiveness = new LinkedHashMap<>();
+        Map<String, Integer> levelCounts = new TreeMap<>();
+        for (int t = 0; t < net.getTransitionCount(); t++) {
+            transitionLiveness.put(net.getTransitionId(t), levels[t]);
+            levelCounts.merge(levels[t], 1, Integer::sum);
+        }
+        result.setTransitionLiveness(transitionLiveness);
+        result.setReachableStatesCount(graph.getStateCount());
+        result.setReachedMaxLimit(graph.isStateLimitReached());
+        result.setReachedTimeLimit(graph.isTimeLimitReached());
+        result.setReachedMemoryLimit(graph.isMemoryLimitReached());
+
+        String summary = "Liveness levels over " + graph.getStateCount() + " reachable states: " +
+                levelCounts.entrySet().stream()
+                        .map(entry -> entry.getValue() + " " + entry.getKey())
+                        .collect(Collectors.joining(", ")) + ".";
+        if (!graph.isComplete()) {
+            summary += " The reachability graph exceeded the analysis limits, so levels are lower bounds.";
+        } else if (net.getTransitionCount() > 0 && levelCounts.getOrDefault(LIVE, 0) == net.getTransitionCount()) {
+            summary += " The net is live.";
+        }
+
+        if (currentlyEnabled == 0 && net.getTransitionCount() > 0) {
+            result.setDetails("DEADLOCK DETECTED: No transitions are currently enabled. " + summary);
             result.setHasDeadlock(true);
-            return result;
+            return reportBudget(result, budget);
         }
-        
-        // For a more comprehensive liveness analysis, we would need to explore the reachability graph
-        // For now, provide basic analysis
-        result.setDetails("Currently " + currentlyEnabled.size() + " transitions are enabled. " +
-                         "Full liveness analysis requires reachability graph exploration.");
-        result.setEnabledTransitionsCount(currentlyEnabled.size());
-        
-        return result;
+
+        result.setDetails("Currently " + currentlyEnabled + " transitions are enabled. " + summary);
+        return reportBudget(result, budget);
+    }
+
+    /**
+     * Computes the liveness level of every transition from the reachability graph and its components.
+     */
+    private String[] livenessLevels(CompiledNet net, ReachabilityGraph graph, StronglyConnectedComponents components) {
+        int transitionCount = net.getTransitionCount();
+        boolean[] fires = new boolean[transitionCount];
+        boolean[] firesInCycle = new boolean[transitionCount];
+        // Number of terminal components in which each transition fires, counted once per component
+        int[] terminalComponentsFiring = new int[transitionCount];
+        int[] lastComponent = new int[transitionCount];
+        Arrays.fill(lastComponent, -1);
+        int terminalComponents = 0;
+
+        for (int c = 0; c < components.getCount(); c++) {
+            boolean terminal = components.isTerminal(c);
+            if (terminal) terminalComponents++;
+            for (int i = 0; i < components.getSize(c); i++) {
+                int state = components.getState(c, i);
+                for (int e = graph.getEdgeStart(state); e < graph.getEdgeStart(state + 1); e++) {
+                    int t = graph.getLabel(e);
+                    fires[t] = true;
+                    if (components.getComponent(graph.getTarget(e)) == c) {
+                        firesInCycle[t] = true;
+                    }
+                    if (terminal && lastComponent[t] != c) {
+                        lastComponent[t] = c;
+                        terminalComponentsFiring[t]++;
+                    }
+                }
+            }
+        }
+
+        String[] levels = new String[transitionCount];
+        for (int t = 0; t < transitionCount; t++) {
+            if (graph.isComplete() && terminalComponentsFiring[t] == terminalComponents) {
+                levels[t] = LIVE;
+            } else if (firesInCycle[t]) {
+                levels[t] = "L3";
+            } else if (fires[t]) {
+                levels[t] = "L1";
+            } else {
+                levels[t] = graph.isComplete() ? DEAD : "UNKNOWN";
+            }
+        }
+        return levels;
+    }
+
+    /**
+     * Searches for a reachable deadlock, i.e. a marking in which no transition is enabled.
+     * Unlike {@link #analyzeLiveness(PetriNetDTO)}, the reachability graph is not built: markings are
+     * explored breadth-first and the search stops at the first dead marking, returning the shortest
+     * firing sequence that leads to it from the current marking. Partial-order reduction, when
+     * enabled, leaves both the verdict and the length of the sequence unchanged.
+     *
+     * @param petriNetDTO The current state of the Petri net
+     * @return AnalysisResultDTO containing the dead marking and its firing sequence, if one was found
+     */
+    public AnalysisResultDTO analyzeDeadlock(PetriNetDTO petriNetDTO) {
+        AnalysisResultDTO result = new AnalysisResultDTO();
+        result.setAnalysisType("Deadlock Analysis");
+        RequestBudget budget = budgets.start(petriNetDTO.getBudget());
+
+        CompiledNet net = compiledNets.get(petriNetDTO);
+        int[] initialMarking = PetriNetMapper.dtoToMarking(net, petriNetDTO.getPlaces());
+        DeadlockSearch.Result search = new DeadlockSearch(net, budget.getMaxStates(), budget.getMemoryBytes(),
+                budget.getDeadline(), createReduction(net)).search(initialMarking);
+
+        result.setExploredStatesCount(search.getExploredStates());
+        result.setReachedMaxLimit(search.isStateLimitReached());
+        result.setReachedTimeLimit(search.isTimeLimitReached());
+        result.setReachedMemoryLimit(search.isMemoryLimitReached());
+
+        if (search.isDeadlockFound()) {
+            List<String> trace = new ArrayList<>();
+            for (int t : search.getWitness()) {
+                trace.add(net.getTransitionId(t));
+            }
+            result.setHasDeadlock(true);
+            result.setDeadlockTrace(trace);
+            result.setDeadlockMarking(PetriNetUtils.convertMarkingToMap(net, search.getDeadMarking()));
+            result.setDetails(trace.isEmpty()
+                    ? "DEADLOCK DETECTED: No transitions are currently enabled."
+                    : "DEADLOCK DETECTED: A dead marking is reachable by firing " + trace.size() +
+                      " transitions: " + String.join(", ", trace) + ".");
+        } else if (search.isStateLimitReached() || search.isTimeLimitReached() || search.isMemoryLimitReached()) {
+            result.setDetails("No deadlock found within the analysis limits after exploring " +
+                    search.getExploredStates() + " states.");
+        } else {
+            result.setDetails("No deadlock is reachable. Explored " + search.getExploredStates() + " states.");
+        }
+        return reportBudget(result, budget);
     }
 
     /**
      * Analyzes boundedness of the Petri net.
      * Determines if the number of tokens in any place can grow indefinitely or stays bounded.
+     * A Karp–Miller coverability graph is built from the current marking, so unbounded places are
+     * detected without enumerating the reachability graph, and the bound of every bounded place is
+     * reported. If the graph cannot be completed within the configured budgets, places that were
+     * neither found unbounded nor limited by a capacity are left undecided.
      *
      * @param petriNetDTO The current state of the Petri net
      * @return AnalysisResultDTO containing boundedness analysis details
@@ -132,25 +421,57 @@ public class PetriNetAnalysisService {
     public AnalysisResultDTO analyzeBoundedness(PetriNetDTO petriNetDTO) {
         AnalysisResultDTO result = new AnalysisResultDTO();
         result.setAnalysisType("Boundedness Analysis");
-        
-        // Check for bounded places (those with capacity limits)
-        long boundedPlaces = petriNetDTO.getPlaces().stream()
-            .filter(PlaceDTO::isBounded)
-            .count();
-        
-        long unboundedPlaces = petriNetDTO.getPlaces().size() - boundedPlaces;
-        
-        result.setBoundedPlacesCount((int) boundedPlaces);
-        result.setUnboundedPlacesCount((int) unboundedPlaces);
-        result.setDetails("Found " + boundedPlaces + " bounded places and " + unboundedPlaces + " unbounded places. " +
-                         "Unbounded places can potentially accumulate infinite tokens.");
-        
-        return result;
+        RequestBudget budget = budgets.start(petriNetDTO.getBudget());
+
+        CompiledNet net = compiledNets.get(petriNetDTO);
+        int[] initialMarking = PetriNetMapper.dtoToMarking(net, petriNetDTO.getPlaces());
+        CoverabilityExplorer.Result coverability = new CoverabilityExplorer(net,
+                budget.getMaxStates(), budget.getMemoryBytes(), budget.getDeadline()).explore(initialMarking);
+
+        List<String> unboundedPlaces = new ArrayList<>();
+        Map<String, Integer> placeBounds = new LinkedHashMap<>();
+        for (int p = 0; p < net.getPlaceCount(); p++) {
+            if (coverability.isUnbounded(p)) {
+                unboundedPlaces.add(net.getPlaceId(p));
+            } else if (coverability.isComplete()) {
+                placeBounds.put(net.getPlaceId(p), coverability.getBound(p));
+            } else if (net.isBounded(p)) {
+                placeBounds.put(net.getPlaceId(p), net.getCapacity(p));
+            }
+        }
+        int undecidedPlaces = net.getPlaceCount() - unboundedPlaces.size() - placeBounds.size();
+
+        result.setBoundedPlacesCount(placeBounds.size());
+        result.setUnboundedPlacesCount(unboundedPlaces.size());
+        result.setUnboundedPlaces(unboundedPlaces);
+        result.setPlaceBounds(placeBounds);
+        result.setExploredStatesCount(coverability.getNodeCount());
+        result.setReachedMaxLimit(coverability.isStateLimitReached());
+        result.setReachedTimeLimit(coverability.isTimeLimitReached());
+        result.setReachedMemoryLimit(coverability.isMemoryLimitReached());
+
+        StringBuilder details = new StringBuilder("Found " + placeBounds.size() + " bounded places and " +
+                unboundedPlaces.size() + " unbounded places.");
+        if (!unboundedPlaces.isEmpty()) {
+            details.append(" Unbounded places: ").append(String.join(", ", unboundedPlaces)).append(".");
+        }
+        if (undecidedPlaces > 0) {
+            details.append(" ").append(undecidedPlaces)
+                   .append(" places could not be decided within the analysis limits.");
+        } else {
+            details.append(unboundedPlaces.isEmpty() ? " The net is bounded." : " The net is unbounded.");
+        }
+        result.setDetails(details.toString());
+
+        return reportBudget(result, budget);
     }
 
     /**
      * Computes the incidence matrix of the Petri net.
      * Shows the matrix representing the relationships between transitions and places.
+     * The matrix is built sparse in a single pass over the arcs and only expanded into the dense
+     * {@code places × transitions} form returned here; see {@link #computeSparseIncidenceMatrix}
+     * for large nets.
      *
      * @param petriNetDTO The Petri net to analyze
      * @return AnalysisResultDTO containing the incidence matrix
@@ -158,79 +479,166 @@ public class PetriNetAnalysisService {
     public AnalysisResultDTO computeIncidenceMatrix(PetriNetDTO petriNetDTO) {
         AnalysisResultDTO result = new AnalysisResultDTO();
         result.setAnalysisType("Incidence Matrix");
-        
+
+        IncidenceMatrix matrix = PetriNetMapper.dtoToIncidenceMatrix(petriNetDTO);
+
+        result.setIncidenceMatrix(matrix.toDense());
+        result.setDetails("Incidence matrix computed: " + matrix.getPlaceCount() + " places × " + matrix.getTransitionCount() + " transitions");
+
+        return result;
+    }
+
+    /**
+     * Computes the incidence matrix of the Petri net in compressed sparse row (CSR) form.
+     * Only the non-zero entries are returned, so the result grows with the number of arcs rather
+     * than with {@code places × transitions}.
+     *
+     * @param petriNetDTO The Petri net to analyze
+     * @return AnalysisResultDTO containing the sparse incidence matrix
+     */
+    public AnalysisResultDTO computeSparseIncidenceMatrix(PetriNetDTO petriNetDTO) {
+        AnalysisResultDTO result = new AnalysisResultDTO();
+        result.setAnalysisType("Incidence Matrix");
+
+        IncidenceMatrix matrix = PetriNetMapper.dtoToIncidenceMatrix(petriNetDTO);
+
+        result.setSparseIncidenceMatrix(new SparseMatrixDTO(matrix.getPlaceCount(), matrix.getTransitionCount(),
+                matrix.getRowStarts(), matrix.getRowTransitions(), matrix.getRowValues()));
+        result.setDetails("Incidence matrix computed: " + matrix.getPlaceCount() + " places × " + matrix.getTransitionCount()
+                + " transitions, " + matrix.getEntryCount() + " non-zero entries");
+
+        return result;
+    }
+
+    /**
+     * Computes the place and transition invariants (minimal semiflows) of the Petri net from its
+     * incidence matrix, without exploring any state.
+     * A P-invariant is a weighting of places whose weighted token sum never changes, so every place it
+     * covers is bounded by that sum divided by its weight, whatever the firing sequence. If every place
+     * is covered, the net is structurally bounded. A T-invariant is a multiset of transitions whose
+     * firing leaves the marking unchanged; a live and bounded net has every transition covered by one.
+     * The invariants are computed with the Farkas algorithm, within the time budget of the request
+     * and with at most {@code maxStates} intermediate rows.
+     *
+     * @param petriNetDTO The Petri net to analyze
+     * @return AnalysisResultDTO containing the invariants and the bounds they prove
+     */
+    public AnalysisResultDTO analyzeInvariants(PetriNetDTO petriNetDTO) {
+        AnalysisResultDTO result = new AnalysisResultDTO();
+        result.setAnalysisType("Invariant Analysis");
+        RequestBudget budget = budgets.start(petriNetDTO.getBudget());
+
         List<PlaceDTO> places = petriNetDTO.getPlaces();
         List<TransitionDTO> transitions = petriNetDTO.getTransitions();
-        List<ArcDTO> arcs = petriNetDTO.getArcs();
-        
-        int[][] matrix = new int[places.size()][transitions.size()];
-        
-        // Initialize matrix with zeros
-        for (int i = 0; i < places.size(); i++) {
-            for (int j = 0; j < transitions.size(); j++) {
-                matrix[i][j] = 0;
-            }
+        IncidenceMatrix matrix = PetriNetMapper.dtoToIncidenceMatrix(petriNetDTO);
+
+        FarkasSemiflows farkas = new FarkasSemiflows(budget.getMaxStates(),
+                budget.getDeadline());
+        FarkasSemiflows.Result placeResult = farkas.computePlaceSemiflows(matrix);
+        FarkasSemiflows.Result transitionResult = farkas.computeTransitionSemiflows(matrix);
+
+        List<Map<String, Long>> placeInvariants = new ArrayList<>();
+        for (FarkasSemiflows.Semiflow semiflow : placeResult.getSemiflows()) {
+            placeInvariants.add(toWeightMap(semiflow, i -> places.get(i).getId()));
         }
-        
-        // Fill matrix based on arcs
-        for (ArcDTO arc : arcs) {
-            if (arc.getType().equals("BIDIRECTIONAL")) {
-                // For bidirectional arcs, we need to determine which is place and which is transition
-                int placeIndex = PetriNetUtils.findPlaceIndex(places, arc.getIncomingId());
-                int transitionIndex = PetriNetUtils.findTransitionIndex(transitions, arc.getOutgoingId());
-                
-                if (placeIndex >= 0 && transitionIndex >= 0) {
-                    // Place -> Transition (consumption)
-                    matrix[placeIndex][transitionIndex] -= 1;
-                    // Transition -> Place (production)
-                    matrix[placeIndex][transitionIndex] += 1;
-                    // Net result: 0
-                } else {
-                    // Try the other direction
-                    placeIndex = PetriNetUtils.findPlaceIndex(places, arc.getOutgoingId());
-                    transitionIndex = PetriNetUtils.findTransitionIndex(transitions, arc.getIncomingId());
-                    
-                    if (placeIndex >= 0 && transitionIndex >= 0) {
-                        // Place -> Transition (consumption)
-                        matrix[placeIndex][transitionIndex] -= 1;
-                        // Transition -> Place (production)
-                        matrix[placeIndex][transitionIndex] += 1;
-                        // Net result: 0
-                    }
+        List<Map<String, Long>> transitionInvariants = new ArrayList<>();
+        for (FarkasSemiflows.Semiflow semiflow : transitionResult.getSemiflows()) {
+            transitionInvariants.add(toWeightMap(semiflow, i -> transitions.get(i).getId()));
+        }
+
+        // Each P-invariant bounds the places it covers by its constant weighted token sum
+        Map<String, Integer> placeBounds = new LinkedHashMap<>();
+        BigInteger[] bounds = new BigInteger[places.size()];
+        for (FarkasSemiflows.Semiflow semiflow : placeResult.getSemiflows()) {
+            BigInteger tokenSum = BigInteger.ZERO;
+            for (int i = 0; i < semiflow.getIndices().length; i++) {
+                BigInteger tokens = BigInteger.valueOf(places.get(semiflow.getIndices()[i]).getTokens());
+                tokenSum = tokenSum.add(tokens.multiply(BigInteger.valueOf(semiflow.getWeights()[i])));
+            }
+            for (int i = 0; i < semiflow.getIndices().length; i++) {
+                int place = semiflow.getIndices()[i];
+                BigInteger bound = tokenSum.divide(BigInteger.valueOf(semiflow.getWeights()[i]));
+                if (bounds[place] == null || bound.compareTo(bounds[place]) < 0) {
+                    bounds[place] = bound;
                 }
+            }
+        }
+        for (int p = 0; p < places.size(); p++) {
+            if (bounds[p] != null) {
+                placeBounds.put(places.get(p).getId(), bounds[p].min(BigInteger.valueOf(Integer.MAX_VALUE)).intValue());
+            }
+        }
+
+        boolean complete = placeResult.isComplete() && transitionResult.isComplete();
+        result.setPlaceInvariants(placeInvariants);
+        result.setTransitionInvariants(transitionInvariants);
+        result.setCoveredByPlaceInvariants(complete && placeResult.isFullyCovered());
+        result.setCoveredByTransitionInvariants(complete && transitionResult.isFullyCovered());
+        result.setPlaceBounds(placeBounds);
+        result.setBoundedPlacesCount(placeBounds.size());
+        result.setReachedMaxLimit(placeResult.isRowLimitReached() || transitionResult.isRowLimitReached());
+        result.setReachedTimeLimit(placeResult.isTimeLimitReached() || transitionResult.isTimeLimitReached());
+
+        StringBuilder details = new StringBuilder();
+        if (placeResult.isOverflow() || transitionResult.isOverflow()) {
+            details.append("Invariants could not be computed: their coefficients exceed the 64-bit range.");
+        } else if (!complete) {
+            details.append("Invariants could not be computed within the analysis limits.");
+        } else {
+            details.append("Found ").append(placeInvariants.size()).append(" P-invariants and ")
+                   .append(transitionInvariants.size()).append(" T-invariants.");
+            int uncoveredPlaces = places.size() - placeBounds.size();
+            if (uncoveredPlaces == 0) {
+                details.append(" Every place is covered by a P-invariant, so the net is structurally bounded.");
             } else {
-                // Handle regular and inhibitor arcs
-                int placeIndex = PetriNetUtils.findPlaceIndex(places, arc.getIncomingId());
-                int transitionIndex = PetriNetUtils.findTransitionIndex(transitions, arc.getOutgoingId());
-                
-                if (placeIndex >= 0 && transitionIndex >= 0) {
-                    // Place -> Transition (consumption)
-                    if (arc.getType().equals("REGULAR")) {
-                        matrix[placeIndex][transitionIndex] -= 1;
-                    }
-                }
-                
-                placeIndex = PetriNetUtils.findPlaceIndex(places, arc.getOutgoingId());
-                transitionIndex = PetriNetUtils.findTransitionIndex(transitions, arc.getIncomingId());
-                
-                if (placeIndex >= 0 && transitionIndex >= 0) {
-                    // Transition -> Place (production)
-                    if (arc.getType().equals("REGULAR")) {
-                        matrix[placeIndex][transitionIndex] += 1;
-                    }
-                }
+                details.append(" ").append(uncoveredPlaces).append(" places are not covered by any P-invariant.");
+            }
+            if (transitionResult.isFullyCovered()) {
+                details.append(" Every transition is covered by a T-invariant.");
+            } else {
+                details.append(" Some transitions are not covered by any T-invariant, so the net cannot be both live and bounded.");
             }
         }
-        
-        result.setIncidenceMatrix(matrix);
-        result.setDetails("Incidence matrix computed: " + places.size() + " places × " + transitions.size() + " transitions");
-        
-        return result;
+        result.setDetails(details.toString());
+
+        return reportBudget(result, budget);
+    }
+
+    private static String netClass(NetStructure structure) {
+        if (structure.isStateMachine() && structure.isMarkedGraph()) return "a state machine and a marked graph";
+        if (structure.isStateMachine()) return "a state machine";
+        if (structure.isMarkedGraph()) return "a marked graph";
+        if (structure.isFreeChoice()) return "free-choice";
+        if (structure.isExtendedFreeChoice()) return "extended free-choice";
+        return "not extended free-choice";
+    }
+
+    private static List<String> placeIds(CompiledNet net, int[] indices) {
+        List<String> ids = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            ids.add(net.getPlaceId(index));
+        }
+        return ids;
+    }
+
+    private static Map<String, Long> toWeightMap(FarkasSemiflows.Semiflow semiflow,
+                                                 IntFunction<String> ids) {
+        Map<String, Long> weights = new LinkedHashMap<>();
+        for (int i = 0; i < semiflow.getIndices().length; i++) {
+            weights.put(ids.apply(semiflow.getIndices()[i]), semiflow.getWeights()[i]);
+        }
+        return weights;
     }
 
     /**
      * Performs structural analysis of the Petri net.
-     * Analyzes properties derived directly from the net structure, ignoring the initial marking.
+     * Analyzes properties derived directly from the net structure, without building any state space.
+     * The flow graph is indexed in a single pass over the arcs, and the isolated nodes, strongly
+     * connected components, source and sink transitions, degrees and net class are all derived from
+     * it in linear time. The minimal siphons and the maximal trap inside each of them are enumerated within
+     * {@code siphonTimeLimitMillis} of the request's time budget and with at most {@code maxStates} siphons. For ordinary
+     * nets, Commoner's condition on the initial marking then proves deadlock freedom, and for
+     * extended free-choice nets it also decides liveness.
      *
      * @param petriNetDTO The Petri net to analyze
      * @return AnalysisResultDTO containing structural analysis details
@@ -238,6 +646,7 @@ public class PetriNetAnalysisService {
     public AnalysisResultDTO performStructuralAnalysis(PetriNetDTO petriNetDTO) {
         AnalysisResultDTO result = new AnalysisResultDTO();
         result.setAnalysisType("Structural Analysis");
+        RequestBudget budget = budgets.start(petriNetDTO.getBudget());
         
         List<PlaceDTO> places = petriNetDTO.getPlaces();
         List<TransitionDTO> transitions = petriNetDTO.getTransitions();
@@ -248,47 +657,87 @@ public class PetriNetAnalysisService {
         long inhibitorArcs = arcs.stream().filter(a -> a.getType().equals("INHIBITOR")).count();
         long bidirectionalArcs = arcs.stream().filter(a -> a.getType().equals("BIDIRECTIONAL")).count();
         
-        // Find isolated elements
-        Set<String> connectedPlaces = new HashSet<>();
-        Set<String> connectedTransitions = new HashSet<>();
-        
-        for (ArcDTO arc : arcs) {
-            // Check if incoming ID is a place or transition
-            boolean incomingIsPlace = places.stream().anyMatch(p -> p.getId().equals(arc.getIncomingId()));
-            boolean outgoingIsPlace = places.stream().anyMatch(p -> p.getId().equals(arc.getOutgoingId()));
-            
-            if (incomingIsPlace) {
-                connectedPlaces.add(arc.getIncomingId());
-            } else {
-                connectedTransitions.add(arc.getIncomingId());
-            }
-            
-            if (outgoingIsPlace) {
-                connectedPlaces.add(arc.getOutgoingId());
-            } else {
-                connectedTransitions.add(arc.getOutgoingId());
-            }
-        }
-        
-        long isolatedPlaces = places.stream()
-            .filter(p -> !connectedPlaces.contains(p.getId()))
-            .count();
-        
-        long isolatedTransitions = transitions.stream()
-            .filter(t -> !connectedTransitions.contains(t.getId()))
-            .count();
-        
+        // One pass over the arcs indexes every node and its neighbors
+        NetGraph graph = PetriNetMapper.dtoToNetGraph(petriNetDTO);
+        NetStructure structure = new NetStructure(graph);
+        long isolatedPlaces = structure.getIsolatedPlaces();
+        long isolatedTransitions = structure.getIsolatedTransitions();
+
         result.setRegularArcsCount((int) regularArcs);
         result.setInhibitorArcsCount((int) inhibitorArcs);
         result.setBidirectionalArcsCount((int) bidirectionalArcs);
         result.setIsolatedPlacesCount((int) isolatedPlaces);
         result.setIsolatedTransitionsCount((int) isolatedTransitions);
-        
-        result.setDetails("Structural analysis: " + regularArcs + " regular, " + inhibitorArcs + 
+        result.setStronglyConnectedComponentsCount(structure.getComponentCount());
+        result.setStronglyConnected(structure.isStronglyConnected());
+        result.setSourceTransitions(Arrays.stream(structure.getSourceTransitions())
+                .mapToObj(t -> transitions.get(t).getId()).collect(Collectors.toList()));
+        result.setSinkTransitions(Arrays.stream(structure.getSinkTransitions())
+                .mapToObj(t -> transitions.get(t).getId()).collect(Collectors.toList()));
+        result.setMaxInDegree(structure.getMaxInDegree());
+        result.setMaxOutDegree(structure.getMaxOutDegree());
+        result.setStateMachine(structure.isStateMachine());
+        result.setMarkedGraph(structure.isMarkedGraph());
+        result.setFreeChoice(structure.isFreeChoice());
+        result.setExtendedFreeChoice(structure.isExtendedFreeChoice());
+
+        CompiledNet net = compiledNets.get(petriNetDTO);
+        SiphonsAndTraps.Result siphons = new SiphonsAndTraps(net, budget.getMaxStates(),
+                budget.getDeadline().within(analysisProperties.getSiphonTimeLimitMillis()))
+                .analyze(PetriNetMapper.dtoToMarking(net, places));
+
+        List<List<String>> minimalSiphons = new ArrayList<>();
+        List<List<String>> maximalTraps = new ArrayList<>();
+        for (int i = 0; i < siphons.getMinimalSiphons().size(); i++) {
+            minimalSiphons.add(placeIds(net, siphons.getMinimalSiphons().get(i)));
+            maximalTraps.add(placeIds(net, siphons.getMaximalTraps().get(i)));
+        }
+        result.setMinimalSiphons(minimalSiphons);
+        result.setMaximalTraps(maximalTraps);
+        result.setReachedMaxLimit(siphons.isSiphonLimitReached());
+        result.setReachedTimeLimit(siphons.isTimeLimitReached());
+
+        StringBuilder details = new StringBuilder("Structural analysis: " + regularArcs + " regular, " + inhibitorArcs +
                          " inhibitor, " + bidirectionalArcs + " bidirectional arcs. " +
                          isolatedPlaces + " isolated places, " + isolatedTransitions + " isolated transitions.");
-        
-        return result;
+        details.append(" The net has ").append(structure.getComponentCount()).append(" strongly connected components, ")
+               .append(structure.getSourceTransitions().length).append(" source and ")
+               .append(structure.getSinkTransitions().length).append(" sink transitions, and is ")
+               .append(netClass(structure)).append(".");
+        details.append(" Found ").append(minimalSiphons.size()).append(" minimal siphons");
+        if (!siphons.isComplete()) {
+            details.append(" before reaching the analysis limits");
+        }
+        details.append(".");
+
+        // Commoner's condition is only conclusive when every siphon was enumerated or one violates it
+        if (siphons.isCommonerConditionSatisfied()) {
+            result.setCommonerConditionHolds(true);
+        } else if (siphons.isCommonerConditionViolated()) {
+            result.setCommonerConditionHolds(false);
+        }
+        if (result.getCommonerConditionHolds() == null) {
+            details.append(" Commoner's condition could not be decided within the analysis limits.");
+        } else if (!siphons.isOrdinary()) {
+            details.append(" Commoner's condition ").append(result.getCommonerConditionHolds() ? "holds" : "is violated")
+                   .append(", but it proves nothing for nets with weighted or inhibitor arcs or capacities.");
+        } else if (result.getCommonerConditionHolds()) {
+            result.setDeadlockFree(true);
+            details.append(" Every minimal siphon contains a marked trap, so no deadlock is reachable.");
+            if (structure.isExtendedFreeChoice()) {
+                result.setLive(true);
+                details.append(" The net is extended free-choice, so it is also live.");
+            }
+        } else {
+            details.append(" Some minimal siphon contains no marked trap.");
+            if (structure.isExtendedFreeChoice()) {
+                result.setLive(false);
+                details.append(" The net is extended free-choice, so it is not live.");
+            }
+        }
+        result.setDetails(details.toString());
+
+        return reportBudget(result, budget);
     }
   
 } 
\ No newline at end of file
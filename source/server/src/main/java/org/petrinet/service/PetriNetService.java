@@ -1,19 +1,31 @@
 package org.petrinet.service;
 
 
+import jakarta.annotation.PreDestroy;
 import org.petrinet.client.PetriNetDTO;
+import org.petrinet.client.SimulationRunResultDTO;
+import org.petrinet.config.AnalysisProperties;
 
 
+import org.petrinet.service.engine.IncrementalSimulation;
 import org.petrinet.service.model.Arc;
+import org.petrinet.service.model.CompiledNet;
 import org.petrinet.service.model.Place;
 import org.petrinet.service.model.Transition;
 import org.petrinet.util.PetriNetMapper;
 import org.petrinet.util.PetriNetUtils;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service for processing BOUNDED and UNBOUNDED Petri nets.
@@ -23,6 +35,51 @@ import java.util.stream.Collectors;
 @Service
 public class PetriNetService {
 
+    /** Upper bound on the number of steps a single run request may execute. */
+    public static final int MAX_RUN_STEPS = 100_000;
+
+    private final CompiledNetCache compiledNets;
+    private final AnalysisProperties analysisProperties;
+    private final RequestBudget.Tracker budgets;
+    // One thread per streamed run, which blocks on the client's socket; no queue, so extra runs are rejected
+    private final ThreadPoolExecutor streamPool;
+
+    /**
+     * Creates the service with a compiled net cache of its own.
+     */
+    public PetriNetService() {
+        this(new CompiledNetCache());
+    }
+
+    /**
+     * Creates the service with the default limits of {@link AnalysisProperties}.
+     *
+     * @param compiledNets The cache the structure of every request is compiled through.
+     */
+    public PetriNetService(CompiledNetCache compiledNets) {
+        this(compiledNets, new AnalysisProperties());
+    }
+
+    /**
+     * @param compiledNets The cache the structure of every request is compiled through.
+     * @param analysisProperties The server limits, which bound the length, duration and number of streamed runs.
+     */
+    @Autowired
+    public PetriNetService(CompiledNetCache compiledNets, AnalysisProperties analysisProperties) {
+        this.compiledNets = compiledNets;
+        this.analysisProperties = analysisProperties;
+        this.budgets = new RequestBudget.Tracker(analysisProperties);
+        int maxStreams = Math.max(1, analysisProperties.getMaxStreams());
+        this.streamPool = new ThreadPoolExecutor(maxStreams, maxStreams, 60, TimeUnit.SECONDS, new SynchronousQueue<>());
+        this.streamPool.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        budgets.cancelAll();
+        streamPool.shutdownNow();
+    }
+
     /**
      * Processes a single step in the Petri net simulation.
      * It evaluates which transitions are enabled based on the current token distribution.
@@ -37,55 +94,35 @@ public class PetriNetService {
      *         indicating a conflict or the result of firing a single transition.
      */
     public PetriNetDTO processPetriNet(PetriNetDTO petriNetDTO) {
-       
-        Map<String, Place> placesMap = PetriNetMapper.mapPlacesToMap(petriNetDTO.getPlaces());
-        Map<String, Arc> arcsMap = PetriNetMapper.mapArcsToMap(petriNetDTO.getArcs());
-        List<Transition> transitions = PetriNetMapper.dtoToTransitionList(petriNetDTO.getTransitions());
+        CompiledNet net = compiledNets.get(petriNetDTO);
+        int[] marking = PetriNetMapper.dtoToMarking(net, petriNetDTO.getPlaces());
 
         // First evaluate all transitions
-        List<Transition> evaluatedTransitions = transitions.stream()
-            .map(transition -> {
-                boolean canFire = evaluateTransition(transition, arcsMap, placesMap);
-                transition.setEnabled(canFire);
-                return transition;
-            })
-            .collect(Collectors.toList());
-
-        // Get all enabled transitions
-        List<Transition> enabledTransitions = evaluatedTransitions.stream()
-            .filter(Transition::getEnabled)
-            .collect(Collectors.toList());
-        
+        IncrementalSimulation simulation = new IncrementalSimulation(net, marking);
+        int enabledCount = simulation.getEnabledCount();
+
         // Check if we're in deterministic mode
         Boolean isDeterministicMode = petriNetDTO.getDeterministicMode();
-        
+
         // If in deterministic mode and multiple transitions are enabled, return early
-        if (isDeterministicMode != null && isDeterministicMode && enabledTransitions.size() > 1) {
+        if (isDeterministicMode != null && isDeterministicMode && enabledCount > 1) {
             // Pass original DTO to preserve mode
-            PetriNetDTO resultDTO = PetriNetUtils.convertDomainModelsToDTO(placesMap, evaluatedTransitions, arcsMap, petriNetDTO);
-            return resultDTO;
+            return PetriNetUtils.convertCompiledNetToDTO(net, marking, simulation.copyEnabledFlags(), petriNetDTO);
         }
-        
-        if (!enabledTransitions.isEmpty()) {
-            Transition selectedTransition;
-            
-            if (enabledTransitions.size() == 1) {
-                selectedTransition = enabledTransitions.get(0);
-            } else {
-                // Multiple transitions are enabled, select randomly
-                Random random = new Random();
-                selectedTransition = enabledTransitions.get(random.nextInt(enabledTransitions.size()));
-            }
-            
-            // Disable all transitions except the selected one
-            evaluatedTransitions.forEach(transition -> 
-                transition.setEnabled(transition.getId().equals(selectedTransition.getId())));
-            
+
+        // Only the selected transition is reported as enabled
+        boolean[] enabled = new boolean[net.getTransitionCount()];
+        if (enabledCount > 0) {
+            // With multiple enabled transitions, select one at random
+            int selectedTransition = simulation.getEnabledTransition(
+                enabledCount == 1 ? 0 : new Random().nextInt(enabledCount));
+            enabled[selectedTransition] = true;
+
             // Update tokens only for the selected transition
-            updateTokensForFiringTransition(selectedTransition, arcsMap, placesMap);
+            simulation.fire(selectedTransition);
         }
 
-        return PetriNetUtils.convertDomainModelsToDTO(placesMap, evaluatedTransitions, arcsMap, petriNetDTO);
+        return PetriNetUtils.convertCompiledNetToDTO(net, marking, enabled, petriNetDTO);
     }
 
     /**
@@ -214,6 +251,20 @@ public class PetriNetService {
         return evaluationPassed;
     }
 
+    /**
+     * Evaluates whether a transition of a compiled net can fire in the given marking.
+     * This is the index-based counterpart of {@link #evaluateTransition(Transition, Map, Map)} and applies
+     * the same checks in the same order, but works on precomputed index arrays and does not allocate.
+     *
+     * @param net The {@link CompiledNet} the transition belongs to.
+     * @param transition The index of the transition to evaluate.
+     * @param marking The token count of every place, indexed by place index.
+     * @return {@code true} if the transition is enabled (can fire), {@code false} otherwise.
+     */
+    public boolean evaluateTransition(CompiledNet net, int transition, int[] marking) {
+        return net.isEnabled(transition, marking);
+    }
+
     /**
      * Updates the token counts in places connected to a firing transition.
      * Consumes tokens from input places for Regular (Place->Transition) arcs.
@@ -266,6 +317,19 @@ public class PetriNetService {
         }
     }
 
+    /**
+     * Updates the marking of a compiled net for a firing transition.
+     * This is the index-based counterpart of {@link #updateTokensForFiringTransition(Transition, Map, Map)};
+     * firing operations are applied in the order of the transition's arcs and no objects are allocated.
+     *
+     * @param net The {@link CompiledNet} the transition belongs to.
+     * @param transition The index of the firing transition.
+     * @param marking The token count of every place, indexed by place index. This array is modified directly.
+     */
+    public void updateTokensForFiringTransition(CompiledNet net, int transition, int[] marking) {
+        net.fire(transition, marking);
+    }
+
     /**
      * Resolves a conflict state where multiple transitions were enabled in deterministic mode.
      * This method is called after the user has selected which specific transition should fire.
@@ -282,40 +346,157 @@ public class PetriNetService {
      *                                  transition in the provided {@code petriNetDTO}.
      */
     public PetriNetDTO resolveConflict(PetriNetDTO petriNetDTO, String selectedTransitionId) {
-        Map<String, Place> placesMap = PetriNetMapper.mapPlacesToMap(petriNetDTO.getPlaces());
-        Map<String, Arc> arcsMap = PetriNetMapper.mapArcsToMap(petriNetDTO.getArcs());
-        List<Transition> transitions = PetriNetMapper.dtoToTransitionList(petriNetDTO.getTransitions());
-        
+        CompiledNet net = compiledNets.get(petriNetDTO);
+        int[] marking = PetriNetMapper.dtoToMarking(net, petriNetDTO.getPlaces());
+
         // Find the selected transition
-        Transition selectedTransition = transitions.stream()
-            .filter(t -> t.getId().equals(selectedTransitionId))
-            .findFirst()
-            .orElseThrow(() -> new IllegalArgumentException("Selected transition not found: " + selectedTransitionId));
-        
-        transitions.forEach(t -> t.setEnabled(false));
-        
-        // Update tokens for the selected transition
-        updateTokensForFiringTransition(selectedTransition, arcsMap, placesMap);
-        
-        // Evaluate all transitions to find enabled ones
-        List<Transition> enabledTransitions = new ArrayList<>();
-        transitions.forEach(transition -> {
-            boolean canFire = evaluateTransition(transition, arcsMap, placesMap);
-            if (canFire) {
-                enabledTransitions.add(transition);
-            }
-        });
-        
+        int selectedTransition = net.getTransitionIndex(selectedTransitionId);
+        if (selectedTransition < 0) {
+            throw new IllegalArgumentException("Selected transition not found: " + selectedTransitionId);
+        }
+
+        // Fire the selected transition; only its neighbourhood is re-evaluated afterwards
+        IncrementalSimulation simulation = new IncrementalSimulation(net, marking);
+        simulation.fire(selectedTransition);
+        boolean[] enabled = simulation.copyEnabledFlags();
+
+        // Pass original DTO to preserve mode
+        return PetriNetUtils.convertCompiledNetToDTO(net, marking, enabled, petriNetDTO);
+    }
+
+    /**
+     * Advances the Petri net by up to {@code steps} firings within a single call.
+     * Each step follows the rules of {@link #processPetriNet(PetriNetDTO)}: a single enabled transition
+     * fires, multiple enabled transitions are chosen between at random, and in deterministic mode a
+     * conflict stops the run so the user can resolve it. Enabled transitions are tracked incrementally
+     * between steps, so the net is compiled and fully evaluated only once per run.
+     * <p>
+     * The run stops when the step limit is reached, when no transition is enabled (deadlock), or,
+     * with {@code until} set to {@code "conflict"}, as soon as more than one transition is enabled.
+     *
+     * @param petriNetDTO The current state of the Petri net, including places, transitions, arcs, and mode.
+     * @param steps The maximum number of transitions to fire, between 0 and {@link #MAX_RUN_STEPS}.
+     * @param until An optional stop condition, either {@code "deadlock"} or {@code "conflict"}; may be {@code null}.
+     * @return A {@link SimulationRunResultDTO} with the fired transition IDs, the final marking and
+     *         the reason the run stopped.
+     * @throws IllegalArgumentException if {@code steps} is out of range or {@code until} is not recognised.
+     */
+    public SimulationRunResultDTO runPetriNet(PetriNetDTO petriNetDTO, int steps, String until) {
+        if (steps < 0 || steps > MAX_RUN_STEPS) {
+            throw new IllegalArgumentException("Steps must be between 0 and " + MAX_RUN_STEPS + ", got: " + steps);
+        }
+        boolean stopOnConflict = stopsOnConflict(petriNetDTO, until);
         Boolean isDeterministicMode = petriNetDTO.getDeterministicMode();
-        if (isDeterministicMode != null && isDeterministicMode && enabledTransitions.size() > 1) {
-            // Set the enabled flag for the enabled transitions
-            for (Transition t : enabledTransitions) {
-                t.setEnabled(true);
+
+        CompiledNet net = compiledNets.get(petriNetDTO);
+        int[] marking = PetriNetMapper.dtoToMarking(net, petriNetDTO.getPlaces());
+        IncrementalSimulation simulation = new IncrementalSimulation(net, marking);
+        Random random = new Random();
+
+        List<String> firingSequence = new ArrayList<>(Math.min(steps, 1024));
+        String stopReason = "STEP_LIMIT";
+        while (firingSequence.size() < steps) {
+            int enabledCount = simulation.getEnabledCount();
+            if (enabledCount == 0) {
+                stopReason = "DEADLOCK";
+                break;
             }
+            if (enabledCount > 1 && stopOnConflict) {
+                stopReason = "CONFLICT";
+                break;
+            }
+            int selectedTransition = simulation.getEnabledTransition(
+                enabledCount == 1 ? 0 : random.nextInt(enabledCount));
+            simulation.fire(selectedTransition);
+            firingSequence.add(net.getTransitionId(selectedTransition));
+        }
+        // Report a deadlock reached exactly on the last allowed step as well
+        if (stopReason.equals("STEP_LIMIT") && simulation.getEnabledCount() == 0) {
+            stopReason = "DEADLOCK";
+        }
+
+        List<String> enabledTransitions = new ArrayList<>();
+        for (int t : simulation.getEnabledTransitions()) {
+            enabledTransitions.add(net.getTransitionId(t));
+        }
+
+        SimulationRunResultDTO result = new SimulationRunResultDTO();
+        result.setStepsExecuted(firingSequence.size());
+        result.setStopReason(stopReason);
+        result.setFiringSequence(firingSequence);
+        result.setFinalMarking(PetriNetUtils.convertMarkingToMap(net, marking));
+        result.setEnabledTransitions(enabledTransitions);
+        result.setDeterministicMode(isDeterministicMode);
+        return result;
+    }
+
+    /**
+     * Prepares a run of up to {@code steps} firings that is streamed in batches rather than returned
+     * at once, see {@link SimulationRun}. Steps and stop conditions are those of
+     * {@link #runPetriNet(PetriNetDTO, int, String)}, but the run may be much longer, since neither
+     * the firing sequence nor the markings are kept. Nothing fires until the run is streamed.
+     * <p>
+     * The run is limited like an analysis request: its steps are capped to the server's largest step
+     * budget, and it stops with {@code TIME_LIMIT} once the time budget of the DTO, or the server
+     * default, has elapsed.
+     *
+     * @param petriNetDTO The current state of the Petri net, including places, transitions, arcs, and mode.
+     * @param steps The maximum number of transitions to fire, at least 0. Larger values than the
+     *              server's maximum step budget are capped to it.
+     * @param until An optional stop condition, either {@code "deadlock"} or {@code "conflict"}; may be {@code null}.
+     * @param batchSize The number of firings in the first batches, between 1 and {@link SimulationRun#MAX_BATCH_SIZE}.
+     *                  Batches grow when the consumer falls behind.
+     * @return The run, positioned at the marking of the DTO.
+     * @throws IllegalArgumentException if {@code steps} or {@code batchSize} is out of range,
+     *                                  {@code until} is not recognised, or the budget of the DTO is invalid.
+     */
+    public SimulationRun openRun(PetriNetDTO petriNetDTO, long steps, String until, int batchSize) {
+        if (steps < 0) {
+            throw new IllegalArgumentException("Steps must not be negative, got: " + steps);
+        }
+        if (batchSize < 1 || batchSize > SimulationRun.MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch size must be between 1 and " + SimulationRun.MAX_BATCH_SIZE + ", got: " + batchSize);
+        }
+        boolean stopOnConflict = stopsOnConflict(petriNetDTO, until);
+        CompiledNet net = compiledNets.get(petriNetDTO);
+        int[] marking = PetriNetMapper.dtoToMarking(net, petriNetDTO.getPlaces());
+        RequestBudget budget = budgets.start(petriNetDTO.getBudget());
+        return new SimulationRun(net, marking, Math.min(steps, analysisProperties.getMaxRequestSteps()),
+                stopOnConflict, batchSize, budget.getTimeLimitMillis(), budget.getDeadline());
+    }
+
+    /**
+     * Streams a run to a sink on a thread of its own, so that the caller can return while the run
+     * waits on a slow client. Only a limited number of runs are streamed at once.
+     *
+     * @param run The run to stream, as returned by {@link #openRun}.
+     * @param sink The consumer of the batches.
+     * @return A future completed once the run has ended, or completed exceptionally with the
+     *         {@link UncheckedIOException} of a failed sink.
+     * @throws RejectedExecutionException If the maximum number of runs are already being streamed.
+     */
+    public CompletableFuture<Void> stream(SimulationRun run, SimulationRun.BatchSink sink) {
+        try {
+            return CompletableFuture.runAsync(() -> {
+                try {
+                    run.streamTo(sink);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, streamPool);
+        } catch (RejectedExecutionException e) {
+            throw new RejectedExecutionException("The server is already streaming " + streamPool.getMaximumPoolSize()
+                    + " runs, retry later", e);
         }
-        
-        // Pass original DTO to preserve mode
-        return PetriNetUtils.convertDomainModelsToDTO(placesMap, transitions, arcsMap, petriNetDTO);
     }
-}
 
+    private static boolean stopsOnConflict(PetriNetDTO petriNetDTO, String until) {
+        boolean stopOnConflict = "conflict".equalsIgnoreCase(until);
+        if (until != null && !stopOnConflict && !"deadlock".equalsIgnoreCase(until)) {
+            throw new IllegalArgumentException("Unsupported stop condition: " + until + ". Expected 'deadlock' or 'conflict'");
+        }
+        Boolean isDeterministicMode = petriNetDTO.getDeterministicMode();
+        // A conflict in deterministic mode always needs the user to pick a transition
+        return stopOnConflict || (isDeterministicMode != null && isDeterministicMode);
+    }
+}
@@ -1,38 +1,77 @@
 package org.petrinet.service;
 
 import org.petrinet.client.*;
+import org.petrinet.config.AnalysisProperties;
+import org.petrinet.service.engine.DeterministicRun;
+import org.petrinet.service.model.CompiledNet;
+import org.petrinet.util.PetriNetMapper;
 import org.petrinet.util.PetriNetUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PreDestroy;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Service for validating Petri nets given input configurations and expected outputs.
  * This service simulates the Petri net step-by-step in deterministic mode to check 
  * for conflicts, infinite loops, and whether the net reaches the expected final state.
+ * The simulation runs on the compiled net, and only the state it ends in is converted back
+ * to a {@link PetriNetDTO}.
  */
 @Service
 public class PetriNetValidatorService {
 
-    private final PetriNetService petriNetService;
+    private final CompiledNetCache compiledNets;
+    private final RequestBudget.Tracker budgets;
+    private final ForkJoinPool validationPool;
 
     /**
-     * Constructs a new PetriNetValidatorService with the necessary dependency.
+     * Constructs a new PetriNetValidatorService that validates batches on all available processors but one.
+     */
+    public PetriNetValidatorService() {
+        this(new AnalysisProperties());
+    }
+
+    /**
+     * Constructs a new PetriNetValidatorService with a compiled net cache of its own.
+     *
+     * @param analysisProperties The server limits, which bound the budget of every validation and whose
+     *                           parallelism sizes the pool batch scenarios run on.
+     */
+    public PetriNetValidatorService(AnalysisProperties analysisProperties) {
+        this(analysisProperties, new CompiledNetCache(analysisProperties));
+    }
+
+    /**
+     * Constructs a new PetriNetValidatorService that shares its compiled nets with the other services.
      *
-     * @param petriNetService The service used to process individual Petri net steps.
+     * @param analysisProperties The server limits, which bound the budget of every validation and whose
+     *                           parallelism sizes the pool batch scenarios run on.
+     * @param compiledNets The cache the structure of every request is compiled through.
      */
     @Autowired
-    public PetriNetValidatorService(PetriNetService petriNetService) {
-        this.petriNetService = petriNetService;
+    public PetriNetValidatorService(AnalysisProperties analysisProperties, CompiledNetCache compiledNets) {
+        this.compiledNets = compiledNets;
+        this.budgets = new RequestBudget.Tracker(analysisProperties);
+        this.validationPool = new ForkJoinPool(analysisProperties.getEffectiveParallelism());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        budgets.cancelAll();
+        validationPool.shutdownNow();
     }
 
     /**
      * Validates a Petri net by running it with specified inputs and checking if it
      * reaches the expected output state when no more transitions can fire.
      * It performs a deep copy of the input net to avoid side effects and forces
-     * deterministic mode for the simulation.
+     * deterministic mode for the simulation. The simulation fires at most as many transitions, and
+     * runs at most as long, as the budget of the request allows.
      *
      * @param requestDTO The validation request containing the Petri net structure, 
      *                   initial token configuration, and expected final token counts.
@@ -40,14 +79,83 @@ public class PetriNetValidatorService {
      *         about conflicts, loops, or final state comparison.
      */
     public ValidationResultDTO validatePetriNet(PetriNetValidationDTO requestDTO) {
+        RequestBudget budget = budgets.start(requestDTO.getBudget());
         // Create a deep copy of the Petri net to avoid modifying the original
         PetriNetDTO petriNetCopy = PetriNetUtils.createDeepCopyFromValidation(requestDTO);
-        
+        CompiledNet net = compiledNets.get(petriNetCopy);
+        return validateScenario(petriNetCopy, net, requestDTO.getInputConfigs(), requestDTO.getExpectedOutputs(), budget);
+    }
+
+    /**
+     * Validates one Petri net against many scenarios. The net is copied and compiled once, and
+     * the scenarios then run independently of each other, in parallel on a work-stealing pool: that of
+     * the {@link AnalysisExecutor} when the batch is one of its jobs, or one of the service's own otherwise.
+     * A scenario that fails with an error yields an invalid result instead of failing the batch.
+     * Each scenario gets the step budget of the request, and all of them share its time budget.
+     *
+     * @param requestDTO The batch request containing the Petri net structure and the scenarios,
+     *                   each with its initial token configuration and expected final token counts.
+     * @return A {@link BatchValidationResultDTO} with the result of every scenario, in request order,
+     *         and how many of them passed or failed.
+     */
+    public BatchValidationResultDTO validateBatch(BatchValidationDTO requestDTO) {
+        long start = System.nanoTime();
+        RequestBudget budget = budgets.start(requestDTO.getBudget());
+        PetriNetDTO structure = PetriNetUtils.createDeepCopy(requestDTO);
+        CompiledNet net = compiledNets.get(structure);
+        List<ValidationScenarioDTO> scenarios = requestDTO.getScenarios() == null ? List.of() : requestDTO.getScenarios();
+
+        ForkJoinPool pool = AnalysisExecutor.poolOf(validationPool);
+        List<ValidationResultDTO> results = pool.submit(() -> IntStream.range(0, scenarios.size())
+                .parallel()
+                .mapToObj(i -> validateScenario(structure, net, scenarios.get(i), i, budget))
+                .collect(Collectors.toList()))
+                .join();
+
+        BatchValidationResultDTO batchResult = new BatchValidationResultDTO();
+        batchResult.setResults(results);
+        batchResult.setScenarioCount(results.size());
+        List<String> failedScenarioIds = results.stream()
+                .filter(result -> !result.isValid())
+                .map(ValidationResultDTO::getScenarioId)
+                .collect(Collectors.toList());
+        batchResult.setFailedScenarioIds(failedScenarioIds);
+        batchResult.setFailedCount(failedScenarioIds.size());
+        batchResult.setPassedCount(results.size() - failedScenarioIds.size());
+        batchResult.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        return batchResult;
+    }
+
+    private ValidationResultDTO validateScenario(PetriNetDTO structure, CompiledNet net,
+                                                 ValidationScenarioDTO scenario, int position, RequestBudget budget) {
+        String scenarioId = scenario.getId() != null ? scenario.getId() : String.valueOf(position);
+        ValidationResultDTO result;
+        try {
+            result = validateScenario(PetriNetUtils.createDeepCopy(structure), net,
+                    Objects.requireNonNullElse(scenario.getInputConfigs(), List.of()),
+                    Objects.requireNonNullElse(scenario.getExpectedOutputs(), List.of()), budget);
+        } catch (RuntimeException e) {
+            result = new ValidationResultDTO(false, "Validation failed: error while running the scenario: " + e.getMessage());
+        }
+        result.setScenarioId(scenarioId);
+        return result;
+    }
+
+    /**
+     * Applies the input tokens to a copy of the net and simulates it in deterministic mode.
+     *
+     * @param petriNetCopy A copy of the net that the simulation may modify.
+     * @param net The compiled structure of the net.
+     * @param budget The budget of the request the scenario belongs to.
+     */
+    private ValidationResultDTO validateScenario(PetriNetDTO petriNetCopy, CompiledNet net,
+                                                 List<PlaceDTO> inputConfigs, List<PlaceDTO> expectedOutputs,
+                                                 RequestBudget budget) {
         // Force deterministic mode for validation
         petriNetCopy.setDeterministicMode(true);
         
         // Apply initial tokens based on input configurations
-        PetriNetUtils.applyInputTokens(petriNetCopy, requestDTO.getInputConfigs());
+        PetriNetUtils.applyInputTokens(petriNetCopy, inputConfigs);
         
         // Check if any initial tokens were actually set
         long totalInitialTokens = PetriNetUtils.calculateTotalTokens(petriNetCopy);
@@ -61,82 +169,80 @@ public class PetriNetValidatorService {
         }
 
         // Run simulation until no more transitions can fire or a conflict is detected
-        return runSimulationForValidation(petriNetCopy, requestDTO.getExpectedOutputs());
+        return runSimulationForValidation(petriNetCopy, net, expectedOutputs, budget);
     }
     
     /**
      * Runs the Petri net simulation step-by-step until completion, conflict, or loop detection.
      * Completion occurs when no transitions are enabled. Conflicts occur if multiple transitions
      * are enabled simultaneously in deterministic mode. Loops are detected by tracking previously
-     * seen token distributions (states) or by exceeding a maximum iteration count.
+     * seen token distributions (states) or by exceeding the step budget of the request. A simulation
+     * that runs out of time, or is cancelled, stops with a failure as well. The steps run on the
+     * compiled marking; a {@link PetriNetDTO} is only built for the state the simulation stops in.
      *
-     * @param petriNet The {@link PetriNetDTO} instance (a deep copy) to simulate.
-     *                 This instance will be modified during the simulation.
+     * @param petriNet The {@link PetriNetDTO} instance (a deep copy) holding the initial tokens.
+     * @param net The compiled structure of the net, shared by all scenarios of a batch.
      * @param expectedOutputs A list of {@link PetriNetValidationDTO.PlaceConfig} specifying the 
      *                        expected token counts for specific places in the final state.
+     * @param budget The step and time budgets of the simulation.
      * @return A {@link ValidationResultDTO} containing the results of the simulation and validation.
      */
-    private ValidationResultDTO runSimulationForValidation(PetriNetDTO petriNet, 
-                                                       List<PlaceDTO> expectedOutputs) {
+    private ValidationResultDTO runSimulationForValidation(PetriNetDTO petriNet, CompiledNet net,
+                                                       List<PlaceDTO> expectedOutputs, RequestBudget budget) {
         ValidationResultDTO result = new ValidationResultDTO();
-        
-        // Keep track of previously seen states
-        Set<String> seenStates = new HashSet<>();
-        int maxIterations = 1000; // Safety limit to prevent excessive computation
-        int iterations = 0;
-        
-        boolean done = false;
-        PetriNetDTO currentState = petriNet;
-        
-        while (!done) {
-            // Create a state signature based on token distribution
-            String stateSignature = PetriNetUtils.createStateSignature(currentState);
-            
-            // Check for infinite loop by revisiting a state
-            if (seenStates.contains(stateSignature)) {
+
+        int[] marking = PetriNetMapper.dtoToMarking(net, petriNet.getPlaces());
+        DeterministicRun.Result run = new DeterministicRun(net, budget.getMaxSteps(), budget.getDeadline()).run(marking);
+
+        // Mark the transitions the final state reports as enabled: the conflicting ones, or the one
+        // that fired into a repeated state
+        boolean[] enabled = new boolean[net.getTransitionCount()];
+        if (run.getOutcome() == DeterministicRun.Outcome.CONFLICT) {
+            for (int transition : run.getEnabledTransitions()) {
+                enabled[transition] = true;
+            }
+        } else if (run.getOutcome() != DeterministicRun.Outcome.DEADLOCK && run.getLastFiredTransition() >= 0) {
+            enabled[run.getLastFiredTransition()] = true;
+        }
+        PetriNetDTO finalState = PetriNetUtils.convertCompiledNetToDTO(net, marking, enabled, petriNet);
+        result.setFinalState(finalState);
+
+        switch (run.getOutcome()) {
+            case REPEATED_STATE -> {
+                String stateSignature = PetriNetUtils.createStateSignature(finalState);
                 result.setValid(false);
                 result.setMessage("Validation failed: Infinite loop detected. The simulation encountered the same token distribution multiple times. Repeated state signature: [" + stateSignature + "]");
-                result.setFinalState(currentState); // Set the state where loop was detected
-                return result;
             }
-            
-            // Add current state to seen states
-            seenStates.add(stateSignature);
-            
-            // Check for maximum iterations exceeded
-            if (++iterations > maxIterations) {
+            case STEP_LIMIT -> {
                 result.setValid(false);
-                result.setMessage("Validation failed: Simulation exceeded the maximum allowed number of iterations (" + maxIterations + "). This often indicates a potential infinite loop or an unexpectedly long execution.");
-                result.setFinalState(currentState); // Set the state when max iterations hit
-                return result;
+                result.setReachedStepLimit(true);
+                result.setMessage("Validation failed: Simulation exceeded the maximum allowed number of iterations (" + budget.getMaxSteps() + "). This often indicates a potential infinite loop or an unexpectedly long execution.");
             }
-
-            // Add logging inside the validator loop
-            PetriNetDTO processedState = petriNetService.processPetriNet(currentState);
-            
-            // Check if there are enabled transitions (conflict in deterministic mode)
-            List<TransitionDTO> enabledTransitions = processedState.getTransitions().stream()
-                .filter(TransitionDTO::getEnabled)
-                .collect(Collectors.toList());
-            
-            if (enabledTransitions.size() > 1) {
-                // Conflict detected
+            case TIME_LIMIT -> {
+                result.setValid(false);
+                if (budget.getDeadline().isCancelled()) {
+                    result.setCancelled(true);
+                    result.setMessage("Validation failed: Simulation was cancelled after " + run.getSteps() + " iterations.");
+                } else {
+                    result.setReachedTimeLimit(true);
+                    result.setMessage("Validation failed: Simulation exceeded the time limit of " + budget.getTimeLimitMillis() + " ms after " + run.getSteps() + " iterations.");
+                }
+            }
+            case CONFLICT -> {
                 result.setValid(false);
                 result.setMessage("Validation failed: conflict detected with multiple enabled transitions. There can only be one enabled transition at a time.");
                 result.setConflictingTransitions(
-                    enabledTransitions.stream()
-                        .map(TransitionDTO::getId)
+                    Arrays.stream(run.getEnabledTransitions())
+                        .mapToObj(net::getTransitionId)
                         .collect(Collectors.toList())
                 );
-                result.setFinalState(processedState);
-                
-                done = true;
-            } else if (enabledTransitions.isEmpty()) {
+            }
+            case DEADLOCK -> {
                 // No more transitions can fire, check output places
                 Map<String, Boolean> outputMatches = new HashMap<>();
                 
                 // Map places by ID for easier lookup
-                Map<String, PlaceDTO> placesById = processedState.getPlaces().stream()
+                Map<String, PlaceDTO> placesById = finalState.getPlaces().stream()
                     .collect(Collectors.toMap(PlaceDTO::getId, p -> p));
                 
                 // Check each expected output
@@ -167,18 +273,12 @@ public class PetriNetValidatorService {
                 
                 result.setValid(allMatchingOutputs);
                 result.setOutputMatches(outputMatches);
-                result.setFinalState(processedState);
                 
                 if (allMatchingOutputs) {
                     result.setMessage("Validation successful: all output places match expected token counts");
                 } else {
                     result.setMessage("Validation failed: " + detailMessage.toString());
                 }
-                
-                done = true;
-            } else {
-                // One transition was fired, update for next iteration
-                currentState = processedState;
             }
         }
         
@@ -0,0 +1,139 @@
+package org.petrinet.service;
+
+import org.petrinet.client.BudgetDTO;
+import org.petrinet.config.AnalysisProperties;
+import org.petrinet.service.engine.Deadline;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Limits of one analysis or validation request: the budget the request asked for, with the server
+ * defaults of {@link AnalysisProperties} for anything it left unset, capped by the server maxima.
+ * The deadline starts when the budget is created and is shared by every engine the request runs.
+ * A budget created inside {@link #runCancellable} also stops when the cancellation of that call is
+ * cancelled, which is how a request that is abandoned stops its engines.
+ */
+final class RequestBudget {
+
+    // Cancellation of the request running on the current thread, if it was started cancellable
+    private static final ThreadLocal<Deadline> CANCELLATION = new ThreadLocal<>();
+
+    private final int maxStates;
+    private final int maxSteps;
+    private final long timeLimitMillis;
+    private final long memoryBytes;
+    private final Deadline deadline;
+
+    private RequestBudget(int maxStates, int maxSteps, long timeLimitMillis, long memoryBytes) {
+        this.maxStates = maxStates;
+        this.maxSteps = maxSteps;
+        this.timeLimitMillis = timeLimitMillis;
+        this.memoryBytes = memoryBytes;
+        Deadline cancellation = CANCELLATION.get();
+        this.deadline = cancellation != null ? cancellation.within(timeLimitMillis) : Deadline.after(timeLimitMillis);
+    }
+
+    /**
+     * Runs a job so that the deadline of every budget it starts on the current thread is also
+     * cancelled along with the given one.
+     *
+     * @param cancellation The deadline that cancels the job's requests, typically {@link Deadline#unlimited()}.
+     * @param job The job to run.
+     * @return The result of the job.
+     */
+    static <T> T runCancellable(Deadline cancellation, Supplier<T> job) {
+        Deadline outer = CANCELLATION.get();
+        CANCELLATION.set(cancellation);
+        try {
+            return job.get();
+        } finally {
+            if (outer != null) {
+                CANCELLATION.set(outer);
+            } else {
+                CANCELLATION.remove();
+            }
+        }
+    }
+
+    int getMaxStates() {
+        return maxStates;
+    }
+
+    int getMaxSteps() {
+        return maxSteps;
+    }
+
+    long getTimeLimitMillis() {
+        return timeLimitMillis;
+    }
+
+    long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    Deadline getDeadline() {
+        return deadline;
+    }
+
+    private static long resolve(String name, Long requested, long defaultValue, long maximum) {
+        if (requested == null) {
+            return Math.min(defaultValue, maximum);
+        }
+        if (requested <= 0) {
+            throw new IllegalArgumentException("Budget " + name + " must be positive, got " + requested);
+        }
+        return Math.min(requested, maximum);
+    }
+
+    private static Long widen(Integer value) {
+        return value == null ? null : value.longValue();
+    }
+
+    /**
+     * Creates the budgets of the requests a service receives, and keeps their deadlines so that the
+     * requests still running can all be cancelled, e.g. when the server shuts down.
+     */
+    static final class Tracker {
+        private final AnalysisProperties properties;
+        // Weakly held, so that finished requests never need to unregister
+        private final Set<Deadline> deadlines = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+        Tracker(AnalysisProperties properties) {
+            this.properties = properties;
+        }
+
+        /**
+         * Resolves the budget of a request and starts its deadline.
+         *
+         * @param requested The limits the request asked for, or {@code null} for the server defaults.
+         * @throws IllegalArgumentException If a requested limit is not positive.
+         */
+        RequestBudget start(BudgetDTO requested) {
+            BudgetDTO budget = requested != null ? requested : new BudgetDTO();
+            RequestBudget resolved = new RequestBudget(
+                    (int) resolve("maxStates", widen(budget.getMaxStates()),
+                            properties.getMaxStates(), properties.getMaxRequestStates()),
+                    (int) resolve("maxSteps", widen(budget.getMaxSteps()),
+                            properties.getMaxSteps(), properties.getMaxRequestSteps()),
+                    resolve("timeLimitMillis", budget.getTimeLimitMillis(),
+                            properties.getTimeLimitMillis(), properties.getMaxRequestTimeLimitMillis()),
+                    resolve("memoryBudgetBytes", budget.getMemoryBudgetBytes(),
+                            properties.getMemoryBudget().toBytes(), properties.getMaxRequestMemoryBudget().toBytes()));
+            deadlines.add(resolved.deadline);
+            return resolved;
+        }
+
+        /**
+         * Cancels the deadline of every request still running, which makes their engines stop at
+         * their next check and return what they found so far.
+         */
+        void cancelAll() {
+            synchronized (deadlines) {
+                deadlines.forEach(Deadline::cancel);
+            }
+        }
+    }
+}
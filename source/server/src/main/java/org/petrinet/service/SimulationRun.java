@@ -0,0 +1,194 @@
+package org.petrinet.service;
+
+import org.petrinet.client.SimulationBatchDTO;
+import org.petrinet.service.engine.Deadline;
+import org.petrinet.service.engine.IncrementalSimulation;
+import org.petrinet.service.model.CompiledNet;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * A simulation run that is streamed in batches instead of being returned at once.
+ * Steps follow the rules of {@link PetriNetService#runPetriNet}, but the run hands its firings to a
+ * sink batch by batch, each with the token counts that changed since the previous batch. Only the
+ * current batch is held in memory, so memory use does not grow with the length of the run.
+ * <p>
+ * The sink is expected to block while its consumer is behind, e.g. on a socket write. The run then
+ * waits for it before firing more, and a sink that is slow to accept a batch makes later batches
+ * larger, so that a slow consumer receives fewer, bigger events. Instances are not thread-safe,
+ * except for {@link #cancel()}.
+ * <p>
+ * The run also stops with {@code TIME_LIMIT} when its deadline expires or it is cancelled. The
+ * deadline is checked before every batch and every so many firings within one.
+ */
+public final class SimulationRun {
+
+    /** Largest number of firings in one batch. */
+    public static final int MAX_BATCH_SIZE = 4096;
+
+    // A batch the sink takes longer than this to accept doubles the size of the next ones
+    private static final long SLOW_SINK_NANOS = 10_000_000L;
+    // Number of firings between two checks of the deadline
+    private static final int DEADLINE_CHECK_INTERVAL = 1024;
+
+    /**
+     * Receives the batches of a run, in order.
+     */
+    @FunctionalInterface
+    public interface BatchSink {
+        void accept(SimulationBatchDTO batch) throws IOException;
+    }
+
+    private final CompiledNet net;
+    private final int[] marking;
+    private final IncrementalSimulation simulation;
+    private final long maxSteps;
+    private final boolean stopOnConflict;
+    private final int initialBatchSize;
+    private final long timeLimitMillis;
+    private final Deadline deadline;
+    private final Random random = new Random();
+    private long steps;
+    private long batchStart;
+    private String stopReason;
+
+    // Places changed in the current batch, with their token counts before it
+    private final int[] touchedPlaces;
+    private final int[] tokensBefore;
+    private final int[] touchedStamps;
+    private int stamp;
+
+    SimulationRun(CompiledNet net, int[] marking, long maxSteps, boolean stopOnConflict, int initialBatchSize,
+                  long timeLimitMillis, Deadline deadline) {
+        this.net = net;
+        this.marking = marking;
+        this.simulation = new IncrementalSimulation(net, marking);
+        this.maxSteps = maxSteps;
+        this.stopOnConflict = stopOnConflict;
+        this.initialBatchSize = initialBatchSize;
+        this.timeLimitMillis = timeLimitMillis;
+        this.deadline = deadline;
+        this.touchedPlaces = new int[net.getPlaceCount()];
+        this.tokensBefore = new int[net.getPlaceCount()];
+        this.touchedStamps = new int[net.getPlaceCount()];
+    }
+
+    /**
+     * @return {@code true} once the batch carrying the stop reason has been produced.
+     */
+    public boolean isFinished() {
+        return stopReason != null;
+    }
+
+    /**
+     * @return The wall-clock budget of the run, in milliseconds, which started when it was opened.
+     */
+    public long getTimeLimitMillis() {
+        return timeLimitMillis;
+    }
+
+    /**
+     * Makes the run stop with {@code TIME_LIMIT} at its next deadline check. Can be called from any thread.
+     */
+    public void cancel() {
+        deadline.cancel();
+    }
+
+    /**
+     * Runs the simulation to its end, handing every batch to the sink as soon as it is complete.
+     *
+     * @param sink The consumer of the batches.
+     * @throws IOException If the sink fails, e.g. because the client went away. The run stops there.
+     */
+    public void streamTo(BatchSink sink) throws IOException {
+        int batchSize = initialBatchSize;
+        while (!isFinished()) {
+            SimulationBatchDTO batch = nextBatch(batchSize);
+            long start = System.nanoTime();
+            sink.accept(batch);
+            if (System.nanoTime() - start > SLOW_SINK_NANOS) {
+                batchSize = Math.min(MAX_BATCH_SIZE, 2 * batchSize);
+            }
+        }
+    }
+
+    /**
+     * Fires up to a number of transitions, stopping early if the run ends.
+     *
+     * @param maxFirings The largest number of transitions to fire in this batch.
+     * @return The firings of the batch and the places they changed; on the last batch, also the
+     *         reason the run stopped and the transitions enabled at the end.
+     */
+    public SimulationBatchDTO nextBatch(int maxFirings) {
+        if (isFinished()) {
+            throw new IllegalStateException("The run has already stopped: " + stopReason);
+        }
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(touchedStamps, 0);
+            stamp = 1;
+        }
+        long firstStep = steps;
+        batchStart = steps;
+        int touchedCount = 0;
+        List<String> firedTransitions = new ArrayList<>(Math.min(maxFirings, 1024));
+        while ((stopReason = stopCondition()) == null && firedTransitions.size() < maxFirings) {
+            int enabledCount = simulation.getEnabledCount();
+            int selectedTransition = simulation.getEnabledTransition(
+                enabledCount == 1 ? 0 : random.nextInt(enabledCount));
+            for (int place : net.getAffectedPlaces(selectedTransition)) {
+                if (touchedStamps[place] != stamp) {
+                    touchedStamps[place] = stamp;
+                    tokensBefore[place] = marking[place];
+                    touchedPlaces[touchedCount++] = place;
+                }
+            }
+            simulation.fire(selectedTransition);
+            firedTransitions.add(net.getTransitionId(selectedTransition));
+            steps++;
+        }
+
+        Map<String, Integer> changedPlaces = new LinkedHashMap<>();
+        for (int i = 0; i < touchedCount; i++) {
+            int place = touchedPlaces[i];
+            if (marking[place] != tokensBefore[place]) {
+                changedPlaces.put(net.getPlaceId(place), marking[place]);
+            }
+        }
+
+        SimulationBatchDTO batch = new SimulationBatchDTO();
+        batch.setFirstStep(firstStep);
+        batch.setFiredTransitions(firedTransitions);
+        batch.setChangedPlaces(changedPlaces);
+        if (isFinished()) {
+            List<String> enabledTransitions = new ArrayList<>();
+            for (int t : simulation.getEnabledTransitions()) {
+                enabledTransitions.add(net.getTransitionId(t));
+            }
+            batch.setStopReason(stopReason);
+            batch.setEnabledTransitions(enabledTransitions);
+        }
+        return batch;
+    }
+
+    /**
+     * @return Why the run stops before its next firing, or {@code null} if it goes on. A deadlock
+     *         reached exactly on the last allowed step is reported as a deadlock.
+     */
+    private String stopCondition() {
+        int enabledCount = simulation.getEnabledCount();
+        if (enabledCount == 0) {
+            return "DEADLOCK";
+        }
+        if (steps >= maxSteps) {
+            return "STEP_LIMIT";
+        }
+        if (enabledCount > 1 && stopOnConflict) {
+            return "CONFLICT";
+        }
+        if ((steps == batchStart || steps % DEADLINE_CHECK_INTERVAL == 0) && deadline.isExpired()) {
+            return "TIME_LIMIT";
+        }
+        return null;
+    }
+}
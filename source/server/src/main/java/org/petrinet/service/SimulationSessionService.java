@@ -0,0 +1,266 @@
+package org.petrinet.service;
+
+import org.petrinet.client.PetriNetDTO;
+import org.petrinet.client.SimulationDeltaDTO;
+import org.petrinet.config.AnalysisProperties;
+import org.petrinet.service.engine.IncrementalSimulation;
+import org.petrinet.service.model.CompiledNet;
+import org.petrinet.util.PetriNetMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Service for simulation sessions, which keep a Petri net and its marking on the server between steps.
+ * A client registers its net once and then steps it by session ID: a step sends no net and returns
+ * only the transition it fired, the token counts that changed and the transitions now enabled.
+ * Steps follow the rules of {@link PetriNetService#processPetriNet(PetriNetDTO)}, and a conflict in
+ * deterministic mode is resolved by firing the transition of the user's choice.
+ * <p>
+ * Sessions are kept in memory, at most {@link AnalysisProperties#getMaxSessions()} at once. A session
+ * unused for longer than {@link AnalysisProperties#getSessionIdleTimeout()} is closed, and when the
+ * store is full the least recently used session is closed to make room for a new one. Pinned sessions,
+ * whose owner closes them explicitly such as a WebSocket connection, are exempt from both: they count
+ * towards the limit but are only closed by {@link #closeSession(String)}, and a store full of pinned
+ * sessions refuses new ones. Requests on the same session are handled one at a time; requests on
+ * different sessions run concurrently.
+ */
+@Service
+public class SimulationSessionService {
+
+    private final CompiledNetCache compiledNets;
+    private final int maxSessions;
+    private final long idleTimeoutNanos;
+    // Access-ordered, so iteration starts at the session unused for the longest time
+    private final LinkedHashMap<String, Session> sessions = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Creates the service with the default session limits and a compiled net cache of its own.
+     */
+    public SimulationSessionService() {
+        this(new CompiledNetCache(), new AnalysisProperties());
+    }
+
+    /**
+     * @param compiledNets The cache the structure of every registered net is compiled through.
+     * @param analysisProperties The server settings, which limit the number and idle time of sessions.
+     */
+    @Autowired
+    public SimulationSessionService(CompiledNetCache compiledNets, AnalysisProperties analysisProperties) {
+        this.compiledNets = compiledNets;
+        this.maxSessions = Math.max(1, analysisProperties.getMaxSessions());
+        this.idleTimeoutNanos = analysisProperties.getSessionIdleTimeout().toNanos();
+    }
+
+    /**
+     * Registers a Petri net in its current marking as a new session.
+     *
+     * @param petriNetDTO The Petri net to simulate, including its marking and mode.
+     * @return The ID of the new session, with the transitions enabled in the initial marking.
+     * @throws IllegalStateException if every session in the store is pinned.
+     */
+    public SimulationDeltaDTO createSession(PetriNetDTO petriNetDTO) {
+        return createSession(petriNetDTO, false);
+    }
+
+    /**
+     * Registers a Petri net in its current marking as a new session.
+     *
+     * @param petriNetDTO The Petri net to simulate, including its marking and mode.
+     * @param pinned Whether the session is kept until it is closed, rather than closed when idle or
+     *               to make room for a newer one.
+     * @return The ID of the new session, with the transitions enabled in the initial marking.
+     * @throws IllegalStateException if every session in the store is pinned.
+     */
+    public SimulationDeltaDTO createSession(PetriNetDTO petriNetDTO, boolean pinned) {
+        CompiledNet net = compiledNets.get(petriNetDTO);
+        int[] marking = PetriNetMapper.dtoToMarking(net, petriNetDTO.getPlaces());
+        Boolean isDeterministicMode = petriNetDTO.getDeterministicMode();
+        Session session = new Session(UUID.randomUUID().toString(),
+                new IncrementalSimulation(net, marking), isDeterministicMode != null && isDeterministicMode, pinned);
+        synchronized (sessions) {
+            long now = System.nanoTime();
+            evictIdle(now);
+            if (sessions.size() >= maxSessions) {
+                evictLeastRecentlyUsed();
+            }
+            session.lastAccess = now;
+            sessions.put(session.id, session);
+        }
+        synchronized (session) {
+            return session.delta("CREATED", -1, Map.of());
+        }
+    }
+
+    /**
+     * Processes a single step of a session, as {@link PetriNetService#processPetriNet(PetriNetDTO)}
+     * does for a whole net: the only enabled transition fires, or one of several chosen at random.
+     * In deterministic mode, several enabled transitions are a conflict and nothing fires.
+     *
+     * @param sessionId The ID of the session.
+     * @return The transition fired and the places it changed, or the conflict or deadlock that kept
+     *         the session from firing.
+     * @throws NoSuchElementException if the session does not exist or was closed.
+     */
+    public SimulationDeltaDTO step(String sessionId) {
+        Session session = getSession(sessionId);
+        synchronized (session) {
+            IncrementalSimulation simulation = session.simulation;
+            int enabledCount = simulation.getEnabledCount();
+            if (enabledCount == 0) {
+                return session.delta("DEADLOCK", -1, Map.of());
+            }
+            if (enabledCount > 1 && session.deterministicMode) {
+                return session.delta("CONFLICT", -1, Map.of());
+            }
+            int selectedTransition = simulation.getEnabledTransition(
+                enabledCount == 1 ? 0 : session.random.nextInt(enabledCount));
+            return session.fire(selectedTransition);
+        }
+    }
+
+    /**
+     * Fires a transition of the user's choice in a session, typically to resolve a conflict.
+     *
+     * @param sessionId The ID of the session.
+     * @param transitionId The ID of the transition to fire.
+     * @return The transition fired and the places it changed.
+     * @throws NoSuchElementException if the session does not exist or was closed.
+     * @throws IllegalArgumentException if the transition does not exist or is not enabled.
+     */
+    public SimulationDeltaDTO fire(String sessionId, String transitionId) {
+        Session session = getSession(sessionId);
+        synchronized (session) {
+            int transition = session.simulation.getNet().getTransitionIndex(transitionId);
+            if (transition < 0) {
+                throw new IllegalArgumentException("Selected transition not found: " + transitionId);
+            }
+            if (!session.simulation.isEnabled(transition)) {
+                throw new IllegalArgumentException("Selected transition is not enabled: " + transitionId);
+            }
+            return session.fire(transition);
+        }
+    }
+
+    /**
+     * Closes a session and releases its marking.
+     *
+     * @param sessionId The ID of the session.
+     * @return {@code true} if the session was open.
+     */
+    public boolean closeSession(String sessionId) {
+        synchronized (sessions) {
+            return sessions.remove(sessionId) != null;
+        }
+    }
+
+    /**
+     * @return The number of open sessions, not counting idle ones that are yet to be closed.
+     */
+    public int getSessionCount() {
+        synchronized (sessions) {
+            evictIdle(System.nanoTime());
+            return sessions.size();
+        }
+    }
+
+    private Session getSession(String sessionId) {
+        synchronized (sessions) {
+            long now = System.nanoTime();
+            evictIdle(now);
+            Session session = sessions.get(sessionId);
+            if (session == null) {
+                throw new NoSuchElementException("Simulation session not found or expired: " + sessionId);
+            }
+            session.lastAccess = now;
+            return session;
+        }
+    }
+
+    /**
+     * Closes the sessions unused for longer than the idle timeout. They are the first unpinned ones in
+     * access order, so the sweep stops at the first unpinned session still in use.
+     */
+    private void evictIdle(long now) {
+        Iterator<Session> leastRecentlyUsed = sessions.values().iterator();
+        while (leastRecentlyUsed.hasNext()) {
+            Session session = leastRecentlyUsed.next();
+            if (session.pinned) continue;
+            if (now - session.lastAccess < idleTimeoutNanos) {
+                return;
+            }
+            leastRecentlyUsed.remove();
+        }
+    }
+
+    /**
+     * Closes the least recently used unpinned session to make room for a new one.
+     */
+    private void evictLeastRecentlyUsed() {
+        Iterator<Session> leastRecentlyUsed = sessions.values().iterator();
+        while (leastRecentlyUsed.hasNext()) {
+            if (!leastRecentlyUsed.next().pinned) {
+                leastRecentlyUsed.remove();
+                return;
+            }
+        }
+        throw new IllegalStateException("All " + maxSessions + " simulation sessions are pinned by open connections");
+    }
+
+    private static final class Session {
+        private final String id;
+        private final IncrementalSimulation simulation;
+        private final boolean deterministicMode;
+        private final boolean pinned;
+        private final Random random = new Random();
+        private long steps;
+        // Guarded by the session store
+        private long lastAccess;
+
+        private Session(String id, IncrementalSimulation simulation, boolean deterministicMode, boolean pinned) {
+            this.id = id;
+            this.simulation = simulation;
+            this.deterministicMode = deterministicMode;
+            this.pinned = pinned;
+        }
+
+        private SimulationDeltaDTO fire(int transition) {
+            CompiledNet net = simulation.getNet();
+            int[] marking = simulation.getMarking();
+            int[] affectedPlaces = net.getAffectedPlaces(transition);
+            int[] before = new int[affectedPlaces.length];
+            for (int i = 0; i < affectedPlaces.length; i++) {
+                before[i] = marking[affectedPlaces[i]];
+            }
+            simulation.fire(transition);
+            steps++;
+
+            Map<String, Integer> changedPlaces = new LinkedHashMap<>();
+            for (int i = 0; i < affectedPlaces.length; i++) {
+                int place = affectedPlaces[i];
+                if (marking[place] != before[i]) {
+                    changedPlaces.put(net.getPlaceId(place), marking[place]);
+                }
+            }
+            return delta("FIRED", transition, changedPlaces);
+        }
+
+        private SimulationDeltaDTO delta(String outcome, int firedTransition, Map<String, Integer> changedPlaces) {
+            CompiledNet net = simulation.getNet();
+            List<String> enabledTransitions = new ArrayList<>();
+            for (int t : simulation.getEnabledTransitions()) {
+                enabledTransitions.add(net.getTransitionId(t));
+            }
+
+            SimulationDeltaDTO delta = new SimulationDeltaDTO();
+            delta.setSessionId(id);
+            delta.setStep(steps);
+            delta.setOutcome(outcome);
+            delta.setFiredTransitionId(firedTransition < 0 ? null : net.getTransitionId(firedTransition));
+            delta.setChangedPlaces(changedPlaces);
+            delta.setEnabledTransitions(enabledTransitions);
+            return delta;
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package org.petrinet.service.engine;
+
+import org.petrinet.service.model.CompiledNet;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Karp–Miller style coverability explorer of a {@link CompiledNet}, used to decide which places can
+ * grow without limit and to compute the bound of every other place without enumerating every marking.
+ * <p>
+ * Markings may hold {@link #OMEGA}, standing for "arbitrarily many tokens". When a new marking covers
+ * one of its ancestors, every place that grew along the path is accelerated to {@code OMEGA}. Two
+ * pruning rules in the spirit of minimal coverability set algorithms keep the graph small:
+ * <ul>
+ *   <li>a new marking covered by a marking already in the graph is not expanded;</li>
+ *   <li>pending markings strictly covered by a new marking are dropped before being expanded.</li>
+ * </ul>
+ * <p>
+ * Firing is only monotone in places that no transition inhibits and that have no capacity. All other
+ * places are rigid: covering and acceleration require them to be equal, so they never become
+ * {@code OMEGA}. If a rigid place grows forever, the exploration runs into its state or time budget
+ * and the result is reported as incomplete.
+ * <p>
+ * The memory budget is checked against an estimate of the heap held by the nodes of the graph.
+ */
+public final class CoverabilityExplorer {
+
+    /** Token count standing for an unbounded number of tokens. */
+    public static final int OMEGA = Integer.MAX_VALUE;
+
+    // Rough heap footprint of a node besides its marking array: the node, its bucket slot and stack slot
+    private static final long NODE_BYTES = 32 + 8 + 8;
+
+    private final CompiledNet net;
+    private final int maxNodes;
+    private final long memoryBudgetBytes;
+    private final Deadline deadline;
+    private final int[] rigidPlaces;
+    private final int[] flexiblePlaces;
+
+    /**
+     * @param net The compiled net to explore.
+     * @param maxNodes The maximum number of markings to add to the coverability graph.
+     * @param deadline The wall-clock budget for the exploration.
+     */
+    public CoverabilityExplorer(CompiledNet net, int maxNodes, Deadline deadline) {
+        this(net, maxNodes, Long.MAX_VALUE, deadline);
+    }
+
+    /**
+     * @param net The compiled net to explore.
+     * @param maxNodes The maximum number of markings to add to the coverability graph.
+     * @param memoryBudgetBytes The maximum estimated number of heap bytes the graph may use.
+     * @param deadline The wall-clock budget for the exploration.
+     */
+    public CoverabilityExplorer(CompiledNet net, int maxNodes, long memoryBudgetBytes, Deadline deadline) {
+        this.net = net;
+        this.maxNodes = maxNodes;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.deadline = deadline;
+
+        boolean[] rigid = new boolean[net.getPlaceCount()];
+        for (int p = 0; p < net.getPlaceCount(); p++) {
+            rigid[p] = net.isBounded(p);
+        }
+        for (int t = 0; t < net.getTransitionCount(); t++) {
+            for (int place : net.getInhibitorPlaces(t)) {
+                rigid[place] = true;
+            }
+        }
+        List<Integer> rigidList = new ArrayList<>();
+        List<Integer> flexibleList = new ArrayList<>();
+        for (int p = 0; p < rigid.length; p++) {
+            (rigid[p] ? rigidList : flexibleList).add(p);
+        }
+        this.rigidPlaces = rigidList.stream().mapToInt(Integer::intValue).toArray();
+        this.flexiblePlaces = flexibleList.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Builds the coverability graph from the initial marking, within the configured budgets.
+     *
+     * @param initialMarking The marking to start from. It is not modified.
+     * @return Which places are unbounded, the bound of the others, and whether the graph is complete.
+     */
+    public Result explore(int[] initialMarking) {
+        Map<RigidKey, List<Node>> active = new HashMap<>();
+        Deque<Node> pending = new ArrayDeque<>();
+        boolean[] unbounded = new boolean[net.getPlaceCount()];
+        int[] bounds = initialMarking.clone();
+        int nodes = 0;
+        long nodeBytes = NODE_BYTES + 16 + (long) net.getPlaceCount() * Integer.BYTES;
+        boolean stateLimitReached = false;
+        boolean timeLimitReached = false;
+        boolean memoryLimitReached = false;
+
+        if (maxNodes > 0) {
+            Node root = new Node(initialMarking.clone(), null);
+            active.computeIfAbsent(rigidKey(root.marking), key -> new ArrayList<>()).add(root);
+            pending.push(root);
+            nodes++;
+        } else {
+            stateLimitReached = true;
+        }
+
+        expansion:
+        while (!pending.isEmpty()) {
+            if (deadline.isExpired()) {
+                timeLimitReached = true;
+                break;
+            }
+            Node node = pending.pop();
+            if (node.dropped) continue;
+            node.expanded = true;
+
+            for (int t = 0; t < net.getTransitionCount(); t++) {
+                if (!net.isEnabled(t, node.marking)) continue;
+                int[] successor = fire(t, node.marking);
+                accelerate(node, successor);
+
+                List<Node> bucket = active.computeIfAbsent(rigidKey(successor), key -> new ArrayList<>());
+                if (isCovered(successor, bucket)) continue;
+                if (nodes >= maxNodes) {
+                    stateLimitReached = true;
+                    break expansion;
+                }
+                if ((nodes + 1) * nodeBytes > memoryBudgetBytes) {
+                    memoryLimitReached = true;
+                    break expansion;
+                }
+                dropCoveredPending(successor, bucket);
+
+                Node child = new Node(successor, node);
+                bucket.add(child);
+                pending.push(child);
+                nodes++;
+                for (int p = 0; p < successor.length; p++) {
+                    if (successor[p] == OMEGA) {
+                        unbounded[p] = true;
+                    } else if (successor[p] > bounds[p]) {
+                        bounds[p] = successor[p];
+                    }
+                }
+            }
+        }
+        return new Result(unbounded, bounds, nodes, stateLimitReached, timeLimitReached, memoryLimitReached);
+    }
+
+    /**
+     * Fires a transition on a copy of a marking, keeping {@code OMEGA} places at {@code OMEGA}.
+     */
+    private int[] fire(int transition, int[] marking) {
+        int[] successor = marking.clone();
+        net.fire(transition, successor);
+        for (int place : flexiblePlaces) {
+            if (marking[place] == OMEGA) {
+                successor[place] = OMEGA;
+            }
+        }
+        return successor;
+    }
+
+    /**
+     * Sets to {@code OMEGA} every flexible place that grew since an ancestor covered by the marking.
+     */
+    private void accelerate(Node parent, int[] marking) {
+        for (Node ancestor = parent; ancestor != null; ancestor = ancestor.parent) {
+            if (covers(marking, ancestor.marking)) {
+                for (int place : flexiblePlaces) {
+                    if (ancestor.marking[place] < marking[place]) {
+                        marking[place] = OMEGA;
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean isCovered(int[] marking, List<Node> bucket) {
+        for (Node node : bucket) {
+            if (covers(node.marking, marking)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Drops the markings waiting for expansion that the new marking strictly covers; the new
+     * marking's successors cover theirs.
+     */
+    private void dropCoveredPending(int[] marking, List<Node> bucket) {
+        Iterator<Node> nodes = bucket.iterator();
+        while (nodes.hasNext()) {
+            Node node = nodes.next();
+            if (!node.expanded && covers(marking, node.marking)) {
+                node.dropped = true;
+                nodes.remove();
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if {@code larger} equals {@code smaller} on rigid places and is at least
+     *         as large on flexible places.
+     */
+    private boolean covers(int[] larger, int[] smaller) {
+        for (int place : rigidPlaces) {
+            if (larger[place] != smaller[place]) return false;
+        }
+        for (int place : flexiblePlaces) {
+            if (larger[place] < smaller[place]) return false;
+        }
+        return true;
+    }
+
+    private RigidKey rigidKey(int[] marking) {
+        int[] values = new int[rigidPlaces.length];
+        for (int i = 0; i < rigidPlaces.length; i++) {
+            values[i] = marking[rigidPlaces[i]];
+        }
+        return new RigidKey(values);
+    }
+
+    private static final class Node {
+        final int[] marking;
+        final Node parent;
+        boolean expanded;
+        boolean dropped;
+
+        Node(int[] marking, Node parent) {
+            this.marking = marking;
+            this.parent = parent;
+        }
+    }
+
+    /**
+     * Token counts of the rigid places; only markings with equal keys can cover each other.
+     */
+    private static final class RigidKey {
+        private final int[] values;
+        private final int hash;
+
+        RigidKey(int[] values) {
+            this.values = values;
+            this.hash = Arrays.hashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof RigidKey key && Arrays.equals(values, key.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Outcome of a coverability exploration.
+     */
+    public static final class Result {
+        private final boolean[] unbounded;
+        private final int[] bounds;
+        private final int nodeCount;
+        private final boolean stateLimitReached;
+        private final boolean timeLimitReached;
+        private final boolean memoryLimitReached;
+
+        public Result(boolean[] unbounded, int[] bounds, int nodeCount, boolean stateLimitReached,
+                      boolean timeLimitReached, boolean memoryLimitReached) {
+            this.unbounded = unbounded;
+            this.bounds = bounds;
+            this.nodeCount = nodeCount;
+            this.stateLimitReached = stateLimitReached;
+            this.timeLimitReached = timeLimitReached;
+            this.memoryLimitReached = memoryLimitReached;
+        }
+
+        /**
+         * @return {@code true} if the place can hold arbitrarily many tokens. This is reliable even
+         *         when the exploration is incomplete.
+         */
+        public boolean isUnbounded(int place) {
+            return unbounded[place];
+        }
+
+        /**
+         * @return The largest token count seen in the place. It is the exact bound of the place when
+         *         the exploration is complete and the place is not unbounded, and a lower bound otherwise.
+         */
+        public int getBound(int place) {
+            return bounds[place];
+        }
+
+        public int getNodeCount() {
+            return nodeCount;
+        }
+
+        public boolean isStateLimitReached() {
+            return stateLimitReached;
+        }
+
+        public boolean isTimeLimitReached() {
+            return timeLimitReached;
+        }
+
+        public boolean isMemoryLimitReached() {
+            return memoryLimitReached;
+        }
+
+        /**
+         * @return {@code true} if the graph was built without hitting a budget.
+         */
+        public boolean isComplete() {
+            return !stateLimitReached && !timeLimitReached && !memoryLimitReached;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.petrinet.service.engine;
+
+/**
+ * Wall-clock budget of a run, polled by the engines from their hot loops.
+ * <p>
+ * A deadline can also be cancelled from any thread. Engines do not distinguish cancellation from
+ * running out of time: both make the next check fail, so the engine stops and reports a partial
+ * result as if its time limit had been reached. Whoever cancelled the deadline can tell the two
+ * apart through {@link #isCancelled()}. One deadline may be shared by several engines, and by the
+ * worker threads of a parallel one, so that they all stop together.
+ */
+public final class Deadline {
+
+    private final long expiresAt;
+    private final Deadline parent;
+    private volatile boolean cancelled;
+
+    private Deadline(long expiresAt, Deadline parent) {
+        this.expiresAt = expiresAt;
+        this.parent = parent;
+    }
+
+    /**
+     * @param millis The wall-clock budget, in milliseconds, starting now.
+     * @return A deadline that expires once the budget has elapsed.
+     */
+    public static Deadline after(long millis) {
+        return new Deadline(System.nanoTime() + millis * 1_000_000L, null);
+    }
+
+    /**
+     * @return A deadline that only expires once it is cancelled, for runs limited by their caller
+     *         rather than by time.
+     */
+    public static Deadline unlimited() {
+        // Far enough ahead to never pass, yet close enough for the difference with nanoTime not to overflow
+        return new Deadline(System.nanoTime() + Long.MAX_VALUE / 2, null);
+    }
+
+    /**
+     * @param millis A wall-clock budget, in milliseconds, starting now.
+     * @return A deadline that expires once the budget has elapsed or this deadline expires, whichever
+     *         comes first, and that is cancelled along with this one. Cancelling it leaves this one running.
+     */
+    public Deadline within(long millis) {
+        long limit = System.nanoTime() + millis * 1_000_000L;
+        return new Deadline(limit - expiresAt < 0 ? limit : expiresAt, this);
+    }
+
+    /**
+     * Makes every later check of this deadline fail.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled || parent != null && parent.isCancelled();
+    }
+
+    /**
+     * @return {@code true} if the deadline has passed or was cancelled.
+     */
+    public boolean isExpired() {
+        return cancelled || System.nanoTime() - expiresAt > 0 || parent != null && parent.isCancelled();
+    }
+}
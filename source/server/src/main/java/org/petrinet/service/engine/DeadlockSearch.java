@@ -0,0 +1,214 @@
+package org.petrinet.service.engine;
+
+import org.petrinet.service.model.CompiledNet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * On-the-fly search for a dead marking, i.e. a reachable marking in which no transition is enabled.
+ * <p>
+ * Markings are explored breadth-first and each one is checked for deadness as soon as it is discovered,
+ * so the search stops at the first dead marking instead of building the whole graph. Because discovery
+ * order follows depth, that marking is one of the closest to the initial marking. Every discovered
+ * marking only keeps two ints on top of its packed encoding, the number of its parent and the
+ * transition fired from it, which is enough to rebuild the shortest witness sequence.
+ * <p>
+ * With {@link StubbornSets}, only the enabled transitions of a stubborn set are fired from each
+ * marking. Every dead marking stays reachable and the witness stays a shortest one, while far fewer
+ * markings are explored in nets with independent concurrent branches.
+ * <p>
+ * The memory budget is checked against an estimate of the heap held by the discovered markings.
+ */
+public final class DeadlockSearch {
+
+    private static final int NO_PARENT = -1;
+    // Rough heap footprint of a marking besides its packed form: visited set entry, list slot, parent and transition
+    private static final long STATE_BYTES = 48 + 8 + 2 * Integer.BYTES;
+
+    private final CompiledNet net;
+    private final int maxStates;
+    private final long memoryBudgetBytes;
+    private final Deadline deadline;
+    private final StubbornSets reduction;
+
+    /**
+     * @param net The compiled net to search.
+     * @param maxStates The maximum number of distinct markings to visit.
+     * @param deadline The wall-clock budget for the search.
+     */
+    public DeadlockSearch(CompiledNet net, int maxStates, Deadline deadline) {
+        this(net, maxStates, Long.MAX_VALUE, deadline, null);
+    }
+
+    /**
+     * @param net The compiled net to search.
+     * @param maxStates The maximum number of distinct markings to visit.
+     * @param memoryBudgetBytes The maximum estimated number of heap bytes the visited markings may use.
+     * @param deadline The wall-clock budget for the search.
+     * @param reduction The stubborn sets to reduce the search with, or {@code null} to fire every
+     *                  enabled transition.
+     */
+    public DeadlockSearch(CompiledNet net, int maxStates, long memoryBudgetBytes, Deadline deadline,
+                          StubbornSets reduction) {
+        this.net = net;
+        this.maxStates = maxStates;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.deadline = deadline;
+        this.reduction = reduction;
+    }
+
+    /**
+     * Searches for a dead marking reachable from the initial marking, within the configured budgets.
+     * A net without transitions has no deadlock to report.
+     *
+     * @param initialMarking The marking to start from. It is not modified.
+     * @return The dead marking and its witness if one was found, and how the search ended.
+     */
+    public Result search(int[] initialMarking) {
+        if (net.getTransitionCount() == 0 || maxStates <= 0) {
+            return new Result(null, null, 0, maxStates <= 0, false, false);
+        }
+        MarkingCodec codec = MarkingCodec.forNet(net, initialMarking);
+        Set<PackedMarking> visited = new HashSet<>();
+        List<PackedMarking> states = new ArrayList<>();
+        int[] parents = new int[16];
+        int[] firedTransitions = new int[16];
+
+        PackedMarking initial = codec.encode(initialMarking);
+        visited.add(initial);
+        states.add(initial);
+        parents[0] = NO_PARENT;
+        long bytes = PackedMarking.heapBytes(initial.wordCount()) + STATE_BYTES;
+        if (isDead(initialMarking)) {
+            return new Result(new int[0], initialMarking.clone(), 1, false, false, false);
+        }
+
+        int[] marking = new int[net.getPlaceCount()];
+        int[] successor = new int[net.getPlaceCount()];
+        int[] fireable = new int[net.getTransitionCount()];
+        StubbornSets.Selector selector = reduction == null ? null : reduction.newSelector();
+        for (int state = 0; state < states.size(); state++) {
+            if (deadline.isExpired()) {
+                return new Result(null, null, states.size(), false, true, false);
+            }
+            codec.decode(states.get(state), marking);
+            int count = selector == null
+                    ? net.getEnabledTransitions(marking, fireable)
+                    : selector.select(marking, fireable);
+            for (int i = 0; i < count; i++) {
+                int t = fireable[i];
+                System.arraycopy(marking, 0, successor, 0, marking.length);
+                net.fire(t, successor);
+                PackedMarking packed = codec.encode(successor);
+                if (!visited.add(packed)) continue;
+                if (states.size() >= maxStates) {
+                    return new Result(null, null, states.size(), true, false, false);
+                }
+                bytes += PackedMarking.heapBytes(packed.wordCount()) + STATE_BYTES;
+                if (bytes > memoryBudgetBytes) {
+                    return new Result(null, null, states.size(), false, false, true);
+                }
+
+                int id = states.size();
+                states.add(packed);
+                if (id == parents.length) {
+                    parents = Arrays.copyOf(parents, id * 2);
+                    firedTransitions = Arrays.copyOf(firedTransitions, id * 2);
+                }
+                parents[id] = state;
+                firedTransitions[id] = t;
+                if (isDead(successor)) {
+                    return new Result(witness(id, parents, firedTransitions), successor.clone(), states.size(),
+                            false, false, false);
+                }
+            }
+        }
+        return new Result(null, null, states.size(), false, false, false);
+    }
+
+    private boolean isDead(int[] marking) {
+        for (int t = 0; t < net.getTransitionCount(); t++) {
+            if (net.isEnabled(t, marking)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Follows the parent pointers back to the initial marking.
+     */
+    private static int[] witness(int state, int[] parents, int[] firedTransitions) {
+        int length = 0;
+        for (int s = state; parents[s] != NO_PARENT; s = parents[s]) {
+            length++;
+        }
+        int[] sequence = new int[length];
+        for (int s = state; parents[s] != NO_PARENT; s = parents[s]) {
+            sequence[--length] = firedTransitions[s];
+        }
+        return sequence;
+    }
+
+    /**
+     * Outcome of a deadlock search.
+     */
+    public static final class Result {
+        private final int[] witness;
+        private final int[] deadMarking;
+        private final int exploredStates;
+        private final boolean stateLimitReached;
+        private final boolean timeLimitReached;
+        private final boolean memoryLimitReached;
+
+        public Result(int[] witness, int[] deadMarking, int exploredStates, boolean stateLimitReached,
+                      boolean timeLimitReached, boolean memoryLimitReached) {
+            this.witness = witness;
+            this.deadMarking = deadMarking;
+            this.exploredStates = exploredStates;
+            this.stateLimitReached = stateLimitReached;
+            this.timeLimitReached = timeLimitReached;
+            this.memoryLimitReached = memoryLimitReached;
+        }
+
+        /**
+         * @return {@code true} if a dead marking was found.
+         */
+        public boolean isDeadlockFound() {
+            return deadMarking != null;
+        }
+
+        /**
+         * @return The indices of the transitions leading from the initial marking to the dead marking,
+         *         or {@code null} if none was found.
+         */
+        public int[] getWitness() {
+            return witness;
+        }
+
+        /**
+         * @return The dead marking, or {@code null} if none was found.
+         */
+        public int[] getDeadMarking() {
+            return deadMarking;
+        }
+
+        public int getExploredStates() {
+            return exploredStates;
+        }
+
+        public boolean isStateLimitReached() {
+            return stateLimitReached;
+        }
+
+        public boolean isTimeLimitReached() {
+            return timeLimitReached;
+        }
+
+        public boolean isMemoryLimitReached() {
+            return memoryLimitReached;
+        }
+    }
+}
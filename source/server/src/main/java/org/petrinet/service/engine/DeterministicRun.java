@@ -0,0 +1,238 @@
+package org.petrinet.service.engine;
+
+import org.petrinet.service.model.CompiledNet;
+
+import java.util.Arrays;
+
+/**
+ * Runs a {@link CompiledNet} in deterministic mode, firing the only enabled transition at each
+ * step, until no transition or more than one transition is enabled, a marking repeats, or the
+ * step or time budget is exhausted.
+ * <p>
+ * Steps go through an {@link IncrementalSimulation}, so each one only re-evaluates the neighbourhood
+ * of the fired transition. Visited markings are recognized by a hash that is the sum of one
+ * pseudo-random term per place and token count: a firing updates it with the terms of the places it
+ * changed, without reading the rest of the marking. When the hash of a marking was seen before, the
+ * earlier marking is rebuilt by replaying the recorded firings to rule out a collision. The buffers
+ * only grow by doubling, so the loop allocates nothing in the common case and a run costs time
+ * proportional to the number of firings rather than to the size of the net. The buffers belong to a
+ * single call, so an instance may run on several threads at once.
+ */
+public final class DeterministicRun {
+
+    /**
+     * Why a run stopped.
+     */
+    public enum Outcome {
+        /** No transition is enabled. */
+        DEADLOCK,
+        /** More than one transition is enabled, so the next step is not determined. */
+        CONFLICT,
+        /** The marking was already visited earlier in the run, so the run would loop forever. */
+        REPEATED_STATE,
+        /** The step limit was reached before any of the other outcomes. */
+        STEP_LIMIT,
+        /** The deadline passed or was cancelled before any of the other outcomes. */
+        TIME_LIMIT
+    }
+
+    private static final int EMPTY = -1;
+    // Number of steps between two checks of the deadline
+    private static final int DEADLINE_CHECK_INTERVAL = 1024;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final CompiledNet net;
+    private final int maxSteps;
+    private final Deadline deadline;
+
+    /**
+     * @param net The compiled net to run.
+     * @param maxSteps The maximum number of transitions to fire.
+     * @param deadline The wall-clock budget for the run.
+     */
+    public DeterministicRun(CompiledNet net, int maxSteps, Deadline deadline) {
+        this.net = net;
+        this.maxSteps = maxSteps;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Runs the net from a marking until it stops.
+     *
+     * @param marking The initial token count of every place. This array is modified and holds the
+     *                marking the run stopped in afterwards.
+     * @return Why the run stopped, and the transitions fired and enabled at that point.
+     */
+    public Result run(int[] marking) {
+        Trace trace = new Trace(marking.clone());
+        IncrementalSimulation simulation = new IncrementalSimulation(net, marking);
+        long hash = 0;
+        for (int p = 0; p < marking.length; p++) {
+            hash += term(p, marking[p]);
+        }
+
+        int step = 0;
+        while (true) {
+            if (trace.insertOrFind(hash, step, marking)) {
+                return new Result(Outcome.REPEATED_STATE, step, trace.lastFired(step), simulation);
+            }
+            if (step >= maxSteps) {
+                return new Result(Outcome.STEP_LIMIT, step, trace.lastFired(step), simulation);
+            }
+            if (step % DEADLINE_CHECK_INTERVAL == 0 && step > 0 && deadline.isExpired()) {
+                return new Result(Outcome.TIME_LIMIT, step, trace.lastFired(step), simulation);
+            }
+            int enabledCount = simulation.getEnabledCount();
+            if (enabledCount == 0) {
+                return new Result(Outcome.DEADLOCK, step, trace.lastFired(step), simulation);
+            }
+            if (enabledCount > 1) {
+                return new Result(Outcome.CONFLICT, step, trace.lastFired(step), simulation);
+            }
+
+            int transition = simulation.getEnabledTransition(0);
+            for (int place : net.getAffectedPlaces(transition)) {
+                hash -= term(place, marking[place]);
+            }
+            simulation.fire(transition);
+            for (int place : net.getAffectedPlaces(transition)) {
+                hash += term(place, marking[place]);
+            }
+            trace.record(step++, transition);
+        }
+    }
+
+    /**
+     * The firings of one run and the table of the markings it visited.
+     */
+    private final class Trace {
+        private final int[] initialMarking;
+        private int[] fired = new int[INITIAL_CAPACITY];
+        // Open-addressing table from marking hash to the step the marking was reached at
+        private long[] hashes = new long[2 * INITIAL_CAPACITY];
+        private int[] steps = new int[2 * INITIAL_CAPACITY];
+
+        Trace(int[] initialMarking) {
+            this.initialMarking = initialMarking;
+            Arrays.fill(steps, EMPTY);
+        }
+
+        void record(int step, int transition) {
+            if (step == fired.length) {
+                fired = Arrays.copyOf(fired, 2 * step);
+            }
+            fired[step] = transition;
+        }
+
+        int lastFired(int step) {
+            return step == 0 ? -1 : fired[step - 1];
+        }
+
+        /**
+         * Looks up the marking reached at a step in the table of visited markings, and records it there
+         * unless it was visited before.
+         *
+         * @return {@code true} if the marking was visited at an earlier step.
+         */
+        boolean insertOrFind(long hash, int step, int[] marking) {
+            int mask = steps.length - 1;
+            int slot = (int) mix(hash) & mask;
+            for (; steps[slot] != EMPTY; slot = (slot + 1) & mask) {
+                if (hashes[slot] == hash && isMarkingAt(steps[slot], marking)) {
+                    return true;
+                }
+            }
+            hashes[slot] = hash;
+            steps[slot] = step;
+            // Keep the table at most half full
+            if (2 * (step + 1) > steps.length) {
+                rehash();
+            }
+            return false;
+        }
+
+        private void rehash() {
+            long[] oldHashes = hashes;
+            int[] oldSteps = steps;
+            hashes = new long[2 * oldHashes.length];
+            steps = new int[2 * oldSteps.length];
+            Arrays.fill(steps, EMPTY);
+            int mask = steps.length - 1;
+            for (int i = 0; i < oldSteps.length; i++) {
+                if (oldSteps[i] == EMPTY) continue;
+                int slot = (int) mix(oldHashes[i]) & mask;
+                while (steps[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                hashes[slot] = oldHashes[i];
+                steps[slot] = oldSteps[i];
+            }
+        }
+
+        /**
+         * Checks a hash match by replaying the first firings of the run on the initial marking.
+         */
+        private boolean isMarkingAt(int step, int[] marking) {
+            int[] earlier = initialMarking.clone();
+            for (int i = 0; i < step; i++) {
+                net.fire(fired[i], earlier);
+            }
+            return Arrays.equals(earlier, marking);
+        }
+    }
+
+    private static long term(int place, int tokens) {
+        return mix(((long) place << 32) | (tokens & 0xFFFFFFFFL));
+    }
+
+    /**
+     * The SplitMix64 finalizer, which spreads every input bit over the whole output.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * Outcome of a deterministic run.
+     */
+    public static final class Result {
+        private final Outcome outcome;
+        private final int steps;
+        private final int lastFiredTransition;
+        private final int[] enabledTransitions;
+
+        Result(Outcome outcome, int steps, int lastFiredTransition, IncrementalSimulation simulation) {
+            this.outcome = outcome;
+            this.steps = steps;
+            this.lastFiredTransition = lastFiredTransition;
+            this.enabledTransitions = simulation.getEnabledTransitions();
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        /**
+         * @return The number of transitions fired.
+         */
+        public int getSteps() {
+            return steps;
+        }
+
+        /**
+         * @return The index of the transition fired last, or -1 if none was fired.
+         */
+        public int getLastFiredTransition() {
+            return lastFiredTransition;
+        }
+
+        /**
+         * @return The indices of the transitions enabled in the final marking, in ascending order.
+         */
+        public int[] getEnabledTransitions() {
+            return enabledTransitions;
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package org.petrinet.service.engine;
+
+import org.petrinet.service.model.CompiledNet;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Breadth-first explorer of the reachability graph of a {@link CompiledNet} for state spaces that do
+ * not fit in memory. The frontier, the successors of each level and the visited markings are spilled
+ * to files under a work directory, split into partitions by marking hash.
+ * <p>
+ * Duplicates are detected with a delayed pass after each level rather than on discovery. The level's
+ * successors are loaded one partition at a time, deduplicated among themselves and against that
+ * partition's visited file, and the survivors become both new visited entries and the next frontier.
+ * Only one partition of successors is held in memory at a time.
+ * <p>
+ * The same state and time budgets as {@link ReachabilityExplorer} apply. The memory budget bounds the
+ * estimated heap used by the partition of successors being deduplicated; a level whose partition does
+ * not fit stops the exploration. All files are deleted when
+ * the exploration ends. Like {@link ReachabilityExplorer}, it can be reduced with {@link StubbornSets}
+ * and {@link NetSymmetries}.
+ */
+public final class ExternalReachabilityExplorer {
+
+    // Rough heap footprint of a successor set entry besides the marking: the hash map node and its table slot
+    private static final long ENTRY_BYTES = 48;
+
+    private final CompiledNet net;
+    private final Path workDirectory;
+    private final int partitions;
+    private final int maxStates;
+    private final long memoryBudgetBytes;
+    private final Deadline deadline;
+    private final StubbornSets reduction;
+    private final NetSymmetries symmetries;
+
+    /**
+     * @param net The compiled net to explore.
+     * @param workDirectory The directory under which a temporary directory for the spill files is created.
+     * @param partitions The number of hash partitions the spilled markings are split into.
+     * @param maxStates The maximum number of distinct markings to visit.
+     * @param deadline The wall-clock budget for the exploration.
+     */
+    public ExternalReachabilityExplorer(CompiledNet net, Path workDirectory, int partitions,
+                                        int maxStates, Deadline deadline) {
+        this(net, workDirectory, partitions, maxStates, Long.MAX_VALUE, deadline, null, null);
+    }
+
+    /**
+     * @param net The compiled net to explore.
+     * @param workDirectory The directory under which a temporary directory for the spill files is created.
+     * @param partitions The number of hash partitions the spilled markings are split into.
+     * @param maxStates The maximum number of distinct markings to visit.
+     * @param memoryBudgetBytes The maximum estimated number of heap bytes one partition of successors may use.
+     * @param deadline The wall-clock budget for the exploration.
+     * @param reduction The stubborn sets to reduce the exploration with, or {@code null} to fire every
+     *                  enabled transition.
+     * @param symmetries The symmetries used to canonicalize markings, or {@code null} to keep every marking.
+     */
+    public ExternalReachabilityExplorer(CompiledNet net, Path workDirectory, int partitions, int maxStates,
+                                        long memoryBudgetBytes, Deadline deadline, StubbornSets reduction,
+                                        NetSymmetries symmetries) {
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("Partition count must be positive");
+        }
+        this.net = net;
+        this.workDirectory = workDirectory;
+        this.partitions = partitions;
+        this.maxStates = maxStates;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.deadline = deadline;
+        this.reduction = reduction;
+        this.symmetries = symmetries;
+    }
+
+    /**
+     * Explores every marking reachable from the initial marking, within the configured budgets.
+     *
+     * @param initialMarking The marking to start from. It is not modified.
+     * @return The counts gathered by the exploration, which budget stopped it, and the spill statistics.
+     * @throws UncheckedIOException If the spill files cannot be created, written or read.
+     */
+    public Result explore(int[] initialMarking) {
+        MarkingCodec codec = MarkingCodec.forNet(net, initialMarking);
+        try {
+            Files.createDirectories(workDirectory);
+            try (Run run = new Run(Files.createTempDirectory(workDirectory, "reachability-"), codec)) {
+                int[] start = initialMarking.clone();
+                if (symmetries != null) {
+                    symmetries.canonicalize(start);
+                }
+                return run.explore(codec.encode(start));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spill reachability state to " + workDirectory, e);
+        }
+    }
+
+    /**
+     * Files and counters of one exploration run. Each partition owns one visited file, two frontier
+     * files that alternate between levels, and one file for the successors of the current level.
+     */
+    private final class Run implements Closeable {
+        private final Path directory;
+        private final MarkingCodec codec;
+        private final SpillFile[] visited = new SpillFile[partitions];
+        private final SpillFile[] successors = new SpillFile[partitions];
+        private SpillFile[] frontier = new SpillFile[partitions];
+        private SpillFile[] next = new SpillFile[partitions];
+        private final List<SpillFile> openFiles = new ArrayList<>();
+        private long recycledBytes;
+        private int admitted;
+        private int explored;
+        private int dead;
+        private int passes;
+        private boolean stateLimitReached;
+        private boolean timeLimitReached;
+        private boolean memoryLimitReached;
+
+        Run(Path directory, MarkingCodec codec) {
+            this.directory = directory;
+            this.codec = codec;
+        }
+
+        Result explore(PackedMarking initial) throws IOException {
+            if (maxStates > 0) {
+                int partition = partitionOf(initial);
+                file(visited, partition, "visited").append(initial);
+                file(frontier, partition, "frontier").append(initial);
+                admitted = 1;
+            } else {
+                stateLimitReached = true;
+            }
+
+            while (hasRecords(frontier) && !stateLimitReached && !timeLimitReached && !memoryLimitReached) {
+                expand();
+                if (timeLimitReached) break;
+                detectDuplicates();
+                if (timeLimitReached || memoryLimitReached) break;
+                SpillFile[] expanded = frontier;
+                frontier = next;
+                next = expanded;
+            }
+            return new Result(admitted, explored, dead, stateLimitReached, timeLimitReached, memoryLimitReached,
+                    bytesSpilled(), passes);
+        }
+
+        /**
+         * Expands every frontier marking and spills all successors, duplicates included, by partition.
+         */
+        private void expand() throws IOException {
+            int[] marking = new int[net.getPlaceCount()];
+            int[] successor = new int[net.getPlaceCount()];
+            int[] fireable = new int[net.getTransitionCount()];
+            StubbornSets.Selector selector = reduction == null ? null : reduction.newSelector();
+            for (int p = 0; p < partitions && !timeLimitReached; p++) {
+                if (frontier[p] == null) continue;
+                SpillFile.Reader reader = frontier[p].reader();
+                PackedMarking current;
+                while ((current = reader.next()) != null) {
+                    if (deadline.isExpired()) {
+                        timeLimitReached = true;
+                        break;
+                    }
+                    codec.decode(current, marking);
+                    int count = selector == null
+                            ? net.getEnabledTransitions(marking, fireable)
+                            : selector.select(marking, fireable);
+                    if (count == 0) {
+                        dead++;
+                    }
+                    for (int i = 0; i < count; i++) {
+                        int t = fireable[i];
+                        System.arraycopy(marking, 0, successor, 0, marking.length);
+                        net.fire(t, successor);
+                        if (symmetries != null) {
+                            symmetries.canonicalize(successor);
+                        }
+                        PackedMarking packed = codec.encode(successor);
+                        file(successors, partitionOf(packed), "successors").append(packed);
+                    }
+                    explored++;
+                }
+                recycle(frontier[p]);
+            }
+        }
+
+        /**
+         * Removes duplicates from the spilled successors, partition by partition, and records the new
+         * markings as visited and as the next frontier. Stops as soon as the deadline expires or a
+         * partition outgrows the memory budget, leaving the level partly merged.
+         */
+        private void detectDuplicates() throws IOException {
+            passes++;
+            for (int p = 0; p < partitions && !stateLimitReached; p++) {
+                if (successors[p] == null || successors[p].getSize() == 0) continue;
+                Set<PackedMarking> fresh = new HashSet<>();
+                long bytes = 0;
+                SpillFile.Reader candidates = successors[p].reader();
+                PackedMarking marking;
+                while ((marking = candidates.next()) != null) {
+                    if (deadline.isExpired()) {
+                        timeLimitReached = true;
+                        return;
+                    }
+                    if (fresh.add(marking)) {
+                        bytes += PackedMarking.heapBytes(marking.wordCount()) + ENTRY_BYTES;
+                        if (bytes > memoryBudgetBytes) {
+                            memoryLimitReached = true;
+                            return;
+                        }
+                    }
+                }
+                recycle(successors[p]);
+
+                if (visited[p] != null) {
+                    SpillFile.Reader seen = visited[p].reader();
+                    while (!fresh.isEmpty() && (marking = seen.next()) != null) {
+                        if (deadline.isExpired()) {
+                            timeLimitReached = true;
+                            return;
+                        }
+                        fresh.remove(marking);
+                    }
+                }
+
+                for (PackedMarking discovered : fresh) {
+                    if (admitted >= maxStates) {
+                        stateLimitReached = true;
+                        break;
+                    }
+                    file(visited, p, "visited").append(discovered);
+                    file(next, p, "frontier").append(discovered);
+                    admitted++;
+                }
+            }
+        }
+
+        private int partitionOf(PackedMarking marking) {
+            return (int) Long.remainderUnsigned(marking.hash64(), partitions);
+        }
+
+        private boolean hasRecords(SpillFile[] files) {
+            for (SpillFile file : files) {
+                if (file != null && file.getSize() > 0) return true;
+            }
+            return false;
+        }
+
+        /**
+         * Returns the file of a partition, creating it on first use.
+         */
+        private SpillFile file(SpillFile[] files, int partition, String kind) throws IOException {
+            if (files[partition] == null) {
+                files[partition] = new SpillFile(directory.resolve(kind + "-" + openFiles.size() + ".bin"));
+                openFiles.add(files[partition]);
+            }
+            return files[partition];
+        }
+
+        private void recycle(SpillFile file) {
+            recycledBytes += file.getSize();
+            file.clear();
+        }
+
+        private long bytesSpilled() {
+            long bytes = recycledBytes;
+            for (SpillFile file : openFiles) {
+                bytes += file.getSize();
+            }
+            return bytes;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (SpillFile file : openFiles) {
+                file.close();
+            }
+            openFiles.clear();
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    /**
+     * Outcome of an exploration, including how much data was spilled to disk.
+     */
+    public static final class Result {
+        private final int reachableStates;
+        private final int exploredStates;
+        private final int deadStates;
+        private final boolean stateLimitReached;
+        private final boolean timeLimitReached;
+        private final boolean memoryLimitReached;
+        private final long bytesSpilled;
+        private final int passes;
+
+        public Result(int reachableStates, int exploredStates, int deadStates, boolean stateLimitReached,
+                      boolean timeLimitReached, boolean memoryLimitReached, long bytesSpilled, int passes) {
+            this.reachableStates = reachableStates;
+            this.exploredStates = exploredStates;
+            this.deadStates = deadStates;
+            this.stateLimitReached = stateLimitReached;
+            this.timeLimitReached = timeLimitReached;
+            this.memoryLimitReached = memoryLimitReached;
+            this.bytesSpilled = bytesSpilled;
+            this.passes = passes;
+        }
+
+        public int getReachableStates() {
+            return reachableStates;
+        }
+
+        public int getExploredStates() {
+            return exploredStates;
+        }
+
+        /**
+         * @return The number of explored markings in which no transition is enabled.
+         */
+        public int getDeadStates() {
+            return deadStates;
+        }
+
+        public boolean isStateLimitReached() {
+            return stateLimitReached;
+        }
+
+        public boolean isTimeLimitReached() {
+            return timeLimitReached;
+        }
+
+        public boolean isMemoryLimitReached() {
+            return memoryLimitReached;
+        }
+
+        /**
+         * @return The total number of bytes written to spill files.
+         */
+        public long getBytesSpilled() {
+            return bytesSpilled;
+        }
+
+        /**
+         * @return The number of delayed duplicate-detection passes, one per expanded level.
+         */
+        public int getPasses() {
+            return passes;
+        }
+    }
+}
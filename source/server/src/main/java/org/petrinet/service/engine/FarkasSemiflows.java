@@ -0,0 +1,402 @@
+package org.petrinet.service.engine;
+
+import org.petrinet.service.model.IncidenceMatrix;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Minimal semiflows of an {@link IncidenceMatrix}, computed with the Farkas algorithm.
+ * <p>
+ * A place semiflow (P-invariant) is a non-negative integer vector {@code y} over places with
+ * {@code y·C = 0}: the weighted token sum it describes is the same in every reachable marking. A
+ * transition semiflow (T-invariant) is a non-negative vector {@code x} over transitions with
+ * {@code C·x = 0}: firing each transition that many times leads back to the starting marking.
+ * <p>
+ * The algorithm starts from one row per variable, holding its sparse row (or column) of the matrix
+ * and a unit vector, and eliminates the other dimension one index at a time, called columns below:
+ * rows that are zero in the column are kept, and every pair of rows with opposite signs is combined
+ * into a row that is zero there. The column eliminated next is the one generating the fewest new
+ * rows, so columns whose entries all have the same sign, which only delete rows, go first. Combined
+ * rows whose support contains the support of another row can never lead to a minimal semiflow and
+ * are dropped right after each step, which keeps the intermediate matrices small. Rows are sparse,
+ * reduced by the gcd of their entries, and combined with exact {@code long} arithmetic: an overflow
+ * stops the computation instead of producing wrong results.
+ */
+public final class FarkasSemiflows {
+
+    private static final Comparator<Row> BY_SUPPORT_SIZE = Comparator.comparingInt(row -> row.weights.length);
+
+    private final int maxRows;
+    private final Deadline deadline;
+
+    /**
+     * @param maxRows The maximum number of rows an intermediate matrix may hold.
+     * @param deadline The wall-clock budget for the computation.
+     */
+    public FarkasSemiflows(int maxRows, Deadline deadline) {
+        this.maxRows = maxRows;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Computes the minimal place semiflows of an incidence matrix.
+     *
+     * @param incidence The incidence matrix of the net.
+     * @return The semiflows over place indices, and whether the computation completed.
+     */
+    public Result computePlaceSemiflows(IncidenceMatrix incidence) {
+        int placeCount = incidence.getPlaceCount();
+        List<Row> rows = new ArrayList<>(placeCount);
+        for (int p = 0; p < placeCount; p++) {
+            int from = incidence.getRowStart(p);
+            int to = incidence.getRowStart(p + 1);
+            int[] columns = new int[to - from];
+            long[] values = new long[to - from];
+            for (int k = from; k < to; k++) {
+                columns[k - from] = incidence.getRowTransition(k);
+                values[k - from] = incidence.getRowValue(k);
+            }
+            rows.add(Row.unit(p, placeCount, columns, values));
+        }
+        return eliminate(rows, placeCount, incidence.getTransitionCount());
+    }
+
+    /**
+     * Computes the minimal transition semiflows of an incidence matrix.
+     *
+     * @param incidence The incidence matrix of the net.
+     * @return The semiflows over transition indices, and whether the computation completed.
+     */
+    public Result computeTransitionSemiflows(IncidenceMatrix incidence) {
+        int transitionCount = incidence.getTransitionCount();
+        List<Row> rows = new ArrayList<>(transitionCount);
+        for (int t = 0; t < transitionCount; t++) {
+            int from = incidence.getColumnStart(t);
+            int to = incidence.getColumnStart(t + 1);
+            int[] columns = new int[to - from];
+            long[] values = new long[to - from];
+            for (int k = from; k < to; k++) {
+                columns[k - from] = incidence.getColumnPlace(k);
+                values[k - from] = incidence.getColumnValue(k);
+            }
+            rows.add(Row.unit(t, transitionCount, columns, values));
+        }
+        return eliminate(rows, transitionCount, incidence.getPlaceCount());
+    }
+
+    private Result eliminate(List<Row> rows, int variableCount, int columnCount) {
+        boolean[] eliminated = new boolean[columnCount];
+        try {
+            for (int step = 0; step < columnCount; step++) {
+                int column = nextColumn(rows, eliminated);
+                if (column < 0) break;
+                eliminated[column] = true;
+
+                List<Row> positive = new ArrayList<>();
+                List<Row> negative = new ArrayList<>();
+                List<Row> next = new ArrayList<>();
+                for (Row row : rows) {
+                    long value = row.get(column);
+                    if (value > 0) positive.add(row);
+                    else if (value < 0) negative.add(row);
+                    else next.add(row);
+                }
+                int kept = next.size();
+                for (Row p : positive) {
+                    for (Row n : negative) {
+                        long[] support = p.unionSupport(n);
+                        // A combination covering a row that is already final cannot be minimal
+                        if (coversAny(support, next, kept)) continue;
+                        next.add(p.combine(n, column, support));
+                        if (next.size() > maxRows) {
+                            return new Result(List.of(), variableCount, true, false, false);
+                        }
+                    }
+                    if (deadline.isExpired()) {
+                        return new Result(List.of(), variableCount, false, true, false);
+                    }
+                }
+                rows = minimalRows(next, kept);
+            }
+        } catch (ArithmeticException e) {
+            return new Result(List.of(), variableCount, false, false, true);
+        }
+
+        List<Semiflow> semiflows = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            semiflows.add(new Semiflow(row.variables, row.weights));
+        }
+        semiflows.sort(Comparator.comparingInt((Semiflow s) -> s.getIndices()[0])
+                .thenComparingInt(s -> s.getIndices().length));
+        return new Result(semiflows, variableCount, false, false, false);
+    }
+
+    /**
+     * Picks the column whose elimination creates the fewest rows, {@code positive * negative - positive - negative}.
+     *
+     * @return The column index, or -1 if every column has been eliminated.
+     */
+    private static int nextColumn(List<Row> rows, boolean[] eliminated) {
+        int[] positive = new int[eliminated.length];
+        int[] negative = new int[eliminated.length];
+        for (Row row : rows) {
+            for (int i = 0; i < row.columns.length; i++) {
+                if (row.values[i] > 0) positive[row.columns[i]]++;
+                else negative[row.columns[i]]++;
+            }
+        }
+        int best = -1;
+        long bestGrowth = Long.MAX_VALUE;
+        for (int c = 0; c < eliminated.length; c++) {
+            if (eliminated[c]) continue;
+            long growth = (long) positive[c] * negative[c] - positive[c] - negative[c];
+            if (growth < bestGrowth) {
+                bestGrowth = growth;
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Drops the new rows, from index {@code kept} on, whose support contains the support of another
+     * row. Of several new rows with the same support, only the first is kept.
+     */
+    private static List<Row> minimalRows(List<Row> rows, int kept) {
+        List<Row> created = new ArrayList<>(rows.subList(kept, rows.size()));
+        created.sort(BY_SUPPORT_SIZE);
+        List<Row> result = new ArrayList<>(rows.subList(0, kept));
+        for (Row row : created) {
+            if (!coversAny(row.support, result, result.size())) {
+                result.add(row);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return {@code true} if the support contains the support of one of the first {@code count} rows.
+     */
+    private static boolean coversAny(long[] support, List<Row> rows, int count) {
+        for (int i = 0; i < count; i++) {
+            if (Row.contains(support, rows.get(i).support)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * A row of the matrix being reduced: its remaining entries in the columns of the incidence matrix
+     * and the combination of variables it stands for, both sparse and sorted by index.
+     */
+    private static final class Row {
+        private final int[] columns;
+        private final long[] values;
+        private final int[] variables;
+        private final long[] weights;
+        private final long[] support;
+
+        private Row(int[] columns, long[] values, int[] variables, long[] weights, long[] support) {
+            this.columns = columns;
+            this.values = values;
+            this.variables = variables;
+            this.weights = weights;
+            this.support = support;
+        }
+
+        static Row unit(int variable, int variableCount, int[] columns, long[] values) {
+            long[] support = new long[(variableCount + 63) >>> 6];
+            support[variable >>> 6] |= 1L << variable;
+            return new Row(columns, values, new int[] {variable}, new long[] {1}, support);
+        }
+
+        long get(int column) {
+            int i = Arrays.binarySearch(columns, column);
+            return i >= 0 ? values[i] : 0;
+        }
+
+        long[] unionSupport(Row other) {
+            long[] union = support.clone();
+            for (int w = 0; w < union.length; w++) {
+                union[w] |= other.support[w];
+            }
+            return union;
+        }
+
+        /**
+         * Combines this row, positive in the column, with a row negative in it, so that the result is zero there.
+         */
+        Row combine(Row negative, int column, long[] combinedSupport) {
+            long a = get(column);
+            long b = -negative.get(column);
+            long g = gcd(a, b);
+            long factor = b / g;
+            long otherFactor = a / g;
+
+            int[] mergedColumns = new int[columns.length + negative.columns.length];
+            long[] mergedValues = new long[mergedColumns.length];
+            int size = merge(columns, values, factor, negative.columns, negative.values, otherFactor,
+                    mergedColumns, mergedValues);
+            int[] mergedVariables = new int[variables.length + negative.variables.length];
+            long[] mergedWeights = new long[mergedVariables.length];
+            int variableSize = merge(variables, weights, factor, negative.variables, negative.weights, otherFactor,
+                    mergedVariables, mergedWeights);
+
+            long divisor = 0;
+            for (int i = 0; i < size; i++) divisor = gcd(divisor, Math.abs(mergedValues[i]));
+            for (int i = 0; i < variableSize; i++) divisor = gcd(divisor, mergedWeights[i]);
+            for (int i = 0; i < size; i++) mergedValues[i] /= divisor;
+            for (int i = 0; i < variableSize; i++) mergedWeights[i] /= divisor;
+            return new Row(Arrays.copyOf(mergedColumns, size), Arrays.copyOf(mergedValues, size),
+                    Arrays.copyOf(mergedVariables, variableSize), Arrays.copyOf(mergedWeights, variableSize),
+                    combinedSupport);
+        }
+
+        /**
+         * Writes {@code leftFactor * left + rightFactor * right} without its zero entries.
+         *
+         * @return The number of entries written.
+         */
+        private static int merge(int[] leftIndices, long[] left, long leftFactor,
+                                 int[] rightIndices, long[] right, long rightFactor,
+                                 int[] indices, long[] values) {
+            int i = 0, j = 0, size = 0;
+            while (i < leftIndices.length || j < rightIndices.length) {
+                int index;
+                long value;
+                if (j == rightIndices.length || (i < leftIndices.length && leftIndices[i] < rightIndices[j])) {
+                    index = leftIndices[i];
+                    value = Math.multiplyExact(left[i++], leftFactor);
+                } else if (i == leftIndices.length || rightIndices[j] < leftIndices[i]) {
+                    index = rightIndices[j];
+                    value = Math.multiplyExact(right[j++], rightFactor);
+                } else {
+                    index = leftIndices[i];
+                    value = Math.addExact(Math.multiplyExact(left[i++], leftFactor),
+                            Math.multiplyExact(right[j++], rightFactor));
+                }
+                if (value != 0) {
+                    indices[size] = index;
+                    values[size++] = value;
+                }
+            }
+            return size;
+        }
+
+        static boolean contains(long[] support, long[] subset) {
+            for (int w = 0; w < support.length; w++) {
+                if ((subset[w] & ~support[w]) != 0) return false;
+            }
+            return true;
+        }
+
+        private static long gcd(long a, long b) {
+            while (b != 0) {
+                long r = a % b;
+                a = b;
+                b = r;
+            }
+            return a;
+        }
+    }
+
+    /**
+     * A minimal semiflow, as the sorted indices of its support and their positive weights.
+     */
+    public static final class Semiflow {
+        private final int[] indices;
+        private final long[] weights;
+
+        public Semiflow(int[] indices, long[] weights) {
+            this.indices = indices;
+            this.weights = weights;
+        }
+
+        public int[] getIndices() {
+            return indices;
+        }
+
+        public long[] getWeights() {
+            return weights;
+        }
+
+        /**
+         * @return The weight of a variable, zero outside the support.
+         */
+        public long getWeight(int index) {
+            int i = Arrays.binarySearch(indices, index);
+            return i >= 0 ? weights[i] : 0;
+        }
+    }
+
+    /**
+     * Outcome of a semiflow computation.
+     */
+    public static final class Result {
+        private final List<Semiflow> semiflows;
+        private final boolean[] covered;
+        private final boolean rowLimitReached;
+        private final boolean timeLimitReached;
+        private final boolean overflow;
+
+        public Result(List<Semiflow> semiflows, int variableCount, boolean rowLimitReached,
+                      boolean timeLimitReached, boolean overflow) {
+            this.semiflows = semiflows;
+            this.covered = new boolean[variableCount];
+            for (Semiflow semiflow : semiflows) {
+                for (int index : semiflow.getIndices()) {
+                    covered[index] = true;
+                }
+            }
+            this.rowLimitReached = rowLimitReached;
+            this.timeLimitReached = timeLimitReached;
+            this.overflow = overflow;
+        }
+
+        /**
+         * @return The minimal semiflows, ordered by their smallest index, or none if the computation
+         *         did not complete.
+         */
+        public List<Semiflow> getSemiflows() {
+            return semiflows;
+        }
+
+        /**
+         * @return {@code true} if some semiflow has a positive weight on the variable.
+         */
+        public boolean isCovered(int index) {
+            return covered[index];
+        }
+
+        /**
+         * @return {@code true} if every variable is covered, i.e. a semiflow with full support exists.
+         */
+        public boolean isFullyCovered() {
+            for (boolean c : covered) {
+                if (!c) return false;
+            }
+            return true;
+        }
+
+        public boolean isRowLimitReached() {
+            return rowLimitReached;
+        }
+
+        public boolean isTimeLimitReached() {
+            return timeLimitReached;
+        }
+
+        /**
+         * @return {@code true} if a coefficient did not fit in a {@code long}.
+         */
+        public boolean isOverflow() {
+            return overflow;
+        }
+
+        public boolean isComplete() {
+            return !rowLimitReached && !timeLimitReached && !overflow;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.petrinet.service.engine;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link VisitedStateStore} backed by a concurrent hash set on the Java heap.
+ * It is best suited to small and medium state spaces. Its memory budget is checked against an
+ * estimate of the heap used by the stored markings and their set entries, since the heap cannot be
+ * measured per store.
+ */
+public final class HeapVisitedStore implements VisitedStateStore {
+
+    // Rough heap footprint of a set entry: the map node and its share of the table
+    private static final long ENTRY_BYTES = 48;
+
+    private final Set<PackedMarking> visited = ConcurrentHashMap.newKeySet();
+    private final long memoryBudgetBytes;
+    private final AtomicLong reservedBytes = new AtomicLong();
+
+    /**
+     * Creates a store without a memory budget.
+     */
+    public HeapVisitedStore() {
+        this(Long.MAX_VALUE);
+    }
+
+    /**
+     * @param memoryBudgetBytes The maximum estimated number of heap bytes the store may use.
+     */
+    public HeapVisitedStore(long memoryBudgetBytes) {
+        if (memoryBudgetBytes <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive");
+        }
+        this.memoryBudgetBytes = memoryBudgetBytes;
+    }
+
+    @Override
+    public boolean contains(PackedMarking marking) {
+        return visited.contains(marking);
+    }
+
+    @Override
+    public Insertion add(PackedMarking marking) {
+        long bytes = PackedMarking.heapBytes(marking.wordCount()) + ENTRY_BYTES;
+        if (reservedBytes.addAndGet(bytes) > memoryBudgetBytes) {
+            reservedBytes.addAndGet(-bytes);
+            return visited.contains(marking) ? Insertion.PRESENT : Insertion.FULL;
+        }
+        if (!visited.add(marking)) {
+            reservedBytes.addAndGet(-bytes);
+            return Insertion.PRESENT;
+        }
+        return Insertion.ADDED;
+    }
+
+    @Override
+    public int size() {
+        return visited.size();
+    }
+
+    /**
+     * @return The estimated number of heap bytes used by the stored markings.
+     */
+    @Override
+    public long getReservedBytes() {
+        return reservedBytes.get();
+    }
+}
@@ -0,0 +1,142 @@
+package org.petrinet.service.engine;
+
+import org.petrinet.service.model.CompiledNet;
+
+import java.util.Arrays;
+
+/**
+ * Runs a {@link CompiledNet} on a single marking while keeping its set of enabled transitions
+ * up to date incrementally.
+ * All transitions are evaluated once on construction. After that, firing a transition only
+ * re-evaluates the transitions that depend on the places the firing touched (see
+ * {@link CompiledNet#getDependentTransitions(int)}), so the cost of a step is proportional to the
+ * neighbourhood of the fired transition rather than to the size of the net.
+ * <p>
+ * Enabled transitions are kept in a dense list with O(1) insertion, removal and random access.
+ * Instances are not thread-safe.
+ */
+public final class IncrementalSimulation {
+
+    private final CompiledNet net;
+    private final int[] marking;
+    private final boolean[] enabled;
+
+    // Dense list of enabled transitions, and each transition's position in it (-1 if disabled)
+    private final int[] enabledList;
+    private final int[] positions;
+    private int enabledCount;
+
+    // Per-step stamps that keep a transition from being re-evaluated twice in one firing
+    private final int[] visited;
+    private int stamp;
+
+    /**
+     * Creates a simulation over the given marking and evaluates every transition once.
+     *
+     * @param net The compiled net to simulate.
+     * @param marking The initial token count of every place. This array is owned and modified by the simulation.
+     */
+    public IncrementalSimulation(CompiledNet net, int[] marking) {
+        this.net = net;
+        this.marking = marking;
+        int transitionCount = net.getTransitionCount();
+        this.enabled = new boolean[transitionCount];
+        this.enabledList = new int[transitionCount];
+        this.positions = new int[transitionCount];
+        this.visited = new int[transitionCount];
+        Arrays.fill(positions, -1);
+        for (int t = 0; t < transitionCount; t++) {
+            setEnabled(t, net.isEnabled(t, marking));
+        }
+    }
+
+    /**
+     * Fires a transition and re-evaluates only the transitions whose enabling depends on a place
+     * the firing changed. The transition is fired even if it is not currently enabled, mirroring
+     * how conflict resolution fires the user's choice directly.
+     *
+     * @param transition The index of the transition to fire.
+     */
+    public void fire(int transition) {
+        net.fire(transition, marking);
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(visited, 0);
+            stamp = 1;
+        }
+        for (int place : net.getAffectedPlaces(transition)) {
+            for (int dependent : net.getDependentTransitions(place)) {
+                if (visited[dependent] != stamp) {
+                    visited[dependent] = stamp;
+                    setEnabled(dependent, net.isEnabled(dependent, marking));
+                }
+            }
+        }
+    }
+
+    private void setEnabled(int transition, boolean canFire) {
+        if (enabled[transition] == canFire) {
+            return;
+        }
+        enabled[transition] = canFire;
+        if (canFire) {
+            positions[transition] = enabledCount;
+            enabledList[enabledCount++] = transition;
+        } else {
+            // Swap the last enabled transition into the freed slot
+            int position = positions[transition];
+            int last = enabledList[--enabledCount];
+            enabledList[position] = last;
+            positions[last] = position;
+            positions[transition] = -1;
+        }
+    }
+
+    public CompiledNet getNet() {
+        return net;
+    }
+
+    /**
+     * @return The live marking of the simulation. Callers must not modify it.
+     */
+    public int[] getMarking() {
+        return marking;
+    }
+
+    public boolean isEnabled(int transition) {
+        return enabled[transition];
+    }
+
+    public int getEnabledCount() {
+        return enabledCount;
+    }
+
+    /**
+     * Returns the enabled transition at a position of the internal enabled list.
+     * Positions are not stable across firings and are meant for random selection.
+     *
+     * @param position A position between 0 (inclusive) and {@link #getEnabledCount()} (exclusive).
+     * @return The index of the enabled transition at that position.
+     */
+    public int getEnabledTransition(int position) {
+        if (position < 0 || position >= enabledCount) {
+            throw new IndexOutOfBoundsException("Enabled position " + position + " out of range for " + enabledCount + " enabled transitions");
+        }
+        return enabledList[position];
+    }
+
+    /**
+     * @return The indices of all enabled transitions in ascending order.
+     */
+    public int[] getEnabledTransitions() {
+        int[] result = Arrays.copyOf(enabledList, enabledCount);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * @return A copy of the enabled flag of every transition, indexed by transition index.
+     */
+    public boolean[] copyEnabledFlags() {
+        return enabled.clone();
+    }
+}
@@ -0,0 +1,167 @@
+package org.petrinet.service.engine;
+
+import org.petrinet.service.model.CompiledNet;
+
+/**
+ * Encodes markings of a {@link CompiledNet} into {@link PackedMarking}s and back.
+ * <p>
+ * Every bounded place is stored in a fixed-width field just wide enough for its capacity
+ * (a 1-safe place takes a single bit, a place with capacity 0 takes none). Places without a
+ * capacity, or whose starting token count lies outside {@code [0, capacity]}, are stored as
+ * zig-zag varints in 8-bit groups, so small counts stay small while arbitrarily large or
+ * negative ones remain representable. All fields are concatenated into one bit stream.
+ * <p>
+ * The layout depends on the starting marking, so a codec must only be used for markings
+ * reachable from the marking it was created for. Instances are immutable and thread-safe.
+ */
+public final class MarkingCodec {
+
+    // Width of a field in bits, or VARINT for variable-length places
+    private static final int VARINT = -1;
+    private static final int VARINT_GROUP_BITS = 8;
+    private static final int VARINT_PAYLOAD_BITS = 7;
+
+    private final int[] widths;
+    private final int fixedBits;
+
+    private MarkingCodec(int[] widths) {
+        this.widths = widths;
+        int bits = 0;
+        for (int width : widths) {
+            if (width != VARINT) {
+                bits += width;
+            }
+        }
+        this.fixedBits = bits;
+    }
+
+    /**
+     * Creates a codec whose field widths are derived from the place capacities of the net.
+     *
+     * @param net The compiled net whose markings will be encoded.
+     * @param initialMarking The marking exploration starts from.
+     * @return A codec for every marking reachable from {@code initialMarking}.
+     */
+    public static MarkingCodec forNet(CompiledNet net, int[] initialMarking) {
+        int[] widths = new int[net.getPlaceCount()];
+        for (int p = 0; p < widths.length; p++) {
+            int capacity = net.getCapacity(p);
+            boolean fitsCapacity = net.isBounded(p) && initialMarking[p] >= 0 && initialMarking[p] <= capacity;
+            widths[p] = fitsCapacity ? 32 - Integer.numberOfLeadingZeros(capacity) : VARINT;
+        }
+        return new MarkingCodec(widths);
+    }
+
+    /**
+     * Encodes a marking.
+     *
+     * @param marking The token count of every place, indexed by place index.
+     * @return The packed form of the marking.
+     */
+    public PackedMarking encode(int[] marking) {
+        int bits = fixedBits;
+        for (int p = 0; p < widths.length; p++) {
+            if (widths[p] == VARINT) {
+                bits += varintGroups(zigZag(marking[p])) * VARINT_GROUP_BITS;
+            }
+        }
+        long[] words = new long[(bits + 63) >>> 6];
+        int position = 0;
+        for (int p = 0; p < widths.length; p++) {
+            int width = widths[p];
+            if (width == VARINT) {
+                long value = zigZag(marking[p]);
+                do {
+                    long group = value & 0x7F;
+                    value >>>= VARINT_PAYLOAD_BITS;
+                    if (value != 0) {
+                        group |= 0x80;
+                    }
+                    write(words, position, group, VARINT_GROUP_BITS);
+                    position += VARINT_GROUP_BITS;
+                } while (value != 0);
+            } else {
+                if (marking[p] < 0 || marking[p] >>> width != 0) {
+                    throw new IllegalArgumentException("Token count " + marking[p] + " of place " + p
+                            + " does not fit its " + width + "-bit field");
+                }
+                if (width > 0) {
+                    write(words, position, marking[p], width);
+                    position += width;
+                }
+            }
+        }
+        return new PackedMarking(words);
+    }
+
+    /**
+     * Decodes a packed marking into an existing array.
+     *
+     * @param packed The packed marking.
+     * @param marking The array receiving the token count of every place. Its length must match the place count.
+     */
+    public void decode(PackedMarking packed, int[] marking) {
+        long[] words = packed.words();
+        int position = 0;
+        for (int p = 0; p < widths.length; p++) {
+            int width = widths[p];
+            if (width == VARINT) {
+                long value = 0;
+                int shift = 0;
+                long group;
+                do {
+                    group = read(words, position, VARINT_GROUP_BITS);
+                    position += VARINT_GROUP_BITS;
+                    value |= (group & 0x7F) << shift;
+                    shift += VARINT_PAYLOAD_BITS;
+                } while ((group & 0x80) != 0);
+                marking[p] = (int) (value >>> 1) ^ -(int) (value & 1);
+            } else if (width > 0) {
+                marking[p] = (int) read(words, position, width);
+                position += width;
+            } else {
+                marking[p] = 0;
+            }
+        }
+    }
+
+    /**
+     * @return A new array holding the decoded marking.
+     */
+    public int[] decode(PackedMarking packed) {
+        int[] marking = new int[widths.length];
+        decode(packed, marking);
+        return marking;
+    }
+
+    private static long zigZag(int value) {
+        return ((long) value << 1 ^ (value >> 31)) & 0xFFFFFFFFL;
+    }
+
+    private static int varintGroups(long value) {
+        int groups = 1;
+        while ((value >>>= VARINT_PAYLOAD_BITS) != 0) {
+            groups++;
+        }
+        return groups;
+    }
+
+    private static void write(long[] words, int position, long value, int width) {
+        int word = position >>> 6;
+        int offset = position & 63;
+        words[word] |= value << offset;
+        if (offset + width > 64) {
+            words[word + 1] |= value >>> (64 - offset);
+        }
+    }
+
+    private static long read(long[] words, int position, int width) {
+        int word = position >>> 6;
+        int offset = position & 63;
+        long value = words[word] >>> offset;
+        if (offset + width > 64) {
+            value |= words[word + 1] << (64 - offset);
+        }
+        return value & ((1L << width) - 1);
+    }
+}
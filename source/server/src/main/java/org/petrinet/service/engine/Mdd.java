@@ -0,0 +1,232 @@
+package org.petrinet.service.engine;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A small multi-valued decision diagram (MDD) package for sets of markings.
+ * <p>
+ * Diagrams are quasi-reduced: every path from a root visits one node per level, level {@code k}
+ * deciding the token count of the {@code k}-th variable. Node {@link #EMPTY} is the empty set and
+ * node {@link #FULL} the terminal reached after the last level. A node's children are indexed by
+ * token count; counts past the end of the array lead to {@link #EMPTY}, so variables need no
+ * fixed domain and may grow as new markings are added. Nodes are hash-consed through a unique
+ * table, which makes equal sets share one node id, and set operations are memoized in operation caches.
+ * <p>
+ * Instances are not thread-safe.
+ */
+public final class Mdd {
+
+    /** The empty set. */
+    public static final int EMPTY = 0;
+    /** The terminal node below the last level. */
+    public static final int FULL = 1;
+
+    private static final int[] NO_CHILDREN = new int[0];
+    // Operation caches are dropped once they grow past this many entries
+    private static final int CACHE_LIMIT = 1 << 22;
+
+    private final int levelCount;
+    private int[] levels = new int[1024];
+    private int[][] children = new int[1024][];
+    private int nodeCount = 2;
+    private final Map<NodeKey, Integer> uniqueTable = new HashMap<>();
+    private final Map<Long, Integer> unionCache = new HashMap<>();
+    private final Map<Long, Integer> differenceCache = new HashMap<>();
+
+    /**
+     * @param levelCount The number of variables, one per level.
+     */
+    public Mdd(int levelCount) {
+        this.levelCount = levelCount;
+        levels[EMPTY] = levelCount;
+        levels[FULL] = levelCount;
+        children[EMPTY] = NO_CHILDREN;
+        children[FULL] = NO_CHILDREN;
+    }
+
+    public int getLevelCount() {
+        return levelCount;
+    }
+
+    /**
+     * @return The number of nodes created so far, including the two terminals.
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @return The level a node decides, or {@link #getLevelCount()} for the terminals.
+     */
+    public int getLevel(int node) {
+        return levels[node];
+    }
+
+    /**
+     * @return The child of a node for a token count, {@link #EMPTY} if the count is out of range.
+     */
+    public int getChild(int node, int value) {
+        int[] row = children[node];
+        return value < row.length ? row[value] : EMPTY;
+    }
+
+    /**
+     * @return The number of token counts a node has a child slot for.
+     */
+    public int getWidth(int node) {
+        return children[node].length;
+    }
+
+    /**
+     * Returns the unique node with the given children, creating it if needed. A node without any
+     * non-empty child is the empty set. The array is owned by the diagram afterwards.
+     *
+     * @param level The level the node decides.
+     * @param nodeChildren The child of every token count, all at level {@code level + 1}.
+     * @return The node id.
+     */
+    public int node(int level, int[] nodeChildren) {
+        int length = nodeChildren.length;
+        while (length > 0 && nodeChildren[length - 1] == EMPTY) {
+            length--;
+        }
+        if (length == 0) {
+            return EMPTY;
+        }
+        int[] trimmed = length == nodeChildren.length ? nodeChildren : Arrays.copyOf(nodeChildren, length);
+        NodeKey key = new NodeKey(level, trimmed);
+        Integer existing = uniqueTable.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        if (nodeCount == levels.length) {
+            levels = Arrays.copyOf(levels, nodeCount * 2);
+            children = Arrays.copyOf(children, nodeCount * 2);
+        }
+        int id = nodeCount++;
+        levels[id] = level;
+        children[id] = trimmed;
+        uniqueTable.put(key, id);
+        return id;
+    }
+
+    /**
+     * @return The set holding exactly one marking.
+     */
+    public int singleton(int[] values) {
+        int node = FULL;
+        for (int level = levelCount - 1; level >= 0; level--) {
+            int[] row = new int[values[level] + 1];
+            row[values[level]] = node;
+            node = node(level, row);
+        }
+        return node;
+    }
+
+    /**
+     * @return The union of two sets rooted at the same level.
+     */
+    public int union(int a, int b) {
+        if (a == EMPTY || a == b) return b;
+        if (b == EMPTY) return a;
+        if (a > b) {
+            int swap = a;
+            a = b;
+            b = swap;
+        }
+        long key = ((long) a << 32) | b;
+        Integer cached = unionCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        int[] rowA = children[a];
+        int[] rowB = children[b];
+        int[] row = new int[Math.max(rowA.length, rowB.length)];
+        for (int v = 0; v < row.length; v++) {
+            row[v] = union(v < rowA.length ? rowA[v] : EMPTY, v < rowB.length ? rowB[v] : EMPTY);
+        }
+        int result = node(levels[a], row);
+        cache(unionCache, key, result);
+        return result;
+    }
+
+    /**
+     * @return The markings of {@code a} that are not in {@code b}, both rooted at the same level.
+     */
+    public int difference(int a, int b) {
+        if (a == EMPTY || a == b) return EMPTY;
+        if (b == EMPTY) return a;
+        long key = ((long) a << 32) | b;
+        Integer cached = differenceCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        int[] rowA = children[a];
+        int[] rowB = children[b];
+        int[] row = new int[rowA.length];
+        for (int v = 0; v < row.length; v++) {
+            row[v] = difference(rowA[v], v < rowB.length ? rowB[v] : EMPTY);
+        }
+        int result = node(levels[a], row);
+        cache(differenceCache, key, result);
+        return result;
+    }
+
+    /**
+     * @return The number of markings in a set.
+     */
+    public BigInteger count(int node) {
+        return count(node, new HashMap<>());
+    }
+
+    private BigInteger count(int node, Map<Integer, BigInteger> memo) {
+        if (node == EMPTY) return BigInteger.ZERO;
+        if (node == FULL) return BigInteger.ONE;
+        BigInteger cached = memo.get(node);
+        if (cached != null) {
+            return cached;
+        }
+        BigInteger total = BigInteger.ZERO;
+        for (int child : children[node]) {
+            total = total.add(count(child, memo));
+        }
+        memo.put(node, total);
+        return total;
+    }
+
+    /**
+     * Stores an operation result, dropping the whole cache first if it is full. Results stay valid
+     * because node ids are never reused.
+     */
+    static void cache(Map<Long, Integer> cache, long key, int result) {
+        if (cache.size() >= CACHE_LIMIT) {
+            cache.clear();
+        }
+        cache.put(key, result);
+    }
+
+    private static final class NodeKey {
+        private final int level;
+        private final int[] children;
+        private final int hash;
+
+        NodeKey(int level, int[] children) {
+            this.level = level;
+            this.children = children;
+            this.hash = 31 * level + Arrays.hashCode(children);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof NodeKey key && level == key.level && Arrays.equals(children, key.children);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package org.petrinet.service.engine;
+
+import org.petrinet.service.model.NetGraph;
+
+/**
+ * Structural properties of a {@link NetGraph}, all computed in time linear in the number of nodes
+ * and edges: isolated nodes, strongly connected components, source and sink transitions, the
+ * largest in- and out-degree, and the classic subclasses of nets.
+ * <p>
+ * The subclasses are decided on the flow graph, so arc weights are ignored. A state machine has one
+ * input and one output place per transition, and a marked graph one input and one output transition
+ * per place. Free-choice and extended free-choice are decided through clusters: the connected
+ * components of the relation between places and the transitions consuming from them. A net is
+ * extended free-choice if every cluster is complete, i.e. each of its transitions consumes from each
+ * of its places, and free-choice if moreover every cluster has a single place or a single transition.
+ */
+public final class NetStructure {
+
+    private final int isolatedPlaces;
+    private final int isolatedTransitions;
+    private final int componentCount;
+    private final int[] sourceTransitions;
+    private final int[] sinkTransitions;
+    private final int maxInDegree;
+    private final int maxOutDegree;
+    private final boolean stateMachine;
+    private final boolean markedGraph;
+    private final boolean freeChoice;
+    private final boolean extendedFreeChoice;
+
+    /**
+     * @param graph The net graph to analyze.
+     */
+    public NetStructure(NetGraph graph) {
+        int isolatedPlaceCount = 0;
+        int isolatedTransitionCount = 0;
+        int sources = 0;
+        int sinks = 0;
+        int maxIn = 0;
+        int maxOut = 0;
+        boolean oneInOnePlace = true;
+        boolean oneInOneTransition = true;
+        for (int node = 0; node < graph.getNodeCount(); node++) {
+            int in = graph.getInDegree(node);
+            int out = graph.getOutDegree(node);
+            maxIn = Math.max(maxIn, in);
+            maxOut = Math.max(maxOut, out);
+            if (graph.isPlace(node)) {
+                if (!graph.isAttached(node)) isolatedPlaceCount++;
+                oneInOneTransition &= in == 1 && out == 1;
+            } else {
+                if (!graph.isAttached(node)) isolatedTransitionCount++;
+                if (in == 0) sources++;
+                if (out == 0) sinks++;
+                oneInOnePlace &= in == 1 && out == 1;
+            }
+        }
+        this.isolatedPlaces = isolatedPlaceCount;
+        this.isolatedTransitions = isolatedTransitionCount;
+        this.maxInDegree = maxIn;
+        this.maxOutDegree = maxOut;
+        this.stateMachine = oneInOnePlace;
+        this.markedGraph = oneInOneTransition;
+
+        this.sourceTransitions = new int[sources];
+        this.sinkTransitions = new int[sinks];
+        sources = 0;
+        sinks = 0;
+        for (int t = 0; t < graph.getTransitionCount(); t++) {
+            int node = graph.transitionNode(t);
+            if (graph.getInDegree(node) == 0) sourceTransitions[sources++] = t;
+            if (graph.getOutDegree(node) == 0) sinkTransitions[sinks++] = t;
+        }
+
+        this.componentCount = new StronglyConnectedComponents(graph).getCount();
+
+        // Walk every cluster once, counting its places, consuming transitions and consumption edges
+        boolean complete = true;
+        boolean singleSided = true;
+        boolean[] visited = new boolean[graph.getNodeCount()];
+        int[] queue = new int[graph.getNodeCount()];
+        for (int root = 0; root < graph.getPlaceCount(); root++) {
+            if (visited[root]) continue;
+            visited[root] = true;
+            queue[0] = root;
+            int head = 0, tail = 1;
+            long places = 0, transitions = 0, edges = 0;
+            while (head < tail) {
+                int node = queue[head++];
+                if (graph.isPlace(node)) {
+                    places++;
+                    edges += graph.getOutDegree(node);
+                    for (int e = graph.getOutStart(node); e < graph.getOutStart(node + 1); e++) {
+                        int consumer = graph.getOutTarget(e);
+                        if (!visited[consumer]) {
+                            visited[consumer] = true;
+                            queue[tail++] = consumer;
+                        }
+                    }
+                } else {
+                    transitions++;
+                    for (int e = graph.getInStart(node); e < graph.getInStart(node + 1); e++) {
+                        int input = graph.getInSource(e);
+                        if (!visited[input]) {
+                            visited[input] = true;
+                            queue[tail++] = input;
+                        }
+                    }
+                }
+            }
+            complete &= edges == places * transitions;
+            singleSided &= places == 1 || transitions <= 1;
+        }
+        this.extendedFreeChoice = complete;
+        this.freeChoice = complete && singleSided;
+    }
+
+    /**
+     * @return The number of places no arc touches.
+     */
+    public int getIsolatedPlaces() {
+        return isolatedPlaces;
+    }
+
+    /**
+     * @return The number of transitions no arc touches.
+     */
+    public int getIsolatedTransitions() {
+        return isolatedTransitions;
+    }
+
+    /**
+     * @return The number of strongly connected components of the flow graph, places and transitions alike.
+     */
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    /**
+     * @return {@code true} if the net has nodes and every node can reach every other one.
+     */
+    public boolean isStronglyConnected() {
+        return componentCount == 1;
+    }
+
+    /**
+     * Returns the indices of the transitions without input places, which are always enabled unless inhibited.
+     * The returned array is shared and must not be modified.
+     */
+    public int[] getSourceTransitions() {
+        return sourceTransitions;
+    }
+
+    /**
+     * Returns the indices of the transitions without output places.
+     * The returned array is shared and must not be modified.
+     */
+    public int[] getSinkTransitions() {
+        return sinkTransitions;
+    }
+
+    /**
+     * @return The largest number of distinct nodes any node has an edge from.
+     */
+    public int getMaxInDegree() {
+        return maxInDegree;
+    }
+
+    /**
+     * @return The largest number of distinct nodes any node has an edge to.
+     */
+    public int getMaxOutDegree() {
+        return maxOutDegree;
+    }
+
+    public boolean isStateMachine() {
+        return stateMachine;
+    }
+
+    public boolean isMarkedGraph() {
+        return markedGraph;
+    }
+
+    public boolean isFreeChoice() {
+        return freeChoice;
+    }
+
+    public boolean isExtendedFreeChoice() {
+        return extendedFreeChoice;
+    }
+}
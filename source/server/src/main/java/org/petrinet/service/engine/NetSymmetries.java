@@ -0,0 +1,792 @@
+package org.petrinet.service.engine;
+
+import org.petrinet.service.model.CompiledNet;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Structural automorphisms of a {@link CompiledNet}, used to canonicalize markings for symmetry reduction.
+ * <p>
+ * The net is seen as a coloured bipartite graph: places are coloured by capacity, transitions by
+ * whether they can fire at all, and every place/transition pair by its
+ * {@link CompiledNet#getConnectionLabel(int, int) connection label}. An automorphism is a
+ * permutation of places and transitions preserving all three; firing a transition in a permuted
+ * marking gives the permuted successor, so markings in the same orbit have isomorphic futures.
+ * <p>
+ * Automorphisms are found by individualization and colour refinement, building a stabilizer chain:
+ * each level fixes one more base point and stores, for every point of its orbit, an automorphism
+ * mapping the base point there. The group size is the product of the orbit sizes. As in nauty, a first
+ * path individualizes base points until every vertex has a colour of its own, and the levels are then
+ * filled from the deepest up, so that the automorphisms found below give most of each orbit. Colourings
+ * are refined incrementally, splitting only the cells with neighbours in a cell that changed.
+ * <p>
+ * The search runs within a node budget and the deadline of its request. If either runs out, some
+ * automorphisms may be missing and the group is reported as incomplete, which only makes the
+ * reduction weaker. Transversals are only kept up to {@link #MAX_STORED_IMAGES} place images, the
+ * deepest levels first; the levels past that bound count in the group size but are not used to
+ * canonicalize markings.
+ * <p>
+ * A marking is canonicalized by walking the chain and keeping, at each level, the images with the
+ * fewest tokens on the base point. At most {@link #MAX_CANDIDATES} images are carried between levels,
+ * so in rare cases two markings of the same orbit get different representatives. This never affects
+ * correctness, only how far the state space is reduced.
+ */
+public final class NetSymmetries {
+
+    private static final int MAX_CANDIDATES = 64;
+    private static final int SEARCH_NODE_BUDGET = 200_000;
+    // Place images kept in all transversals together, about 16 MB
+    private static final long MAX_STORED_IMAGES = 4_000_000;
+
+    private final int placeCount;
+    private final List<Level> levels;
+    private final BigInteger groupSize;
+    private final boolean complete;
+    private final boolean timeLimitReached;
+
+    private NetSymmetries(int placeCount, List<Level> levels, BigInteger groupSize, boolean complete,
+                          boolean timeLimitReached) {
+        this.placeCount = placeCount;
+        this.levels = levels;
+        this.groupSize = groupSize;
+        this.complete = complete;
+        this.timeLimitReached = timeLimitReached;
+    }
+
+    /**
+     * One level of the stabilizer chain: a base point and, for every point of its orbit under the
+     * automorphisms fixing all earlier base points, an automorphism mapping the base point there.
+     * Only levels with a place as base point are kept, with the images of places alone, since
+     * markings are canonicalized on places.
+     */
+    private static final class Level {
+        final int basePoint;
+        final List<int[]> transversal;
+
+        Level(int basePoint, List<int[]> transversal) {
+            this.basePoint = basePoint;
+            this.transversal = transversal;
+        }
+    }
+
+    /**
+     * Computes the automorphism group of a net.
+     *
+     * @param net The compiled net.
+     * @return The symmetries of the net; the group is trivial if the net has none.
+     */
+    public static NetSymmetries of(CompiledNet net) {
+        return of(net, Deadline.unlimited());
+    }
+
+    /**
+     * Computes the automorphism group of a net within a deadline.
+     *
+     * @param net The compiled net.
+     * @param deadline The wall-clock budget for the search. Once it expires, the automorphisms found
+     *                 so far are returned as an incomplete group.
+     * @return The symmetries of the net; the group is trivial if the net has none.
+     */
+    public static NetSymmetries of(CompiledNet net, Deadline deadline) {
+        return new Search(net, deadline).run();
+    }
+
+    /**
+     * @return The number of automorphisms of the net, counting the identity.
+     */
+    public BigInteger getGroupSize() {
+        return groupSize;
+    }
+
+    /**
+     * @return {@code true} if the only automorphism found is the identity.
+     */
+    public boolean isTrivial() {
+        return groupSize.equals(BigInteger.ONE);
+    }
+
+    /**
+     * @return {@code false} if the search budget or the deadline ran out, so the group may be larger
+     *         than reported.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return {@code true} if the search stopped at its deadline. Such a group depends on the timing
+     *         of its request and should not be reused for another one.
+     */
+    public boolean isTimeLimitReached() {
+        return timeLimitReached;
+    }
+
+    /**
+     * Replaces a marking by the representative of its orbit. Equal markings always get the same
+     * representative. This method is thread-safe.
+     *
+     * @param marking The token count of every place, indexed by place index. This array is modified directly.
+     */
+    public void canonicalize(int[] marking) {
+        if (levels.isEmpty()) {
+            return;
+        }
+        List<int[]> candidates = new ArrayList<>();
+        candidates.add(marking.clone());
+        for (Level level : levels) {
+            int min = Integer.MAX_VALUE;
+            for (int[] candidate : candidates) {
+                for (int[] automorphism : level.transversal) {
+                    min = Math.min(min, candidate[automorphism[level.basePoint]]);
+                }
+            }
+            Set<IntArrayKey> seen = new HashSet<>();
+            List<int[]> next = new ArrayList<>();
+            for (int[] candidate : candidates) {
+                for (int[] automorphism : level.transversal) {
+                    if (candidate[automorphism[level.basePoint]] != min) continue;
+                    int[] image = new int[placeCount];
+                    for (int p = 0; p < placeCount; p++) {
+                        image[p] = candidate[automorphism[p]];
+                    }
+                    if (seen.add(new IntArrayKey(image))) {
+                        next.add(image);
+                    }
+                }
+            }
+            if (next.size() > MAX_CANDIDATES) {
+                next.sort(Arrays::compare);
+                next = new ArrayList<>(next.subList(0, MAX_CANDIDATES));
+            }
+            candidates = next;
+        }
+        int[] best = candidates.get(0);
+        for (int[] candidate : candidates) {
+            if (Arrays.compare(candidate, best) < 0) {
+                best = candidate;
+            }
+        }
+        System.arraycopy(best, 0, marking, 0, placeCount);
+    }
+
+    /**
+     * Individualization-refinement search over the coloured graph of a net. Vertices
+     * {@code 0..placeCount-1} are places and the following ones transitions.
+     */
+    private static final class Search {
+        private final int placeCount;
+        private final int vertexCount;
+        private final int[] initialColors;
+        private final int[][] neighbors;
+        private final int[][] edgeLabels;
+        private final Map<Long, Integer> edges = new HashMap<>();
+        private final Deadline deadline;
+        private int nodesLeft = SEARCH_NODE_BUDGET;
+        private long imagesLeft = MAX_STORED_IMAGES;
+        private boolean timeLimitReached;
+
+        // Scratch space of the refinement, cleared after every split
+        private final int[] counts;
+        private final int[] touched;
+        private final long[] keys;
+        private final boolean[] labelSeen;
+        private final int[] labels;
+        private final int[] leftTrace;
+        private final int[] rightTrace;
+
+        Search(CompiledNet net, Deadline deadline) {
+            this.deadline = deadline;
+            placeCount = net.getPlaceCount();
+            vertexCount = placeCount + net.getTransitionCount();
+            initialColors = new int[vertexCount];
+            Map<String, Integer> colorIds = new HashMap<>();
+            for (int p = 0; p < placeCount; p++) {
+                initialColors[p] = colorIds.computeIfAbsent("P" + net.getCapacity(p), key -> colorIds.size());
+            }
+            for (int t = 0; t < net.getTransitionCount(); t++) {
+                initialColors[placeCount + t] = colorIds.computeIfAbsent("T" + net.isSatisfiable(t), key -> colorIds.size());
+            }
+
+            // A transition that can never fire has no behaviour, so its arcs are ignored
+            Map<String, Integer> labelIds = new HashMap<>();
+            List<List<int[]>> adjacency = new ArrayList<>(vertexCount);
+            for (int v = 0; v < vertexCount; v++) {
+                adjacency.add(new ArrayList<>());
+            }
+            for (int t = 0; t < net.getTransitionCount(); t++) {
+                if (!net.isSatisfiable(t)) continue;
+                Set<Integer> connected = new HashSet<>();
+                for (int place : net.getReadPlaces(t)) connected.add(place);
+                for (int place : net.getAffectedPlaces(t)) connected.add(place);
+                for (int place : connected) {
+                    int label = labelIds.computeIfAbsent(net.getConnectionLabel(t, place), key -> labelIds.size());
+                    int transition = placeCount + t;
+                    adjacency.get(transition).add(new int[] {place, label});
+                    adjacency.get(place).add(new int[] {transition, label});
+                    edges.put(edgeKey(transition, place), label);
+                    edges.put(edgeKey(place, transition), label);
+                }
+            }
+            neighbors = new int[vertexCount][];
+            edgeLabels = new int[vertexCount][];
+            for (int v = 0; v < vertexCount; v++) {
+                List<int[]> list = adjacency.get(v);
+                neighbors[v] = new int[list.size()];
+                edgeLabels[v] = new int[list.size()];
+                for (int i = 0; i < list.size(); i++) {
+                    neighbors[v][i] = list.get(i)[0];
+                    edgeLabels[v][i] = list.get(i)[1];
+                }
+            }
+
+            counts = new int[vertexCount];
+            touched = new int[vertexCount];
+            keys = new long[vertexCount];
+            labelSeen = new boolean[labelIds.size()];
+            labels = new int[labelIds.size()];
+            // A split writes three ints per fragment, and there are at most two fragments per touched vertex
+            leftTrace = new int[6 * vertexCount];
+            rightTrace = new int[6 * vertexCount];
+        }
+
+        NetSymmetries run() {
+            // First path of the search tree, remembering from which depth on every cell exists
+            Partition path = Partition.of(initialColors);
+            int[] splitDepths = new int[vertexCount];
+            Arrays.fill(splitDepths, Integer.MAX_VALUE);
+            List<Integer> base = new ArrayList<>();
+            boolean refined = refine(path, null);
+            while (refined) {
+                path.recordCells(splitDepths, base.size());
+                if (path.isDiscrete() || isStopped()) break;
+                nodesLeft--;
+                int basePoint = path.elements[path.firstNonSingletonCell()];
+                base.add(basePoint);
+                path.individualize(basePoint);
+                refined = refine(path, null);
+            }
+
+            // Levels from the deepest up: automorphisms found below fix every earlier base point, so
+            // they already belong to the group of the level and give part of its orbit
+            Level[] levels = new Level[base.size()];
+            List<int[]> generators = new ArrayList<>();
+            BigInteger size = BigInteger.ONE;
+            for (int depth = base.size() - 1; depth >= 0 && !isStopped(); depth--) {
+                Partition partition = Partition.restore(path.elements, splitDepths, depth);
+                int basePoint = base.get(depth);
+                int[][] transversal = new int[vertexCount][];
+                List<Integer> orbit = new ArrayList<>();
+                transversal[basePoint] = identity();
+                orbit.add(basePoint);
+                closeOrbit(transversal, orbit, generators, 0);
+
+                // The automorphisms found below also fix the base point, so no point of the orbit of
+                // a failed target under them can be reached either
+                List<int[]> stabilizer = List.copyOf(generators);
+                boolean[] ruledOut = new boolean[vertexCount];
+                int cell = partition.cellOf[basePoint];
+                for (int i = cell; i < partition.cellEnds[cell] && !isStopped(); i++) {
+                    int target = partition.elements[i];
+                    if (transversal[target] != null || ruledOut[target]) continue;
+                    int[] automorphism = findAutomorphism(partition, basePoint, target);
+                    if (automorphism != null) {
+                        generators.add(automorphism);
+                        closeOrbit(transversal, orbit, generators, generators.size() - 1);
+                    } else {
+                        ruleOut(ruledOut, target, stabilizer);
+                    }
+                }
+
+                size = size.multiply(BigInteger.valueOf(orbit.size()));
+                long images = (long) orbit.size() * placeCount;
+                if (orbit.size() > 1 && basePoint < placeCount && images <= imagesLeft) {
+                    imagesLeft -= images;
+                    List<int[]> placeImages = new ArrayList<>(orbit.size());
+                    for (int point : orbit) {
+                        placeImages.add(Arrays.copyOf(transversal[point], placeCount));
+                    }
+                    levels[depth] = new Level(basePoint, placeImages);
+                }
+            }
+
+            List<Level> chain = new ArrayList<>();
+            for (Level level : levels) {
+                if (level != null) chain.add(level);
+            }
+            boolean complete = nodesLeft >= 0 && !timeLimitReached;
+            return new NetSymmetries(placeCount, List.copyOf(chain), size, complete, timeLimitReached);
+        }
+
+        /**
+         * @return {@code true} once the node budget or the deadline has run out.
+         */
+        private boolean isStopped() {
+            if (!timeLimitReached && deadline.isExpired()) {
+                timeLimitReached = true;
+            }
+            return timeLimitReached || nodesLeft < 0;
+        }
+
+        /**
+         * Adds to the orbit every point reachable through the generators, with the composed automorphism.
+         * The points already in the orbit are only combined with the generators from {@code firstNew} on.
+         */
+        private void closeOrbit(int[][] transversal, List<Integer> orbit, List<int[]> generators, int firstNew) {
+            int known = orbit.size();
+            for (int i = 0; i < orbit.size(); i++) {
+                int point = orbit.get(i);
+                int[] mapping = transversal[point];
+                for (int g = i < known ? firstNew : 0; g < generators.size(); g++) {
+                    int[] generator = generators.get(g);
+                    if (transversal[generator[point]] != null) continue;
+                    int[] composed = new int[vertexCount];
+                    for (int x = 0; x < vertexCount; x++) {
+                        composed[x] = generator[mapping[x]];
+                    }
+                    transversal[generator[point]] = composed;
+                    orbit.add(generator[point]);
+                }
+            }
+        }
+
+        /**
+         * Marks the orbit of a point under some automorphisms.
+         */
+        private void ruleOut(boolean[] ruledOut, int point, List<int[]> automorphisms) {
+            List<Integer> pending = new ArrayList<>();
+            ruledOut[point] = true;
+            pending.add(point);
+            while (!pending.isEmpty()) {
+                int current = pending.remove(pending.size() - 1);
+                for (int[] automorphism : automorphisms) {
+                    if (!ruledOut[automorphism[current]]) {
+                        ruledOut[automorphism[current]] = true;
+                        pending.add(automorphism[current]);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Looks for an automorphism preserving the cells of an equitable partition and mapping
+         * {@code from} to {@code to}.
+         */
+        private int[] findAutomorphism(Partition partition, int from, int to) {
+            Partition left = partition.copy();
+            Partition right = partition.copy();
+            left.individualize(from);
+            right.individualize(to);
+            return extend(left, right);
+        }
+
+        private int[] extend(Partition left, Partition right) {
+            nodesLeft--;
+            if (isStopped() || !refine(left, right)) {
+                return null;
+            }
+            if (left.isDiscrete()) {
+                int[] mapping = new int[vertexCount];
+                for (int i = 0; i < vertexCount; i++) {
+                    mapping[left.elements[i]] = right.elements[i];
+                }
+                return isAutomorphism(mapping) ? mapping : null;
+            }
+
+            int cell = left.firstNonSingletonCell();
+            int target = left.elements[cell];
+            for (int i = cell; i < left.cellEnds[cell] && !isStopped(); i++) {
+                Partition nextLeft = left.copy();
+                Partition nextRight = right.copy();
+                nextLeft.individualize(target);
+                nextRight.individualize(right.elements[i]);
+                int[] mapping = extend(nextLeft, nextRight);
+                if (mapping != null) {
+                    return mapping;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Refines partitions until they are equitable: two vertices stay in the same cell only if they
+         * have as many neighbours through every edge label in every cell. Only the cells with neighbours
+         * in a pending splitter are split. With a second partition, both are split by the same steps,
+         * which must give fragments of the same sizes and counts at the same positions.
+         *
+         * @return {@code false} if the two partitions are split differently or the deadline expired.
+         */
+        private boolean refine(Partition left, Partition right) {
+            while (left.hasPending()) {
+                if (deadline.isExpired()) {
+                    timeLimitReached = true;
+                    return false;
+                }
+                int cell = left.nextPending();
+                if (right != null && (!right.hasPending() || right.nextPending() != cell)) {
+                    return false;
+                }
+                int[] splitter = left.cell(cell);
+                int[] rightSplitter = right == null ? null : right.cell(cell);
+                for (int label : labelsOf(splitter)) {
+                    int length = split(left, splitter, label, leftTrace);
+                    if (right != null) {
+                        int rightLength = split(right, rightSplitter, label, rightTrace);
+                        if (!Arrays.equals(leftTrace, 0, length, rightTrace, 0, rightLength)) {
+                            return false;
+                        }
+                    }
+                }
+            }
+            return right == null || !right.hasPending();
+        }
+
+        /**
+         * @return The labels of the edges leaving a splitter, in increasing order.
+         */
+        private int[] labelsOf(int[] splitter) {
+            int count = 0;
+            for (int vertex : splitter) {
+                for (int label : edgeLabels[vertex]) {
+                    if (!labelSeen[label]) {
+                        labelSeen[label] = true;
+                        labels[count++] = label;
+                    }
+                }
+            }
+            int[] result = Arrays.copyOf(labels, count);
+            for (int label : result) {
+                labelSeen[label] = false;
+            }
+            Arrays.sort(result);
+            return result;
+        }
+
+        /**
+         * Splits the cells of a partition by how many neighbours their vertices have in a splitter
+         * through one edge label.
+         *
+         * @return The length of the trace of the split.
+         */
+        private int split(Partition partition, int[] splitter, int label, int[] trace) {
+            int touchedCount = 0;
+            for (int vertex : splitter) {
+                for (int i = 0; i < neighbors[vertex].length; i++) {
+                    if (edgeLabels[vertex][i] != label) continue;
+                    if (counts[neighbors[vertex][i]]++ == 0) {
+                        touched[touchedCount++] = neighbors[vertex][i];
+                    }
+                }
+            }
+            int length = partition.split(touched, touchedCount, counts, keys, trace);
+            for (int i = 0; i < touchedCount; i++) {
+                counts[touched[i]] = 0;
+            }
+            return length;
+        }
+
+        private boolean isAutomorphism(int[] mapping) {
+            for (int v = 0; v < vertexCount; v++) {
+                if (initialColors[v] != initialColors[mapping[v]]
+                        || neighbors[v].length != neighbors[mapping[v]].length) {
+                    return false;
+                }
+                for (int i = 0; i < neighbors[v].length; i++) {
+                    Integer label = edges.get(edgeKey(mapping[v], mapping[neighbors[v][i]]));
+                    if (label == null || label != edgeLabels[v][i]) return false;
+                }
+            }
+            return true;
+        }
+
+        private int[] identity() {
+            int[] mapping = new int[vertexCount];
+            for (int v = 0; v < vertexCount; v++) {
+                mapping[v] = v;
+            }
+            return mapping;
+        }
+
+        private long edgeKey(int from, int to) {
+            return (long) from * vertexCount + to;
+        }
+    }
+
+    /**
+     * Ordered partition of the vertices into cells, each a range of {@code elements} named by its
+     * start. A split keeps the vertices of a cell within its range, so two partitions split by the same
+     * steps name their cells alike whatever the order of the vertices inside them. Cells waiting to be
+     * used as splitters are queued.
+     */
+    private static final class Partition {
+        final int[] elements;
+        final int[] positions;
+        final int[] cellOf;
+        final int[] cellEnds;
+        final int[] pending;
+        final boolean[] queued;
+        int pendingHead;
+        int pendingSize;
+        int cellCount;
+
+        private Partition(int vertexCount) {
+            elements = new int[vertexCount];
+            positions = new int[vertexCount];
+            cellOf = new int[vertexCount];
+            cellEnds = new int[vertexCount];
+            pending = new int[vertexCount];
+            queued = new boolean[vertexCount];
+        }
+
+        private Partition(Partition other) {
+            elements = other.elements.clone();
+            positions = other.positions.clone();
+            cellOf = other.cellOf.clone();
+            cellEnds = other.cellEnds.clone();
+            pending = other.pending.clone();
+            queued = other.queued.clone();
+            pendingHead = other.pendingHead;
+            pendingSize = other.pendingSize;
+            cellCount = other.cellCount;
+        }
+
+        /**
+         * @return The partition into colour classes, ordered by colour, with every cell pending.
+         */
+        static Partition of(int[] colors) {
+            Partition partition = new Partition(colors.length);
+            long[] order = new long[colors.length];
+            for (int v = 0; v < colors.length; v++) {
+                order[v] = (long) colors[v] << 32 | v;
+            }
+            Arrays.sort(order);
+            int start = 0;
+            for (int i = 0; i < order.length; i++) {
+                int vertex = (int) order[i];
+                if (i > 0 && colors[vertex] != colors[partition.elements[i - 1]]) {
+                    partition.addCell(start, i);
+                    start = i;
+                }
+                partition.elements[i] = vertex;
+                partition.positions[vertex] = i;
+            }
+            if (order.length > 0) {
+                partition.addCell(start, order.length);
+            }
+            return partition;
+        }
+
+        /**
+         * Rebuilds an equitable partition of the first path from its final order of the vertices.
+         *
+         * @param splitDepths The depth from which on every cell start of the first path exists.
+         */
+        static Partition restore(int[] elements, int[] splitDepths, int depth) {
+            Partition partition = new Partition(elements.length);
+            int start = 0;
+            for (int i = 0; i < elements.length; i++) {
+                if (i > 0 && splitDepths[i] <= depth) {
+                    partition.cellEnds[start] = i;
+                    partition.cellCount++;
+                    start = i;
+                }
+                partition.elements[i] = elements[i];
+                partition.positions[elements[i]] = i;
+                partition.cellOf[elements[i]] = start;
+            }
+            partition.cellEnds[start] = elements.length;
+            partition.cellCount++;
+            return partition;
+        }
+
+        private void addCell(int start, int end) {
+            cellEnds[start] = end;
+            for (int i = start; i < end; i++) {
+                cellOf[elements[i]] = start;
+            }
+            cellCount++;
+            enqueue(start);
+        }
+
+        Partition copy() {
+            return new Partition(this);
+        }
+
+        boolean isDiscrete() {
+            return cellCount == elements.length;
+        }
+
+        int firstNonSingletonCell() {
+            int cell = 0;
+            while (cellEnds[cell] - cell == 1) {
+                cell = cellEnds[cell];
+            }
+            return cell;
+        }
+
+        int[] cell(int start) {
+            return Arrays.copyOfRange(elements, start, cellEnds[start]);
+        }
+
+        /**
+         * Notes the current cell starts that have no depth yet.
+         */
+        void recordCells(int[] splitDepths, int depth) {
+            for (int cell = 0; cell < elements.length; cell = cellEnds[cell]) {
+                splitDepths[cell] = Math.min(splitDepths[cell], depth);
+            }
+        }
+
+        /**
+         * Moves a vertex to a cell of its own at the end of its cell and queues it. The rest of the
+         * cell needs no requeueing, as the partition was equitable before.
+         */
+        void individualize(int vertex) {
+            int cell = cellOf[vertex];
+            int end = cellEnds[cell];
+            if (end - cell == 1) return;
+            move(vertex, end - 1);
+            cellEnds[cell] = end - 1;
+            cellEnds[end - 1] = end;
+            cellOf[vertex] = end - 1;
+            cellCount++;
+            enqueue(end - 1);
+        }
+
+        /**
+         * Splits every cell holding touched vertices by their counts: first the untouched vertices, then
+         * the touched ones by increasing count. The trace lists the cell, count and size of every
+         * fragment, cells in increasing order. A cell that was pending has all its new fragments
+         * queued; otherwise all fragments but the largest are.
+         *
+         * @return The length of the trace.
+         */
+        int split(int[] touched, int touchedCount, int[] counts, long[] keys, int[] trace) {
+            for (int i = 0; i < touchedCount; i++) {
+                keys[i] = (long) cellOf[touched[i]] << 32 | touched[i];
+            }
+            Arrays.sort(keys, 0, touchedCount);
+            int length = 0;
+            for (int from = 0; from < touchedCount; ) {
+                int cell = (int) (keys[from] >>> 32);
+                int to = from;
+                while (to < touchedCount && (int) (keys[to] >>> 32) == cell) {
+                    int vertex = (int) keys[to];
+                    keys[to++] = (long) counts[vertex] << 32 | vertex;
+                }
+                Arrays.sort(keys, from, to);
+                length = splitCell(cell, keys, from, to, trace, length);
+                from = to;
+            }
+            return length;
+        }
+
+        private int splitCell(int cell, long[] keys, int from, int to, int[] trace, int length) {
+            int end = cellEnds[cell];
+            for (int i = to - 1, position = end - 1; i >= from; i--, position--) {
+                move((int) keys[i], position);
+            }
+            int first = length;
+            int untouched = end - cell - (to - from);
+            if (untouched > 0) {
+                length = addFragment(trace, length, cell, 0, untouched);
+            }
+            for (int i = from; i < to; ) {
+                int count = (int) (keys[i] >>> 32);
+                int next = i;
+                while (next < to && (int) (keys[next] >>> 32) == count) next++;
+                length = addFragment(trace, length, cell, count, next - i);
+                i = next;
+            }
+            if (length - first == 3) {
+                return length;
+            }
+
+            boolean wasQueued = queued[cell];
+            int largest = cell;
+            int largestSize = 0;
+            for (int f = first, start = cell; f < length; start += trace[f + 2], f += 3) {
+                int size = trace[f + 2];
+                if (size > largestSize) {
+                    largest = start;
+                    largestSize = size;
+                }
+                cellEnds[start] = start + size;
+                if (start != cell) {
+                    for (int i = start; i < start + size; i++) {
+                        cellOf[elements[i]] = start;
+                    }
+                    cellCount++;
+                }
+            }
+            for (int f = first, start = cell; f < length; start += trace[f + 2], f += 3) {
+                if (wasQueued ? start != cell : start != largest) {
+                    enqueue(start);
+                }
+            }
+            return length;
+        }
+
+        private static int addFragment(int[] trace, int length, int cell, int count, int size) {
+            trace[length] = cell;
+            trace[length + 1] = count;
+            trace[length + 2] = size;
+            return length + 3;
+        }
+
+        private void move(int vertex, int position) {
+            int displaced = elements[position];
+            elements[positions[vertex]] = displaced;
+            positions[displaced] = positions[vertex];
+            elements[position] = vertex;
+            positions[vertex] = position;
+        }
+
+        boolean hasPending() {
+            return pendingSize > 0;
+        }
+
+        int nextPending() {
+            int cell = pending[pendingHead];
+            pendingHead = (pendingHead + 1) % pending.length;
+            pendingSize--;
+            queued[cell] = false;
+            return cell;
+        }
+
+        private void enqueue(int cell) {
+            if (queued[cell]) return;
+            queued[cell] = true;
+            pending[(pendingHead + pendingSize++) % pending.length] = cell;
+        }
+    }
+
+    /**
+     * Value-based key for an int array.
+     */
+    private static final class IntArrayKey {
+        private final int[] values;
+        private final int hash;
+
+        IntArrayKey(int[] values) {
+            this.values = values;
+            this.hash = Arrays.hashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof IntArrayKey key && Arrays.equals(values, key.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package org.petrinet.service.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link VisitedStateStore} that keeps the visited markings outside the Java heap, so very large
+ * state spaces do not put pressure on the garbage collector.
+ * <p>
+ * The store is split into stripes selected by the top bits of the marking hash. Each stripe is an
+ * open-addressing hash table with linear probing held in a direct {@link ByteBuffer}, plus an arena
+ * buffer holding the packed words of the stored markings. A table slot records the full 64-bit hash,
+ * the arena offset and the word count of its marking, so lookups only touch the arena when the
+ * hashes match and rehashing never reads it. Stripes are locked independently and allocated lazily.
+ * <p>
+ * Every buffer allocation is charged against a memory budget. When growing a table or an arena would
+ * exceed it, the insertion is refused with {@link Insertion#FULL} and the store stays usable for lookups.
+ * The budget is accounting only: replaced and abandoned buffers are freed when the garbage collector
+ * reclaims them, not when they are released here.
+ */
+public final class OffHeapVisitedStore implements VisitedStateStore {
+
+    private static final int STRIPE_BITS = 6;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+
+    // Slot layout: hash (8 bytes), arena offset in words (4 bytes), word count (4 bytes)
+    private static final int SLOT_BYTES = 16;
+    private static final long EMPTY = 0L;
+    private static final int INITIAL_SLOTS = 256;
+    private static final int INITIAL_ARENA_WORDS = 512;
+
+    // Direct buffers are indexed by int; keeping sizes to powers of two up to 1 GiB avoids overflow
+    private static final long MAX_BUFFER_BYTES = 1L << 30;
+
+    private final long memoryBudgetBytes;
+    private final AtomicLong reservedBytes = new AtomicLong();
+    private final AtomicInteger size = new AtomicInteger();
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    /**
+     * @param memoryBudgetBytes The maximum number of bytes of direct memory the store may reserve.
+     */
+    public OffHeapVisitedStore(long memoryBudgetBytes) {
+        if (memoryBudgetBytes <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive");
+        }
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @Override
+    public boolean contains(PackedMarking marking) {
+        long hash = storedHash(marking);
+        return stripeFor(hash).contains(marking, hash);
+    }
+
+    @Override
+    public Insertion add(PackedMarking marking) {
+        long hash = storedHash(marking);
+        Insertion insertion = stripeFor(hash).add(marking, hash);
+        if (insertion == Insertion.ADDED) {
+            size.incrementAndGet();
+        }
+        return insertion;
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public long getReservedBytes() {
+        return reservedBytes.get();
+    }
+
+    /**
+     * @return The memory budget of the store, in bytes.
+     */
+    public long getMemoryBudgetBytes() {
+        return memoryBudgetBytes;
+    }
+
+    private static long storedHash(PackedMarking marking) {
+        long hash = marking.hash64();
+        // Zero marks an empty slot
+        return hash == EMPTY ? 1L : hash;
+    }
+
+    private Stripe stripeFor(long hash) {
+        return stripes[(int) (hash >>> (Long.SIZE - STRIPE_BITS))];
+    }
+
+    private boolean reserve(long bytes) {
+        long current;
+        do {
+            current = reservedBytes.get();
+            if (current + bytes > memoryBudgetBytes) {
+                return false;
+            }
+        } while (!reservedBytes.compareAndSet(current, current + bytes));
+        return true;
+    }
+
+    private void release(long bytes) {
+        reservedBytes.addAndGet(-bytes);
+    }
+
+    private static ByteBuffer allocate(long bytes) {
+        return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * One independently locked hash table and its arena.
+     */
+    private final class Stripe {
+        private ByteBuffer table;
+        private int mask;
+        private int count;
+        private ByteBuffer arena;
+        private int arenaWords;
+        private int arenaUsed;
+
+        synchronized boolean contains(PackedMarking marking, long hash) {
+            return table != null && find(marking, hash) >= 0;
+        }
+
+        synchronized Insertion add(PackedMarking marking, long hash) {
+            if (table == null && !initialize()) {
+                return Insertion.FULL;
+            }
+            int slot = find(marking, hash);
+            if (slot >= 0) {
+                return Insertion.PRESENT;
+            }
+            int words = marking.wordCount();
+            if (arenaUsed + words > arenaWords && !growArena(arenaUsed + words)) {
+                return Insertion.FULL;
+            }
+            // Keep the load factor at or below 3/4
+            if ((count + 1) * 4L > (mask + 1) * 3L) {
+                if (!growTable()) {
+                    return Insertion.FULL;
+                }
+                slot = find(marking, hash);
+            }
+
+            int offset = arenaUsed;
+            for (int i = 0; i < words; i++) {
+                arena.putLong((offset + i) * Long.BYTES, marking.word(i));
+            }
+            arenaUsed += words;
+
+            int base = (-slot - 1) * SLOT_BYTES;
+            table.putLong(base, hash);
+            table.putInt(base + 8, offset);
+            table.putInt(base + 12, words);
+            count++;
+            return Insertion.ADDED;
+        }
+
+        /**
+         * @return The slot holding the marking, or {@code -(slot + 1)} for the empty slot it would go into.
+         */
+        private int find(PackedMarking marking, long hash) {
+            int slot = (int) hash & mask;
+            while (true) {
+                int base = slot * SLOT_BYTES;
+                long stored = table.getLong(base);
+                if (stored == EMPTY) {
+                    return -slot - 1;
+                }
+                if (stored == hash && matches(marking, table.getInt(base + 8), table.getInt(base + 12))) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        private boolean matches(PackedMarking marking, int offset, int words) {
+            if (words != marking.wordCount()) {
+                return false;
+            }
+            for (int i = 0; i < words; i++) {
+                if (arena.getLong((offset + i) * Long.BYTES) != marking.word(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean initialize() {
+            long tableBytes = (long) INITIAL_SLOTS * SLOT_BYTES;
+            long arenaBytes = (long) INITIAL_ARENA_WORDS * Long.BYTES;
+            if (!reserve(tableBytes + arenaBytes)) {
+                return false;
+            }
+            table = allocate(tableBytes);
+            mask = INITIAL_SLOTS - 1;
+            arena = allocate(arenaBytes);
+            arenaWords = INITIAL_ARENA_WORDS;
+            return true;
+        }
+
+        private boolean growTable() {
+            int slots = (mask + 1) * 2;
+            long bytes = (long) slots * SLOT_BYTES;
+            if (bytes > MAX_BUFFER_BYTES || !reserve(bytes)) {
+                return false;
+            }
+            ByteBuffer grown = allocate(bytes);
+            int grownMask = slots - 1;
+            for (int base = 0; base < table.capacity(); base += SLOT_BYTES) {
+                long hash = table.getLong(base);
+                if (hash == EMPTY) continue;
+                int slot = (int) hash & grownMask;
+                while (grown.getLong(slot * SLOT_BYTES) != EMPTY) {
+                    slot = (slot + 1) & grownMask;
+                }
+                int target = slot * SLOT_BYTES;
+                grown.putLong(target, hash);
+                grown.putLong(target + 8, table.getLong(base + 8));
+            }
+            release(table.capacity());
+            table = grown;
+            mask = grownMask;
+            return true;
+        }
+
+        private boolean growArena(int requiredWords) {
+            long words = arenaWords;
+            while (words < requiredWords) {
+                words *= 2;
+            }
+            long bytes = words * Long.BYTES;
+            if (bytes > MAX_BUFFER_BYTES || !reserve(bytes)) {
+                return false;
+            }
+            ByteBuffer grown = allocate(bytes);
+            grown.put(0, arena, 0, arenaUsed * Long.BYTES);
+            release(arena.capacity());
+            arena = grown;
+            arenaWords = (int) words;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.petrinet.service.engine;
+
+import java.util.Arrays;
+
+/**
+ * Immutable, compact encoding of a marking produced by a {@link MarkingCodec}.
+ * The token counts are bit-packed into a few {@code long} words and a 64-bit hash is computed
+ * once on construction, so hashing is free and equality checks compare primitive words without
+ * allocating. Instances are meant to be stored in visited sets in place of string signatures.
+ */
+public final class PackedMarking {
+
+    private final long[] words;
+    private final long hash;
+
+    PackedMarking(long[] words) {
+        this.words = words;
+        this.hash = hash(words);
+    }
+
+    /**
+     * Mixes the words with a multiply-xorshift scheme and a final avalanche step (splitmix64).
+     */
+    static long hash(long[] words) {
+        long h = 0x9E3779B97F4A7C15L ^ words.length;
+        for (long word : words) {
+            h = (h ^ word) * 0xBF58476D1CE4E5B9L;
+            h ^= h >>> 31;
+        }
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+
+    /**
+     * @return The precomputed 64-bit hash of the encoded marking.
+     */
+    public long hash64() {
+        return hash;
+    }
+
+    /**
+     * @return A rough estimate of the heap footprint of a packed marking, object and word array
+     *         headers included, used to hold explorations to a memory budget.
+     */
+    static long heapBytes(int wordCount) {
+        return 32 + 16 + (long) wordCount * Long.BYTES;
+    }
+
+    /**
+     * @return The number of 64-bit words holding the encoded marking.
+     */
+    public int wordCount() {
+        return words.length;
+    }
+
+    long word(int index) {
+        return words[index];
+    }
+
+    long[] words() {
+        return words;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        return other instanceof PackedMarking packed && hash == packed.hash && Arrays.equals(words, packed.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
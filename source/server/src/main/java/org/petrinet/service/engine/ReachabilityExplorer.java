@@ -0,0 +1,274 @@
+package org.petrinet.service.engine;
+
+import org.petrinet.service.model.CompiledNet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parallel breadth-first explorer of the reachability graph of a {@link CompiledNet}.
+ * Each BFS level is split into fork/join tasks that expand their share of the frontier on a
+ * work-stealing {@link ForkJoinPool}; newly discovered markings are encoded as
+ * {@link PackedMarking}s, deduplicated through a concurrent visited set and merged into the next level.
+ * <p>
+ * Exploration stops when the state budget is exhausted, when the time budget runs out, when the
+ * visited store runs out of memory, or when no unexplored markings remain. Budget checks are
+ * cooperative and happen between markings.
+ * <p>
+ * With {@link StubbornSets}, only the enabled transitions of a stubborn set are fired from each
+ * marking. The reduced state space keeps every reachable dead marking but is usually much smaller
+ * than the full one, so the reachable state count then describes the reduced space. With
+ * {@link NetSymmetries}, every marking is replaced by the representative of its orbit before it is
+ * looked up in the visited set, so the count is then one of orbits rather than markings.
+ */
+public final class ReachabilityExplorer {
+
+    // Number of frontier markings a task expands before splitting further
+    private static final int SPLIT_THRESHOLD = 32;
+
+    private final CompiledNet net;
+    private final ForkJoinPool pool;
+    private final int maxStates;
+    private final Deadline deadline;
+    private final StubbornSets reduction;
+    private final NetSymmetries symmetries;
+
+    /**
+     * @param net The compiled net to explore.
+     * @param pool The pool the expansion tasks run on.
+     * @param maxStates The maximum number of distinct markings to visit.
+     * @param deadline The wall-clock budget for the exploration.
+     */
+    public ReachabilityExplorer(CompiledNet net, ForkJoinPool pool, int maxStates, Deadline deadline) {
+        this(net, pool, maxStates, deadline, null, null);
+    }
+
+    /**
+     * @param net The compiled net to explore.
+     * @param pool The pool the expansion tasks run on.
+     * @param maxStates The maximum number of distinct markings to visit.
+     * @param deadline The wall-clock budget for the exploration.
+     * @param reduction The stubborn sets to reduce the exploration with, or {@code null} to fire every
+     *                  enabled transition.
+     * @param symmetries The symmetries used to canonicalize markings, or {@code null} to keep every marking.
+     */
+    public ReachabilityExplorer(CompiledNet net, ForkJoinPool pool, int maxStates, Deadline deadline,
+                                StubbornSets reduction, NetSymmetries symmetries) {
+        this.net = net;
+        this.pool = pool;
+        this.maxStates = maxStates;
+        this.deadline = deadline;
+        this.reduction = reduction;
+        this.symmetries = symmetries;
+    }
+
+    /**
+     * Explores every marking reachable from the initial marking, within the configured budgets,
+     * recording visited markings in an on-heap store.
+     *
+     * @param initialMarking The marking to start from. It is not modified.
+     * @return The counts gathered by the exploration and which budget, if any, stopped it.
+     */
+    public Result explore(int[] initialMarking) {
+        return explore(initialMarking, new HeapVisitedStore());
+    }
+
+    /**
+     * Explores every marking reachable from the initial marking, within the configured budgets.
+     * The exploration also stops when the visited store refuses a new marking because its memory
+     * budget is exhausted.
+     *
+     * @param initialMarking The marking to start from. It is not modified.
+     * @param visited An empty store that records the visited markings.
+     * @return The counts gathered by the exploration and which budget, if any, stopped it.
+     */
+    public Result explore(int[] initialMarking, VisitedStateStore visited) {
+        MarkingCodec codec = MarkingCodec.forNet(net, initialMarking);
+        Exploration exploration = new Exploration(codec, visited);
+        List<PackedMarking> frontier = new ArrayList<>();
+        int[] start = initialMarking.clone();
+        if (symmetries != null) {
+            symmetries.canonicalize(start);
+        }
+        PackedMarking initial = codec.encode(start);
+        if (exploration.admit(initial)) {
+            frontier.add(initial);
+        }
+        while (!frontier.isEmpty() && !exploration.stopped()) {
+            frontier = pool.invoke(new ExpandTask(exploration, frontier, 0, frontier.size()));
+        }
+        return new Result(exploration.admitted.get(), exploration.explored.get(), exploration.dead.get(),
+                exploration.stateLimitReached.get(), exploration.timeLimitReached.get(),
+                exploration.memoryLimitReached.get());
+    }
+
+    /**
+     * Shared state of one exploration run.
+     */
+    private final class Exploration {
+        final MarkingCodec codec;
+        final VisitedStateStore visited;
+        final AtomicInteger admitted = new AtomicInteger();
+        final AtomicInteger explored = new AtomicInteger();
+        final AtomicInteger dead = new AtomicInteger();
+        final AtomicBoolean stateLimitReached = new AtomicBoolean();
+        final AtomicBoolean timeLimitReached = new AtomicBoolean();
+        final AtomicBoolean memoryLimitReached = new AtomicBoolean();
+
+        Exploration(MarkingCodec codec, VisitedStateStore visited) {
+            this.codec = codec;
+            this.visited = visited;
+        }
+
+        boolean stopped() {
+            return stateLimitReached.get() || timeLimitReached.get() || memoryLimitReached.get();
+        }
+
+        boolean checkTime() {
+            if (deadline.isExpired()) {
+                timeLimitReached.set(true);
+            }
+            return !timeLimitReached.get();
+        }
+
+        /**
+         * Records a marking as visited if it is new and both the state budget and the memory budget
+         * of the visited store allow it.
+         *
+         * @return {@code true} if the marking was newly admitted and should be expanded.
+         */
+        boolean admit(PackedMarking key) {
+            if (visited.contains(key)) {
+                return false;
+            }
+            // Reserve a slot in the budget before publishing the marking
+            if (admitted.incrementAndGet() > maxStates) {
+                admitted.decrementAndGet();
+                // Another task may have admitted the same marking in the meantime
+                if (!visited.contains(key)) {
+                    stateLimitReached.set(true);
+                }
+                return false;
+            }
+            VisitedStateStore.Insertion insertion = visited.add(key);
+            if (insertion != VisitedStateStore.Insertion.ADDED) {
+                admitted.decrementAndGet();
+                if (insertion == VisitedStateStore.Insertion.FULL) {
+                    memoryLimitReached.set(true);
+                }
+                return false;
+            }
+            return true;
+        }
+    }
+
+    // Tasks are never serialized; ForkJoinTask is Serializable only by inheritance
+    @SuppressWarnings("serial")
+    private final class ExpandTask extends RecursiveTask<List<PackedMarking>> {
+        private final Exploration exploration;
+        private final List<PackedMarking> frontier;
+        private final int from;
+        private final int to;
+
+        ExpandTask(Exploration exploration, List<PackedMarking> frontier, int from, int to) {
+            this.exploration = exploration;
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<PackedMarking> compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                ExpandTask left = new ExpandTask(exploration, frontier, from, middle);
+                left.fork();
+                List<PackedMarking> right = new ExpandTask(exploration, frontier, middle, to).compute();
+                List<PackedMarking> merged = left.join();
+                merged.addAll(right);
+                return merged;
+            }
+            List<PackedMarking> discovered = new ArrayList<>();
+            int[] marking = new int[net.getPlaceCount()];
+            int[] successor = new int[net.getPlaceCount()];
+            int[] fireable = new int[net.getTransitionCount()];
+            StubbornSets.Selector selector = reduction == null ? null : reduction.newSelector();
+            for (int i = from; i < to && !exploration.stopped() && exploration.checkTime(); i++) {
+                exploration.codec.decode(frontier.get(i), marking);
+                int count = selector == null
+                        ? net.getEnabledTransitions(marking, fireable)
+                        : selector.select(marking, fireable);
+                if (count == 0) {
+                    exploration.dead.incrementAndGet();
+                }
+                for (int j = 0; j < count; j++) {
+                    int t = fireable[j];
+                    System.arraycopy(marking, 0, successor, 0, marking.length);
+                    net.fire(t, successor);
+                    if (symmetries != null) {
+                        symmetries.canonicalize(successor);
+                    }
+                    PackedMarking packed = exploration.codec.encode(successor);
+                    if (exploration.admit(packed)) {
+                        discovered.add(packed);
+                    }
+                }
+                exploration.explored.incrementAndGet();
+            }
+            return discovered;
+        }
+    }
+
+    /**
+     * Outcome of an exploration.
+     */
+    public static final class Result {
+        private final int reachableStates;
+        private final int exploredStates;
+        private final int deadStates;
+        private final boolean stateLimitReached;
+        private final boolean timeLimitReached;
+        private final boolean memoryLimitReached;
+
+        public Result(int reachableStates, int exploredStates, int deadStates, boolean stateLimitReached,
+                      boolean timeLimitReached, boolean memoryLimitReached) {
+            this.reachableStates = reachableStates;
+            this.exploredStates = exploredStates;
+            this.deadStates = deadStates;
+            this.stateLimitReached = stateLimitReached;
+            this.timeLimitReached = timeLimitReached;
+            this.memoryLimitReached = memoryLimitReached;
+        }
+
+        public int getReachableStates() {
+            return reachableStates;
+        }
+
+        public int getExploredStates() {
+            return exploredStates;
+        }
+
+        /**
+         * @return The number of explored markings in which no transition is enabled.
+         */
+        public int getDeadStates() {
+            return deadStates;
+        }
+
+        public boolean isStateLimitReached() {
+            return stateLimitReached;
+        }
+
+        public boolean isTimeLimitReached() {
+            return timeLimitReached;
+        }
+
+        public boolean isMemoryLimitReached() {
+            return memoryLimitReached;
+        }
+    }
+}
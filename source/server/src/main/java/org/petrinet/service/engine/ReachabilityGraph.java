@@ -0,0 +1,213 @@
+package org.petrinet.service.engine;
+
+import org.petrinet.service.model.CompiledNet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Explicit reachability graph of a {@link CompiledNet}, stored in compressed sparse row (CSR) form.
+ * States are numbered in breadth-first discovery order starting with the initial marking at 0. The
+ * outgoing edges of state {@code s} occupy positions {@code offsets[s]} to {@code offsets[s + 1] - 1}
+ * of the target and label arrays, where the label is the index of the fired transition.
+ * <p>
+ * The graph is built sequentially so that state numbers and edge order are deterministic. If a budget
+ * stops the construction, the graph only holds the states discovered so far; states that were not
+ * expanded have no outgoing edges. The memory budget is checked against an estimate of the heap
+ * held by the states, their index and the edges.
+ */
+public final class ReachabilityGraph {
+
+    // Rough heap footprint of a state besides its packed marking: index entry, boxed id, list slot and row offset
+    private static final long STATE_BYTES = 48 + 16 + 8 + 4;
+    // Target and label of an edge
+    private static final long EDGE_BYTES = 2 * Integer.BYTES;
+
+    private final int stateCount;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] labels;
+    private final boolean stateLimitReached;
+    private final boolean timeLimitReached;
+    private final boolean memoryLimitReached;
+
+    private ReachabilityGraph(int stateCount, int[] offsets, int[] targets, int[] labels,
+                              boolean stateLimitReached, boolean timeLimitReached, boolean memoryLimitReached) {
+        this.stateCount = stateCount;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.labels = labels;
+        this.stateLimitReached = stateLimitReached;
+        this.timeLimitReached = timeLimitReached;
+        this.memoryLimitReached = memoryLimitReached;
+    }
+
+    /**
+     * Builds the reachability graph from the initial marking, within the given budgets.
+     *
+     * @param net The compiled net to explore.
+     * @param initialMarking The marking of state 0. It is not modified.
+     * @param maxStates The maximum number of states to add to the graph.
+     * @param deadline The wall-clock budget for the construction.
+     * @return The graph, complete unless one of the budgets was reached.
+     */
+    public static ReachabilityGraph build(CompiledNet net, int[] initialMarking, int maxStates, Deadline deadline) {
+        return build(net, initialMarking, maxStates, Long.MAX_VALUE, deadline);
+    }
+
+    /**
+     * Builds the reachability graph from the initial marking, within the given budgets.
+     *
+     * @param net The compiled net to explore.
+     * @param initialMarking The marking of state 0. It is not modified.
+     * @param maxStates The maximum number of states to add to the graph.
+     * @param memoryBudgetBytes The maximum estimated number of heap bytes the graph may use.
+     * @param deadline The wall-clock budget for the construction.
+     * @return The graph, complete unless one of the budgets was reached.
+     */
+    public static ReachabilityGraph build(CompiledNet net, int[] initialMarking, int maxStates,
+                                          long memoryBudgetBytes, Deadline deadline) {
+        MarkingCodec codec = MarkingCodec.forNet(net, initialMarking);
+        Map<PackedMarking, Integer> ids = new HashMap<>();
+        List<PackedMarking> states = new ArrayList<>();
+        int[] offsets = new int[16];
+        int[] targets = new int[16];
+        int[] labels = new int[16];
+        int edgeCount = 0;
+        boolean stateLimitReached = false;
+        boolean timeLimitReached = false;
+        boolean memoryLimitReached = false;
+        long bytes = 0;
+
+        if (maxStates > 0) {
+            PackedMarking initial = codec.encode(initialMarking);
+            ids.put(initial, 0);
+            states.add(initial);
+            bytes += PackedMarking.heapBytes(initial.wordCount()) + STATE_BYTES;
+        } else {
+            stateLimitReached = true;
+        }
+
+        int[] marking = new int[net.getPlaceCount()];
+        int[] successor = new int[net.getPlaceCount()];
+        // Number of states whose row of edges has been started
+        int rows = 0;
+        expansion:
+        while (rows < states.size()) {
+            if (deadline.isExpired()) {
+                timeLimitReached = true;
+                break;
+            }
+            if (rows == offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            int state = rows++;
+            offsets[state] = edgeCount;
+            codec.decode(states.get(state), marking);
+            for (int t = 0; t < net.getTransitionCount(); t++) {
+                if (!net.isEnabled(t, marking)) continue;
+                System.arraycopy(marking, 0, successor, 0, marking.length);
+                net.fire(t, successor);
+                PackedMarking packed = codec.encode(successor);
+                Integer target = ids.get(packed);
+                long added = EDGE_BYTES + (target == null ? PackedMarking.heapBytes(packed.wordCount()) + STATE_BYTES : 0);
+                if (bytes + added > memoryBudgetBytes) {
+                    memoryLimitReached = true;
+                    break expansion;
+                }
+                if (target == null) {
+                    if (states.size() >= maxStates) {
+                        stateLimitReached = true;
+                        break expansion;
+                    }
+                    target = states.size();
+                    ids.put(packed, target);
+                    states.add(packed);
+                }
+                bytes += added;
+                if (edgeCount == targets.length) {
+                    targets = Arrays.copyOf(targets, targets.length * 2);
+                    labels = Arrays.copyOf(labels, labels.length * 2);
+                }
+                targets[edgeCount] = target;
+                labels[edgeCount] = t;
+                edgeCount++;
+            }
+        }
+
+        // States that were never expanded get empty rows at the end
+        int stateCount = states.size();
+        int[] rowOffsets = new int[stateCount + 1];
+        System.arraycopy(offsets, 0, rowOffsets, 0, rows);
+        Arrays.fill(rowOffsets, rows, stateCount + 1, edgeCount);
+        return new ReachabilityGraph(stateCount, rowOffsets, Arrays.copyOf(targets, edgeCount),
+                Arrays.copyOf(labels, edgeCount), stateLimitReached, timeLimitReached, memoryLimitReached);
+    }
+
+    public int getStateCount() {
+        return stateCount;
+    }
+
+    public int getEdgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * @return The position of the first outgoing edge of a state; {@code getEdgeStart(s + 1)} ends the row.
+     */
+    public int getEdgeStart(int state) {
+        return offsets[state];
+    }
+
+    /**
+     * @return The state an edge leads to.
+     */
+    public int getTarget(int edge) {
+        return targets[edge];
+    }
+
+    /**
+     * @return The index of the transition an edge fires.
+     */
+    public int getLabel(int edge) {
+        return labels[edge];
+    }
+
+    /**
+     * Returns the row pointers of the outgoing edges, one per state plus the edge count.
+     * The returned array is shared and must not be modified.
+     */
+    public int[] getEdgeStarts() {
+        return offsets;
+    }
+
+    /**
+     * Returns the target state of every edge, grouped by source state.
+     * The returned array is shared and must not be modified.
+     */
+    public int[] getTargets() {
+        return targets;
+    }
+
+    public boolean isStateLimitReached() {
+        return stateLimitReached;
+    }
+
+    public boolean isTimeLimitReached() {
+        return timeLimitReached;
+    }
+
+    public boolean isMemoryLimitReached() {
+        return memoryLimitReached;
+    }
+
+    /**
+     * @return {@code true} if every reachable state was added and expanded.
+     */
+    public boolean isComplete() {
+        return !stateLimitReached && !timeLimitReached && !memoryLimitReached;
+    }
+}
@@ -0,0 +1,577 @@
+package org.petrinet.service.engine;
+
+import org.petrinet.service.model.CompiledNet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Minimal siphons of a {@link CompiledNet}, the maximal trap inside each of them, and Commoner's
+ * condition, computed from the structure of the net alone.
+ * <p>
+ * A siphon is a non-empty set of places such that every transition putting tokens into the set also
+ * takes tokens from it: once empty, it stays empty. A trap is a set of places such that every
+ * transition taking tokens from the set also puts tokens into it: once marked, it stays marked.
+ * Commoner's condition holds when every minimal siphon contains a trap that is marked initially,
+ * which is the case when the maximal trap inside the siphon is marked. In an ordinary net, i.e. one
+ * whose arcs all carry one token and without inhibitors or capacities, the condition implies that no
+ * dead marking is reachable. In an extended free-choice net it is equivalent to liveness; whether a
+ * net is one is decided by {@link NetStructure}.
+ * <p>
+ * Minimal siphons are enumerated by a search in the style of a SAT solver: every place is either in
+ * the siphon being built, out of it, or undecided. Assignments are propagated to a fixpoint before
+ * each decision: a place fed by a transition whose input places are all out must be out too, and a
+ * place in the siphon fed by a transition with a single remaining input place forces that place in.
+ * Decisions branch on an input place of a transition whose requirement is not met yet, picking the
+ * transition with the fewest candidates, and subtrees whose siphon already contains a siphon
+ * found earlier are pruned, since nothing below them can be minimal. Each assignment is recorded on
+ * a trail and undone on backtracking, so the search needs memory linear in the size of the net. The
+ * enumeration stops when the time budget runs out or the number of siphons reaches its limit.
+ */
+public final class SiphonsAndTraps {
+
+    private static final byte UNDECIDED = 0;
+    private static final byte IN = 1;
+    private static final byte OUT = 2;
+
+    private final CompiledNet net;
+    private final int maxSiphons;
+    private final Deadline deadline;
+    // Distinct input and output places of every transition, and distinct feeding and consuming transitions of every place
+    private final int[][] inputs;
+    private final int[][] outputs;
+    private final int[][] producers;
+    private final int[][] consumers;
+    private final boolean ordinary;
+
+    /**
+     * @param net The compiled net to analyze.
+     * @param maxSiphons The maximum number of minimal siphons to enumerate.
+     * @param deadline The wall-clock budget for the enumeration.
+     */
+    public SiphonsAndTraps(CompiledNet net, int maxSiphons, Deadline deadline) {
+        this.net = net;
+        this.maxSiphons = maxSiphons;
+        this.deadline = deadline;
+        int placeCount = net.getPlaceCount();
+        int transitionCount = net.getTransitionCount();
+
+        boolean singleTokenArcs = true;
+        inputs = new int[transitionCount][];
+        outputs = new int[transitionCount][];
+        int[] producerCounts = new int[placeCount];
+        int[] consumerCounts = new int[placeCount];
+        for (int t = 0; t < transitionCount; t++) {
+            int[] consumed = net.getConsumedPlaces(t);
+            int[] produced = net.getProducedPlaces(t);
+            inputs[t] = Arrays.stream(consumed).sorted().distinct().toArray();
+            outputs[t] = Arrays.stream(produced).sorted().distinct().toArray();
+            singleTokenArcs &= inputs[t].length == consumed.length && outputs[t].length == produced.length;
+            for (int p : inputs[t]) consumerCounts[p]++;
+            for (int p : outputs[t]) producerCounts[p]++;
+        }
+        producers = new int[placeCount][];
+        consumers = new int[placeCount][];
+        for (int p = 0; p < placeCount; p++) {
+            producers[p] = new int[producerCounts[p]];
+            consumers[p] = new int[consumerCounts[p]];
+        }
+        Arrays.fill(producerCounts, 0);
+        Arrays.fill(consumerCounts, 0);
+        for (int t = 0; t < transitionCount; t++) {
+            for (int p : inputs[t]) consumers[p][consumerCounts[p]++] = t;
+            for (int p : outputs[t]) producers[p][producerCounts[p]++] = t;
+        }
+
+        boolean plain = singleTokenArcs;
+        for (int t = 0; t < transitionCount && plain; t++) {
+            plain = net.isSatisfiable(t) && net.getInhibitorPlaces(t).length == 0;
+        }
+        for (int p = 0; p < placeCount && plain; p++) {
+            plain = !net.isBounded(p);
+        }
+        this.ordinary = plain;
+    }
+
+    /**
+     * Enumerates the minimal siphons and checks Commoner's condition for an initial marking.
+     *
+     * @param initialMarking The token count of every place. It is not modified.
+     * @return The siphons, their maximal traps, the verdicts and how the enumeration ended.
+     */
+    public Result analyze(int[] initialMarking) {
+        Search search = new Search();
+        search.run();
+        List<int[]> siphons = search.siphons;
+        siphons.sort(Comparator.comparingInt((int[] siphon) -> siphon[0]).thenComparingInt(siphon -> siphon.length));
+
+        List<int[]> traps = new ArrayList<>(siphons.size());
+        boolean allTrapsMarked = true;
+        for (int[] siphon : siphons) {
+            int[] trap = maximalTrap(siphon);
+            traps.add(trap);
+            boolean marked = false;
+            for (int p : trap) {
+                marked |= initialMarking[p] > 0;
+            }
+            allTrapsMarked &= marked;
+        }
+        return new Result(siphons, traps, allTrapsMarked, ordinary && net.getTransitionCount() > 0,
+                search.timeLimitReached, search.siphonLimitReached);
+    }
+
+    /**
+     * @return The largest trap contained in a set of places, possibly empty, in ascending order.
+     */
+    private int[] maximalTrap(int[] places) {
+        boolean[] inTrap = new boolean[net.getPlaceCount()];
+        for (int p : places) inTrap[p] = true;
+        // Number of trap places each transition puts tokens into
+        int[] marks = new int[net.getTransitionCount()];
+        for (int p : places) {
+            for (int t : producers[p]) marks[t]++;
+        }
+        int[] queue = new int[places.length];
+        int head = 0, tail = 0;
+        for (int p : places) {
+            if (leaksTokens(p, marks)) {
+                inTrap[p] = false;
+                queue[tail++] = p;
+            }
+        }
+        while (head < tail) {
+            int removed = queue[head++];
+            for (int t : producers[removed]) {
+                if (--marks[t] != 0) continue;
+                // t no longer puts tokens back into the trap, so its input places leak
+                for (int p : inputs[t]) {
+                    if (inTrap[p]) {
+                        inTrap[p] = false;
+                        queue[tail++] = p;
+                    }
+                }
+            }
+        }
+        return Arrays.stream(places).filter(p -> inTrap[p]).sorted().toArray();
+    }
+
+    private boolean leaksTokens(int place, int[] marks) {
+        for (int t : consumers[place]) {
+            if (marks[t] == 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * State of the enumeration: the assignment of every place, its trail, and the counters the
+     * propagation rules are evaluated on.
+     */
+    private final class Search {
+        private final byte[] state = new byte[net.getPlaceCount()];
+        private final int[] trail = new int[net.getPlaceCount()];
+        private int trailSize;
+        private int propagated;
+        // The places in the siphon, in the order they joined it
+        private final int[] inPlaces = new int[net.getPlaceCount()];
+        private int inCount;
+        // Per transition: input places out of the siphon, and input places in it
+        private final int[] outInputs = new int[net.getTransitionCount()];
+        private final int[] inInputs = new int[net.getTransitionCount()];
+        // Per siphon found: how many of its places are currently in
+        private final List<int[]> siphons = new ArrayList<>();
+        private final List<List<Integer>> siphonsByPlace = new ArrayList<>();
+        private int[] coveredCounts = new int[16];
+        // Scratch buffers of the minimality check
+        private final boolean[] member = new boolean[net.getPlaceCount()];
+        private final int[] memberInputs = new int[net.getTransitionCount()];
+        private final int[] lastMemberInput = new int[net.getTransitionCount()];
+        private final int[] position = new int[net.getPlaceCount()];
+        private int coveringSiphons;
+        private boolean timeLimitReached;
+        private boolean siphonLimitReached;
+
+        Search() {
+            for (int p = 0; p < net.getPlaceCount(); p++) {
+                siphonsByPlace.add(new ArrayList<>(0));
+            }
+        }
+
+        void run() {
+            // Decision stack: the decided place, the trail size before it, and whether its OUT branch is taken
+            int[] decisions = new int[net.getPlaceCount()];
+            int[] decisionTrail = new int[net.getPlaceCount()];
+            boolean[] outBranch = new boolean[net.getPlaceCount()];
+            int depth = 0;
+
+            excludeFedBySources();
+            boolean consistent = true;
+            while (true) {
+                if (consistent && coveringSiphons == 0) {
+                    consistent = propagate();
+                }
+                if (consistent && coveringSiphons == 0) {
+                    // While the siphon is empty, every place below the last decision is decided already
+                    int decision = chooseDecision(depth == 0 ? 0 : decisions[depth - 1] + 1);
+                    if (decision >= 0) {
+                        decisions[depth] = decision;
+                        decisionTrail[depth] = trailSize;
+                        outBranch[depth++] = false;
+                        assign(decision, IN);
+                        continue;
+                    }
+                    if (inCount > 0) {
+                        record();
+                        if (siphonLimitReached || timeLimitReached) return;
+                    }
+                }
+                if (deadline.isExpired()) {
+                    timeLimitReached = true;
+                    return;
+                }
+
+                // Backtrack to the last decision whose OUT branch is still open
+                while (depth > 0 && outBranch[depth - 1]) {
+                    depth--;
+                }
+                if (depth == 0) return;
+                undo(decisionTrail[depth - 1]);
+                outBranch[depth - 1] = true;
+                assign(decisions[depth - 1], OUT);
+                consistent = true;
+            }
+        }
+
+        /**
+         * Places fed by a transition without input places can never be part of a siphon.
+         */
+        private void excludeFedBySources() {
+            for (int t = 0; t < net.getTransitionCount(); t++) {
+                if (inputs[t].length != 0) continue;
+                for (int p : outputs[t]) {
+                    if (state[p] == UNDECIDED) assign(p, OUT);
+                }
+            }
+        }
+
+        /**
+         * Applies the propagation rules to every assignment made since the last call.
+         *
+         * @return {@code false} on a conflict, i.e. if a place in the siphon had to be taken out.
+         */
+        private boolean propagate() {
+            while (propagated < trailSize) {
+                int place = trail[propagated++];
+                if (state[place] == OUT) {
+                    for (int t : consumers[place]) {
+                        if (outInputs[t] == inputs[t].length) {
+                            // t keeps feeding its output places without any of them being able to refill
+                            for (int p : outputs[t]) {
+                                if (state[p] == IN) return false;
+                                if (state[p] == UNDECIDED) assign(p, OUT);
+                            }
+                        } else if (inInputs[t] == 0 && feedsSiphon(t) && !forceLastInput(t)) {
+                            return false;
+                        }
+                    }
+                } else {
+                    for (int t : producers[place]) {
+                        if (inInputs[t] == 0 && !forceLastInput(t)) return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private boolean feedsSiphon(int t) {
+            for (int p : outputs[t]) {
+                if (state[p] == IN) return true;
+            }
+            return false;
+        }
+
+        /**
+         * Called for a transition feeding the siphon without taking tokens from it: if a single input
+         * place is still undecided, it must join the siphon.
+         *
+         * @return {@code false} if no input place can join the siphon any more.
+         */
+        private boolean forceLastInput(int t) {
+            int remaining = inputs[t].length - outInputs[t];
+            if (remaining == 0) return false;
+            if (remaining == 1) {
+                for (int p : inputs[t]) {
+                    if (state[p] == UNDECIDED) {
+                        assign(p, IN);
+                        break;
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Picks the next place to decide: the first undecided input of the unmet transition with the
+         * fewest candidates, or, while the siphon is empty, the undecided place with the lowest index.
+         *
+         * @param firstUndecided A lower bound on the index of the lowest undecided place.
+         * @return The place, or -1 if the siphon is complete or no place is left to decide.
+         */
+        private int chooseDecision(int firstUndecided) {
+            if (inCount == 0) {
+                for (int p = firstUndecided; p < state.length; p++) {
+                    if (state[p] == UNDECIDED) return p;
+                }
+                return -1;
+            }
+            int bestTransition = -1;
+            int bestCandidates = Integer.MAX_VALUE;
+            for (int i = 0; i < inCount; i++) {
+                for (int t : producers[inPlaces[i]]) {
+                    int candidates = inputs[t].length - outInputs[t];
+                    if (inInputs[t] == 0 && candidates < bestCandidates) {
+                        bestCandidates = candidates;
+                        bestTransition = t;
+                    }
+                }
+            }
+            if (bestTransition >= 0) {
+                for (int p : inputs[bestTransition]) {
+                    if (state[p] == UNDECIDED) return p;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Records the current siphon if it is minimal, i.e. if no place can be removed while a
+         * non-empty siphon remains.
+         * <p>
+         * Removing a place from a siphon forces out every place fed by a transition whose only input
+         * in the siphon is that place. Along these forced removals, removing any place of a strongly
+         * connected component removes the whole component and everything it reaches, so only one
+         * place of each component that reaches no other needs to be tried.
+         */
+        private void record() {
+            int[] siphon = Arrays.copyOf(inPlaces, inCount);
+            Arrays.sort(siphon);
+            // A siphon that is not minimal usually still contains one without the place the search started from
+            if (containsSiphonWithout(siphon, inPlaces[0])) return;
+            for (int removed : candidateRemovals(siphon)) {
+                if (containsSiphonWithout(siphon, removed)) return;
+                if (deadline.isExpired()) {
+                    timeLimitReached = true;
+                    return;
+                }
+            }
+            int id = siphons.size();
+            siphons.add(siphon);
+            if (id == coveredCounts.length) {
+                coveredCounts = Arrays.copyOf(coveredCounts, id * 2);
+            }
+            for (int p : siphon) {
+                siphonsByPlace.get(p).add(id);
+            }
+            coveredCounts[id] = siphon.length;
+            coveringSiphons++;
+            siphonLimitReached = siphons.size() >= maxSiphons;
+        }
+
+        /**
+         * @return One place of every terminal component of the forced-removal graph of a siphon.
+         */
+        private int[] candidateRemovals(int[] siphon) {
+            for (int i = 0; i < siphon.length; i++) {
+                position[siphon[i]] = i;
+                for (int t : consumers[siphon[i]]) {
+                    memberInputs[t]++;
+                    lastMemberInput[t] = i;
+                }
+            }
+            // Edge from the only input in the siphon of a transition to every siphon place it feeds
+            int[] edgeStarts = new int[siphon.length + 1];
+            for (int p : siphon) {
+                for (int t : producers[p]) {
+                    if (memberInputs[t] == 1) edgeStarts[lastMemberInput[t] + 1]++;
+                }
+            }
+            for (int i = 0; i < siphon.length; i++) {
+                edgeStarts[i + 1] += edgeStarts[i];
+            }
+            int[] targets = new int[edgeStarts[siphon.length]];
+            int[] fill = edgeStarts.clone();
+            for (int p : siphon) {
+                for (int t : producers[p]) {
+                    if (memberInputs[t] == 1) targets[fill[lastMemberInput[t]]++] = position[p];
+                }
+            }
+            for (int p : siphon) {
+                for (int t : consumers[p]) memberInputs[t] = 0;
+            }
+
+            StronglyConnectedComponents components = new StronglyConnectedComponents(siphon.length, edgeStarts, targets);
+            int[] candidates = new int[components.getCount()];
+            int count = 0;
+            for (int c = 0; c < components.getCount(); c++) {
+                if (components.isTerminal(c)) candidates[count++] = siphon[components.getState(c, 0)];
+            }
+            return Arrays.copyOf(candidates, count);
+        }
+
+        /**
+         * Computes the largest siphon inside a siphon without one of its places, by removing places fed
+         * by a transition that takes no token from the remaining places until none is left to remove.
+         *
+         * @return {@code true} if that siphon is not empty.
+         */
+        private boolean containsSiphonWithout(int[] siphon, int removed) {
+            for (int p : siphon) {
+                member[p] = p != removed;
+            }
+            for (int p : siphon) {
+                if (!member[p]) continue;
+                for (int t : consumers[p]) memberInputs[t]++;
+            }
+            int[] queue = new int[siphon.length];
+            int head = 0, tail = 0;
+            for (int p : siphon) {
+                if (member[p] && isFedFromOutside(p)) {
+                    member[p] = false;
+                    queue[tail++] = p;
+                }
+            }
+            while (head < tail) {
+                for (int t : consumers[queue[head++]]) {
+                    if (--memberInputs[t] != 0) continue;
+                    for (int p : outputs[t]) {
+                        if (member[p]) {
+                            member[p] = false;
+                            queue[tail++] = p;
+                        }
+                    }
+                }
+            }
+
+            boolean remaining = false;
+            for (int p : siphon) {
+                remaining |= member[p];
+                member[p] = false;
+                for (int t : consumers[p]) memberInputs[t] = 0;
+            }
+            return remaining;
+        }
+
+        private boolean isFedFromOutside(int place) {
+            for (int t : producers[place]) {
+                if (memberInputs[t] == 0) return true;
+            }
+            return false;
+        }
+
+        private void assign(int place, byte value) {
+            state[place] = value;
+            trail[trailSize++] = place;
+            if (value == IN) {
+                inPlaces[inCount++] = place;
+            }
+            for (int t : consumers[place]) {
+                if (value == IN) inInputs[t]++;
+                else outInputs[t]++;
+            }
+            if (value == IN) {
+                for (int id : siphonsByPlace.get(place)) {
+                    if (++coveredCounts[id] == siphons.get(id).length) coveringSiphons++;
+                }
+            }
+        }
+
+        private void undo(int size) {
+            while (trailSize > size) {
+                int place = trail[--trailSize];
+                for (int t : consumers[place]) {
+                    if (state[place] == IN) inInputs[t]--;
+                    else outInputs[t]--;
+                }
+                if (state[place] == IN) {
+                    inCount--;
+                    for (int id : siphonsByPlace.get(place)) {
+                        if (coveredCounts[id]-- == siphons.get(id).length) coveringSiphons--;
+                    }
+                }
+                state[place] = UNDECIDED;
+            }
+            propagated = Math.min(propagated, trailSize);
+        }
+    }
+
+    /**
+     * Outcome of a siphon and trap analysis.
+     */
+    public static final class Result {
+        private final List<int[]> minimalSiphons;
+        private final List<int[]> maximalTraps;
+        private final boolean allTrapsMarked;
+        private final boolean ordinary;
+        private final boolean timeLimitReached;
+        private final boolean siphonLimitReached;
+
+        public Result(List<int[]> minimalSiphons, List<int[]> maximalTraps, boolean allTrapsMarked, boolean ordinary,
+                      boolean timeLimitReached, boolean siphonLimitReached) {
+            this.minimalSiphons = minimalSiphons;
+            this.maximalTraps = maximalTraps;
+            this.allTrapsMarked = allTrapsMarked;
+            this.ordinary = ordinary;
+            this.timeLimitReached = timeLimitReached;
+            this.siphonLimitReached = siphonLimitReached;
+        }
+
+        /**
+         * @return The minimal siphons found, as ascending place indices, ordered by their first place.
+         */
+        public List<int[]> getMinimalSiphons() {
+            return minimalSiphons;
+        }
+
+        /**
+         * @return For every minimal siphon, at the same position, the largest trap it contains.
+         */
+        public List<int[]> getMaximalTraps() {
+            return maximalTraps;
+        }
+
+        /**
+         * @return {@code true} if every minimal siphon was enumerated and contains an initially marked trap.
+         */
+        public boolean isCommonerConditionSatisfied() {
+            return isComplete() && allTrapsMarked;
+        }
+
+        /**
+         * @return {@code true} if some enumerated minimal siphon contains no initially marked trap.
+         */
+        public boolean isCommonerConditionViolated() {
+            return !allTrapsMarked;
+        }
+
+        /**
+         * @return {@code true} if the net has transitions, only single-token regular and bidirectional
+         *         arcs, no inhibitor arcs and no place capacities, so that siphon-based verdicts apply.
+         */
+        public boolean isOrdinary() {
+            return ordinary;
+        }
+
+        public boolean isTimeLimitReached() {
+            return timeLimitReached;
+        }
+
+        public boolean isSiphonLimitReached() {
+            return siphonLimitReached;
+        }
+
+        public boolean isComplete() {
+            return !timeLimitReached && !siphonLimitReached;
+        }
+    }
+}
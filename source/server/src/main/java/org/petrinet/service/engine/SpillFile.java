@@ -0,0 +1,154 @@
+package org.petrinet.service.engine;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only temporary file of packed markings, written and read with positional channel I/O
+ * through two buffers that are reused for the life of the file. Nothing is memory-mapped, so a long
+ * exploration holds no mappings and no address space beyond those buffers.
+ * Each record is the word count of a marking followed by its packed words. A file can be cleared and
+ * refilled, which avoids creating new files for every exploration level, and is deleted on close.
+ */
+final class SpillFile implements Closeable {
+
+    private static final int BUFFER_BYTES = 1 << 18;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(BUFFER_BYTES);
+    private ByteBuffer readBuffer = ByteBuffer.allocate(BUFFER_BYTES);
+    private long flushedSize;
+    private long size;
+
+    SpillFile(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Appends a marking to the end of the file.
+     */
+    void append(PackedMarking marking) throws IOException {
+        int words = marking.wordCount();
+        int bytes = Integer.BYTES + words * Long.BYTES;
+        if (bytes > writeBuffer.remaining()) {
+            flush();
+        }
+        // A record larger than the buffer is written on its own
+        ByteBuffer target = bytes <= writeBuffer.capacity() ? writeBuffer : ByteBuffer.allocate(bytes);
+        target.putInt(words);
+        for (int i = 0; i < words; i++) {
+            target.putLong(marking.word(i));
+        }
+        if (target != writeBuffer) {
+            write(target.flip());
+        }
+        size += bytes;
+    }
+
+    /**
+     * @return The number of bytes written to the file.
+     */
+    long getSize() {
+        return size;
+    }
+
+    /**
+     * Discards the contents so the file can be reused; the underlying file is kept.
+     */
+    void clear() {
+        writeBuffer.clear();
+        flushedSize = 0;
+        size = 0;
+    }
+
+    /**
+     * @return A reader over the markings appended so far, in insertion order. Readers of one file share
+     *         its read buffer, so creating a reader invalidates the previous one.
+     */
+    Reader reader() throws IOException {
+        flush();
+        return new Reader();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        Files.deleteIfExists(path);
+    }
+
+    private void flush() throws IOException {
+        if (writeBuffer.position() > 0) {
+            write(writeBuffer.flip());
+            writeBuffer.clear();
+        }
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            flushedSize += channel.write(buffer, flushedSize);
+        }
+    }
+
+    /**
+     * Sequential reader that refills the read buffer of the file as it goes.
+     */
+    final class Reader {
+        private final long end = size;
+        private long filePosition;
+
+        Reader() {
+            readBuffer.clear().limit(0);
+        }
+
+        /**
+         * @return The next marking, or {@code null} once every record has been read.
+         */
+        PackedMarking next() throws IOException {
+            if (filePosition - readBuffer.remaining() >= end) {
+                return null;
+            }
+            int words = fill(Integer.BYTES).getInt();
+            ByteBuffer buffer = fill(words * Long.BYTES);
+            long[] packed = new long[words];
+            for (int i = 0; i < words; i++) {
+                packed[i] = buffer.getLong();
+            }
+            return new PackedMarking(packed);
+        }
+
+        /**
+         * @return The read buffer, holding at least the given number of unread bytes.
+         */
+        private ByteBuffer fill(int bytes) throws IOException {
+            if (readBuffer.remaining() >= bytes) {
+                return readBuffer;
+            }
+            if (bytes > readBuffer.capacity()) {
+                readBuffer = ByteBuffer.allocate(bytes).put(readBuffer);
+            } else {
+                readBuffer.compact();
+            }
+            while (readBuffer.position() < bytes) {
+                if (filePosition >= end) {
+                    throw new EOFException("Truncated spill file " + path);
+                }
+                readBuffer.limit((int) Math.min(readBuffer.capacity(), readBuffer.position() + (end - filePosition)));
+                int read = channel.read(readBuffer, filePosition);
+                if (read < 0) {
+                    throw new EOFException("Truncated spill file " + path);
+                }
+                filePosition += read;
+            }
+            return readBuffer.flip();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package org.petrinet.service.engine;
+
+import org.petrinet.service.model.NetGraph;
+
+import java.util.Arrays;
+
+/**
+ * Strongly connected components of a {@link ReachabilityGraph}, or of any directed graph in compressed
+ * sparse row form such as a {@link NetGraph}, computed with an iterative version of Tarjan's algorithm
+ * so that deep graphs do not overflow the call stack. Runs in time linear in the number of states and
+ * edges.
+ * <p>
+ * A component is terminal (a bottom component) when no edge leaves it. In a finite graph, some terminal
+ * component is reachable from every state.
+ */
+public final class StronglyConnectedComponents {
+
+    private final int[] component;
+    private final int count;
+    private final boolean[] terminal;
+    private final int[] statesByComponent;
+    private final int[] componentStart;
+
+    /**
+     * @param graph The graph to decompose.
+     */
+    public StronglyConnectedComponents(ReachabilityGraph graph) {
+        this(graph.getStateCount(), graph.getEdgeStarts(), graph.getTargets());
+    }
+
+    /**
+     * @param graph The net graph to decompose, places and transitions alike.
+     */
+    public StronglyConnectedComponents(NetGraph graph) {
+        this(graph.getNodeCount(), graph.getOutStarts(), graph.getOutTargets());
+    }
+
+    /**
+     * @param n The number of states.
+     * @param edgeStarts The position of the first outgoing edge of every state, plus the edge count.
+     * @param targets The state every edge leads to.
+     */
+    public StronglyConnectedComponents(int n, int[] edgeStarts, int[] targets) {
+        component = new int[n];
+        int[] index = new int[n];
+        int[] lowLink = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int[] callStack = new int[n];
+        int[] nextEdge = new int[n];
+        int[] popOrder = new int[n];
+        int stackSize = 0;
+        int callDepth = 0;
+        int nextIndex = 1;
+        int popped = 0;
+        int components = 0;
+
+        // index 0 marks a state that has not been visited yet
+        for (int root = 0; root < n; root++) {
+            if (index[root] != 0) continue;
+            index[root] = lowLink[root] = nextIndex++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            callStack[callDepth++] = root;
+            nextEdge[root] = edgeStarts[root];
+
+            while (callDepth > 0) {
+                int state = callStack[callDepth - 1];
+                if (nextEdge[state] < edgeStarts[state + 1]) {
+                    int target = targets[nextEdge[state]++];
+                    if (index[target] == 0) {
+                        index[target] = lowLink[target] = nextIndex++;
+                        stack[stackSize++] = target;
+                        onStack[target] = true;
+                        callStack[callDepth++] = target;
+                        nextEdge[target] = edgeStarts[target];
+                    } else if (onStack[target] && index[target] < lowLink[state]) {
+                        lowLink[state] = index[target];
+                    }
+                    continue;
+                }
+
+                callDepth--;
+                if (callDepth > 0) {
+                    int caller = callStack[callDepth - 1];
+                    if (lowLink[state] < lowLink[caller]) {
+                        lowLink[caller] = lowLink[state];
+                    }
+                }
+                if (lowLink[state] == index[state]) {
+                    int member;
+                    do {
+                        member = stack[--stackSize];
+                        onStack[member] = false;
+                        component[member] = components;
+                        popOrder[popped++] = member;
+                    } while (member != state);
+                    components++;
+                }
+            }
+        }
+        count = components;
+
+        // Members of each component are popped contiguously
+        componentStart = new int[count + 1];
+        for (int s = 0; s < n; s++) {
+            componentStart[component[s] + 1]++;
+        }
+        for (int c = 0; c < count; c++) {
+            componentStart[c + 1] += componentStart[c];
+        }
+        statesByComponent = popOrder;
+
+        terminal = new boolean[count];
+        Arrays.fill(terminal, true);
+        for (int s = 0; s < n; s++) {
+            for (int e = edgeStarts[s]; e < edgeStarts[s + 1]; e++) {
+                if (component[targets[e]] != component[s]) {
+                    terminal[component[s]] = false;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The number of components.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return The component of a state. Components are numbered in reverse topological order.
+     */
+    public int getComponent(int state) {
+        return component[state];
+    }
+
+    /**
+     * @return {@code true} if no edge leaves the component.
+     */
+    public boolean isTerminal(int component) {
+        return terminal[component];
+    }
+
+    /**
+     * @return The number of states in a component.
+     */
+    public int getSize(int component) {
+        return componentStart[component + 1] - componentStart[component];
+    }
+
+    /**
+     * @return The {@code i}-th state of a component, for {@code i} below {@link #getSize(int)}.
+     */
+    public int getState(int component, int i) {
+        return statesByComponent[componentStart[component] + i];
+    }
+}
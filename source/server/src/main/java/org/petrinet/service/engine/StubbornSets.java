@@ -0,0 +1,173 @@
+package org.petrinet.service.engine;
+
+import org.petrinet.service.model.CompiledNet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deadlock-preserving stubborn sets for partial-order reduction of a {@link CompiledNet}.
+ * <p>
+ * Instead of firing every enabled transition, an exploration only fires the enabled transitions of
+ * a stubborn set. The set is closed under two rules derived from the arcs of the net:
+ * <ul>
+ *   <li>for an enabled member, every transition that reads or writes a place it writes, and every
+ *       transition that writes a place it reads or writes, is a member too, so no transition outside
+ *       the set can disable it or stop commuting with it;</li>
+ *   <li>for a disabled member, one place that currently disables it is chosen (an input place
+ *       without enough tokens, a marked inhibitor place, a full bounded output place) and every
+ *       transition writing that place is a member too, so it stays disabled until a member fires.</li>
+ * </ul>
+ * Inhibitor and capacity checks count as reads of their places. Every dead marking reachable in the
+ * full state space stays reachable in the reduced one, through a permutation of the same firing
+ * sequence, so deadlock verdicts and shortest deadlock traces are unchanged. Other properties, such
+ * as the number of reachable markings, are not preserved.
+ */
+public final class StubbornSets {
+
+    private final CompiledNet net;
+    // Transitions whose firing may change the token count of each place
+    private final int[][] writers;
+
+    /**
+     * @param net The compiled net the sets are computed for.
+     */
+    public StubbornSets(CompiledNet net) {
+        this.net = net;
+        List<List<Integer>> writerLists = new ArrayList<>(net.getPlaceCount());
+        for (int p = 0; p < net.getPlaceCount(); p++) {
+            writerLists.add(new ArrayList<>());
+        }
+        for (int t = 0; t < net.getTransitionCount(); t++) {
+            for (int place : net.getAffectedPlaces(t)) {
+                writerLists.get(place).add(t);
+            }
+        }
+        this.writers = new int[net.getPlaceCount()][];
+        for (int p = 0; p < writers.length; p++) {
+            writers[p] = writerLists.get(p).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /**
+     * Creates a selector with its own scratch buffers. Selectors are not thread-safe, so each
+     * exploring thread needs its own.
+     */
+    public Selector newSelector() {
+        return new Selector();
+    }
+
+    /**
+     * Computes stubborn sets for one marking at a time.
+     */
+    public final class Selector {
+        private final boolean[] enabled = new boolean[net.getTransitionCount()];
+        private final boolean[] member = new boolean[net.getTransitionCount()];
+        private final int[] members = new int[net.getTransitionCount()];
+        private int memberCount;
+
+        private Selector() {
+        }
+
+        /**
+         * Collects the enabled transitions of a stubborn set of the marking, in ascending index order.
+         * Every enabled transition is tried as the seed of the set, and the set with the fewest enabled
+         * transitions is kept. The result is empty only if the marking is dead.
+         *
+         * @param marking The token count of every place, indexed by place index.
+         * @param fireable Receives the indices of the transitions to fire; must hold at least one
+         *                 entry per transition.
+         * @return The number of transitions written to {@code fireable}.
+         */
+        public int select(int[] marking, int[] fireable) {
+            int enabledCount = net.getEnabledTransitions(marking, fireable);
+            if (enabledCount <= 1) {
+                return enabledCount;
+            }
+            for (int i = 0; i < enabledCount; i++) {
+                enabled[fireable[i]] = true;
+            }
+
+            int bestSeed = -1;
+            int bestSize = enabledCount + 1;
+            for (int i = 0; i < enabledCount && bestSize > 1; i++) {
+                int size = close(fireable[i], marking, bestSize);
+                if (size < bestSize) {
+                    bestSize = size;
+                    bestSeed = fireable[i];
+                }
+            }
+            close(bestSeed, marking, Integer.MAX_VALUE);
+
+            int count = 0;
+            for (int i = 0; i < enabledCount; i++) {
+                int t = fireable[i];
+                enabled[t] = false;
+                if (member[t]) {
+                    fireable[count++] = t;
+                }
+            }
+            clearMembers();
+            return count;
+        }
+
+        /**
+         * Builds the stubborn set generated by a seed, leaving it marked in {@link #member}.
+         *
+         * @return The number of enabled members, or {@code limit} as soon as that many are found.
+         */
+        private int close(int seed, int[] marking, int limit) {
+            clearMembers();
+            add(seed);
+            int enabledMembers = 0;
+            for (int next = 0; next < memberCount; next++) {
+                int t = members[next];
+                if (enabled[t]) {
+                    if (++enabledMembers >= limit) {
+                        return limit;
+                    }
+                    for (int place : net.getAffectedPlaces(t)) {
+                        addAll(net.getDependentTransitions(place));
+                        addAll(writers[place]);
+                    }
+                    for (int place : net.getReadPlaces(t)) {
+                        addAll(writers[place]);
+                    }
+                } else {
+                    int scapegoat = -1;
+                    for (int place : net.getReadPlaces(t)) {
+                        if (net.isBlockedBy(t, place, marking)
+                                && (scapegoat < 0 || writers[place].length < writers[scapegoat].length)) {
+                            scapegoat = place;
+                        }
+                    }
+                    // Without a blocking place the transition can never fire
+                    if (scapegoat >= 0) {
+                        addAll(writers[scapegoat]);
+                    }
+                }
+            }
+            return enabledMembers;
+        }
+
+        private void addAll(int[] transitions) {
+            for (int t : transitions) {
+                add(t);
+            }
+        }
+
+        private void add(int t) {
+            if (!member[t]) {
+                member[t] = true;
+                members[memberCount++] = t;
+            }
+        }
+
+        private void clearMembers() {
+            for (int i = 0; i < memberCount; i++) {
+                member[members[i]] = false;
+            }
+            memberCount = 0;
+        }
+    }
+}
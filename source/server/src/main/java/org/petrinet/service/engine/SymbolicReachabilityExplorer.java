@@ -0,0 +1,278 @@
+package org.petrinet.service.engine;
+
+import org.petrinet.service.model.CompiledNet;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Symbolic explorer of the reachability set of a {@link CompiledNet}, meant for safe and small-capacity
+ * nets whose state spaces are far too large to enumerate.
+ * <p>
+ * Sets of markings are kept as {@link Mdd}s with one level per place, in place index order. Every
+ * check of {@link CompiledNet#isEnabled(int, int[])} reads a single place and every firing operation
+ * only depends on the place it updates, so the transition relation of a transition is a product of
+ * per-place relations over the places it reads or writes. Its image is computed by one recursive
+ * pass that filters and rewrites the levels of those places and shares all other levels unchanged.
+ * <p>
+ * The reachable set is computed by chaining: transitions are applied one after another, bottom
+ * levels first, each time adding their image to the set, until a full round adds nothing. Dead
+ * markings are then obtained by removing, transition by transition, the markings that enable it.
+ * The exploration stops when the time budget runs out or the diagram exceeds its node budget.
+ */
+public final class SymbolicReachabilityExplorer {
+
+    private final CompiledNet net;
+    private final int maxNodes;
+    private final Deadline deadline;
+
+    /**
+     * @param net The compiled net to explore.
+     * @param maxNodes The maximum number of decision diagram nodes to create.
+     * @param deadline The wall-clock budget for the exploration.
+     */
+    public SymbolicReachabilityExplorer(CompiledNet net, int maxNodes, Deadline deadline) {
+        this.net = net;
+        this.maxNodes = maxNodes;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Computes every marking reachable from the initial marking, within the configured budgets.
+     *
+     * @param initialMarking The marking to start from. It is not modified.
+     * @return The number of reachable and dead markings, and which budget, if any, stopped the exploration.
+     * @throws IllegalArgumentException If a place holds a negative number of tokens.
+     */
+    public Result explore(int[] initialMarking) {
+        for (int p = 0; p < initialMarking.length; p++) {
+            if (initialMarking[p] < 0) {
+                throw new IllegalArgumentException("Symbolic reachability requires non-negative token counts, but place "
+                        + net.getPlaceId(p) + " holds " + initialMarking[p]);
+            }
+        }
+        return new Run().explore(initialMarking);
+    }
+
+    /**
+     * Diagram, caches and budget of one exploration.
+     */
+    private final class Run {
+        private final Mdd mdd = new Mdd(net.getPlaceCount());
+        private final boolean[][] inSupport = new boolean[net.getTransitionCount()][];
+        private final int[] deepestSupport = new int[net.getTransitionCount()];
+        private final int[] topSupport = new int[net.getTransitionCount()];
+        private final Map<Long, Integer> imageCache = new HashMap<>();
+        private final Map<Long, Integer> enabledCache = new HashMap<>();
+        private final int[] scratch = new int[net.getPlaceCount()];
+        private boolean timeLimitReached;
+        private boolean nodeLimitReached;
+
+        Run() {
+            for (int t = 0; t < net.getTransitionCount(); t++) {
+                inSupport[t] = new boolean[net.getPlaceCount()];
+                deepestSupport[t] = -1;
+                topSupport[t] = net.getPlaceCount();
+                for (int[] places : new int[][] {net.getReadPlaces(t), net.getAffectedPlaces(t)}) {
+                    for (int place : places) {
+                        inSupport[t][place] = true;
+                        deepestSupport[t] = Math.max(deepestSupport[t], place);
+                        topSupport[t] = Math.min(topSupport[t], place);
+                    }
+                }
+            }
+        }
+
+        Result explore(int[] initialMarking) {
+            List<Integer> order = new ArrayList<>();
+            for (int t = 0; t < net.getTransitionCount(); t++) {
+                if (net.isSatisfiable(t)) order.add(t);
+            }
+            // Transitions acting on the bottom levels first
+            order.sort(Comparator.comparingInt((Integer t) -> topSupport[t]).reversed());
+
+            int reached = mdd.singleton(initialMarking);
+            int iterations = 0;
+            int previous;
+            do {
+                previous = reached;
+                iterations++;
+                for (int t : order) {
+                    reached = mdd.union(reached, image(t, reached));
+                    if (outOfBudget()) {
+                        return result(reached, Mdd.EMPTY, iterations);
+                    }
+                }
+            } while (reached != previous);
+
+            int dead = reached;
+            for (int t : order) {
+                dead = mdd.difference(dead, enabled(t, dead));
+                if (outOfBudget()) {
+                    return result(reached, Mdd.EMPTY, iterations);
+                }
+            }
+            return result(reached, dead, iterations);
+        }
+
+        private Result result(int reached, int dead, int iterations) {
+            return new Result(mdd.count(reached), mdd.count(dead), mdd.getNodeCount(), iterations,
+                    timeLimitReached, nodeLimitReached);
+        }
+
+        private boolean outOfBudget() {
+            if (deadline.isExpired()) {
+                timeLimitReached = true;
+            }
+            if (mdd.getNodeCount() > maxNodes) {
+                nodeLimitReached = true;
+            }
+            return timeLimitReached || nodeLimitReached;
+        }
+
+        /**
+         * @return The markings reached by firing a transition from any marking of the set.
+         */
+        private int image(int t, int node) {
+            if (node == Mdd.EMPTY || mdd.getLevel(node) > deepestSupport[t]) {
+                return node;
+            }
+            long key = ((long) t << 32) | node;
+            Integer cached = imageCache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            int place = mdd.getLevel(node);
+            int[] row = new int[mdd.getWidth(node)];
+            for (int value = 0; value < mdd.getWidth(node); value++) {
+                int child = mdd.getChild(node, value);
+                if (child == Mdd.EMPTY) continue;
+                if (!inSupport[t][place]) {
+                    row[value] = image(t, child);
+                } else if (isAllowed(t, place, value)) {
+                    int target = effect(t, place, value);
+                    if (target >= row.length) {
+                        row = Arrays.copyOf(row, target + 1);
+                    }
+                    row[target] = mdd.union(row[target], image(t, child));
+                }
+            }
+            int result = mdd.node(place, row);
+            Mdd.cache(imageCache, key, result);
+            return result;
+        }
+
+        /**
+         * @return The markings of the set in which a transition is enabled.
+         */
+        private int enabled(int t, int node) {
+            if (node == Mdd.EMPTY || mdd.getLevel(node) > deepestSupport[t]) {
+                return node;
+            }
+            long key = ((long) t << 32) | node;
+            Integer cached = enabledCache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            int place = mdd.getLevel(node);
+            int[] row = new int[mdd.getWidth(node)];
+            for (int value = 0; value < row.length; value++) {
+                int child = mdd.getChild(node, value);
+                if (child != Mdd.EMPTY && (!inSupport[t][place] || isAllowed(t, place, value))) {
+                    row[value] = enabled(t, child);
+                }
+            }
+            int result = mdd.node(place, row);
+            Mdd.cache(enabledCache, key, result);
+            return result;
+        }
+
+        private boolean isAllowed(int t, int place, int tokens) {
+            scratch[place] = tokens;
+            boolean allowed = !net.isBlockedBy(t, place, scratch);
+            scratch[place] = 0;
+            return allowed;
+        }
+
+        /**
+         * @return The token count of a place after firing a transition, given its count before.
+         */
+        private int effect(int t, int place, int tokens) {
+            scratch[place] = tokens;
+            net.fire(t, scratch);
+            int after = scratch[place];
+            for (int affected : net.getAffectedPlaces(t)) {
+                scratch[affected] = 0;
+            }
+            return after;
+        }
+    }
+
+    /**
+     * Outcome of a symbolic exploration.
+     */
+    public static final class Result {
+        private final BigInteger reachableStates;
+        private final BigInteger deadStates;
+        private final int nodeCount;
+        private final int iterations;
+        private final boolean timeLimitReached;
+        private final boolean nodeLimitReached;
+
+        public Result(BigInteger reachableStates, BigInteger deadStates, int nodeCount, int iterations,
+                      boolean timeLimitReached, boolean nodeLimitReached) {
+            this.reachableStates = reachableStates;
+            this.deadStates = deadStates;
+            this.nodeCount = nodeCount;
+            this.iterations = iterations;
+            this.timeLimitReached = timeLimitReached;
+            this.nodeLimitReached = nodeLimitReached;
+        }
+
+        /**
+         * @return The number of reachable markings, or of the markings found so far if a budget was reached.
+         */
+        public BigInteger getReachableStates() {
+            return reachableStates;
+        }
+
+        /**
+         * @return The number of reachable markings in which no transition is enabled. Always zero if a
+         *         budget was reached.
+         */
+        public BigInteger getDeadStates() {
+            return deadStates;
+        }
+
+        /**
+         * @return The number of decision diagram nodes created, including intermediate results.
+         */
+        public int getNodeCount() {
+            return nodeCount;
+        }
+
+        /**
+         * @return The number of chaining rounds over all transitions.
+         */
+        public int getIterations() {
+            return iterations;
+        }
+
+        public boolean isTimeLimitReached() {
+            return timeLimitReached;
+        }
+
+        public boolean isNodeLimitReached() {
+            return nodeLimitReached;
+        }
+
+        public boolean isComplete() {
+            return !timeLimitReached && !nodeLimitReached;
+        }
+    }
+}
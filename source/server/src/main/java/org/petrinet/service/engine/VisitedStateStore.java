@@ -0,0 +1,43 @@
+package org.petrinet.service.engine;
+
+/**
+ * Set of markings already visited by a state-space exploration.
+ * Implementations must be safe for concurrent use by the exploration tasks.
+ */
+public interface VisitedStateStore {
+
+    /**
+     * Outcome of an attempt to record a marking.
+     */
+    enum Insertion {
+        /** The marking was not visited before and has been recorded. */
+        ADDED,
+        /** The marking had already been recorded. */
+        PRESENT,
+        /** The marking is new, but the store has no room left for it within its memory budget. */
+        FULL
+    }
+
+    /**
+     * @return {@code true} if the marking has already been recorded.
+     */
+    boolean contains(PackedMarking marking);
+
+    /**
+     * Records a marking as visited.
+     *
+     * @param marking The marking to record.
+     * @return Whether the marking was added, was already present, or did not fit.
+     */
+    Insertion add(PackedMarking marking);
+
+    /**
+     * @return The number of markings recorded so far.
+     */
+    int size();
+
+    /**
+     * @return The number of bytes currently reserved by the store, or -1 if it is not tracked.
+     */
+    long getReservedBytes();
+}
@@ -0,0 +1,5 @@
+/**
+ * Contains the execution engines that run compiled Petri nets on primitive markings,
+ * such as incremental simulation and state-space exploration.
+ */
+package org.petrinet.service.engine;
@@ -0,0 +1,544 @@
+package org.petrinet.service.model;
+
+import java.util.*;
+
+/**
+ * Dense, index-based representation of a Petri net's structure.
+ * Places and transitions are assigned consecutive integer indices in the order they were supplied,
+ * and every arc connected to a transition is resolved once into per-transition index arrays
+ * (inhibitor places, bidirectional places, input requirements, capacity-constrained outputs and
+ * an ordered list of firing operations). A marking is then just an {@code int[]} indexed by place,
+ * so enabling checks and firings run on primitive arrays without any map lookups, string
+ * comparisons or allocation.
+ * <p>
+ * The compiled form only captures structure; token counts are kept in separate marking arrays so
+ * the same instance can be shared across steps and threads.
+ */
+public final class CompiledNet {
+
+    /** Capacity value used for places that have no token limit. */
+    public static final int UNBOUNDED = -1;
+
+    private static final byte CONSUME = 0;
+    private static final byte PRODUCE = 1;
+    private static final byte CONSUME_AND_PRODUCE = 2;
+
+    private static final int[] NO_INDICES = new int[0];
+
+    private final String[] placeIds;
+    private final int[] capacities;
+    private final Map<String, Integer> placeIndex;
+
+    private final String[] transitionIds;
+    private final List<List<String>> transitionArcIds;
+    private final Map<String, Integer> transitionIndex;
+
+    private final List<Arc> arcs;
+
+    // Transitions that reference a missing place in a precondition can never fire
+    private final boolean[] unsatisfiable;
+    private final int[][] inhibitorPlaces;
+    private final int[][] bidirectionalPlaces;
+    private final int[][] inputPlaces;
+    private final int[][] inputWeights;
+    private final int[][] capacityPlaces;
+    private final int[][] capacityDeltas;
+    private final int[][] firingPlaces;
+    private final byte[][] firingOps;
+
+    // Transitions whose enabling reads a place, the distinct places an enabling check reads,
+    // and the distinct places a firing writes
+    private final int[][] dependentTransitions;
+    private final int[][] readPlaces;
+    private final int[][] affectedPlaces;
+
+    /**
+     * Compiles the given domain models into index arrays.
+     * The per-transition arrays reproduce the rules applied by
+     * {@code PetriNetService#evaluateTransition(Transition, Map, Map)} and
+     * {@code PetriNetService#updateTokensForFiringTransition(Transition, Map, Map)}: only arcs listed in a
+     * transition's arc IDs are considered, and firing operations keep the order of that list.
+     *
+     * @param places The places of the net, in the order their indices should be assigned.
+     * @param transitions The transitions of the net, in the order their indices should be assigned.
+     * @param arcs The arcs of the net.
+     * @throws IllegalArgumentException if two places or two arcs share the same ID.
+     */
+    public CompiledNet(List<Place> places, List<Transition> transitions, List<Arc> arcs) {
+        int placeCount = places.size();
+        this.placeIds = new String[placeCount];
+        this.capacities = new int[placeCount];
+        this.placeIndex = new HashMap<>(placeCount * 2);
+        for (int p = 0; p < placeCount; p++) {
+            Place place = places.get(p);
+            if (placeIndex.putIfAbsent(place.getId(), p) != null) {
+                throw new IllegalArgumentException("Duplicate place ID: " + place.getId());
+            }
+            placeIds[p] = place.getId();
+            capacities[p] = place.isBounded() && place.getCapacity() != null ? place.getCapacity() : UNBOUNDED;
+        }
+
+        Map<String, Arc> arcsById = new HashMap<>(arcs.size() * 2);
+        for (Arc arc : arcs) {
+            if (arcsById.putIfAbsent(arc.getId(), arc) != null) {
+                throw new IllegalArgumentException("Duplicate arc ID: " + arc.getId());
+            }
+        }
+        this.arcs = List.copyOf(arcs);
+
+        int transitionCount = transitions.size();
+        this.transitionIds = new String[transitionCount];
+        this.transitionArcIds = new ArrayList<>(transitionCount);
+        this.transitionIndex = new HashMap<>(transitionCount * 2);
+        this.unsatisfiable = new boolean[transitionCount];
+        this.inhibitorPlaces = new int[transitionCount][];
+        this.bidirectionalPlaces = new int[transitionCount][];
+        this.inputPlaces = new int[transitionCount][];
+        this.inputWeights = new int[transitionCount][];
+        this.capacityPlaces = new int[transitionCount][];
+        this.capacityDeltas = new int[transitionCount][];
+        this.firingPlaces = new int[transitionCount][];
+        this.firingOps = new byte[transitionCount][];
+
+        for (int t = 0; t < transitionCount; t++) {
+            Transition transition = transitions.get(t);
+            transitionIds[t] = transition.getId();
+            List<String> arcIds = arcIdsOf(transition);
+            transitionArcIds.add(arcIds);
+            // Duplicate transition IDs are tolerated; lookups resolve to the first occurrence
+            transitionIndex.putIfAbsent(transition.getId(), t);
+            compileTransition(t, transition, arcIds, arcsById);
+        }
+
+        this.affectedPlaces = new int[transitionCount][];
+        this.readPlaces = new int[transitionCount][];
+        this.dependentTransitions = new int[placeCount][];
+        indexDependencies();
+    }
+
+    private void indexDependencies() {
+        List<Set<Integer>> readers = new ArrayList<>(placeIds.length);
+        for (int p = 0; p < placeIds.length; p++) {
+            readers.add(new TreeSet<>());
+        }
+        for (int t = 0; t < transitionIds.length; t++) {
+            // A transition with a missing input place stays disabled whatever the marking
+            Set<Integer> read = new TreeSet<>();
+            if (!unsatisfiable[t]) {
+                for (int[] places : new int[][] {inhibitorPlaces[t], bidirectionalPlaces[t], inputPlaces[t], capacityPlaces[t]}) {
+                    for (int place : places) {
+                        readers.get(place).add(t);
+                        read.add(place);
+                    }
+                }
+            }
+            readPlaces[t] = toIntArray(read);
+            Set<Integer> written = new LinkedHashSet<>();
+            for (int place : firingPlaces[t]) {
+                written.add(place);
+            }
+            affectedPlaces[t] = toIntArray(written);
+        }
+        for (int p = 0; p < placeIds.length; p++) {
+            dependentTransitions[p] = toIntArray(readers.get(p));
+        }
+    }
+
+    /**
+     * @return The arc IDs of a transition, without the null ones. A transition without arc IDs has none.
+     */
+    private static List<String> arcIdsOf(Transition transition) {
+        if (transition.getArcIds() == null) {
+            return List.of();
+        }
+        List<String> arcIds = new ArrayList<>(transition.getArcIds().size());
+        for (String arcId : transition.getArcIds()) {
+            if (arcId != null) {
+                arcIds.add(arcId);
+            }
+        }
+        return List.copyOf(arcIds);
+    }
+
+    private void compileTransition(int t, Transition transition, List<String> arcIds, Map<String, Arc> arcsById) {
+        String transitionId = transition.getId();
+        List<Integer> inhibitors = new ArrayList<>();
+        List<Integer> bidirectionals = new ArrayList<>();
+        Map<Integer, Integer> required = new LinkedHashMap<>();
+        Map<Integer, Integer> netChange = new LinkedHashMap<>();
+        List<Integer> opPlaces = new ArrayList<>();
+        List<Byte> ops = new ArrayList<>();
+
+        for (String arcId : arcIds) {
+            Arc arc = arcsById.get(arcId);
+            if (arc == null) continue;
+
+            switch (arc) {
+                case Arc.InhibitorArc inhibitorArc -> {
+                    if (arc.getOutgoingId().equals(transitionId)) {
+                        Integer place = placeIndex.get(arc.getIncomingId());
+                        if (place != null) {
+                            inhibitors.add(place);
+                        }
+                    }
+                }
+                case Arc.BidirectionalArc bidirectionalArc -> {
+                    String placeId = arc.getIncomingId().equals(transitionId) ? arc.getOutgoingId() : arc.getIncomingId();
+                    Integer place = placeIndex.get(placeId);
+                    if (place == null) {
+                        unsatisfiable[t] = true;
+                    } else {
+                        bidirectionals.add(place);
+                        if (arc.getOutgoingId().equals(transitionId)) {
+                            required.merge(place, 1, Integer::sum);
+                        }
+                        opPlaces.add(place);
+                        ops.add(CONSUME_AND_PRODUCE);
+                    }
+                }
+                case Arc.RegularArc regularArc -> {
+                    if (arc.getOutgoingId().equals(transitionId)) { // P -> T (consumption)
+                        Integer place = placeIndex.get(arc.getIncomingId());
+                        if (place == null) {
+                            unsatisfiable[t] = true;
+                        } else {
+                            required.merge(place, 1, Integer::sum);
+                            netChange.merge(place, -1, Integer::sum);
+                            opPlaces.add(place);
+                            ops.add(CONSUME);
+                        }
+                    } else if (arc.getIncomingId().equals(transitionId)) { // T -> P (production)
+                        Integer place = placeIndex.get(arc.getOutgoingId());
+                        if (place != null) {
+                            netChange.merge(place, 1, Integer::sum);
+                            opPlaces.add(place);
+                            ops.add(PRODUCE);
+                        }
+                    }
+                }
+            }
+        }
+
+        inhibitorPlaces[t] = toIntArray(inhibitors);
+        bidirectionalPlaces[t] = toIntArray(bidirectionals);
+        inputPlaces[t] = toIntArray(required.keySet());
+        inputWeights[t] = toIntArray(required.values());
+
+        // Only a net increase in a bounded place can violate its capacity
+        List<Integer> constrained = new ArrayList<>();
+        List<Integer> deltas = new ArrayList<>();
+        netChange.forEach((place, delta) -> {
+            if (delta > 0 && capacities[place] != UNBOUNDED) {
+                constrained.add(place);
+                deltas.add(delta);
+            }
+        });
+        capacityPlaces[t] = toIntArray(constrained);
+        capacityDeltas[t] = toIntArray(deltas);
+
+        firingPlaces[t] = toIntArray(opPlaces);
+        firingOps[t] = new byte[ops.size()];
+        for (int i = 0; i < ops.size(); i++) {
+            firingOps[t][i] = ops.get(i);
+        }
+    }
+
+    private static int[] toIntArray(Collection<Integer> values) {
+        if (values.isEmpty()) {
+            return NO_INDICES;
+        }
+        int[] result = new int[values.size()];
+        int i = 0;
+        for (Integer value : values) {
+            result[i++] = value;
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether a transition can fire in the given marking.
+     * Applies the same ordered checks as the map-based evaluation: inhibitor places must be empty,
+     * bidirectional places must hold at least one token, every input place must hold the accumulated
+     * number of required tokens, and no bounded output place may exceed its capacity after the net change.
+     *
+     * @param transition The index of the transition to evaluate.
+     * @param marking The token count of every place, indexed by place index.
+     * @return {@code true} if the transition is enabled, {@code false} otherwise.
+     */
+    public boolean isEnabled(int transition, int[] marking) {
+        if (unsatisfiable[transition]) {
+            return false;
+        }
+        for (int place : inhibitorPlaces[transition]) {
+            if (marking[place] > 0) return false;
+        }
+        for (int place : bidirectionalPlaces[transition]) {
+            if (marking[place] < 1) return false;
+        }
+        int[] inputs = inputPlaces[transition];
+        int[] weights = inputWeights[transition];
+        for (int i = 0; i < inputs.length; i++) {
+            if (marking[inputs[i]] < weights[i]) return false;
+        }
+        int[] outputs = capacityPlaces[transition];
+        int[] deltas = capacityDeltas[transition];
+        for (int i = 0; i < outputs.length; i++) {
+            if (marking[outputs[i]] + deltas[i] > capacities[outputs[i]]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the token count of one place prevents a transition from firing, i.e. whether one
+     * of the checks of {@link #isEnabled(int, int[])} that read this place fails.
+     * While no transition writing the place fires, such a transition stays disabled.
+     *
+     * @param transition The index of the transition to evaluate.
+     * @param place The index of the place.
+     * @param marking The token count of every place, indexed by place index.
+     * @return {@code true} if the place alone disables the transition.
+     */
+    public boolean isBlockedBy(int transition, int place, int[] marking) {
+        for (int inhibitor : inhibitorPlaces[transition]) {
+            if (inhibitor == place && marking[place] > 0) return true;
+        }
+        for (int bidirectional : bidirectionalPlaces[transition]) {
+            if (bidirectional == place && marking[place] < 1) return true;
+        }
+        int[] inputs = inputPlaces[transition];
+        for (int i = 0; i < inputs.length; i++) {
+            if (inputs[i] == place && marking[place] < inputWeights[transition][i]) return true;
+        }
+        int[] outputs = capacityPlaces[transition];
+        for (int i = 0; i < outputs.length; i++) {
+            if (outputs[i] == place && marking[place] + capacityDeltas[transition][i] > capacities[place]) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return {@code false} if the transition references a missing place in a precondition, in which
+     *         case it can never fire.
+     */
+    public boolean isSatisfiable(int transition) {
+        return !unsatisfiable[transition];
+    }
+
+    /**
+     * Describes how a transition is connected to a place: how many inhibitor and bidirectional arcs
+     * link them, how many tokens the transition requires, by how much its firing may raise a bounded
+     * place, and the ordered firing operations it applies to the place. Two transition/place pairs
+     * with equal labels, on places of equal capacity, behave identically for enabling and firing.
+     *
+     * @param transition The index of the transition.
+     * @param place The index of the place.
+     * @return The label, or an empty string if the transition neither reads nor writes the place.
+     */
+    public String getConnectionLabel(int transition, int place) {
+        StringBuilder label = new StringBuilder();
+        int inhibitors = 0;
+        for (int inhibitor : inhibitorPlaces[transition]) {
+            if (inhibitor == place) inhibitors++;
+        }
+        int bidirectionals = 0;
+        for (int bidirectional : bidirectionalPlaces[transition]) {
+            if (bidirectional == place) bidirectionals++;
+        }
+        if (inhibitors > 0) label.append('I').append(inhibitors);
+        if (bidirectionals > 0) label.append('B').append(bidirectionals);
+        for (int i = 0; i < inputPlaces[transition].length; i++) {
+            if (inputPlaces[transition][i] == place) label.append('W').append(inputWeights[transition][i]);
+        }
+        for (int i = 0; i < capacityPlaces[transition].length; i++) {
+            if (capacityPlaces[transition][i] == place) label.append('C').append(capacityDeltas[transition][i]);
+        }
+        for (int i = 0; i < firingPlaces[transition].length; i++) {
+            if (firingPlaces[transition][i] == place) label.append('O').append(firingOps[transition][i]);
+        }
+        return label.toString();
+    }
+
+    /**
+     * Collects the transitions enabled in a marking, in ascending index order.
+     *
+     * @param marking The token count of every place, indexed by place index.
+     * @param enabled Receives the indices of the enabled transitions; must hold at least one entry per transition.
+     * @return The number of enabled transitions written to {@code enabled}.
+     */
+    public int getEnabledTransitions(int[] marking, int[] enabled) {
+        int count = 0;
+        for (int t = 0; t < transitionIds.length; t++) {
+            if (isEnabled(t, marking)) {
+                enabled[count++] = t;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Fires a transition by updating the marking in place.
+     * Consumption never drives a place below zero and production never exceeds a bounded place's
+     * capacity, matching the behaviour of {@link Place#removeTokens()} and {@link Place#addToken()}.
+     *
+     * @param transition The index of the transition to fire.
+     * @param marking The token count of every place, indexed by place index. This array is modified directly.
+     */
+    public void fire(int transition, int[] marking) {
+        int[] places = firingPlaces[transition];
+        byte[] ops = firingOps[transition];
+        for (int i = 0; i < places.length; i++) {
+            int place = places[i];
+            if (ops[i] != PRODUCE && marking[place] > 0) {
+                marking[place]--;
+            }
+            if (ops[i] != CONSUME && (capacities[place] == UNBOUNDED || marking[place] < capacities[place])) {
+                marking[place]++;
+            }
+        }
+    }
+
+    /**
+     * Normalizes a token count for a place the same way {@link Place} does on construction:
+     * tokens in a bounded place are capped at its capacity.
+     *
+     * @param place The index of the place.
+     * @param tokens The requested token count.
+     * @return The token count the place will actually hold.
+     */
+    public int clampTokens(int place, int tokens) {
+        return capacities[place] != UNBOUNDED && tokens > capacities[place] ? capacities[place] : tokens;
+    }
+
+    public int getPlaceCount() {
+        return placeIds.length;
+    }
+
+    public int getTransitionCount() {
+        return transitionIds.length;
+    }
+
+    public String getPlaceId(int place) {
+        return placeIds[place];
+    }
+
+    public String getTransitionId(int transition) {
+        return transitionIds[transition];
+    }
+
+    /**
+     * @return The index of the place with the given ID, or -1 if no such place exists.
+     */
+    public int getPlaceIndex(String placeId) {
+        Integer index = placeIndex.get(placeId);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @return The index of the first transition with the given ID, or -1 if no such transition exists.
+     */
+    public int getTransitionIndex(String transitionId) {
+        Integer index = transitionIndex.get(transitionId);
+        return index == null ? -1 : index;
+    }
+
+    public boolean isBounded(int place) {
+        return capacities[place] != UNBOUNDED;
+    }
+
+    /**
+     * @return The capacity of the place, or {@link #UNBOUNDED} if it has no token limit.
+     */
+    public int getCapacity(int place) {
+        return capacities[place];
+    }
+
+    /**
+     * Returns the transitions whose enabling depends on the token count of a place, either as an
+     * input, inhibitor or bidirectional place, or as a bounded output place whose capacity could be exceeded.
+     * The returned array is shared and must not be modified.
+     *
+     * @param place The index of the place.
+     * @return The indices of the dependent transitions, in ascending order.
+     */
+    public int[] getDependentTransitions(int place) {
+        return dependentTransitions[place];
+    }
+
+    /**
+     * Returns the distinct places whose token count decides whether a transition is enabled.
+     * A transition that references a missing input place reads no place, since it can never fire.
+     * The returned array is shared and must not be modified.
+     *
+     * @param transition The index of the transition.
+     * @return The indices of the read places, in ascending order.
+     */
+    public int[] getReadPlaces(int transition) {
+        return readPlaces[transition];
+    }
+
+    /**
+     * Returns the places that inhibit a transition while they hold any tokens.
+     * The returned array is shared and must not be modified.
+     *
+     * @param transition The index of the transition.
+     * @return The indices of the inhibiting places.
+     */
+    public int[] getInhibitorPlaces(int transition) {
+        return inhibitorPlaces[transition];
+    }
+
+    /**
+     * Returns the distinct places whose token count may change when a transition fires.
+     * The returned array is shared and must not be modified.
+     *
+     * @param transition The index of the transition.
+     * @return The indices of the affected places.
+     */
+    public int[] getAffectedPlaces(int transition) {
+        return affectedPlaces[transition];
+    }
+
+    /**
+     * Returns the places a transition takes tokens from when it fires, once per token taken, in the
+     * order of its firing operations. A bidirectional arc takes one token and gives it back.
+     *
+     * @param transition The index of the transition.
+     * @return A new array of place indices.
+     */
+    public int[] getConsumedPlaces(int transition) {
+        return placesWithOp(transition, PRODUCE);
+    }
+
+    /**
+     * Returns the places a transition gives tokens to when it fires, once per token given, in the
+     * order of its firing operations. A bidirectional arc takes one token and gives it back.
+     *
+     * @param transition The index of the transition.
+     * @return A new array of place indices.
+     */
+    public int[] getProducedPlaces(int transition) {
+        return placesWithOp(transition, CONSUME);
+    }
+
+    private int[] placesWithOp(int transition, byte excludedOp) {
+        int[] places = firingPlaces[transition];
+        byte[] ops = firingOps[transition];
+        int count = 0;
+        for (byte op : ops) {
+            if (op != excludedOp) count++;
+        }
+        int[] result = new int[count];
+        for (int i = 0, j = 0; i < places.length; i++) {
+            if (ops[i] != excludedOp) result[j++] = places[i];
+        }
+        return result;
+    }
+
+    public List<String> getTransitionArcIds(int transition) {
+        return transitionArcIds.get(transition);
+    }
+
+    public List<Arc> getArcs() {
+        return arcs;
+    }
+}
@@ -0,0 +1,209 @@
+package org.petrinet.service.model;
+
+import java.util.Arrays;
+
+/**
+ * Sparse incidence matrix of a Petri net: for every place and transition, the net number of tokens
+ * the transition adds to the place when it fires.
+ * <p>
+ * Only non-zero entries are stored, twice: in compressed sparse row (CSR) form, grouped by place,
+ * and in compressed sparse column (CSC) form, grouped by transition. The entries of place {@code p}
+ * are {@code getRowStart(p)} (inclusive) to {@code getRowStart(p + 1)} (exclusive), sorted by
+ * transition index, and the entries of a transition are laid out the same way by place index.
+ * Both forms are built in time and memory linear in the number of places, transitions and entries,
+ * so large nets never need a dense {@code places × transitions} array.
+ */
+public final class IncidenceMatrix {
+
+    private final int placeCount;
+    private final int transitionCount;
+    private final int[] rowStarts;
+    private final int[] rowTransitions;
+    private final int[] rowValues;
+    private final int[] columnStarts;
+    private final int[] columnPlaces;
+    private final int[] columnValues;
+
+    /**
+     * Builds the matrix from a list of contributions, in any order. Contributions to the same place
+     * and transition are summed, and entries that sum to zero are dropped.
+     *
+     * @param placeCount The number of places, i.e. of rows.
+     * @param transitionCount The number of transitions, i.e. of columns.
+     * @param places The place index of every contribution.
+     * @param transitions The transition index of every contribution.
+     * @param values The token change of every contribution.
+     * @param count The number of contributions to read from the arrays.
+     */
+    public IncidenceMatrix(int placeCount, int transitionCount, int[] places, int[] transitions, int[] values, int count) {
+        this.placeCount = placeCount;
+        this.transitionCount = transitionCount;
+
+        // Two stable counting sorts, by transition then by place, leave every row sorted by transition
+        int[] byTransition = sortedBy(transitions, transitionCount, identity(count), count);
+        int[] byPlace = sortedBy(places, placeCount, byTransition, count);
+
+        // Sum adjacent contributions to the same entry and drop the ones that cancel out
+        int[] rowEntries = new int[placeCount + 1];
+        int[] columnCounts = new int[transitionCount + 1];
+        int[] compactTransitions = new int[count];
+        int[] compactValues = new int[count];
+        int size = 0;
+        int position = 0;
+        for (int p = 0; p < placeCount; p++) {
+            while (position < count && places[byPlace[position]] == p) {
+                int t = transitions[byPlace[position]];
+                int sum = 0;
+                while (position < count && places[byPlace[position]] == p && transitions[byPlace[position]] == t) {
+                    sum += values[byPlace[position++]];
+                }
+                if (sum != 0) {
+                    compactTransitions[size] = t;
+                    compactValues[size++] = sum;
+                    columnCounts[t + 1]++;
+                }
+            }
+            rowEntries[p + 1] = size;
+        }
+        this.rowStarts = rowEntries;
+        this.rowTransitions = Arrays.copyOf(compactTransitions, size);
+        this.rowValues = Arrays.copyOf(compactValues, size);
+
+        // Transpose: scanning rows in place order leaves every column sorted by place
+        for (int t = 0; t < transitionCount; t++) {
+            columnCounts[t + 1] += columnCounts[t];
+        }
+        this.columnStarts = columnCounts;
+        this.columnPlaces = new int[size];
+        this.columnValues = new int[size];
+        int[] fill = columnCounts.clone();
+        for (int p = 0; p < placeCount; p++) {
+            for (int k = rowStarts[p]; k < rowStarts[p + 1]; k++) {
+                int slot = fill[rowTransitions[k]]++;
+                columnPlaces[slot] = p;
+                columnValues[slot] = rowValues[k];
+            }
+        }
+    }
+
+    private static int[] identity(int count) {
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        return order;
+    }
+
+    /**
+     * Stable counting sort of contribution numbers by a key in {@code [0, keyCount)}.
+     */
+    private static int[] sortedBy(int[] keys, int keyCount, int[] order, int count) {
+        int[] next = new int[keyCount + 1];
+        for (int i = 0; i < count; i++) {
+            next[keys[i] + 1]++;
+        }
+        for (int key = 0; key < keyCount; key++) {
+            next[key + 1] += next[key];
+        }
+        int[] sorted = new int[count];
+        for (int i = 0; i < count; i++) {
+            sorted[next[keys[order[i]]]++] = order[i];
+        }
+        return sorted;
+    }
+
+    public int getPlaceCount() {
+        return placeCount;
+    }
+
+    public int getTransitionCount() {
+        return transitionCount;
+    }
+
+    /**
+     * @return The number of non-zero entries.
+     */
+    public int getEntryCount() {
+        return rowValues.length;
+    }
+
+    /**
+     * @return The position of the first entry of a place in the row arrays; {@code getRowStart(getPlaceCount())}
+     *         is the number of entries.
+     */
+    public int getRowStart(int place) {
+        return rowStarts[place];
+    }
+
+    public int getRowTransition(int entry) {
+        return rowTransitions[entry];
+    }
+
+    public int getRowValue(int entry) {
+        return rowValues[entry];
+    }
+
+    /**
+     * @return The position of the first entry of a transition in the column arrays;
+     *         {@code getColumnStart(getTransitionCount())} is the number of entries.
+     */
+    public int getColumnStart(int transition) {
+        return columnStarts[transition];
+    }
+
+    public int getColumnPlace(int entry) {
+        return columnPlaces[entry];
+    }
+
+    public int getColumnValue(int entry) {
+        return columnValues[entry];
+    }
+
+    /**
+     * @return The entry of a place and transition, zero if none is stored.
+     */
+    public int get(int place, int transition) {
+        int k = Arrays.binarySearch(rowTransitions, rowStarts[place], rowStarts[place + 1], transition);
+        return k >= 0 ? rowValues[k] : 0;
+    }
+
+    /**
+     * Returns the CSR row pointers, one per place plus the total entry count.
+     * The returned array is shared and must not be modified.
+     */
+    public int[] getRowStarts() {
+        return rowStarts;
+    }
+
+    /**
+     * Returns the transition index of every entry, in CSR order.
+     * The returned array is shared and must not be modified.
+     */
+    public int[] getRowTransitions() {
+        return rowTransitions;
+    }
+
+    /**
+     * Returns the value of every entry, in CSR order.
+     * The returned array is shared and must not be modified.
+     */
+    public int[] getRowValues() {
+        return rowValues;
+    }
+
+    /**
+     * Expands the matrix into a dense array. This takes {@code places × transitions} ints, so it
+     * should only be used for small nets.
+     *
+     * @return A new array, one row per place and one column per transition.
+     */
+    public int[][] toDense() {
+        int[][] dense = new int[placeCount][transitionCount];
+        for (int p = 0; p < placeCount; p++) {
+            for (int k = rowStarts[p]; k < rowStarts[p + 1]; k++) {
+                dense[p][rowTransitions[k]] = rowValues[k];
+            }
+        }
+        return dense;
+    }
+}
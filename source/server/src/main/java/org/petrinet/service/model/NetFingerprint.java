@@ -0,0 +1,99 @@
+package org.petrinet.service.model;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 128-bit fingerprint of the structure of a Petri net: the first half of a SHA-256 digest over its
+ * places, capacities, transitions and arcs, in list order. Token counts and enabled flags are not
+ * part of it, so every marking of a net has the same fingerprint. Strings are written with their
+ * length and absent values with a marker of their own, so different nets never feed the digest the
+ * same bytes; a collision would take a break of SHA-256.
+ */
+public final class NetFingerprint {
+
+    private final long high;
+    private final long low;
+
+    private NetFingerprint(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof NetFingerprint fingerprint && fingerprint.high == high && fingerprint.low == low;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(high ^ low);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x%016x", high, low);
+    }
+
+    /**
+     * Feeds the fields of a net to the digest through a reusable buffer, so that strings are hashed
+     * without being encoded into new byte arrays.
+     */
+    public static final class Builder {
+        private static final int NULL_LENGTH = -1;
+
+        private final MessageDigest digest;
+        private final ByteBuffer buffer = ByteBuffer.allocate(8192);
+
+        public Builder() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                // Every Java platform is required to support SHA-256
+                throw new IllegalStateException(e);
+            }
+        }
+
+        public Builder add(int value) {
+            reserve(Integer.BYTES);
+            buffer.putInt(value);
+            return this;
+        }
+
+        public Builder add(boolean value) {
+            reserve(1);
+            buffer.put((byte) (value ? 1 : 0));
+            return this;
+        }
+
+        public Builder add(String value) {
+            if (value == null) {
+                return add(NULL_LENGTH);
+            }
+            add(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                reserve(Character.BYTES);
+                buffer.putChar(value.charAt(i));
+            }
+            return this;
+        }
+
+        public NetFingerprint build() {
+            flush();
+            ByteBuffer hash = ByteBuffer.wrap(digest.digest());
+            return new NetFingerprint(hash.getLong(), hash.getLong());
+        }
+
+        private void reserve(int bytes) {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            digest.update(buffer.array(), 0, buffer.position());
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package org.petrinet.service.model;
+
+import java.util.Arrays;
+
+/**
+ * Flow graph of a Petri net: places and transitions are the nodes, in one index space, and every
+ * pair connected by a regular or bidirectional arc is an edge in the direction tokens flow.
+ * <p>
+ * Places are numbered {@code 0} to {@code getPlaceCount() - 1} and transitions follow them, so the
+ * kind of a node is known from its index alone. Edges are stored twice, without duplicates: in
+ * compressed sparse row form grouped by source node, sorted by target, and grouped by target node,
+ * sorted by source. The outgoing edges of a place are thus the transitions consuming from it, and the
+ * incoming edges of a transition its input places. Both forms are built in time linear in the number
+ * of nodes and edges.
+ */
+public final class NetGraph {
+
+    private final int placeCount;
+    private final int transitionCount;
+    private final boolean[] attached;
+    private final int[] outStarts;
+    private final int[] outTargets;
+    private final int[] inStarts;
+    private final int[] inSources;
+
+    /**
+     * Builds the graph from a list of edges, in any order. Repeated edges are stored once.
+     *
+     * @param placeCount The number of places.
+     * @param transitionCount The number of transitions.
+     * @param sources The source node of every edge.
+     * @param targets The target node of every edge.
+     * @param count The number of edges to read from the arrays.
+     * @param attached For every node, whether any arc touches it, inhibitor arcs included.
+     */
+    public NetGraph(int placeCount, int transitionCount, int[] sources, int[] targets, int count, boolean[] attached) {
+        this.placeCount = placeCount;
+        this.transitionCount = transitionCount;
+        this.attached = attached;
+        int nodeCount = placeCount + transitionCount;
+
+        // Two stable counting sorts, by target then by source, leave every row sorted by target
+        int[] byTarget = sortedBy(targets, nodeCount, identity(count), count);
+        int[] bySource = sortedBy(sources, nodeCount, byTarget, count);
+
+        outStarts = new int[nodeCount + 1];
+        int[] distinctTargets = new int[count];
+        int[] inCounts = new int[nodeCount + 1];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            int edge = bySource[i];
+            if (i > 0 && sources[bySource[i - 1]] == sources[edge] && targets[bySource[i - 1]] == targets[edge]) continue;
+            distinctTargets[size++] = targets[edge];
+            outStarts[sources[edge] + 1]++;
+            inCounts[targets[edge] + 1]++;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            outStarts[node + 1] += outStarts[node];
+            inCounts[node + 1] += inCounts[node];
+        }
+        outTargets = Arrays.copyOf(distinctTargets, size);
+
+        // Transpose: scanning rows in source order leaves every incoming row sorted by source
+        inStarts = inCounts;
+        inSources = new int[size];
+        int[] fill = inCounts.clone();
+        for (int node = 0; node < nodeCount; node++) {
+            for (int e = outStarts[node]; e < outStarts[node + 1]; e++) {
+                inSources[fill[outTargets[e]]++] = node;
+            }
+        }
+    }
+
+    private static int[] identity(int count) {
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        return order;
+    }
+
+    /**
+     * Stable counting sort of edge numbers by a key in {@code [0, keyCount)}.
+     */
+    private static int[] sortedBy(int[] keys, int keyCount, int[] order, int count) {
+        int[] next = new int[keyCount + 1];
+        for (int i = 0; i < count; i++) {
+            next[keys[i] + 1]++;
+        }
+        for (int key = 0; key < keyCount; key++) {
+            next[key + 1] += next[key];
+        }
+        int[] sorted = new int[count];
+        for (int i = 0; i < count; i++) {
+            sorted[next[keys[order[i]]]++] = order[i];
+        }
+        return sorted;
+    }
+
+    public int getPlaceCount() {
+        return placeCount;
+    }
+
+    public int getTransitionCount() {
+        return transitionCount;
+    }
+
+    public int getNodeCount() {
+        return placeCount + transitionCount;
+    }
+
+    public int getEdgeCount() {
+        return outTargets.length;
+    }
+
+    /**
+     * @return The node index of a transition index.
+     */
+    public int transitionNode(int transition) {
+        return placeCount + transition;
+    }
+
+    public boolean isPlace(int node) {
+        return node < placeCount;
+    }
+
+    /**
+     * @return {@code true} if any arc touches the node, including inhibitor arcs, which are not edges.
+     */
+    public boolean isAttached(int node) {
+        return attached[node];
+    }
+
+    /**
+     * @return The position of the first outgoing edge of a node; {@code getOutStart(node + 1)} ends the row.
+     */
+    public int getOutStart(int node) {
+        return outStarts[node];
+    }
+
+    public int getOutTarget(int edge) {
+        return outTargets[edge];
+    }
+
+    public int getOutDegree(int node) {
+        return outStarts[node + 1] - outStarts[node];
+    }
+
+    /**
+     * @return The position of the first incoming edge of a node; {@code getInStart(node + 1)} ends the row.
+     */
+    public int getInStart(int node) {
+        return inStarts[node];
+    }
+
+    public int getInSource(int edge) {
+        return inSources[edge];
+    }
+
+    public int getInDegree(int node) {
+        return inStarts[node + 1] - inStarts[node];
+    }
+
+    /**
+     * Returns the row pointers of the outgoing edges, one per node plus the edge count.
+     * The returned array is shared and must not be modified.
+     */
+    public int[] getOutStarts() {
+        return outStarts;
+    }
+
+    /**
+     * Returns the target of every edge, grouped by source node.
+     * The returned array is shared and must not be modified.
+     */
+    public int[] getOutTargets() {
+        return outTargets;
+    }
+}
@@ -1,12 +1,18 @@
 package org.petrinet.util;
 
 import org.petrinet.client.ArcDTO;
+import org.petrinet.client.PetriNetDTO;
 import org.petrinet.client.PlaceDTO;
 import org.petrinet.client.TransitionDTO;
 import org.petrinet.service.model.Arc;
+import org.petrinet.service.model.CompiledNet;
+import org.petrinet.service.model.IncidenceMatrix;
+import org.petrinet.service.model.NetFingerprint;
+import org.petrinet.service.model.NetGraph;
 import org.petrinet.service.model.Place;
 import org.petrinet.service.model.Transition;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -49,5 +55,167 @@ public class PetriNetMapper {
                 .map(PetriNetMapper::dtoToArc)
                 .collect(Collectors.toMap(Arc::getId, arc -> arc));
     }
-}
 
+    /**
+     * Compiles the structure of a Petri net DTO into a dense, index-based {@link CompiledNet}.
+     * Places and arcs go through the same mapping as the domain models, so capacity normalization
+     * and arc type validation behave identically.
+     *
+     * @param dto The Petri net to compile.
+     * @return The compiled structure of the net. Token counts are not part of it; see {@link #dtoToMarking}.
+     */
+    public static CompiledNet dtoToCompiledNet(PetriNetDTO dto) {
+        List<Place> places = dto.getPlaces().stream()
+                .map(PetriNetMapper::dtoToPlace)
+                .collect(Collectors.toList());
+        List<Arc> arcs = dto.getArcs().stream()
+                .map(PetriNetMapper::dtoToArc)
+                .collect(Collectors.toList());
+        return new CompiledNet(places, dtoToTransitionList(dto.getTransitions()), arcs);
+    }
+
+    /**
+     * Computes the structural fingerprint of a Petri net DTO in one pass over its lists, without
+     * mapping it. It covers exactly what {@link #dtoToCompiledNet} compiles: place IDs with their
+     * normalized capacities, transition IDs with their ordered arc IDs, and the ID, type and ends of
+     * every arc. Token counts and enabled flags are left out, so all markings of a net share it.
+     *
+     * @param dto The Petri net to fingerprint.
+     * @return The fingerprint of the structure of the net.
+     */
+    public static NetFingerprint dtoToFingerprint(PetriNetDTO dto) {
+        NetFingerprint.Builder fingerprint = new NetFingerprint.Builder();
+        fingerprint.add(dto.getPlaces().size());
+        for (PlaceDTO place : dto.getPlaces()) {
+            // The same normalization as Place, so equivalent capacities share a fingerprint
+            Integer capacity = place.getCapacity();
+            fingerprint.add(place.getId())
+                    .add(place.isBounded() ? (capacity == null ? 0 : Math.max(0, capacity)) : CompiledNet.UNBOUNDED);
+        }
+        fingerprint.add(dto.getTransitions().size());
+        for (TransitionDTO transition : dto.getTransitions()) {
+            fingerprint.add(transition.getId());
+            List<String> arcIds = transition.getArcIds();
+            fingerprint.add(arcIds == null ? -1 : arcIds.size());
+            if (arcIds != null) {
+                arcIds.forEach(fingerprint::add);
+            }
+        }
+        fingerprint.add(dto.getArcs().size());
+        for (ArcDTO arc : dto.getArcs()) {
+            fingerprint.add(arc.getId()).add(arc.getType()).add(arc.getIncomingId()).add(arc.getOutgoingId());
+        }
+        return fingerprint.build();
+    }
+
+    /**
+     * Builds the sparse incidence matrix of a Petri net DTO in a single pass over its arcs, resolving
+     * IDs through hash maps built once. Every regular arc from a place to a transition removes one
+     * token and every regular arc from a transition to a place adds one. Inhibitor and bidirectional
+     * arcs move no tokens. Places and transitions keep their list order as indices; if an ID is
+     * listed twice, the first occurrence is used.
+     *
+     * @param dto The Petri net to build the matrix of.
+     * @return The incidence matrix, one row per place and one column per transition.
+     */
+    public static IncidenceMatrix dtoToIncidenceMatrix(PetriNetDTO dto) {
+        List<PlaceDTO> places = dto.getPlaces();
+        List<TransitionDTO> transitions = dto.getTransitions();
+        Map<String, Integer> placeIndex = new HashMap<>(places.size() * 2);
+        for (int i = 0; i < places.size(); i++) {
+            placeIndex.putIfAbsent(places.get(i).getId(), i);
+        }
+        Map<String, Integer> transitionIndex = new HashMap<>(transitions.size() * 2);
+        for (int i = 0; i < transitions.size(); i++) {
+            transitionIndex.putIfAbsent(transitions.get(i).getId(), i);
+        }
+
+        int arcCount = dto.getArcs().size();
+        int[] entryPlaces = new int[2 * arcCount];
+        int[] entryTransitions = new int[2 * arcCount];
+        int[] entryValues = new int[2 * arcCount];
+        int count = 0;
+        for (ArcDTO arc : dto.getArcs()) {
+            if (!"REGULAR".equals(arc.getType())) continue;
+            Integer consumer = transitionIndex.get(arc.getOutgoingId());
+            Integer input = placeIndex.get(arc.getIncomingId());
+            if (input != null && consumer != null) {
+                entryPlaces[count] = input;
+                entryTransitions[count] = consumer;
+                entryValues[count++] = -1;
+            }
+            Integer producer = transitionIndex.get(arc.getIncomingId());
+            Integer output = placeIndex.get(arc.getOutgoingId());
+            if (output != null && producer != null) {
+                entryPlaces[count] = output;
+                entryTransitions[count] = producer;
+                entryValues[count++] = 1;
+            }
+        }
+        return new IncidenceMatrix(places.size(), transitions.size(), entryPlaces, entryTransitions, entryValues, count);
+    }
+
+    /**
+     * Builds the flow graph of a Petri net DTO in a single pass over its arcs. Place and transition
+     * IDs are resolved through one hash map built once, places first, so an ID used by both is a
+     * place. Regular arcs become an edge in their direction and bidirectional arcs an edge each way;
+     * arcs of any type mark both of their ends as attached.
+     *
+     * @param dto The Petri net to build the graph of.
+     * @return The graph, with places and transitions numbered in list order.
+     */
+    public static NetGraph dtoToNetGraph(PetriNetDTO dto) {
+        List<PlaceDTO> places = dto.getPlaces();
+        List<TransitionDTO> transitions = dto.getTransitions();
+        Map<String, Integer> nodeIndex = new HashMap<>((places.size() + transitions.size()) * 2);
+        for (int i = 0; i < places.size(); i++) {
+            nodeIndex.putIfAbsent(places.get(i).getId(), i);
+        }
+        for (int i = 0; i < transitions.size(); i++) {
+            nodeIndex.putIfAbsent(transitions.get(i).getId(), places.size() + i);
+        }
+
+        int arcCount = dto.getArcs().size();
+        int[] sources = new int[2 * arcCount];
+        int[] targets = new int[2 * arcCount];
+        boolean[] attached = new boolean[places.size() + transitions.size()];
+        int count = 0;
+        for (ArcDTO arc : dto.getArcs()) {
+            Integer incoming = nodeIndex.get(arc.getIncomingId());
+            Integer outgoing = nodeIndex.get(arc.getOutgoingId());
+            if (incoming != null) attached[incoming] = true;
+            if (outgoing != null) attached[outgoing] = true;
+            // Flow edges only join a place and a transition
+            if (incoming == null || outgoing == null || (incoming < places.size()) == (outgoing < places.size())) continue;
+            if ("REGULAR".equals(arc.getType()) || "BIDIRECTIONAL".equals(arc.getType())) {
+                sources[count] = incoming;
+                targets[count++] = outgoing;
+            }
+            if ("BIDIRECTIONAL".equals(arc.getType())) {
+                sources[count] = outgoing;
+                targets[count++] = incoming;
+            }
+        }
+        return new NetGraph(places.size(), transitions.size(), sources, targets, count, attached);
+    }
+
+    /**
+     * Builds the marking array for a compiled net from a list of place DTOs.
+     * Places that are not part of the compiled net are ignored, and token counts are capped at
+     * the capacity of bounded places.
+     *
+     * @param net The compiled net the marking belongs to.
+     * @param placeDTOs The places carrying the token counts.
+     * @return A new marking array indexed by place index.
+     */
+    public static int[] dtoToMarking(CompiledNet net, List<PlaceDTO> placeDTOs) {
+        int[] marking = new int[net.getPlaceCount()];
+        for (PlaceDTO placeDTO : placeDTOs) {
+            int place = net.getPlaceIndex(placeDTO.getId());
+            if (place >= 0) {
+                marking[place] = net.clampTokens(place, placeDTO.getTokens());
+            }
+        }
+        return marking;
+    }
+}
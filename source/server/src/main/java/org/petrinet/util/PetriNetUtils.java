@@ -2,6 +2,7 @@ package org.petrinet.util;
 
 import org.petrinet.client.*;
 import org.petrinet.service.model.Arc;
+import org.petrinet.service.model.CompiledNet;
 import org.petrinet.service.model.Place;
 import org.petrinet.service.model.Transition;
 
@@ -151,6 +152,63 @@ public class PetriNetUtils {
         return newDTO;
     }
     
+    /**
+     * Converts a compiled net and its marking back to a PetriNetDTO.
+     * Places, transitions and arcs are emitted in their compiled (original) order, and the
+     * deterministic mode flag is preserved from the original request.
+     *
+     * @param net The {@link CompiledNet} describing the structure of the net.
+     * @param marking The token count of every place, indexed by place index.
+     * @param enabled The enabled flag of every transition, indexed by transition index.
+     * @param originalDTO The original DTO passed to the service method, used to retrieve the deterministic mode flag.
+     * @return A new {@link PetriNetDTO} representing the given state of the compiled net.
+     */
+    public static PetriNetDTO convertCompiledNetToDTO(CompiledNet net,
+                                                      int[] marking,
+                                                      boolean[] enabled,
+                                                      PetriNetDTO originalDTO) {
+        List<PlaceDTO> placeDTOs = new ArrayList<>(net.getPlaceCount());
+        for (int p = 0; p < net.getPlaceCount(); p++) {
+            boolean bounded = net.isBounded(p);
+            placeDTOs.add(new PlaceDTO(net.getPlaceId(p), marking[p], bounded, bounded ? net.getCapacity(p) : null));
+        }
+
+        List<TransitionDTO> transitionDTOs = new ArrayList<>(net.getTransitionCount());
+        for (int t = 0; t < net.getTransitionCount(); t++) {
+            transitionDTOs.add(new TransitionDTO(
+                net.getTransitionId(t),
+                enabled[t],
+                new ArrayList<>(net.getTransitionArcIds(t))));
+        }
+
+        List<ArcDTO> arcDTOs = net.getArcs().stream()
+            .map(arc -> new ArcDTO(arc.getId(), arc.getType(), arc.getIncomingId(), arc.getOutgoingId()))
+            .collect(Collectors.toList());
+
+        PetriNetDTO newDTO = new PetriNetDTO(placeDTOs, transitionDTOs, arcDTOs);
+
+        if (originalDTO != null) {
+            newDTO.setDeterministicMode(originalDTO.getDeterministicMode());
+        }
+        return newDTO;
+    }
+
+    /**
+     * Converts a marking of a compiled net into a map of place IDs to token counts,
+     * keeping the compiled place order.
+     *
+     * @param net The {@link CompiledNet} the marking belongs to.
+     * @param marking The token count of every place, indexed by place index.
+     * @return An ordered map of place ID to token count.
+     */
+    public static Map<String, Integer> convertMarkingToMap(CompiledNet net, int[] marking) {
+        Map<String, Integer> tokensByPlace = new LinkedHashMap<>(net.getPlaceCount() * 2);
+        for (int p = 0; p < net.getPlaceCount(); p++) {
+            tokensByPlace.put(net.getPlaceId(p), marking[p]);
+        }
+        return tokensByPlace;
+    }
+
       /**
        * Applies the initial token configuration to the places in the provided Petri net.
        * First, all places in the net are reset to have 0 tokens. Then, tokens are added
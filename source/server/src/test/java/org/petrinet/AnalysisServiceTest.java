@@ -3,11 +3,25 @@ package org.petrinet;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.petrinet.client.*;
+import org.petrinet.config.AnalysisProperties;
+import org.petrinet.service.AnalysisExecutor;
 import org.petrinet.service.PetriNetAnalysisService;
 import org.petrinet.service.PetriNetService;
+import org.springframework.util.unit.DataSize;
 
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -116,7 +130,8 @@ class AnalysisServiceTest {
         PlaceDTO boundedPlace = new PlaceDTO("p1", 0, true, 5);
         PlaceDTO unboundedPlace = new PlaceDTO("p2", 0, false, null);
         
-        TransitionDTO transition = new TransitionDTO("t1", false, Arrays.asList("arc1"));
+        // Given: t1 only lists its output arc, so it is a source that keeps filling p2
+        TransitionDTO transition = new TransitionDTO("t1", false, Arrays.asList("arc2"));
         
         ArcDTO arc = new ArcDTO("arc1", "REGULAR", "p1", "t1");
         ArcDTO arc2 = new ArcDTO("arc2", "REGULAR", "t1", "p2");
@@ -135,6 +150,7 @@ class AnalysisServiceTest {
         assertEquals("Boundedness Analysis", result.getAnalysisType());
         assertEquals(1, result.getBoundedPlacesCount());
         assertEquals(1, result.getUnboundedPlacesCount());
+        assertEquals(List.of("p2"), result.getUnboundedPlaces());
         assertTrue(result.getDetails().contains("1 bounded places and 1 unbounded places"));
     }
 
@@ -144,9 +160,10 @@ class AnalysisServiceTest {
         PlaceDTO place1 = new PlaceDTO("p1", 0, false, null);
         PlaceDTO place2 = new PlaceDTO("p2", 0, false, null);
         
-        TransitionDTO transition = new TransitionDTO("t1", false, Arrays.asList("arc1"));
+        // Given: A source transition filling both places
+        TransitionDTO transition = new TransitionDTO("t1", false, Arrays.asList("arc1", "arc2"));
         
-        ArcDTO arc = new ArcDTO("arc1", "REGULAR", "p1", "t1");
+        ArcDTO arc = new ArcDTO("arc1", "REGULAR", "t1", "p1");
         ArcDTO arc2 = new ArcDTO("arc2", "REGULAR", "t1", "p2");
         
         PetriNetDTO petriNet = new PetriNetDTO(
@@ -163,6 +180,7 @@ class AnalysisServiceTest {
         assertEquals("Boundedness Analysis", result.getAnalysisType());
         assertEquals(0, result.getBoundedPlacesCount());
         assertEquals(2, result.getUnboundedPlacesCount());
+        assertEquals(List.of("p1", "p2"), result.getUnboundedPlaces());
         assertTrue(result.getDetails().contains("0 bounded places and 2 unbounded places"));
     }
 
@@ -228,6 +246,43 @@ class AnalysisServiceTest {
         assertEquals(0, result.getIncidenceMatrix()[0][0]);
     }
 
+    @Test
+    void computeSparseIncidenceMatrix_MixedArcs_ReturnsOnlyNonZeroEntries() {
+        // Given: t1 moves a token from p1 to p2, tested by an inhibitor on p3 and a bidirectional arc on p2
+        List<PlaceDTO> places = Arrays.asList(
+            new PlaceDTO("p1", 1, false, null),
+            new PlaceDTO("p2", 0, false, null),
+            new PlaceDTO("p3", 0, false, null)
+        );
+        List<TransitionDTO> transitions = Arrays.asList(
+            new TransitionDTO("t1", false, Arrays.asList("arc1", "arc2", "arc3", "arc4")),
+            new TransitionDTO("t2", false, Arrays.asList("arc5"))
+        );
+        List<ArcDTO> arcs = Arrays.asList(
+            new ArcDTO("arc1", "REGULAR", "p1", "t1"),
+            new ArcDTO("arc2", "REGULAR", "t1", "p2"),
+            new ArcDTO("arc3", "INHIBITOR", "p3", "t1"),
+            new ArcDTO("arc4", "BIDIRECTIONAL", "p2", "t1"),
+            new ArcDTO("arc5", "REGULAR", "t2", "p3")
+        );
+        PetriNetDTO petriNet = new PetriNetDTO(places, transitions, arcs);
+
+        // When: Computing the incidence matrix in both formats
+        AnalysisResultDTO dense = analysisService.computeIncidenceMatrix(petriNet);
+        AnalysisResultDTO sparse = analysisService.computeSparseIncidenceMatrix(petriNet);
+
+        // Then: The sparse form holds exactly the non-zero entries of the dense one, row by row
+        assertArrayEquals(new int[][] {{-1, 0}, {1, 0}, {0, 1}}, dense.getIncidenceMatrix());
+        assertNull(sparse.getIncidenceMatrix());
+        SparseMatrixDTO matrix = sparse.getSparseIncidenceMatrix();
+        assertEquals(3, matrix.getRows());
+        assertEquals(2, matrix.getColumns());
+        assertArrayEquals(new int[] {0, 1, 2, 3}, matrix.getRowPointers());
+        assertArrayEquals(new int[] {0, 0, 1}, matrix.getColumnIndices());
+        assertArrayEquals(new int[] {-1, 1, 1}, matrix.getValues());
+        assertTrue(sparse.getDetails().contains("3 non-zero entries"));
+    }
+
     @Test
     void performStructuralAnalysis_SimpleNet_ReturnsCorrectCounts() {
         // Given: A Petri net with different arc types and isolated elements
@@ -437,4 +492,892 @@ class AnalysisServiceTest {
         // May or may not hit the limit depending on the implementation
         assertNotNull(result.getDetails());
     }
-} 
\ No newline at end of file
+
+    /**
+     * Builds a net of independent two-place cycles (a_i -> f_i -> b_i -> g_i -> a_i), each holding one token.
+     * The reachability graph has exactly 2^cycles markings.
+     */
+    private PetriNetDTO independentCycles(int cycles) {
+        List<PlaceDTO> places = new ArrayList<>();
+        List<TransitionDTO> transitions = new ArrayList<>();
+        List<ArcDTO> arcs = new ArrayList<>();
+        for (int i = 0; i < cycles; i++) {
+            places.add(new PlaceDTO("a" + i, 1, false, null));
+            places.add(new PlaceDTO("b" + i, 0, false, null));
+            transitions.add(new TransitionDTO("f" + i, false, Arrays.asList("fa" + i, "fb" + i)));
+            transitions.add(new TransitionDTO("g" + i, false, Arrays.asList("gb" + i, "ga" + i)));
+            arcs.add(new ArcDTO("fa" + i, "REGULAR", "a" + i, "f" + i));
+            arcs.add(new ArcDTO("fb" + i, "REGULAR", "f" + i, "b" + i));
+            arcs.add(new ArcDTO("gb" + i, "REGULAR", "b" + i, "g" + i));
+            arcs.add(new ArcDTO("ga" + i, "REGULAR", "g" + i, "a" + i));
+        }
+        return new PetriNetDTO(places, transitions, arcs);
+    }
+
+    @Test
+    void analyzeReachableStates_IndependentCycles_CountsEveryInterleaving() {
+        // Given: Ten independent cycles, i.e. 1024 reachable markings
+        PetriNetDTO petriNet = independentCycles(10);
+
+        // When: Analyzing reachable states
+        AnalysisResultDTO result = analysisService.analyzeReachableStates(petriNet);
+
+        // Then: The parallel exploration finds every marking exactly once
+        assertEquals(1024, result.getReachableStatesCount());
+        assertEquals(1024, result.getExploredStatesCount());
+        assertFalse(result.isReachedMaxLimit());
+        assertFalse(result.isReachedTimeLimit());
+    }
+
+    @Test
+    void analyzeReachableStates_StateBudget_StopsAtConfiguredLimit() {
+        // Given: A state budget smaller than the state space
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.setMaxStates(100);
+        properties.setParallelism(2);
+        PetriNetAnalysisService limitedService = new PetriNetAnalysisService(petriNetService, properties);
+
+        // When: Analyzing reachable states
+        AnalysisResultDTO result = limitedService.analyzeReachableStates(independentCycles(10));
+
+        // Then: Exploration stops at the budget and reports it
+        assertEquals(100, result.getReachableStatesCount());
+        assertTrue(result.isReachedMaxLimit());
+        assertTrue(result.getDetails().contains("limited by safety threshold"));
+    }
+
+    @Test
+    void analyzeReachableStates_RequestBudget_OverridesDefaultsUpToServerMaximum() {
+        // Given: A server that allows requests at most 300 states
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.setMaxRequestStates(300);
+        PetriNetAnalysisService limitedService = new PetriNetAnalysisService(petriNetService, properties);
+        PetriNetDTO smallBudget = independentCycles(10);
+        smallBudget.setBudget(new BudgetDTO(50, null, null, null));
+        PetriNetDTO largeBudget = independentCycles(10);
+        largeBudget.setBudget(new BudgetDTO(1_000_000, null, 60_000L, null));
+
+        // When: Two requests ask for less and for more than the server allows
+        AnalysisResultDTO small = limitedService.analyzeReachableStates(smallBudget);
+        AnalysisResultDTO large = limitedService.analyzeReachableStates(largeBudget);
+
+        // Then: The first budget applies as asked, the second is capped
+        assertEquals(50, small.getReachableStatesCount());
+        assertTrue(small.isReachedMaxLimit());
+        assertEquals(300, large.getReachableStatesCount());
+        assertTrue(large.isReachedMaxLimit());
+        assertFalse(large.isCancelled());
+    }
+
+    @Test
+    void analyzeDeadlock_NonPositiveBudget_IsRejected() {
+        // Given: A request asking for a zero time budget
+        PetriNetDTO petriNet = independentCycles(2);
+        petriNet.setBudget(new BudgetDTO(null, null, 0L, null));
+
+        // When / Then: The request is refused before any state is explored
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> analysisService.analyzeDeadlock(petriNet));
+        assertTrue(error.getMessage().contains("timeLimitMillis"));
+    }
+
+    @Test
+    void analyzeReachableStates_HeapAndOffHeapStores_FindSameStates() {
+        // Given: One service per visited-store kind
+        AnalysisProperties heapProperties = new AnalysisProperties();
+        heapProperties.setVisitedStore(AnalysisProperties.VisitedStore.HEAP);
+        AnalysisProperties offHeapProperties = new AnalysisProperties();
+        offHeapProperties.setVisitedStore(AnalysisProperties.VisitedStore.OFF_HEAP);
+
+        // When: Analyzing the same net with both
+        AnalysisResultDTO onHeap = new PetriNetAnalysisService(petriNetService, heapProperties)
+                .analyzeReachableStates(independentCycles(12));
+        AnalysisResultDTO offHeap = new PetriNetAnalysisService(petriNetService, offHeapProperties)
+                .analyzeReachableStates(independentCycles(12));
+
+        // Then: Both see all 4096 markings
+        assertEquals(4096, onHeap.getReachableStatesCount());
+        assertEquals(4096, offHeap.getReachableStatesCount());
+        assertFalse(offHeap.isReachedMemoryLimit());
+    }
+
+    @Test
+    void analyzeReachableStates_MemoryBudget_StopsOffHeapStore() {
+        // Given: A memory budget far too small for 65536 markings
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.setVisitedStore(AnalysisProperties.VisitedStore.OFF_HEAP);
+        properties.setMemoryBudget(DataSize.ofKilobytes(64));
+        PetriNetAnalysisService limitedService = new PetriNetAnalysisService(petriNetService, properties);
+
+        // When: Analyzing reachable states
+        AnalysisResultDTO result = limitedService.analyzeReachableStates(independentCycles(16));
+
+        // Then: Exploration stops at the memory budget and reports it
+        assertTrue(result.isReachedMemoryLimit());
+        assertFalse(result.isReachedMaxLimit());
+        assertTrue(result.getReachableStatesCount() < 65536);
+        assertTrue(result.getDetails().contains("stopped by memory budget"));
+    }
+
+    @Test
+    void analyzeReachableStates_DiskStore_SpillsAndMatchesInMemoryCount() throws Exception {
+        // Given: A disk-based exploration in a fresh work directory
+        Path workDirectory = Files.createTempDirectory("petrinet-spill-test");
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.setVisitedStore(AnalysisProperties.VisitedStore.DISK);
+        properties.setWorkDirectory(workDirectory);
+        properties.setSpillPartitions(8);
+        PetriNetAnalysisService diskService = new PetriNetAnalysisService(petriNetService, properties);
+
+        try {
+            // When: Analyzing reachable states
+            AnalysisResultDTO result = diskService.analyzeReachableStates(independentCycles(12));
+
+            // Then: Same counts as in memory, one pass per BFS level plus the final empty one
+            assertEquals(4096, result.getReachableStatesCount());
+            assertEquals(4096, result.getExploredStatesCount());
+            assertEquals(13, result.getSpillPasses());
+            assertTrue(result.getBytesSpilled() > 0);
+            assertFalse(result.isReachedMaxLimit());
+            // And the spill files are cleaned up
+            try (Stream<Path> leftovers = Files.list(workDirectory)) {
+                assertEquals(0, leftovers.count());
+            }
+        } finally {
+            Files.deleteIfExists(workDirectory);
+        }
+    }
+
+    @Test
+    void analyzeReachableStates_DiskStoreStateBudget_StopsAtConfiguredLimit() throws Exception {
+        // Given: A disk-based exploration with a state budget smaller than the state space
+        Path workDirectory = Files.createTempDirectory("petrinet-spill-test");
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.setVisitedStore(AnalysisProperties.VisitedStore.DISK);
+        properties.setWorkDirectory(workDirectory);
+        properties.setMaxStates(100);
+        PetriNetAnalysisService diskService = new PetriNetAnalysisService(petriNetService, properties);
+
+        try {
+            // When: Analyzing reachable states
+            AnalysisResultDTO result = diskService.analyzeReachableStates(independentCycles(10));
+
+            // Then: Exploration stops at the budget and reports it
+            assertEquals(100, result.getReachableStatesCount());
+            assertTrue(result.isReachedMaxLimit());
+        } finally {
+            Files.deleteIfExists(workDirectory);
+        }
+    }
+
+    @Test
+    void analyzeBoundedness_SelfLoopProducer_AcceleratesOnlyGrowingPlace() {
+        // Given: t1 keeps its token in p1 and adds one to p2 on every firing
+        PetriNetDTO petriNet = new PetriNetDTO(
+            List.of(new PlaceDTO("p1", 1), new PlaceDTO("p2", 0)),
+            List.of(new TransitionDTO("t1", false, List.of("a1", "a2", "a3"))),
+            List.of(new ArcDTO("a1", "REGULAR", "p1", "t1"),
+                    new ArcDTO("a2", "REGULAR", "t1", "p1"),
+                    new ArcDTO("a3", "REGULAR", "t1", "p2"))
+        );
+
+        // When: Analyzing boundedness
+        AnalysisResultDTO result = analysisService.analyzeBoundedness(petriNet);
+
+        // Then: p2 is unbounded and p1 never holds more than one token
+        assertEquals(List.of("p2"), result.getUnboundedPlaces());
+        assertEquals(Map.of("p1", 1), result.getPlaceBounds());
+        assertTrue(result.getDetails().contains("The net is unbounded"));
+    }
+
+    @Test
+    void analyzeBoundedness_InhibitedProducerAndCycle_ReportsExactBounds() {
+        // Given: A producer that stops once p1 holds a token, and a two-token cycle between p2 and p3
+        PetriNetDTO petriNet = new PetriNetDTO(
+            List.of(new PlaceDTO("p1", 0), new PlaceDTO("p2", 2), new PlaceDTO("p3", 0)),
+            List.of(new TransitionDTO("t1", false, List.of("a1", "a2")),
+                    new TransitionDTO("t2", false, List.of("a3", "a4")),
+                    new TransitionDTO("t3", false, List.of("a5", "a6"))),
+            List.of(new ArcDTO("a1", "INHIBITOR", "p1", "t1"),
+                    new ArcDTO("a2", "REGULAR", "t1", "p1"),
+                    new ArcDTO("a3", "REGULAR", "p2", "t2"),
+                    new ArcDTO("a4", "REGULAR", "t2", "p3"),
+                    new ArcDTO("a5", "REGULAR", "p3", "t3"),
+                    new ArcDTO("a6", "REGULAR", "t3", "p2"))
+        );
+
+        // When: Analyzing boundedness
+        AnalysisResultDTO result = analysisService.analyzeBoundedness(petriNet);
+
+        // Then: Every place is bounded and the bounds are exact
+        assertEquals(3, result.getBoundedPlacesCount());
+        assertEquals(0, result.getUnboundedPlacesCount());
+        assertEquals(Map.of("p1", 1, "p2", 2, "p3", 2), result.getPlaceBounds());
+        assertTrue(result.getDetails().contains("The net is bounded"));
+    }
+
+    @Test
+    void analyzeBoundedness_GrowingInhibitorPlace_LeavesPlaceUndecided() {
+        // Given: p1 grows forever but also inhibits t2, so it cannot be accelerated soundly
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.setMaxStates(200);
+        PetriNetAnalysisService limitedService = new PetriNetAnalysisService(petriNetService, properties);
+        PetriNetDTO petriNet = new PetriNetDTO(
+            List.of(new PlaceDTO("p1", 0), new PlaceDTO("p2", 0, true, 3)),
+            List.of(new TransitionDTO("t1", false, List.of("a1")),
+                    new TransitionDTO("t2", false, List.of("a2", "a3"))),
+            List.of(new ArcDTO("a1", "REGULAR", "t1", "p1"),
+                    new ArcDTO("a2", "INHIBITOR", "p1", "t2"),
+                    new ArcDTO("a3", "REGULAR", "t2", "p2"))
+        );
+
+        // When: Analyzing boundedness within a small budget
+        AnalysisResultDTO result = limitedService.analyzeBoundedness(petriNet);
+
+        // Then: Only the capacity-limited place is decided
+        assertTrue(result.isReachedMaxLimit());
+        assertEquals(0, result.getUnboundedPlacesCount());
+        assertEquals(Map.of("p2", 3), result.getPlaceBounds());
+        assertTrue(result.getDetails().contains("1 places could not be decided"));
+    }
+
+    @Test
+    void analyzeLiveness_CycleWithExit_ReportsEveryLevel() {
+        // Given: A cycle a <-> b that can be left once for a terminal cycle c <-> d, and a dead transition
+        PetriNetDTO petriNet = new PetriNetDTO(
+            List.of(new PlaceDTO("a", 1), new PlaceDTO("b", 0), new PlaceDTO("c", 0),
+                    new PlaceDTO("d", 0), new PlaceDTO("e", 0)),
+            List.of(new TransitionDTO("tA", false, List.of("a1", "a2")),
+                    new TransitionDTO("tB", false, List.of("a3", "a4")),
+                    new TransitionDTO("tExit", false, List.of("a5", "a6")),
+                    new TransitionDTO("tC", false, List.of("a7", "a8")),
+                    new TransitionDTO("tD", false, List.of("a9", "a10")),
+                    new TransitionDTO("tDead", false, List.of("a11"))),
+            List.of(new ArcDTO("a1", "REGULAR", "a", "tA"), new ArcDTO("a2", "REGULAR", "tA", "b"),
+                    new ArcDTO("a3", "REGULAR", "b", "tB"), new ArcDTO("a4", "REGULAR", "tB", "a"),
+                    new ArcDTO("a5", "REGULAR", "a", "tExit"), new ArcDTO("a6", "REGULAR", "tExit", "c"),
+                    new ArcDTO("a7", "REGULAR", "c", "tC"), new ArcDTO("a8", "REGULAR", "tC", "d"),
+                    new ArcDTO("a9", "REGULAR", "d", "tD"), new ArcDTO("a10", "REGULAR", "tD", "c"),
+                    new ArcDTO("a11", "REGULAR", "e", "tDead"))
+        );
+
+        // When: Analyzing liveness
+        AnalysisResultDTO result = analysisService.analyzeLiveness(petriNet);
+
+        // Then: Each transition gets the strongest level it satisfies
+        Map<String, String> levels = result.getTransitionLiveness();
+        assertEquals("L3", levels.get("tA"));
+        assertEquals("L3", levels.get("tB"));
+        assertEquals("L1", levels.get("tExit"));
+        assertEquals("L4", levels.get("tC"));
+        assertEquals("L4", levels.get("tD"));
+        assertEquals("L0", levels.get("tDead"));
+        assertEquals(4, result.getReachableStatesCount());
+        assertFalse(result.isHasDeadlock());
+    }
+
+    @Test
+    void analyzeLiveness_IndependentCycles_AllTransitionsLive() {
+        // Given: Ten independent cycles
+        PetriNetDTO petriNet = independentCycles(10);
+
+        // When: Analyzing liveness
+        AnalysisResultDTO result = analysisService.analyzeLiveness(petriNet);
+
+        // Then: The whole graph is one terminal component and every transition is live
+        assertEquals(1024, result.getReachableStatesCount());
+        assertTrue(result.getTransitionLiveness().values().stream().allMatch("L4"::equals));
+        assertTrue(result.getDetails().contains("The net is live"));
+    }
+
+    @Test
+    void analyzeLiveness_StateBudget_ReportsLowerBounds() {
+        // Given: A state budget smaller than the state space
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.setMaxStates(50);
+        PetriNetAnalysisService limitedService = new PetriNetAnalysisService(petriNetService, properties);
+
+        // When: Analyzing liveness
+        AnalysisResultDTO result = limitedService.analyzeLiveness(independentCycles(10));
+
+        // Then: No transition is claimed live or dead on a partial graph
+        assertTrue(result.isReachedMaxLimit());
+        assertFalse(result.getTransitionLiveness().containsValue("L4"));
+        assertFalse(result.getTransitionLiveness().containsValue("L0"));
+        assertTrue(result.getDetails().contains("levels are lower bounds"));
+    }
+
+    @Test
+    void analyzeDeadlock_TwoDeadEnds_ReturnsShortestTrace() {
+        // Given: From a, tLong starts a three-step chain to a dead end while tShort reaches one directly
+        PetriNetDTO petriNet = new PetriNetDTO(
+            List.of(new PlaceDTO("a", 1), new PlaceDTO("b", 0), new PlaceDTO("c", 0),
+                    new PlaceDTO("d", 0), new PlaceDTO("z", 0)),
+            List.of(new TransitionDTO("tLong", false, List.of("a1", "a2")),
+                    new TransitionDTO("tB", false, List.of("a3", "a4")),
+                    new TransitionDTO("tC", false, List.of("a5", "a6")),
+                    new TransitionDTO("tShort", false, List.of("a7", "a8"))),
+            List.of(new ArcDTO("a1", "REGULAR", "a", "tLong"), new ArcDTO("a2", "REGULAR", "tLong", "b"),
+                    new ArcDTO("a3", "REGULAR", "b", "tB"), new ArcDTO("a4", "REGULAR", "tB", "c"),
+                    new ArcDTO("a5", "REGULAR", "c", "tC"), new ArcDTO("a6", "REGULAR", "tC", "d"),
+                    new ArcDTO("a7", "REGULAR", "a", "tShort"), new ArcDTO("a8", "REGULAR", "tShort", "z"))
+        );
+
+        // When: Searching for a deadlock
+        AnalysisResultDTO result = analysisService.analyzeDeadlock(petriNet);
+
+        // Then: The one-step witness is returned together with the dead marking
+        assertTrue(result.isHasDeadlock());
+        assertEquals(List.of("tShort"), result.getDeadlockTrace());
+        assertEquals(Map.of("a", 0, "b", 0, "c", 0, "d", 0, "z", 1), result.getDeadlockMarking());
+        assertEquals(3, result.getExploredStatesCount());
+    }
+
+    @Test
+    void analyzeDeadlock_IndependentCycles_ReportsNoDeadlock() {
+        // Given: Ten independent cycles, which never deadlock
+        PetriNetDTO petriNet = independentCycles(10);
+
+        // When: Searching for a deadlock
+        AnalysisResultDTO result = analysisService.analyzeDeadlock(petriNet);
+
+        // Then: Every marking is explored and none is dead
+        assertFalse(result.isHasDeadlock());
+        assertNull(result.getDeadlockTrace());
+        assertEquals(1024, result.getExploredStatesCount());
+        assertTrue(result.getDetails().contains("No deadlock is reachable"));
+    }
+
+    @Test
+    void analyzeDeadlock_StateBudget_ReportsInconclusive() {
+        // Given: A state budget smaller than the state space
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.setMaxStates(50);
+        PetriNetAnalysisService limitedService = new PetriNetAnalysisService(petriNetService, properties);
+
+        // When: Searching for a deadlock
+        AnalysisResultDTO result = limitedService.analyzeDeadlock(independentCycles(10));
+
+        // Then: The search stops at the budget without claiming the net is deadlock-free
+        assertFalse(result.isHasDeadlock());
+        assertTrue(result.isReachedMaxLimit());
+        assertEquals(50, result.getExploredStatesCount());
+        assertTrue(result.getDetails().contains("within the analysis limits"));
+    }
+
+    /**
+     * Builds a net of independent one-shot branches (s_i -> t_i -> e_i). Every branch must fire once
+     * before the net deadlocks, and the full state space has exactly 2^branches markings.
+     */
+    private PetriNetDTO parallelBranches(int branches) {
+        List<PlaceDTO> places = new ArrayList<>();
+        List<TransitionDTO> transitions = new ArrayList<>();
+        List<ArcDTO> arcs = new ArrayList<>();
+        for (int i = 0; i < branches; i++) {
+            places.add(new PlaceDTO("s" + i, 1, false, null));
+            places.add(new PlaceDTO("e" + i, 0, false, null));
+            transitions.add(new TransitionDTO("t" + i, false, Arrays.asList("in" + i, "out" + i)));
+            arcs.add(new ArcDTO("in" + i, "REGULAR", "s" + i, "t" + i));
+            arcs.add(new ArcDTO("out" + i, "REGULAR", "t" + i, "e" + i));
+        }
+        return new PetriNetDTO(places, transitions, arcs);
+    }
+
+    @Test
+    void analyzeReachableStates_PartialOrderReduction_KeepsDeadlockWithFewerStates() {
+        // Given: Twelve independent branches and a service with partial-order reduction
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.setPartialOrderReduction(true);
+        PetriNetAnalysisService reducedService = new PetriNetAnalysisService(petriNetService, properties);
+
+        // When: Analyzing reachable states with and without reduction
+        AnalysisResultDTO full = analysisService.analyzeReachableStates(parallelBranches(12));
+        AnalysisResultDTO reduced = reducedService.analyzeReachableStates(parallelBranches(12));
+
+        // Then: Both find the final deadlock, but the reduced space only holds one interleaving
+        assertEquals(4096, full.getReachableStatesCount());
+        assertTrue(full.isHasDeadlock());
+        assertEquals(13, reduced.getReachableStatesCount());
+        assertTrue(reduced.isHasDeadlock());
+        assertTrue(reduced.getDetails().contains("partial-order reduction"));
+    }
+
+    @Test
+    void analyzeDeadlock_PartialOrderReduction_ReturnsTraceOfSameLength() {
+        // Given: A service with partial-order reduction
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.setPartialOrderReduction(true);
+        PetriNetAnalysisService reducedService = new PetriNetAnalysisService(petriNetService, properties);
+
+        // When: Searching for a deadlock in twelve independent branches
+        AnalysisResultDTO full = analysisService.analyzeDeadlock(parallelBranches(12));
+        AnalysisResultDTO reduced = reducedService.analyzeDeadlock(parallelBranches(12));
+
+        // Then: The same dead marking is reached through a trace of the same length, exploring far fewer states
+        assertTrue(reduced.isHasDeadlock());
+        assertEquals(full.getDeadlockMarking(), reduced.getDeadlockMarking());
+        assertEquals(12, reduced.getDeadlockTrace().size());
+        assertEquals(full.getDeadlockTrace().size(), reduced.getDeadlockTrace().size());
+        assertEquals(13, reduced.getExploredStatesCount());
+        assertTrue(reduced.getExploredStatesCount() < full.getExploredStatesCount());
+    }
+
+    /**
+     * Builds the dining philosophers: each philosopher takes the left fork, then the right fork, eats
+     * and puts both back. The net is invariant under rotating the table.
+     */
+    private PetriNetDTO diningPhilosophers(int philosophers) {
+        List<PlaceDTO> places = new ArrayList<>();
+        List<TransitionDTO> transitions = new ArrayList<>();
+        List<ArcDTO> arcs = new ArrayList<>();
+        for (int i = 0; i < philosophers; i++) {
+            places.add(new PlaceDTO("thinking" + i, 1, false, null));
+            places.add(new PlaceDTO("holdsLeft" + i, 0, false, null));
+            places.add(new PlaceDTO("eating" + i, 0, false, null));
+            places.add(new PlaceDTO("fork" + i, 1, false, null));
+        }
+        for (int i = 0; i < philosophers; i++) {
+            int right = (i + 1) % philosophers;
+            transitions.add(new TransitionDTO("takeLeft" + i, false, Arrays.asList("l1_" + i, "l2_" + i, "l3_" + i)));
+            arcs.add(new ArcDTO("l1_" + i, "REGULAR", "thinking" + i, "takeLeft" + i));
+            arcs.add(new ArcDTO("l2_" + i, "REGULAR", "fork" + i, "takeLeft" + i));
+            arcs.add(new ArcDTO("l3_" + i, "REGULAR", "takeLeft" + i, "holdsLeft" + i));
+            transitions.add(new TransitionDTO("takeRight" + i, false, Arrays.asList("r1_" + i, "r2_" + i, "r3_" + i)));
+            arcs.add(new ArcDTO("r1_" + i, "REGULAR", "holdsLeft" + i, "takeRight" + i));
+            arcs.add(new ArcDTO("r2_" + i, "REGULAR", "fork" + right, "takeRight" + i));
+            arcs.add(new ArcDTO("r3_" + i, "REGULAR", "takeRight" + i, "eating" + i));
+            transitions.add(new TransitionDTO("release" + i, false,
+                    Arrays.asList("e1_" + i, "e2_" + i, "e3_" + i, "e4_" + i)));
+            arcs.add(new ArcDTO("e1_" + i, "REGULAR", "eating" + i, "release" + i));
+            arcs.add(new ArcDTO("e2_" + i, "REGULAR", "release" + i, "thinking" + i));
+            arcs.add(new ArcDTO("e3_" + i, "REGULAR", "release" + i, "fork" + i));
+            arcs.add(new ArcDTO("e4_" + i, "REGULAR", "release" + i, "fork" + right));
+        }
+        return new PetriNetDTO(places, transitions, arcs);
+    }
+
+    @Test
+    void analyzeReachableStates_SymmetryReduction_CountsOrbitsOfRotations() {
+        // Given: A service with symmetry reduction and five dining philosophers
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.setSymmetryReduction(true);
+        PetriNetAnalysisService symmetricService = new PetriNetAnalysisService(petriNetService, properties);
+
+        // When: Analyzing reachable states with and without reduction
+        AnalysisResultDTO full = analysisService.analyzeReachableStates(diningPhilosophers(5));
+        AnalysisResultDTO reduced = symmetricService.analyzeReachableStates(diningPhilosophers(5));
+
+        // Then: The five rotations are detected and only one marking per orbit is kept
+        assertEquals(82, full.getReachableStatesCount());
+        assertNull(full.getSymmetryGroupSize());
+        assertEquals(18, reduced.getReachableStatesCount());
+        assertEquals(5, reduced.getSymmetryGroupSize().intValue());
+        assertTrue(full.isHasDeadlock());
+        assertTrue(reduced.isHasDeadlock());
+        assertTrue(reduced.getDetails().contains("symmetry reduction (group of size 5)"));
+    }
+
+    @Test
+    void analyzeReachableStates_SymmetryAndPartialOrderReduction_HandleTwentyPhilosophers() {
+        // Given: Both reductions enabled
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.setSymmetryReduction(true);
+        properties.setPartialOrderReduction(true);
+        PetriNetAnalysisService reducedService = new PetriNetAnalysisService(petriNetService, properties);
+
+        // When: Analyzing twenty philosophers, whose full state space exceeds the default budget
+        AnalysisResultDTO result = reducedService.analyzeReachableStates(diningPhilosophers(20));
+
+        // Then: The reduced space is explored completely and the circular wait is found
+        assertEquals(20, result.getSymmetryGroupSize().intValue());
+        assertFalse(result.isReachedMaxLimit());
+        assertFalse(result.isReachedTimeLimit());
+        assertTrue(result.isHasDeadlock());
+    }
+
+    @Test
+    void analyzeReachableStates_SymmetryReductionOnManyCycles_RespectsTimeLimit() {
+        // Given: Symmetry reduction, and identical cycles whose symmetry search alone outlasts the time limit
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.setSymmetryReduction(true);
+        PetriNetAnalysisService symmetricService = new PetriNetAnalysisService(petriNetService, properties);
+        PetriNetDTO petriNet = independentCycles(1000);
+        petriNet.setBudget(new BudgetDTO(null, null, 300L, null));
+
+        // When
+        long started = System.nanoTime();
+        AnalysisResultDTO result = symmetricService.analyzeReachableStates(petriNet);
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        // Then: The analysis returns at the time limit with the part of the group found so far
+        assertTrue(elapsedMillis < 3_000, "analysis took " + elapsedMillis + " ms");
+        assertTrue(result.isReachedTimeLimit());
+        assertTrue(result.getSymmetryGroupSize().compareTo(BigInteger.ONE) > 0);
+        assertTrue(result.getDetails().contains(" or more)"));
+    }
+
+    @Test
+    void analyzeReachableStates_SymmetryReductionOnManyCycles_FindsWholeGroupOnce() {
+        // Given: Symmetry reduction and a hundred identical cycles, i.e. 2^100 * 100! automorphisms
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.setSymmetryReduction(true);
+        PetriNetAnalysisService symmetricService = new PetriNetAnalysisService(petriNetService, properties);
+        BigInteger expected = BigInteger.ONE;
+        for (int i = 1; i <= 100; i++) {
+            expected = expected.multiply(BigInteger.valueOf(2L * i));
+        }
+
+        // When: Analyzing the net twice, within a state budget far below its 2^100 markings
+        PetriNetDTO petriNet = independentCycles(100);
+        petriNet.setBudget(new BudgetDTO(1_000, null, null, null));
+        AnalysisResultDTO first = symmetricService.analyzeReachableStates(petriNet);
+        AnalysisResultDTO second = symmetricService.analyzeReachableStates(petriNet);
+
+        // Then: The whole group is reported both times, the second from the compiled net cache
+        assertEquals(expected, first.getSymmetryGroupSize());
+        assertEquals(expected, second.getSymmetryGroupSize());
+        assertFalse(first.getDetails().contains(" or more)"));
+        assertEquals(1, symmetricService.getCompiledNetCacheStats().getHits());
+    }
+
+    @Test
+    void analyzeReachableStatesSymbolically_DiningPhilosophers_MatchesExplicitCount() {
+        // Given: Five dining philosophers
+        PetriNetDTO petriNet = diningPhilosophers(5);
+
+        // When: Analyzing reachable states explicitly and symbolically
+        AnalysisResultDTO explicit = analysisService.analyzeReachableStates(petriNet);
+        AnalysisResultDTO symbolic = analysisService.analyzeReachableStatesSymbolically(petriNet);
+
+        // Then: Both engines agree on the states and on the deadlock
+        assertEquals(explicit.getReachableStatesCount(), symbolic.getReachableStatesCount());
+        assertEquals(82, symbolic.getReachableStatesTotal().intValue());
+        assertTrue(symbolic.isHasDeadlock());
+        assertTrue(symbolic.getDecisionDiagramNodes() > 0);
+    }
+
+    @Test
+    void analyzeReachableStatesSymbolically_FortyBranches_CountsBeyondExplicitReach() {
+        // Given: Forty independent branches, i.e. 2^40 reachable markings
+        PetriNetDTO petriNet = parallelBranches(40);
+
+        // When: Analyzing reachable states symbolically
+        AnalysisResultDTO result = analysisService.analyzeReachableStatesSymbolically(petriNet);
+
+        // Then: The exact count is reported, and the int count saturates
+        assertEquals(BigInteger.ONE.shiftLeft(40), result.getReachableStatesTotal());
+        assertEquals(Integer.MAX_VALUE, result.getReachableStatesCount());
+        assertTrue(result.isHasDeadlock());
+        assertFalse(result.isReachedTimeLimit());
+        assertFalse(result.isReachedMemoryLimit());
+    }
+
+    @Test
+    void analyzeInvariants_DiningPhilosophers_ProvesOneTokenBounds() {
+        // Given: Five dining philosophers
+        PetriNetDTO petriNet = diningPhilosophers(5);
+
+        // When: Computing invariants
+        AnalysisResultDTO result = analysisService.analyzeInvariants(petriNet);
+
+        // Then: One invariant per philosopher and per fork, and one eating cycle per philosopher
+        assertEquals("Invariant Analysis", result.getAnalysisType());
+        assertEquals(10, result.getPlaceInvariants().size());
+        assertEquals(5, result.getTransitionInvariants().size());
+        assertEquals(Map.of("thinking0", 1L, "holdsLeft0", 1L, "eating0", 1L), result.getPlaceInvariants().get(0));
+        assertEquals(Map.of("takeLeft0", 1L, "takeRight0", 1L, "release0", 1L), result.getTransitionInvariants().get(0));
+
+        // Every place is covered, and no place can ever hold more than one token
+        assertTrue(result.isCoveredByPlaceInvariants());
+        assertTrue(result.isCoveredByTransitionInvariants());
+        assertEquals(20, result.getBoundedPlacesCount());
+        assertTrue(result.getPlaceBounds().values().stream().allMatch(bound -> bound == 1));
+        assertTrue(result.getDetails().contains("structurally bounded"));
+    }
+
+    @Test
+    void analyzeInvariants_CycleWithExitAndSource_ReportsUncoveredElements() {
+        // Given: A cycle a <-> b with an exit from b to c, and a source transition feeding d
+        List<PlaceDTO> places = Arrays.asList(
+            new PlaceDTO("a", 2, false, null),
+            new PlaceDTO("b", 0, false, null),
+            new PlaceDTO("c", 0, false, null),
+            new PlaceDTO("d", 0, false, null)
+        );
+        List<TransitionDTO> transitions = Arrays.asList(
+            new TransitionDTO("t1", false, Arrays.asList("arc1", "arc2")),
+            new TransitionDTO("t2", false, Arrays.asList("arc3", "arc4")),
+            new TransitionDTO("t3", false, Arrays.asList("arc5", "arc6")),
+            new TransitionDTO("source", false, Arrays.asList("arc7"))
+        );
+        List<ArcDTO> arcs = Arrays.asList(
+            new ArcDTO("arc1", "REGULAR", "a", "t1"),
+            new ArcDTO("arc2", "REGULAR", "t1", "b"),
+            new ArcDTO("arc3", "REGULAR", "b", "t2"),
+            new ArcDTO("arc4", "REGULAR", "t2", "a"),
+            new ArcDTO("arc5", "REGULAR", "b", "t3"),
+            new ArcDTO("arc6", "REGULAR", "t3", "c"),
+            new ArcDTO("arc7", "REGULAR", "source", "d")
+        );
+        PetriNetDTO petriNet = new PetriNetDTO(places, transitions, arcs);
+
+        // When: Computing invariants
+        AnalysisResultDTO result = analysisService.analyzeInvariants(petriNet);
+
+        // Then: a + b + c is conserved, d is not covered, and only the cycle is a T-invariant
+        assertEquals(List.of(Map.of("a", 1L, "b", 1L, "c", 1L)), result.getPlaceInvariants());
+        assertEquals(List.of(Map.of("t1", 1L, "t2", 1L)), result.getTransitionInvariants());
+        assertEquals(Map.of("a", 2, "b", 2, "c", 2), result.getPlaceBounds());
+        assertFalse(result.isCoveredByPlaceInvariants());
+        assertFalse(result.isCoveredByTransitionInvariants());
+        assertTrue(result.getDetails().contains("1 places are not covered"));
+        assertTrue(result.getDetails().contains("cannot be both live and bounded"));
+    }
+
+    @Test
+    void performStructuralAnalysis_MarkedCycles_ProvesDeadlockFreedomAndLiveness() {
+        // Given: Two independent marked cycles, a state machine and hence extended free-choice
+        PetriNetDTO petriNet = independentCycles(2);
+
+        // When: Performing structural analysis
+        AnalysisResultDTO result = analysisService.performStructuralAnalysis(petriNet);
+
+        // Then: Each cycle is a minimal siphon that is also a marked trap
+        assertEquals(List.of(List.of("a0", "b0"), List.of("a1", "b1")), result.getMinimalSiphons());
+        assertEquals(result.getMinimalSiphons(), result.getMaximalTraps());
+        assertTrue(result.isFreeChoice());
+        assertTrue(result.isExtendedFreeChoice());
+        assertEquals(Boolean.TRUE, result.getCommonerConditionHolds());
+        assertEquals(Boolean.TRUE, result.getDeadlockFree());
+        assertEquals(Boolean.TRUE, result.getLive());
+        assertTrue(result.getDetails().contains("no deadlock is reachable"));
+
+        // Each cycle is a strongly connected component, and the net is both a state machine and a marked graph
+        assertEquals(2, result.getStronglyConnectedComponentsCount());
+        assertFalse(result.isStronglyConnected());
+        assertTrue(result.isStateMachine());
+        assertTrue(result.isMarkedGraph());
+        assertEquals(List.of(), result.getSourceTransitions());
+        assertEquals(List.of(), result.getSinkTransitions());
+        assertEquals(1, result.getMaxInDegree());
+        assertEquals(1, result.getMaxOutDegree());
+    }
+
+    @Test
+    void performStructuralAnalysis_LargeCycle_RunsInLinearTime() {
+        // Given: A single cycle through 25,000 places, i.e. 50,000 arcs
+        List<PlaceDTO> places = new ArrayList<>();
+        List<TransitionDTO> transitions = new ArrayList<>();
+        List<ArcDTO> arcs = new ArrayList<>();
+        int size = 25_000;
+        for (int i = 0; i < size; i++) {
+            places.add(new PlaceDTO("p" + i, i == 0 ? 1 : 0, false, null));
+            transitions.add(new TransitionDTO("t" + i, false, Arrays.asList("in" + i, "out" + i)));
+            arcs.add(new ArcDTO("in" + i, "REGULAR", "p" + i, "t" + i));
+            arcs.add(new ArcDTO("out" + i, "REGULAR", "t" + i, "p" + (i + 1) % size));
+        }
+        PetriNetDTO petriNet = new PetriNetDTO(places, transitions, arcs);
+
+        // When: Performing structural analysis
+        AnalysisResultDTO result = analysisService.performStructuralAnalysis(petriNet);
+
+        // Then: The whole net is one component and one marked siphon, found well within the budget
+        assertEquals(50_000, result.getRegularArcsCount());
+        assertEquals(0, result.getIsolatedPlacesCount());
+        assertEquals(1, result.getStronglyConnectedComponentsCount());
+        assertTrue(result.isStronglyConnected());
+        assertEquals(1, result.getMinimalSiphons().size());
+        assertFalse(result.isReachedTimeLimit());
+        assertEquals(Boolean.TRUE, result.getLive());
+    }
+
+    @Test
+    void performStructuralAnalysis_DiningPhilosophers_ViolatesCommonerCondition() {
+        // Given: Five dining philosophers, whose forks make the net not free-choice
+        PetriNetDTO petriNet = diningPhilosophers(5);
+
+        // When: Performing structural analysis
+        AnalysisResultDTO result = analysisService.performStructuralAnalysis(petriNet);
+
+        // Then: Some siphon holds no marked trap, so it can empty, as it does in the deadlock
+        assertEquals(11, result.getMinimalSiphons().size());
+        assertEquals(Boolean.FALSE, result.getCommonerConditionHolds());
+        assertFalse(result.isExtendedFreeChoice());
+        assertNull(result.getDeadlockFree());
+        assertNull(result.getLive());
+        assertTrue(result.getDetails().contains("Some minimal siphon contains no marked trap"));
+    }
+
+    @Test
+    void getCompiledNetCacheStats_CountsAnalysesOfTheSameNet() {
+        // Given: A service with a cache of its own
+        PetriNetAnalysisService cachingService = new PetriNetAnalysisService(petriNetService, new AnalysisProperties());
+        PetriNetDTO petriNet = independentCycles(2);
+
+        // When: Analyzing the same net twice
+        cachingService.analyzeDeadlock(petriNet);
+        cachingService.analyzeBoundedness(petriNet);
+
+        // Then: The second analysis found the net compiled by the first
+        assertEquals(1, cachingService.getCompiledNetCacheStats().getMisses());
+        assertEquals(1, cachingService.getCompiledNetCacheStats().getHits());
+        assertEquals(1, cachingService.getCompiledNetCacheStats().getEntries());
+    }
+
+    @Test
+    void analysisExecutor_Saturated_RejectsUntilAJobFinishes() throws Exception {
+        // Given: One worker and no queue, busy with a job that waits for a signal
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.setAnalysisConcurrency(1);
+        properties.setAnalysisQueueDepth(0);
+        AnalysisExecutor executor = new AnalysisExecutor(properties);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread busy = new Thread(() -> executor.execute(() -> {
+            try {
+                return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        busy.start();
+        while (executor.getAdmittedCount() == 0) {
+            Thread.onSpinWait();
+        }
+
+        // When / Then: Another job is rejected while the first one runs, and accepted after it
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> 1));
+        release.countDown();
+        busy.join();
+        assertEquals(1, executor.execute(() -> 1));
+        assertEquals(0, executor.getAdmittedCount());
+    }
+
+    @Test
+    void analysisExecutor_CallerInterrupted_CancelsTheRunningAnalysis() throws Exception {
+        // Given: A job analyzing a state space far larger than its budgets allow within the test
+        AnalysisExecutor executor = new AnalysisExecutor();
+        PetriNetDTO petriNet = independentCycles(30);
+        petriNet.setBudget(new BudgetDTO(10_000_000, null, 60_000L, null));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        AtomicReference<AnalysisResultDTO> analysis = new AtomicReference<>();
+        Thread caller = new Thread(() -> {
+            try {
+                executor.execute(() -> {
+                    started.countDown();
+                    analysis.set(analysisService.analyzeReachableStates(petriNet));
+                    finished.countDown();
+                    return analysis.get();
+                });
+            } catch (CancellationException expected) {
+                // The caller gives up, the job is expected to follow
+            }
+        });
+        caller.start();
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        // When: The waiting caller is interrupted
+        caller.interrupt();
+
+        // Then: The analysis stops long before its time limit and reports the cancellation
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        assertTrue(analysis.get().isCancelled());
+        assertFalse(analysis.get().isReachedTimeLimit());
+        caller.join();
+    }
+
+    @Test
+    void analysisExecutor_CallerInterrupted_KeepsTheSlotUntilTheJobEnds() throws Exception {
+        // Given: A job that ignores interrupts and only ends when released
+        AnalysisExecutor executor = new AnalysisExecutor();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread caller = new Thread(() -> {
+            try {
+                executor.execute(() -> {
+                    started.countDown();
+                    boolean released = false;
+                    while (!released) {
+                        try {
+                            released = release.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException ignored) {
+                            // Keeps running, as an engine between two budget checks would
+                        }
+                    }
+                    return released;
+                });
+            } catch (CancellationException expected) {
+                // The caller gives up once the job has ended
+            }
+        });
+        caller.start();
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        // When: The waiting caller is interrupted while the job still runs
+        caller.interrupt();
+        caller.join(100);
+
+        // Then: The caller and the slot stay until the job ends
+        assertTrue(caller.isAlive());
+        assertEquals(1, executor.getAdmittedCount());
+        release.countDown();
+        caller.join();
+        assertEquals(0, executor.getAdmittedCount());
+    }
+
+    @Test
+    void heapAnalyses_MemoryBudget_StopAndReportIt() {
+        // Given: A net with 65536 markings and a memory budget far too small for them
+        PetriNetDTO petriNet = independentCycles(16);
+        petriNet.setBudget(new BudgetDTO(null, null, null, 64 * 1024L));
+
+        // When / Then: Every exploration kept on the heap stops at the memory budget
+        for (AnalysisResultDTO result : List.of(analysisService.analyzeReachableStates(petriNet),
+                analysisService.analyzeLiveness(petriNet), analysisService.analyzeDeadlock(petriNet),
+                analysisService.analyzeBoundedness(petriNet))) {
+            assertTrue(result.isReachedMemoryLimit(), result.getAnalysisType());
+            assertFalse(result.isReachedMaxLimit(), result.getAnalysisType());
+        }
+    }
+
+    @Test
+    void analysisExecutor_SingleWorker_RunsParallelExplorationOnItsOwnPool() {
+        // Given: An executor with a single worker
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.setAnalysisConcurrency(1);
+        AnalysisExecutor executor = new AnalysisExecutor(properties);
+
+        // When: A job explores in parallel, on the pool of the worker running it
+        AnalysisResultDTO result = executor.execute(() -> analysisService.analyzeReachableStates(independentCycles(12)));
+
+        // Then: The exploration completes without any worker of its own
+        assertEquals(4096, result.getReachableStatesCount());
+        assertFalse(result.isReachedTimeLimit());
+        assertEquals(0, executor.getAdmittedCount());
+    }
+
+    @Test
+    void analysisProperties_DefaultWorkers_LeaveAProcessorFree() {
+        AnalysisProperties properties = new AnalysisProperties();
+        int expected = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+        assertEquals(expected, properties.getEffectiveAnalysisConcurrency());
+        assertEquals(expected, properties.getEffectiveParallelism());
+    }
+
+    @Test
+    void analysisExecutor_FailingJob_RethrowsItsException() {
+        // Given: A request asking for a zero state budget
+        AnalysisExecutor executor = new AnalysisExecutor();
+        PetriNetDTO petriNet = independentCycles(2);
+        petriNet.setBudget(new BudgetDTO(0, null, null, null));
+
+        // When
+        IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class,
+                () -> executor.execute(() -> analysisService.analyzeDeadlock(petriNet)));
+
+        // Then: The caller sees the exception of the analysis itself, message included
+        assertEquals("Budget maxStates must be positive, got 0", thrown.getMessage());
+        assertEquals(0, executor.getAdmittedCount());
+    }
+}
@@ -12,11 +12,32 @@ import org.petrinet.client.*;
 import org.petrinet.controller.*;
 import org.petrinet.service.*;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.mockito.ArgumentCaptor;
 
+import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -37,6 +58,12 @@ class ControllerTest {
     @MockBean
     private PetriNetAnalysisService analysisService;
 
+    @MockBean
+    private SimulationSessionService sessionService;
+
+    @MockBean
+    private AnalysisExecutor analysisExecutor;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -47,6 +74,9 @@ class ControllerTest {
 
     @BeforeEach
     void setUp() {
+        // Given: The analysis executor runs every job on the calling thread
+        when(analysisExecutor.execute(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+
         // Given: Sample Petri net data
         PlaceDTO place1 = new PlaceDTO("p1", 2, false, null);
         PlaceDTO place2 = new PlaceDTO("p2", 0, false, null);
@@ -175,6 +205,107 @@ class ControllerTest {
             .andExpect(status().isMethodNotAllowed());
     }
 
+    // ==================== RUN TESTS ====================
+
+    @Test
+    void runPetriNet_ValidRequest_ReturnsRunResult() throws Exception {
+        // Given: Mock service returns a finished run
+        SimulationRunResultDTO runResult = new SimulationRunResultDTO();
+        runResult.setStepsExecuted(2);
+        runResult.setStopReason("DEADLOCK");
+        runResult.setFiringSequence(Arrays.asList("t1", "t1"));
+        runResult.setFinalMarking(Map.of("p1", 0, "p2", 2));
+        when(petriNetService.runPetriNet(any(PetriNetDTO.class), eq(50), eq("deadlock")))
+            .thenReturn(runResult);
+
+        // When & Then: Query parameters are passed through and the compact result is returned
+        mockMvc.perform(post("/api/process/page/test-page/run")
+                .param("steps", "50")
+                .param("until", "deadlock")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(samplePetriNet)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.stepsExecuted").value(2))
+            .andExpect(jsonPath("$.stopReason").value("DEADLOCK"))
+            .andExpect(jsonPath("$.firingSequence[1]").value("t1"))
+            .andExpect(jsonPath("$.finalMarking.p2").value(2));
+    }
+
+    @Test
+    void runPetriNet_ServiceThrowsException_ReturnsBadRequest() throws Exception {
+        // Given: Service rejects the arguments
+        when(petriNetService.runPetriNet(any(PetriNetDTO.class), anyInt(), any()))
+            .thenThrow(new IllegalArgumentException("Unsupported stop condition: forever"));
+
+        // When & Then: Should return 400 with error message
+        mockMvc.perform(post("/api/process/page/test-page/run")
+                .param("until", "forever")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(samplePetriNet)))
+            .andExpect(status().isBadRequest())
+            .andExpect(content().string("Error running Petri net for page test-page: Unsupported stop condition: forever"));
+    }
+
+    @Test
+    void streamPetriNet_ValidRequest_StreamsBatchesAsServerSentEvents() throws Exception {
+        // Given: A real run of the sample net, which deadlocks after firing t1 twice
+        when(petriNetService.openRun(any(PetriNetDTO.class), eq(100L), any(), eq(64)))
+            .thenReturn(new PetriNetService().openRun(samplePetriNet, 100, null, 64));
+        // Given: The run is streamed on the calling thread
+        when(petriNetService.stream(any(SimulationRun.class), any())).thenAnswer(invocation -> {
+            ((SimulationRun) invocation.getArgument(0)).streamTo(invocation.getArgument(1));
+            return CompletableFuture.completedFuture(null);
+        });
+
+        // When: The stream is started asynchronously
+        var result = mockMvc.perform(post("/api/process/page/test-page/run/stream")
+                .param("steps", "100")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(samplePetriNet)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // Then: A single end event carries both firings and the stop reason
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+            .andExpect(content().string(org.hamcrest.Matchers.startsWith("event: end\ndata: {")))
+            .andExpect(content().string(org.hamcrest.Matchers.containsString("\"firedTransitions\":[\"t1\",\"t1\"]")))
+            .andExpect(content().string(org.hamcrest.Matchers.containsString("\"stopReason\":\"DEADLOCK\"")));
+    }
+
+    @Test
+    void streamPetriNet_InvalidArguments_ReturnsBadRequest() throws Exception {
+        // Given: Service rejects the batch size
+        when(petriNetService.openRun(any(PetriNetDTO.class), anyLong(), any(), anyInt()))
+            .thenThrow(new IllegalArgumentException("Batch size must be between 1 and 4096, got: 0"));
+
+        // When & Then: Should return 400 before any event is streamed
+        mockMvc.perform(post("/api/process/page/test-page/run/stream")
+                .param("batchSize", "0")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(samplePetriNet)))
+            .andExpect(status().isBadRequest())
+            .andExpect(content().string("Error streaming Petri net run for page test-page: Batch size must be between 1 and 4096, got: 0"));
+    }
+
+    @Test
+    void streamPetriNet_TooManyStreams_ReturnsTooManyRequests() throws Exception {
+        // Given: Every stream slot is taken
+        when(petriNetService.openRun(any(PetriNetDTO.class), anyLong(), any(), anyInt()))
+            .thenReturn(new PetriNetService().openRun(samplePetriNet, 100, null, 64));
+        when(petriNetService.stream(any(SimulationRun.class), any()))
+            .thenThrow(new RejectedExecutionException("The server is already streaming 16 runs, retry later"));
+
+        // When & Then: Should return 429 with a retry hint
+        mockMvc.perform(post("/api/process/page/test-page/run/stream")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(samplePetriNet)))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().string("Retry-After", "1"))
+            .andExpect(content().string("Error streaming Petri net run for page test-page: The server is already streaming 16 runs, retry later"));
+    }
+
     // ==================== CONFLICT RESOLUTION TESTS ====================
 
     @Test
@@ -272,6 +403,191 @@ class ControllerTest {
             .andExpect(status().isMethodNotAllowed());
     }
 
+    // ==================== SIMULATION SESSION TESTS ====================
+
+    @Test
+    void createSession_ValidNet_ReturnsSessionId() throws Exception {
+        // Given: Mock service registers the net
+        SimulationDeltaDTO created = new SimulationDeltaDTO();
+        created.setSessionId("session-1");
+        created.setOutcome("CREATED");
+        created.setChangedPlaces(Map.of());
+        created.setEnabledTransitions(List.of("t1"));
+        when(sessionService.createSession(any(PetriNetDTO.class))).thenReturn(created);
+
+        // When & Then: The session ID and the enabled transitions are returned
+        mockMvc.perform(post("/api/process/page/test-page/session")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(samplePetriNet)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.sessionId").value("session-1"))
+            .andExpect(jsonPath("$.enabledTransitions[0]").value("t1"));
+    }
+
+    @Test
+    void createSession_AllSessionsPinned_ReturnsTooManyRequests() throws Exception {
+        // Given: Every session is held by an open simulation channel
+        when(sessionService.createSession(any(PetriNetDTO.class)))
+            .thenThrow(new IllegalStateException("All 1000 simulation sessions are pinned by open connections"));
+
+        // When & Then: Should return 429 with a retry hint
+        mockMvc.perform(post("/api/process/page/test-page/session")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(samplePetriNet)))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().string("Retry-After", "1"))
+            .andExpect(content().string("Error creating simulation session for page test-page: All 1000 simulation sessions are pinned by open connections"));
+    }
+
+    @Test
+    void stepSession_ValidSession_ReturnsDeltaOnly() throws Exception {
+        // Given: Mock service fires t1
+        SimulationDeltaDTO delta = new SimulationDeltaDTO();
+        delta.setSessionId("session-1");
+        delta.setStep(1);
+        delta.setOutcome("FIRED");
+        delta.setFiredTransitionId("t1");
+        delta.setChangedPlaces(Map.of("p1", 1, "p2", 1));
+        delta.setEnabledTransitions(List.of("t1"));
+        when(sessionService.step("session-1")).thenReturn(delta);
+
+        // When & Then: No net is sent either way, only the fired transition and changed places
+        mockMvc.perform(post("/api/process/session/session-1/step"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.firedTransitionId").value("t1"))
+            .andExpect(jsonPath("$.changedPlaces.p2").value(1))
+            .andExpect(jsonPath("$.places").doesNotExist());
+    }
+
+    @Test
+    void stepSession_UnknownSession_ReturnsNotFound() throws Exception {
+        // Given: The session expired
+        when(sessionService.step("expired"))
+            .thenThrow(new java.util.NoSuchElementException("Simulation session not found or expired: expired"));
+
+        // When & Then: Should return 404 so the client registers its net again
+        mockMvc.perform(post("/api/process/session/expired/step"))
+            .andExpect(status().isNotFound())
+            .andExpect(content().string("Simulation session not found or expired: expired"));
+    }
+
+    @Test
+    void fireInSession_DisabledTransition_ReturnsBadRequest() throws Exception {
+        // Given: Service rejects the transition
+        when(sessionService.fire("session-1", "t2"))
+            .thenThrow(new IllegalArgumentException("Selected transition is not enabled: t2"));
+
+        // When & Then: Should return 400 with error message
+        mockMvc.perform(post("/api/process/session/session-1/fire/t2"))
+            .andExpect(status().isBadRequest())
+            .andExpect(content().string("Error firing transition in simulation session session-1: Selected transition is not enabled: t2"));
+    }
+
+    @Test
+    void closeSession_OpenAndUnknownSessions_ReturnNoContentAndNotFound() throws Exception {
+        // Given
+        when(sessionService.closeSession("session-1")).thenReturn(true);
+        when(sessionService.closeSession("unknown")).thenReturn(false);
+
+        // When & Then
+        mockMvc.perform(delete("/api/process/session/session-1"))
+            .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/process/session/unknown"))
+            .andExpect(status().isNotFound());
+    }
+
+    // ==================== SIMULATION CHANNEL TESTS ====================
+
+    @Test
+    void simulationSocket_FiringIntoConflict_PushesConflict() throws Exception {
+        // Given: A channel over a real session service, and a deterministic net where t0 feeds two competing transitions
+        SimulationSocketHandler handler = new SimulationSocketHandler(new SimulationSessionService(), objectMapper);
+        WebSocketSession socket = mock(WebSocketSession.class);
+        when(socket.getAttributes()).thenReturn(new HashMap<>());
+        PetriNetDTO conflictNet = new PetriNetDTO(
+            Arrays.asList(new PlaceDTO("p0", 1, false, null), new PlaceDTO("p1", 0, false, null)),
+            Arrays.asList(new TransitionDTO("t0", false, Arrays.asList("arc0", "arc1")),
+                new TransitionDTO("t1", false, Arrays.asList("arc2")),
+                new TransitionDTO("t2", false, Arrays.asList("arc3"))),
+            Arrays.asList(new ArcDTO("arc0", "REGULAR", "p0", "t0"),
+                new ArcDTO("arc1", "REGULAR", "t0", "p1"),
+                new ArcDTO("arc2", "REGULAR", "p1", "t1"),
+                new ArcDTO("arc3", "REGULAR", "p1", "t2"))
+        );
+        conflictNet.setDeterministicMode(true);
+        SimulationMessageDTO open = new SimulationMessageDTO("OPEN");
+        open.setNet(conflictNet);
+
+        // When: The client opens the session, steps into the conflict and resolves it
+        handler.handleMessage(socket, new TextMessage(objectMapper.writeValueAsString(open)));
+        handler.handleMessage(socket, new TextMessage("{\"type\":\"STEP\"}"));
+        handler.handleMessage(socket, new TextMessage("{\"type\":\"FIRE\",\"transitionId\":\"t2\"}"));
+        handler.afterConnectionClosed(socket, CloseStatus.NORMAL);
+
+        // Then: The conflict is pushed right after the firing that caused it
+        ArgumentCaptor<TextMessage> sent = ArgumentCaptor.forClass(TextMessage.class);
+        verify(socket, times(4)).sendMessage(sent.capture());
+        List<SimulationMessageDTO> messages = new ArrayList<>();
+        for (TextMessage message : sent.getAllValues()) {
+            messages.add(objectMapper.readValue(message.getPayload(), SimulationMessageDTO.class));
+        }
+        assertEquals("CREATED", messages.get(0).getDelta().getOutcome());
+        assertEquals("t0", messages.get(1).getDelta().getFiredTransitionId());
+        assertEquals(Map.of("p0", 0, "p1", 1), messages.get(1).getDelta().getChangedPlaces());
+        assertEquals("CONFLICT", messages.get(2).getDelta().getOutcome());
+        assertEquals(List.of("t1", "t2"), messages.get(2).getDelta().getEnabledTransitions());
+        assertEquals("t2", messages.get(3).getDelta().getFiredTransitionId());
+        assertTrue(socket.getAttributes().isEmpty());
+    }
+
+    @Test
+    void simulationSocket_OpeningInConflict_PushesConflict() throws Exception {
+        // Given: A deterministic net whose initial marking already enables two competing transitions
+        SimulationSocketHandler handler = new SimulationSocketHandler(new SimulationSessionService(), objectMapper);
+        WebSocketSession socket = mock(WebSocketSession.class);
+        when(socket.getAttributes()).thenReturn(new HashMap<>());
+        PetriNetDTO conflictNet = new PetriNetDTO(
+            Arrays.asList(new PlaceDTO("p1", 1, false, null)),
+            Arrays.asList(new TransitionDTO("t1", false, Arrays.asList("arc1")),
+                new TransitionDTO("t2", false, Arrays.asList("arc2"))),
+            Arrays.asList(new ArcDTO("arc1", "REGULAR", "p1", "t1"),
+                new ArcDTO("arc2", "REGULAR", "p1", "t2"))
+        );
+        conflictNet.setDeterministicMode(true);
+        SimulationMessageDTO open = new SimulationMessageDTO("OPEN");
+        open.setNet(conflictNet);
+
+        // When: The client opens the session
+        handler.handleMessage(socket, new TextMessage(objectMapper.writeValueAsString(open)));
+
+        // Then: The conflict is pushed right after the session is created
+        ArgumentCaptor<TextMessage> sent = ArgumentCaptor.forClass(TextMessage.class);
+        verify(socket, times(2)).sendMessage(sent.capture());
+        SimulationMessageDTO created = objectMapper.readValue(sent.getAllValues().get(0).getPayload(), SimulationMessageDTO.class);
+        SimulationMessageDTO conflict = objectMapper.readValue(sent.getAllValues().get(1).getPayload(), SimulationMessageDTO.class);
+        assertEquals("CREATED", created.getDelta().getOutcome());
+        assertEquals("CONFLICT", conflict.getDelta().getOutcome());
+        assertEquals(List.of("t1", "t2"), conflict.getDelta().getEnabledTransitions());
+    }
+
+    @Test
+    void simulationSocket_StepWithoutSession_SendsError() throws Exception {
+        // Given
+        SimulationSocketHandler handler = new SimulationSocketHandler(new SimulationSessionService(), objectMapper);
+        WebSocketSession socket = mock(WebSocketSession.class);
+        when(socket.getAttributes()).thenReturn(new HashMap<>());
+
+        // When
+        handler.handleMessage(socket, new TextMessage("{\"type\":\"STEP\"}"));
+
+        // Then
+        ArgumentCaptor<TextMessage> sent = ArgumentCaptor.forClass(TextMessage.class);
+        verify(socket).sendMessage(sent.capture());
+        SimulationMessageDTO error = objectMapper.readValue(sent.getValue().getPayload(), SimulationMessageDTO.class);
+        assertEquals("ERROR", error.getType());
+        assertEquals("Error handling simulation message: No simulation session is open on this connection", error.getMessage());
+    }
+
     // ==================== VALIDATION CONTROLLER TESTS ====================
 
     @Test
@@ -322,6 +638,50 @@ class ControllerTest {
             .andExpect(content().string("Error validating Petri net for page test-page: Validation error"));
     }
 
+    @Test
+    void validatePetriNet_ExecutorSaturated_ReturnsTooManyRequests() throws Exception {
+        // Given: Every analysis worker is busy and the queue is full
+        when(analysisExecutor.execute(any()))
+            .thenThrow(new RejectedExecutionException("The server is busy with 4 analyses, retry later"));
+
+        // When & Then: Should return 429 with a retry hint
+        mockMvc.perform(post("/api/page/test-page/validate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(sampleValidationRequest)))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().string("Retry-After", "1"))
+            .andExpect(content().string("Error validating Petri net for page test-page: The server is busy with 4 analyses, retry later"));
+    }
+
+    @Test
+    void validateBatch_ValidRequest_ReturnsResultsAndSummary() throws Exception {
+        // Given: Mock service returns one passed scenario
+        sampleValidationResult.setScenarioId("case-1");
+        BatchValidationResultDTO batchResult = new BatchValidationResultDTO();
+        batchResult.setResults(List.of(sampleValidationResult));
+        batchResult.setScenarioCount(1);
+        batchResult.setPassedCount(1);
+        batchResult.setFailedScenarioIds(List.of());
+        when(validatorService.validateBatch(any(BatchValidationDTO.class))).thenReturn(batchResult);
+
+        BatchValidationDTO request = new BatchValidationDTO();
+        request.setPlaces(samplePetriNet.getPlaces());
+        request.setTransitions(samplePetriNet.getTransitions());
+        request.setArcs(samplePetriNet.getArcs());
+        request.setScenarios(List.of(new ValidationScenarioDTO("case-1",
+            List.of(new PlaceDTO("p1", 2)), List.of(new PlaceDTO("p2", 2)))));
+
+        // When & Then: POST request should return every scenario result with the summary
+        mockMvc.perform(post("/api/page/test-page/validate/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.scenarioCount").value(1))
+            .andExpect(jsonPath("$.passedCount").value(1))
+            .andExpect(jsonPath("$.results[0].scenarioId").value("case-1"))
+            .andExpect(jsonPath("$.results[0].valid").value(true));
+    }
+
     @Test
     void validatePetriNet_InvalidJson_ReturnsBadRequest() throws Exception {
         // When & Then: Invalid JSON should return 400
@@ -373,6 +733,39 @@ class ControllerTest {
             .andExpect(jsonPath("$.reachableStatesCount").value(5));
     }
 
+    @Test
+    void analyzeReachableStates_SymbolicMode_UsesSymbolicAnalysis() throws Exception {
+        // Given: Mock service returns a symbolic result too large for an int count
+        AnalysisResultDTO symbolicResult = new AnalysisResultDTO();
+        symbolicResult.setAnalysisType("Reachable States");
+        symbolicResult.setReachableStatesTotal(new BigInteger("1099511627776"));
+        symbolicResult.setDecisionDiagramNodes(80);
+
+        when(analysisService.analyzeReachableStatesSymbolically(any(PetriNetDTO.class)))
+            .thenReturn(symbolicResult);
+
+        // When & Then: The mode parameter selects the symbolic engine
+        mockMvc.perform(post("/api/analysis/reachable-states")
+                .param("mode", "symbolic")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(samplePetriNet)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.reachableStatesTotal").value(1099511627776L))
+            .andExpect(jsonPath("$.decisionDiagramNodes").value(80));
+    }
+
+    @Test
+    void analyzeReachableStates_UnknownMode_ReturnsBadRequest() throws Exception {
+        // When & Then: An unknown mode is rejected with an error result
+        mockMvc.perform(post("/api/analysis/reachable-states")
+                .param("mode", "quantum")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(samplePetriNet)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.analysisType").value("Reachable States"))
+            .andExpect(jsonPath("$.details").value("Error: Unknown reachability mode: quantum"));
+    }
+
     @Test
     void analyzeReachableStates_ServiceException_ReturnsBadRequest() throws Exception {
         // Given: Service throws exception
@@ -388,6 +781,23 @@ class ControllerTest {
             .andExpect(jsonPath("$.details").value("Error: Analysis failed"));
     }
 
+    @Test
+    void analyzeReachableStates_ExecutorSaturated_ReturnsTooManyRequests() throws Exception {
+        // Given: Every analysis worker is busy and the queue is full
+        when(analysisExecutor.execute(any()))
+            .thenThrow(new RejectedExecutionException("The server is busy with 4 analyses, retry later"));
+
+        // When & Then: Should return 429 with a retry hint, without running the analysis
+        mockMvc.perform(post("/api/analysis/reachable-states")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(samplePetriNet)))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().string("Retry-After", "1"))
+            .andExpect(jsonPath("$.analysisType").value("Reachable States"))
+            .andExpect(jsonPath("$.details").value("Error: The server is busy with 4 analyses, retry later"));
+        verify(analysisService, never()).analyzeReachableStates(any(PetriNetDTO.class));
+    }
+
     @Test
     void analyzeLiveness_ValidNet_ReturnsLivenessAnalysis() throws Exception {
         // Given: Mock service returns liveness analysis
@@ -424,6 +834,81 @@ class ControllerTest {
             .andExpect(jsonPath("$.details").value("Error: Liveness analysis failed"));
     }
 
+    @Test
+    void analyzeDeadlock_ValidNet_ReturnsDeadlockAnalysis() throws Exception {
+        // Given: Mock service returns a deadlock with its firing sequence
+        AnalysisResultDTO deadlockResult = new AnalysisResultDTO();
+        deadlockResult.setAnalysisType("Deadlock Analysis");
+        deadlockResult.setHasDeadlock(true);
+        deadlockResult.setDeadlockTrace(Arrays.asList("t1"));
+        deadlockResult.setDeadlockMarking(Map.of("p1", 0));
+
+        when(analysisService.analyzeDeadlock(any(PetriNetDTO.class)))
+            .thenReturn(deadlockResult);
+
+        // When & Then: Should return the deadlock analysis
+        mockMvc.perform(post("/api/analysis/deadlock")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(samplePetriNet)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.analysisType").value("Deadlock Analysis"))
+            .andExpect(jsonPath("$.hasDeadlock").value(true))
+            .andExpect(jsonPath("$.deadlockTrace[0]").value("t1"))
+            .andExpect(jsonPath("$.deadlockMarking.p1").value(0));
+    }
+
+    @Test
+    void analyzeDeadlock_ServiceException_ReturnsBadRequest() throws Exception {
+        // Given: Service throws exception
+        when(analysisService.analyzeDeadlock(any(PetriNetDTO.class)))
+            .thenThrow(new RuntimeException("Deadlock search failed"));
+
+        // When & Then: Should return 400 with error result
+        mockMvc.perform(post("/api/analysis/deadlock")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(samplePetriNet)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.analysisType").value("Deadlock"))
+            .andExpect(jsonPath("$.details").value("Error: Deadlock search failed"));
+    }
+
+    @Test
+    void analyzeInvariants_ValidNet_ReturnsInvariants() throws Exception {
+        // Given: Mock service returns one conserving P-invariant
+        AnalysisResultDTO invariantResult = new AnalysisResultDTO();
+        invariantResult.setAnalysisType("Invariant Analysis");
+        invariantResult.setPlaceInvariants(List.of(Map.of("p1", 1L)));
+        invariantResult.setTransitionInvariants(List.of());
+        invariantResult.setCoveredByPlaceInvariants(true);
+
+        when(analysisService.analyzeInvariants(any(PetriNetDTO.class)))
+            .thenReturn(invariantResult);
+
+        // When & Then: Should return the invariants
+        mockMvc.perform(post("/api/analysis/invariants")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(samplePetriNet)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.analysisType").value("Invariant Analysis"))
+            .andExpect(jsonPath("$.placeInvariants[0].p1").value(1))
+            .andExpect(jsonPath("$.coveredByPlaceInvariants").value(true));
+    }
+
+    @Test
+    void analyzeInvariants_ServiceException_ReturnsBadRequest() throws Exception {
+        // Given: Service throws exception
+        when(analysisService.analyzeInvariants(any(PetriNetDTO.class)))
+            .thenThrow(new RuntimeException("Invariant computation failed"));
+
+        // When & Then: Should return 400 with error result
+        mockMvc.perform(post("/api/analysis/invariants")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(samplePetriNet)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.analysisType").value("Invariants"))
+            .andExpect(jsonPath("$.details").value("Error: Invariant computation failed"));
+    }
+
     @Test
     void analyzeBoundedness_ValidNet_ReturnsBoundednessAnalysis() throws Exception {
         // Given: Mock service returns boundedness analysis
@@ -479,6 +964,38 @@ class ControllerTest {
             .andExpect(jsonPath("$.incidenceMatrix").exists());
     }
 
+    @Test
+    void computeIncidenceMatrix_SparseFormat_ReturnsCsrArrays() throws Exception {
+        // Given: Mock service returns a sparse incidence matrix
+        AnalysisResultDTO matrixResult = new AnalysisResultDTO();
+        matrixResult.setAnalysisType("Incidence Matrix");
+        matrixResult.setSparseIncidenceMatrix(new SparseMatrixDTO(2, 1, new int[] {0, 1, 2}, new int[] {0, 0}, new int[] {-1, 1}));
+
+        when(analysisService.computeSparseIncidenceMatrix(any(PetriNetDTO.class)))
+            .thenReturn(matrixResult);
+
+        // When & Then: The format parameter selects the sparse form
+        mockMvc.perform(post("/api/analysis/incidence-matrix")
+                .param("format", "sparse")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(samplePetriNet)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.sparseIncidenceMatrix.rowPointers[2]").value(2))
+            .andExpect(jsonPath("$.sparseIncidenceMatrix.values[0]").value(-1))
+            .andExpect(jsonPath("$.incidenceMatrix").doesNotExist());
+    }
+
+    @Test
+    void computeIncidenceMatrix_UnknownFormat_ReturnsBadRequest() throws Exception {
+        // When & Then: An unknown format is rejected with an error result
+        mockMvc.perform(post("/api/analysis/incidence-matrix")
+                .param("format", "xml")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(samplePetriNet)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.details").value("Error: Unknown incidence matrix format: xml"));
+    }
+
     @Test
     void computeIncidenceMatrix_ServiceException_ReturnsBadRequest() throws Exception {
         // Given: Service throws exception
@@ -532,6 +1049,23 @@ class ControllerTest {
             .andExpect(jsonPath("$.details").value("Error: Structural analysis failed"));
     }
 
+    @Test
+    void getCompiledNetCacheStats_ReturnsCounters() throws Exception {
+        // Given: A cache that compiled the sample net once and then found it
+        CompiledNetCache cache = new CompiledNetCache();
+        cache.get(samplePetriNet);
+        cache.get(samplePetriNet);
+        when(analysisService.getCompiledNetCacheStats()).thenReturn(cache.getStats());
+
+        // When & Then: Should return its counters
+        mockMvc.perform(get("/api/analysis/cache"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.hits").value(1))
+            .andExpect(jsonPath("$.misses").value(1))
+            .andExpect(jsonPath("$.hitRate").value(0.5))
+            .andExpect(jsonPath("$.entries").value(1));
+    }
+
     // ==================== ANALYSIS ENDPOINT ERROR TESTS ====================
 
     @Test
@@ -0,0 +1,611 @@
+package org.petrinet;
+
+import org.junit.jupiter.api.Test;
+import org.petrinet.client.ArcDTO;
+import org.petrinet.client.PetriNetDTO;
+import org.petrinet.client.PlaceDTO;
+import org.petrinet.client.TransitionDTO;
+import org.petrinet.service.engine.Deadline;
+import org.petrinet.service.engine.DeterministicRun;
+import org.petrinet.service.engine.FarkasSemiflows;
+import org.petrinet.service.engine.HeapVisitedStore;
+import org.petrinet.service.engine.IncrementalSimulation;
+import org.petrinet.service.engine.MarkingCodec;
+import org.petrinet.service.engine.NetStructure;
+import org.petrinet.service.engine.NetSymmetries;
+import org.petrinet.service.engine.OffHeapVisitedStore;
+import org.petrinet.service.engine.PackedMarking;
+import org.petrinet.service.engine.ReachabilityGraph;
+import org.petrinet.service.engine.SiphonsAndTraps;
+import org.petrinet.service.engine.StronglyConnectedComponents;
+import org.petrinet.service.engine.StubbornSets;
+import org.petrinet.service.engine.VisitedStateStore;
+import org.petrinet.service.model.CompiledNet;
+import org.petrinet.service.model.IncidenceMatrix;
+import org.petrinet.service.model.NetGraph;
+import org.petrinet.util.PetriNetMapper;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the engines that run on compiled nets.
+ */
+class EngineTest {
+
+    /**
+     * A two-place cycle (p1 -> t1 -> p2 -> t2 -> p1) with an independent transition t3
+     * that is inhibited by p2.
+     */
+    private PetriNetDTO cycleWithInhibitor() {
+        return new PetriNetDTO(
+                List.of(new PlaceDTO("p1", 1), new PlaceDTO("p2", 0), new PlaceDTO("p3", 1)),
+                List.of(new TransitionDTO("t1", false, List.of("a1", "a2")),
+                        new TransitionDTO("t2", false, List.of("a3", "a4")),
+                        new TransitionDTO("t3", false, List.of("a5", "a6"))),
+                List.of(new ArcDTO("a1", "REGULAR", "p1", "t1"),
+                        new ArcDTO("a2", "REGULAR", "t1", "p2"),
+                        new ArcDTO("a3", "REGULAR", "p2", "t2"),
+                        new ArcDTO("a4", "REGULAR", "t2", "p1"),
+                        new ArcDTO("a5", "INHIBITOR", "p2", "t3"),
+                        new ArcDTO("a6", "BIDIRECTIONAL", "p3", "t3"))
+        );
+    }
+
+    /**
+     * Identical two-place cycles (a_i -> f_i -> b_i -> g_i -> a_i), each holding one token in a_i.
+     */
+    private PetriNetDTO identicalCycles(int copies) {
+        List<PlaceDTO> places = new ArrayList<>();
+        List<TransitionDTO> transitions = new ArrayList<>();
+        List<ArcDTO> arcs = new ArrayList<>();
+        for (int i = 0; i < copies; i++) {
+            places.add(new PlaceDTO("a" + i, 1));
+            places.add(new PlaceDTO("b" + i, 0));
+            transitions.add(new TransitionDTO("f" + i, false, List.of("fa" + i, "fb" + i)));
+            transitions.add(new TransitionDTO("g" + i, false, List.of("gb" + i, "ga" + i)));
+            arcs.add(new ArcDTO("fa" + i, "REGULAR", "a" + i, "f" + i));
+            arcs.add(new ArcDTO("fb" + i, "REGULAR", "f" + i, "b" + i));
+            arcs.add(new ArcDTO("gb" + i, "REGULAR", "b" + i, "g" + i));
+            arcs.add(new ArcDTO("ga" + i, "REGULAR", "g" + i, "a" + i));
+        }
+        return new PetriNetDTO(places, transitions, arcs);
+    }
+
+    @Test
+    void compiledNet_DependentTransitions_IncludeInputAndInhibitorReaders() {
+        CompiledNet net = PetriNetMapper.dtoToCompiledNet(cycleWithInhibitor());
+
+        int p2 = net.getPlaceIndex("p2");
+        assertArrayEquals(new int[] {net.getTransitionIndex("t2"), net.getTransitionIndex("t3")},
+                net.getDependentTransitions(p2), "p2 is read by t2 (input) and t3 (inhibitor)");
+        assertArrayEquals(new int[] {net.getPlaceIndex("p1"), p2},
+                net.getAffectedPlaces(net.getTransitionIndex("t1")));
+    }
+
+    @Test
+    void compiledNet_NullArcId_IsSkipped() {
+        PetriNetDTO dto = new PetriNetDTO(
+                List.of(new PlaceDTO("p1", 1), new PlaceDTO("p2", 0)),
+                List.of(new TransitionDTO("t1", false, Arrays.asList("a1", null, "a2"))),
+                List.of(new ArcDTO("a1", "REGULAR", "p1", "t1"),
+                        new ArcDTO("a2", "REGULAR", "t1", "p2")));
+
+        CompiledNet net = PetriNetMapper.dtoToCompiledNet(dto);
+
+        int t1 = net.getTransitionIndex("t1");
+        assertEquals(List.of("a1", "a2"), net.getTransitionArcIds(t1));
+        assertTrue(net.isEnabled(t1, new int[] {1, 0}));
+    }
+
+    @Test
+    void incrementalSimulation_Fire_UpdatesOnlyAffectedTransitions() {
+        CompiledNet net = PetriNetMapper.dtoToCompiledNet(cycleWithInhibitor());
+        int[] marking = PetriNetMapper.dtoToMarking(net, cycleWithInhibitor().getPlaces());
+        IncrementalSimulation simulation = new IncrementalSimulation(net, marking);
+
+        int t1 = net.getTransitionIndex("t1");
+        int t2 = net.getTransitionIndex("t2");
+        int t3 = net.getTransitionIndex("t3");
+        assertArrayEquals(new int[] {t1, t3}, simulation.getEnabledTransitions());
+
+        // Moving the token into p2 enables t2 and inhibits t3
+        simulation.fire(t1);
+        assertArrayEquals(new int[] {t2}, simulation.getEnabledTransitions());
+        assertEquals(1, simulation.getEnabledCount());
+
+        // And back again
+        simulation.fire(t2);
+        assertArrayEquals(new int[] {t1, t3}, simulation.getEnabledTransitions());
+        assertArrayEquals(new int[] {1, 0, 1}, simulation.getMarking());
+    }
+
+    @Test
+    void incrementalSimulation_MatchesFullEvaluationAfterEveryStep() {
+        PetriNetDTO dto = cycleWithInhibitor();
+        CompiledNet net = PetriNetMapper.dtoToCompiledNet(dto);
+        IncrementalSimulation simulation = new IncrementalSimulation(net, PetriNetMapper.dtoToMarking(net, dto.getPlaces()));
+
+        for (int step = 0; step < 10; step++) {
+            for (int t = 0; t < net.getTransitionCount(); t++) {
+                assertEquals(net.isEnabled(t, simulation.getMarking()), simulation.isEnabled(t),
+                        "Step " + step + ", transition " + net.getTransitionId(t));
+            }
+            simulation.fire(simulation.getEnabledTransition(0));
+        }
+    }
+
+    @Test
+    void deterministicRun_CycleWithInhibitor_StopsAtConflictRepeatOrLimit() {
+        CompiledNet net = PetriNetMapper.dtoToCompiledNet(cycleWithInhibitor());
+        int t1 = net.getTransitionIndex("t1");
+        int t2 = net.getTransitionIndex("t2");
+        int t3 = net.getTransitionIndex("t3");
+
+        // With p3 marked, t1 and t3 are both enabled from the start
+        DeterministicRun.Result conflict = new DeterministicRun(net, 1000, Deadline.after(10_000)).run(new int[] {1, 0, 1});
+        assertEquals(DeterministicRun.Outcome.CONFLICT, conflict.getOutcome());
+        assertEquals(0, conflict.getSteps());
+        assertEquals(-1, conflict.getLastFiredTransition());
+        assertArrayEquals(new int[] {t1, t3}, conflict.getEnabledTransitions());
+
+        // Without it, the token goes round the cycle and the initial marking comes back after two firings
+        int[] marking = {1, 0, 0};
+        DeterministicRun.Result repeat = new DeterministicRun(net, 1000, Deadline.after(10_000)).run(marking);
+        assertEquals(DeterministicRun.Outcome.REPEATED_STATE, repeat.getOutcome());
+        assertEquals(2, repeat.getSteps());
+        assertEquals(t2, repeat.getLastFiredTransition());
+        assertArrayEquals(new int[] {1, 0, 0}, marking);
+
+        // A limit of one firing is hit before the repetition
+        marking = new int[] {1, 0, 0};
+        DeterministicRun.Result limit = new DeterministicRun(net, 1, Deadline.after(10_000)).run(marking);
+        assertEquals(DeterministicRun.Outcome.STEP_LIMIT, limit.getOutcome());
+        assertEquals(t1, limit.getLastFiredTransition());
+        assertArrayEquals(new int[] {0, 1, 0}, marking);
+    }
+
+    @Test
+    void deadline_Cancelled_StopsEnginesAsIfTimeRanOut() {
+        // A producer that fires forever without repeating a marking
+        PetriNetDTO dto = new PetriNetDTO(
+                List.of(new PlaceDTO("p1", 1), new PlaceDTO("p2", 0)),
+                List.of(new TransitionDTO("t1", false, List.of("a1", "a2", "a3"))),
+                List.of(new ArcDTO("a1", "REGULAR", "p1", "t1"),
+                        new ArcDTO("a2", "REGULAR", "t1", "p1"),
+                        new ArcDTO("a3", "REGULAR", "t1", "p2"))
+        );
+        CompiledNet net = PetriNetMapper.dtoToCompiledNet(dto);
+        Deadline deadline = Deadline.after(60_000);
+        assertFalse(deadline.isExpired());
+
+        deadline.cancel();
+        assertTrue(deadline.isExpired());
+        assertTrue(deadline.isCancelled());
+
+        // The run only polls the deadline every so many steps, so it stops well before its step limit
+        DeterministicRun.Result run = new DeterministicRun(net, 1_000_000, deadline).run(new int[] {1, 0});
+        assertEquals(DeterministicRun.Outcome.TIME_LIMIT, run.getOutcome());
+        assertTrue(run.getSteps() < 1_000_000);
+
+        ReachabilityGraph graph = ReachabilityGraph.build(net, new int[] {1, 0}, 1000, deadline);
+        assertTrue(graph.isTimeLimitReached());
+        assertFalse(graph.isComplete());
+    }
+
+    @Test
+    void deadline_Within_ExpiresFirstAndFollowsItsParent() throws InterruptedException {
+        Deadline request = Deadline.after(60_000);
+
+        // A shorter share runs out on its own, leaving the request running
+        Deadline share = request.within(1);
+        Thread.sleep(5);
+        assertTrue(share.isExpired());
+        assertFalse(share.isCancelled());
+        assertFalse(request.isExpired());
+
+        // Cancelling a share leaves the request running, but cancelling the request stops every share
+        Deadline other = request.within(60_000);
+        other.cancel();
+        assertFalse(request.isExpired());
+        Deadline last = request.within(60_000);
+        assertFalse(last.isExpired());
+        request.cancel();
+        assertTrue(last.isExpired());
+        assertTrue(last.isCancelled());
+    }
+
+    @Test
+    void deadline_Unlimited_OnlyExpiresWhenCancelled() {
+        Deadline cancellation = Deadline.unlimited();
+        Deadline request = cancellation.within(60_000);
+        assertFalse(cancellation.isExpired());
+        assertFalse(request.isExpired());
+
+        cancellation.cancel();
+        assertTrue(cancellation.isExpired());
+        assertTrue(request.isCancelled());
+    }
+
+    @Test
+    void markingCodec_RoundTrip_PreservesBoundedAndUnboundedPlaces() {
+        PetriNetDTO dto = new PetriNetDTO(
+                List.of(new PlaceDTO("p1", 1, true, 1), new PlaceDTO("p2", 3, true, 5), new PlaceDTO("p3", 0)),
+                List.of(), List.of());
+        CompiledNet net = PetriNetMapper.dtoToCompiledNet(dto);
+        MarkingCodec codec = MarkingCodec.forNet(net, PetriNetMapper.dtoToMarking(net, dto.getPlaces()));
+
+        int[] marking = {1, 5, 1_000_000};
+        PackedMarking packed = codec.encode(marking);
+
+        assertArrayEquals(marking, codec.decode(packed));
+        assertEquals(1, packed.wordCount(), "Two small bounded places and a 3-byte varint fit into one word");
+    }
+
+    @Test
+    void markingCodec_EqualMarkings_PackToEqualKeys() {
+        PetriNetDTO dto = cycleWithInhibitor();
+        CompiledNet net = PetriNetMapper.dtoToCompiledNet(dto);
+        MarkingCodec codec = MarkingCodec.forNet(net, PetriNetMapper.dtoToMarking(net, dto.getPlaces()));
+
+        PackedMarking first = codec.encode(new int[] {0, 1, 1});
+        PackedMarking second = codec.encode(new int[] {0, 1, 1});
+        PackedMarking other = codec.encode(new int[] {1, 0, 1});
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertEquals(first.hash64(), second.hash64());
+        assertNotEquals(first, other);
+    }
+
+    @Test
+    void offHeapVisitedStore_AddAndContains_MatchesSetSemantics() {
+        PetriNetDTO dto = cycleWithInhibitor();
+        CompiledNet net = PetriNetMapper.dtoToCompiledNet(dto);
+        MarkingCodec codec = MarkingCodec.forNet(net, PetriNetMapper.dtoToMarking(net, dto.getPlaces()));
+        OffHeapVisitedStore store = new OffHeapVisitedStore(64L * 1024 * 1024);
+
+        // Enough markings to grow the tables and arenas of every stripe several times
+        for (int i = 0; i < 50_000; i++) {
+            assertEquals(VisitedStateStore.Insertion.ADDED, store.add(codec.encode(new int[] {i, i % 7, 1})));
+        }
+        for (int i = 0; i < 50_000; i++) {
+            PackedMarking marking = codec.encode(new int[] {i, i % 7, 1});
+            assertTrue(store.contains(marking));
+            assertEquals(VisitedStateStore.Insertion.PRESENT, store.add(marking));
+        }
+        assertFalse(store.contains(codec.encode(new int[] {0, 1, 1})));
+        assertEquals(50_000, store.size());
+        assertTrue(store.getReservedBytes() <= store.getMemoryBudgetBytes());
+    }
+
+    @Test
+    void offHeapVisitedStore_BudgetExhausted_RefusesNewMarkings() {
+        PetriNetDTO dto = cycleWithInhibitor();
+        CompiledNet net = PetriNetMapper.dtoToCompiledNet(dto);
+        MarkingCodec codec = MarkingCodec.forNet(net, PetriNetMapper.dtoToMarking(net, dto.getPlaces()));
+        OffHeapVisitedStore store = new OffHeapVisitedStore(32 * 1024);
+
+        int added = 0;
+        VisitedStateStore.Insertion insertion;
+        while ((insertion = store.add(codec.encode(new int[] {added, 0, 0}))) == VisitedStateStore.Insertion.ADDED) {
+            added++;
+        }
+
+        assertEquals(VisitedStateStore.Insertion.FULL, insertion);
+        assertEquals(added, store.size());
+        assertTrue(store.getReservedBytes() <= 32 * 1024);
+        // Markings already stored can still be looked up
+        assertTrue(store.contains(codec.encode(new int[] {0, 0, 0})));
+    }
+
+    @Test
+    void heapVisitedStore_BudgetExhausted_RefusesNewMarkings() {
+        PetriNetDTO dto = cycleWithInhibitor();
+        CompiledNet net = PetriNetMapper.dtoToCompiledNet(dto);
+        MarkingCodec codec = MarkingCodec.forNet(net, PetriNetMapper.dtoToMarking(net, dto.getPlaces()));
+        HeapVisitedStore store = new HeapVisitedStore(4 * 1024);
+
+        int added = 0;
+        VisitedStateStore.Insertion insertion;
+        while ((insertion = store.add(codec.encode(new int[] {added, 0, 0}))) == VisitedStateStore.Insertion.ADDED) {
+            added++;
+        }
+
+        assertEquals(VisitedStateStore.Insertion.FULL, insertion);
+        assertTrue(added > 0);
+        assertEquals(added, store.size());
+        assertTrue(store.getReservedBytes() <= 4 * 1024);
+        // A marking already stored is still reported as present rather than as a full store
+        assertEquals(VisitedStateStore.Insertion.PRESENT, store.add(codec.encode(new int[] {0, 0, 0})));
+    }
+
+    @Test
+    void reachabilityGraph_MemoryBudgetExhausted_IsIncomplete() {
+        // A producer that fires forever without repeating a marking, so only the budgets can stop the graph
+        PetriNetDTO dto = new PetriNetDTO(
+                List.of(new PlaceDTO("p1", 1), new PlaceDTO("p2", 0)),
+                List.of(new TransitionDTO("t1", false, List.of("a1", "a2", "a3"))),
+                List.of(new ArcDTO("a1", "REGULAR", "p1", "t1"),
+                        new ArcDTO("a2", "REGULAR", "t1", "p1"),
+                        new ArcDTO("a3", "REGULAR", "t1", "p2"))
+        );
+        CompiledNet net = PetriNetMapper.dtoToCompiledNet(dto);
+
+        ReachabilityGraph graph = ReachabilityGraph.build(net, new int[] {1, 0}, 1_000_000, 16 * 1024,
+                Deadline.after(10_000));
+
+        assertTrue(graph.isMemoryLimitReached());
+        assertFalse(graph.isStateLimitReached());
+        assertFalse(graph.isComplete());
+        assertTrue(graph.getStateCount() > 0);
+    }
+
+    @Test
+    void reachabilityGraph_CycleWithInhibitor_StoresEdgesInCsrOrder() {
+        PetriNetDTO dto = cycleWithInhibitor();
+        CompiledNet net = PetriNetMapper.dtoToCompiledNet(dto);
+        ReachabilityGraph graph = ReachabilityGraph.build(net, PetriNetMapper.dtoToMarking(net, dto.getPlaces()), 100, Deadline.after(1000));
+
+        // State 0 fires t1 to state 1 and t3 back to itself; state 1 fires t2 back to state 0
+        assertEquals(2, graph.getStateCount());
+        assertEquals(3, graph.getEdgeCount());
+        assertEquals(0, graph.getEdgeStart(0));
+        assertEquals(2, graph.getEdgeStart(1));
+        assertEquals(3, graph.getEdgeStart(2));
+        assertEquals(1, graph.getTarget(0));
+        assertEquals(net.getTransitionIndex("t3"), graph.getLabel(1));
+        assertEquals(0, graph.getTarget(2));
+        assertTrue(graph.isComplete());
+
+        StronglyConnectedComponents components = new StronglyConnectedComponents(graph);
+        assertEquals(1, components.getCount());
+        assertTrue(components.isTerminal(0));
+        assertEquals(2, components.getSize(0));
+    }
+
+    @Test
+    void stubbornSets_IndependentAndInhibitedTransitions_SelectOnlyWhatInterferes() {
+        // tA and tB consume from separate places; tC is inhibited by the place tA fills
+        PetriNetDTO dto = new PetriNetDTO(
+                List.of(new PlaceDTO("a", 1), new PlaceDTO("b", 1), new PlaceDTO("c", 1), new PlaceDTO("x", 0)),
+                List.of(new TransitionDTO("tA", false, List.of("a1", "a2")),
+                        new TransitionDTO("tB", false, List.of("a3")),
+                        new TransitionDTO("tC", false, List.of("a4", "a5"))),
+                List.of(new ArcDTO("a1", "REGULAR", "a", "tA"),
+                        new ArcDTO("a2", "REGULAR", "tA", "x"),
+                        new ArcDTO("a3", "REGULAR", "b", "tB"),
+                        new ArcDTO("a4", "REGULAR", "c", "tC"),
+                        new ArcDTO("a5", "INHIBITOR", "x", "tC"))
+        );
+        CompiledNet net = PetriNetMapper.dtoToCompiledNet(dto);
+        StubbornSets.Selector selector = new StubbornSets(net).newSelector();
+        int[] fireable = new int[net.getTransitionCount()];
+
+        // tB interferes with nothing, so it is fired alone
+        assertEquals(1, selector.select(new int[] {1, 1, 1, 0}, fireable));
+        assertEquals(net.getTransitionIndex("tB"), fireable[0]);
+
+        // Without tB, tA and tC must both be fired: tA disables tC through the inhibitor arc
+        assertEquals(2, selector.select(new int[] {1, 0, 1, 0}, fireable));
+        assertEquals(net.getTransitionIndex("tA"), fireable[0]);
+        assertEquals(net.getTransitionIndex("tC"), fireable[1]);
+
+        // A dead marking selects nothing
+        assertEquals(0, selector.select(new int[] {0, 0, 1, 1}, fireable));
+    }
+
+    @Test
+    void netSymmetries_TwoIdenticalCycles_RotateAndSwapComponents() {
+        // Two copies of the inhibited cycle, with the places listed in a different order per copy
+        PetriNetDTO dto = new PetriNetDTO(
+                List.of(new PlaceDTO("a1", 1), new PlaceDTO("a2", 0), new PlaceDTO("b2", 0), new PlaceDTO("b1", 1)),
+                List.of(new TransitionDTO("ta", false, List.of("x1", "x2")),
+                        new TransitionDTO("tb", false, List.of("y1", "y2")),
+                        new TransitionDTO("ua", false, List.of("x3", "x4")),
+                        new TransitionDTO("ub", false, List.of("y3", "y4"))),
+                List.of(new ArcDTO("x1", "REGULAR", "a1", "ta"), new ArcDTO("x2", "REGULAR", "ta", "a2"),
+                        new ArcDTO("x3", "REGULAR", "a2", "ua"), new ArcDTO("x4", "REGULAR", "ua", "a1"),
+                        new ArcDTO("y1", "REGULAR", "b1", "tb"), new ArcDTO("y2", "REGULAR", "tb", "b2"),
+                        new ArcDTO("y3", "REGULAR", "b2", "ub"), new ArcDTO("y4", "REGULAR", "ub", "b1"))
+        );
+        CompiledNet net = PetriNetMapper.dtoToCompiledNet(dto);
+        NetSymmetries symmetries = NetSymmetries.of(net);
+
+        // Each cycle can be rotated onto itself, and the two cycles can be swapped
+        assertEquals(8, symmetries.getGroupSize().intValue());
+        assertTrue(symmetries.isComplete());
+
+        // Markings (a1, a2, b2, b1) that differ only by which copy moved are canonicalized alike
+        int[] firstMoved = {0, 1, 0, 1};
+        int[] secondMoved = {1, 0, 1, 0};
+        symmetries.canonicalize(firstMoved);
+        symmetries.canonicalize(secondMoved);
+        assertArrayEquals(firstMoved, secondMoved);
+
+        // A net whose places have different capacities has no symmetry
+        PetriNetDTO asymmetric = new PetriNetDTO(
+                List.of(new PlaceDTO("a1", 1, true, 1), new PlaceDTO("b1", 1, false, null)),
+                List.of(), List.of());
+        assertTrue(NetSymmetries.of(PetriNetMapper.dtoToCompiledNet(asymmetric)).isTrivial());
+    }
+
+    @Test
+    void netSymmetries_ManyIdenticalCycles_FindWholeGroup() {
+        CompiledNet net = PetriNetMapper.dtoToCompiledNet(identicalCycles(100));
+        NetSymmetries symmetries = NetSymmetries.of(net, Deadline.after(10_000));
+
+        // Every cycle can be rotated and the cycles permuted: 2^100 * 100! automorphisms
+        BigInteger expected = BigInteger.ONE;
+        for (int i = 1; i <= 100; i++) {
+            expected = expected.multiply(BigInteger.valueOf(2L * i));
+        }
+        assertEquals(expected, symmetries.getGroupSize());
+        assertTrue(symmetries.isComplete());
+        assertFalse(symmetries.isTimeLimitReached());
+
+        // Moving the token of the first cycle or of the last one gives the same representative
+        int[] firstMoved = new int[net.getPlaceCount()];
+        int[] lastMoved = new int[net.getPlaceCount()];
+        for (int i = 0; i < 100; i++) {
+            firstMoved[net.getPlaceIndex("a" + i)] = 1;
+            lastMoved[net.getPlaceIndex("a" + i)] = 1;
+        }
+        firstMoved[net.getPlaceIndex("a0")] = 0;
+        firstMoved[net.getPlaceIndex("b0")] = 1;
+        lastMoved[net.getPlaceIndex("a99")] = 0;
+        lastMoved[net.getPlaceIndex("b99")] = 1;
+        symmetries.canonicalize(firstMoved);
+        symmetries.canonicalize(lastMoved);
+        assertArrayEquals(firstMoved, lastMoved);
+    }
+
+    @Test
+    void netSymmetries_DeadlineExpires_ReturnsPartialGroup() {
+        CompiledNet net = PetriNetMapper.dtoToCompiledNet(identicalCycles(1000));
+
+        // A search far longer than its deadline stops there, with the deepest levels of the chain
+        long started = System.nanoTime();
+        NetSymmetries symmetries = NetSymmetries.of(net, Deadline.after(200));
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        assertTrue(elapsedMillis < 2_000, "search took " + elapsedMillis + " ms");
+        assertTrue(symmetries.isTimeLimitReached());
+        assertFalse(symmetries.isComplete());
+        assertTrue(symmetries.getGroupSize().compareTo(BigInteger.ONE) > 0);
+
+        // A cancelled deadline stops the search before the first automorphism
+        Deadline cancelled = Deadline.unlimited();
+        cancelled.cancel();
+        NetSymmetries none = NetSymmetries.of(net, cancelled);
+        assertTrue(none.isTrivial());
+        assertFalse(none.isComplete());
+    }
+
+    @Test
+    void farkasSemiflows_WeightedMatrix_FindsMinimalSemiflows() {
+        // Rows are places, columns transitions: t0 moves one token from p0 and two to p1, t1 moves them back
+        IncidenceMatrix incidence = new IncidenceMatrix(3, 2,
+                new int[] {0, 0, 1, 1}, new int[] {0, 1, 0, 1}, new int[] {-1, 1, 2, -2}, 4);
+        FarkasSemiflows farkas = new FarkasSemiflows(1000, Deadline.after(10_000));
+
+        // 2 * p0 + p1 is conserved, and the untouched p2 is a semiflow on its own
+        FarkasSemiflows.Result places = farkas.computePlaceSemiflows(incidence);
+        assertTrue(places.isComplete());
+        assertEquals(2, places.getSemiflows().size());
+        assertArrayEquals(new int[] {0, 1}, places.getSemiflows().get(0).getIndices());
+        assertArrayEquals(new long[] {2, 1}, places.getSemiflows().get(0).getWeights());
+        assertArrayEquals(new int[] {2}, places.getSemiflows().get(1).getIndices());
+        assertTrue(places.isFullyCovered());
+
+        // Firing t0 and t1 once each restores the marking
+        FarkasSemiflows.Result transitions = farkas.computeTransitionSemiflows(incidence);
+        assertEquals(1, transitions.getSemiflows().size());
+        assertEquals(1, transitions.getSemiflows().get(0).getWeight(0));
+        assertEquals(1, transitions.getSemiflows().get(0).getWeight(1));
+
+        // A row budget too small for the combinations stops the computation
+        IncidenceMatrix crossing = new IncidenceMatrix(6, 2, new int[] {0, 1, 2, 2, 3, 3, 4, 5},
+                new int[] {0, 0, 0, 1, 0, 1, 1, 1}, new int[] {-1, -1, 1, -1, 1, -1, 1, 1}, 8);
+        FarkasSemiflows.Result limited = new FarkasSemiflows(5, Deadline.after(10_000)).computePlaceSemiflows(crossing);
+        assertTrue(limited.isRowLimitReached());
+        assertTrue(limited.getSemiflows().isEmpty());
+    }
+
+    @Test
+    void incidenceMatrix_UnorderedContributions_SumsIntoRowsAndColumns() {
+        // Contributions in arbitrary order, with a self-loop on p1/t0 that cancels out
+        IncidenceMatrix matrix = new IncidenceMatrix(3, 3,
+                new int[] {2, 0, 1, 0, 1, 2},
+                new int[] {0, 2, 0, 0, 0, 2},
+                new int[] {1, 1, -1, -1, 1, -1}, 6);
+
+        // Rows are sorted by transition and the cancelled entry is dropped
+        assertEquals(4, matrix.getEntryCount());
+        assertArrayEquals(new int[] {0, 2, 2, 4}, matrix.getRowStarts());
+        assertArrayEquals(new int[] {0, 2, 0, 2}, matrix.getRowTransitions());
+        assertArrayEquals(new int[] {-1, 1, 1, -1}, matrix.getRowValues());
+
+        // Columns hold the same entries sorted by place, and t1 has none
+        assertEquals(0, matrix.getColumnStart(0));
+        assertEquals(2, matrix.getColumnStart(1));
+        assertEquals(2, matrix.getColumnStart(2));
+        assertEquals(0, matrix.getColumnPlace(2));
+        assertEquals(2, matrix.getColumnPlace(3));
+        assertEquals(-1, matrix.getColumnValue(3));
+        assertEquals(0, matrix.get(1, 0));
+        assertEquals(-1, matrix.get(2, 2));
+        assertArrayEquals(new int[][] {{-1, 0, 1}, {0, 0, 0}, {1, 0, -1}}, matrix.toDense());
+    }
+
+    @Test
+    void siphonsAndTraps_CycleWithInhibitor_FindsSiphonsButNoVerdict() {
+        CompiledNet net = PetriNetMapper.dtoToCompiledNet(cycleWithInhibitor());
+        int[] marking = PetriNetMapper.dtoToMarking(net, cycleWithInhibitor().getPlaces());
+
+        SiphonsAndTraps.Result result = new SiphonsAndTraps(net, 100, Deadline.after(10_000)).analyze(marking);
+
+        // The cycle and the self-loop of t3 are the minimal siphons, and each is a marked trap
+        assertTrue(result.isComplete());
+        assertEquals(2, result.getMinimalSiphons().size());
+        assertArrayEquals(new int[] {net.getPlaceIndex("p1"), net.getPlaceIndex("p2")}, result.getMinimalSiphons().get(0));
+        assertArrayEquals(new int[] {net.getPlaceIndex("p3")}, result.getMinimalSiphons().get(1));
+        assertArrayEquals(result.getMinimalSiphons().get(0), result.getMaximalTraps().get(0));
+        assertTrue(result.isCommonerConditionSatisfied());
+        assertTrue(new NetStructure(PetriNetMapper.dtoToNetGraph(cycleWithInhibitor())).isExtendedFreeChoice());
+
+        // The inhibitor arc makes the net non-ordinary, so the condition proves nothing
+        assertFalse(result.isOrdinary());
+
+        // Without its token, the self-loop of t3 contains no marked trap
+        marking[net.getPlaceIndex("p3")] = 0;
+        assertTrue(new SiphonsAndTraps(net, 100, Deadline.after(10_000)).analyze(marking).isCommonerConditionViolated());
+    }
+
+    @Test
+    void netStructure_ChoiceWithSourceAndSink_ClassifiesInOnePass() {
+        // t0 and t1 both consume from p0 and p1, t0 through a repeated arc; t2 feeds p0; p2 and t3 are isolated
+        PetriNetDTO dto = new PetriNetDTO(
+                List.of(new PlaceDTO("p0", 0), new PlaceDTO("p1", 1), new PlaceDTO("p2", 0)),
+                List.of(new TransitionDTO("t0", false, List.of("a1", "a2", "a3", "a4")),
+                        new TransitionDTO("t1", false, List.of("a5", "a6")),
+                        new TransitionDTO("t2", false, List.of("a7")),
+                        new TransitionDTO("t3", false, List.of())),
+                List.of(new ArcDTO("a1", "REGULAR", "p0", "t0"),
+                        new ArcDTO("a2", "REGULAR", "p0", "t0"),
+                        new ArcDTO("a3", "REGULAR", "p1", "t0"),
+                        new ArcDTO("a4", "REGULAR", "t0", "p1"),
+                        new ArcDTO("a5", "REGULAR", "p0", "t1"),
+                        new ArcDTO("a6", "REGULAR", "p1", "t1"),
+                        new ArcDTO("a7", "REGULAR", "t2", "p0"))
+        );
+
+        NetGraph graph = PetriNetMapper.dtoToNetGraph(dto);
+        NetStructure structure = new NetStructure(graph);
+
+        // The repeated arc is a single edge, and transitions follow the places in the node index
+        assertEquals(6, graph.getEdgeCount());
+        assertEquals(2, graph.getInDegree(graph.transitionNode(0)));
+        assertFalse(graph.isPlace(graph.transitionNode(0)));
+
+        assertEquals(1, structure.getIsolatedPlaces());
+        assertEquals(1, structure.getIsolatedTransitions());
+        assertArrayEquals(new int[] {2, 3}, structure.getSourceTransitions());
+        assertArrayEquals(new int[] {1, 3}, structure.getSinkTransitions());
+        assertEquals(2, structure.getMaxInDegree());
+        assertEquals(2, structure.getMaxOutDegree());
+
+        // Only p1 and t0 form a cycle; every other node is a component of its own
+        assertEquals(6, structure.getComponentCount());
+        assertFalse(structure.isStronglyConnected());
+
+        // The cluster {p0, p1, t0, t1} is complete but has two places and two transitions
+        assertTrue(structure.isExtendedFreeChoice());
+        assertFalse(structure.isFreeChoice());
+        assertFalse(structure.isStateMachine());
+        assertFalse(structure.isMarkedGraph());
+    }
+}
@@ -4,11 +4,22 @@ import org.junit.jupiter.api.Test;
 import org.petrinet.client.ArcDTO;
 import org.petrinet.client.PetriNetDTO;
 import org.petrinet.client.PlaceDTO;
+import org.petrinet.client.SimulationBatchDTO;
+import org.petrinet.client.SimulationDeltaDTO;
+import org.petrinet.client.SimulationRunResultDTO;
 import org.petrinet.client.TransitionDTO;
+import org.petrinet.config.AnalysisProperties;
+import org.petrinet.service.CompiledNetCache;
 import org.petrinet.service.PetriNetService;
+import org.petrinet.service.SimulationRun;
+import org.petrinet.service.SimulationSessionService;
+import org.petrinet.service.engine.Deadline;
+import org.petrinet.service.engine.NetSymmetries;
 import org.petrinet.service.model.Arc;
+import org.petrinet.service.model.CompiledNet;
 import org.petrinet.service.model.Place;
 import org.petrinet.service.model.Transition;
+import org.petrinet.util.PetriNetMapper;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -1057,4 +1068,544 @@ public class ServiceTest {
         assertEquals(2, place1.get().getTokens(), "Place1 should have 2 tokens remaining (3-1)");
         assertEquals(1, place3.get().getTokens(), "Place3 should have 1 token (0+1)");
     }
+
+    /**
+     Compiled net Unit Tests
+     _____________________________________________
+     **/
+    @Test
+    void evaluateTransition_CompiledNet_MatchesMapBasedEvaluation() {
+        // Given: A net mixing regular, inhibitor and bidirectional arcs plus a bounded output place
+        PetriNetDTO petriNetDTO = new PetriNetDTO(
+                List.of(new PlaceDTO("place1", 2),
+                        new PlaceDTO("place2", 0),
+                        new PlaceDTO("place3", 1, true, 1),
+                        new PlaceDTO("place4", 1)),
+                List.of(new TransitionDTO("trans1", false, List.of("arc1", "arc2")),
+                        new TransitionDTO("trans2", false, List.of("arc3", "arc4")),
+                        new TransitionDTO("trans3", false, List.of("arc5", "arc6"))),
+                List.of(new ArcDTO("arc1", "REGULAR", "place1", "trans1"),
+                        new ArcDTO("arc2", "REGULAR", "trans1", "place2"),
+                        new ArcDTO("arc3", "INHIBITOR", "place4", "trans2"),
+                        new ArcDTO("arc4", "REGULAR", "trans2", "place2"),
+                        new ArcDTO("arc5", "BIDIRECTIONAL", "place4", "trans3"),
+                        new ArcDTO("arc6", "REGULAR", "trans3", "place3"))
+        );
+
+        PetriNetService service = new PetriNetService();
+        Map<String, Place> placesMap = PetriNetMapper.mapPlacesToMap(petriNetDTO.getPlaces());
+        Map<String, Arc> arcsMap = PetriNetMapper.mapArcsToMap(petriNetDTO.getArcs());
+        List<Transition> transitions = PetriNetMapper.dtoToTransitionList(petriNetDTO.getTransitions());
+        CompiledNet net = PetriNetMapper.dtoToCompiledNet(petriNetDTO);
+        int[] marking = PetriNetMapper.dtoToMarking(net, petriNetDTO.getPlaces());
+
+        // When & Then: Every transition evaluates the same way in both representations
+        for (Transition transition : transitions) {
+            int index = net.getTransitionIndex(transition.getId());
+            assertEquals(service.evaluateTransition(transition, arcsMap, placesMap),
+                    service.evaluateTransition(net, index, marking),
+                    "Compiled evaluation should match map-based evaluation for " + transition.getId());
+        }
+        assertTrue(service.evaluateTransition(net, net.getTransitionIndex("trans1"), marking));
+        assertFalse(service.evaluateTransition(net, net.getTransitionIndex("trans2"), marking),
+                "Inhibitor place holds a token");
+        assertFalse(service.evaluateTransition(net, net.getTransitionIndex("trans3"), marking),
+                "Bounded output place is already at capacity");
+    }
+
+    @Test
+    void updateTokensForFiringTransition_CompiledNet_UpdatesMarkingInPlace() {
+        // Given: place1 -> trans1 -> place2, with a bidirectional self-loop on place3
+        PetriNetDTO petriNetDTO = new PetriNetDTO(
+                List.of(new PlaceDTO("place1", 3),
+                        new PlaceDTO("place2", 0),
+                        new PlaceDTO("place3", 1)),
+                List.of(new TransitionDTO("trans1", false, List.of("arc1", "arc2", "arc3"))),
+                List.of(new ArcDTO("arc1", "REGULAR", "place1", "trans1"),
+                        new ArcDTO("arc2", "REGULAR", "trans1", "place2"),
+                        new ArcDTO("arc3", "BIDIRECTIONAL", "place3", "trans1"))
+        );
+
+        PetriNetService service = new PetriNetService();
+        CompiledNet net = PetriNetMapper.dtoToCompiledNet(petriNetDTO);
+        int[] marking = PetriNetMapper.dtoToMarking(net, petriNetDTO.getPlaces());
+
+        // When
+        service.updateTokensForFiringTransition(net, 0, marking);
+
+        // Then
+        assertEquals(2, marking[net.getPlaceIndex("place1")], "Input place should lose one token");
+        assertEquals(1, marking[net.getPlaceIndex("place2")], "Output place should gain one token");
+        assertEquals(1, marking[net.getPlaceIndex("place3")], "Bidirectional place should keep its token");
+    }
+
+    @Test
+    void dtoToCompiledNet_DuplicatePlaceIds_ThrowsException() {
+        PetriNetDTO petriNetDTO = new PetriNetDTO(
+                List.of(new PlaceDTO("place1", 1), new PlaceDTO("place1", 2)),
+                List.of(),
+                List.of()
+        );
+
+        assertThrows(IllegalArgumentException.class, () -> PetriNetMapper.dtoToCompiledNet(petriNetDTO));
+    }
+
+    // ==================== RUN TESTS ====================
+
+    @Test
+    void runPetriNet_UntilDeadlock_FiresUntilSourceIsEmpty() {
+        // Given: place1 holds 3 tokens that trans1 moves to place2
+        PetriNetDTO inputDto = new PetriNetDTO(
+                List.of(new PlaceDTO("place1", 3), new PlaceDTO("place2", 0)),
+                List.of(new TransitionDTO("trans1", false, List.of("arc1", "arc2"))),
+                List.of(new ArcDTO("arc1", "REGULAR", "place1", "trans1"),
+                        new ArcDTO("arc2", "REGULAR", "trans1", "place2"))
+        );
+
+        PetriNetService service = new PetriNetService();
+
+        // When
+        SimulationRunResultDTO result = service.runPetriNet(inputDto, 10, "deadlock");
+
+        // Then
+        assertEquals(3, result.getStepsExecuted());
+        assertEquals("DEADLOCK", result.getStopReason());
+        assertEquals(List.of("trans1", "trans1", "trans1"), result.getFiringSequence());
+        assertEquals(0, result.getFinalMarking().get("place1"));
+        assertEquals(3, result.getFinalMarking().get("place2"));
+        assertTrue(result.getEnabledTransitions().isEmpty());
+    }
+
+    @Test
+    void runPetriNet_StepLimit_StopsAfterRequestedSteps() {
+        // Given: A two-place cycle that never deadlocks
+        PetriNetDTO inputDto = new PetriNetDTO(
+                List.of(new PlaceDTO("place1", 1), new PlaceDTO("place2", 0)),
+                List.of(new TransitionDTO("trans1", false, List.of("arc1", "arc2")),
+                        new TransitionDTO("trans2", false, List.of("arc3", "arc4"))),
+                List.of(new ArcDTO("arc1", "REGULAR", "place1", "trans1"),
+                        new ArcDTO("arc2", "REGULAR", "trans1", "place2"),
+                        new ArcDTO("arc3", "REGULAR", "place2", "trans2"),
+                        new ArcDTO("arc4", "REGULAR", "trans2", "place1"))
+        );
+
+        PetriNetService service = new PetriNetService();
+
+        // When
+        SimulationRunResultDTO result = service.runPetriNet(inputDto, 5, null);
+
+        // Then
+        assertEquals(5, result.getStepsExecuted());
+        assertEquals("STEP_LIMIT", result.getStopReason());
+        assertEquals(List.of("trans1", "trans2", "trans1", "trans2", "trans1"), result.getFiringSequence());
+        assertEquals(0, result.getFinalMarking().get("place1"));
+        assertEquals(1, result.getFinalMarking().get("place2"));
+        assertEquals(List.of("trans2"), result.getEnabledTransitions());
+    }
+
+    @Test
+    void runPetriNet_DeterministicMode_StopsAtConflict() {
+        // Given: Two transitions competing for the token in place1
+        PetriNetDTO conflictNet = new PetriNetDTO(
+                List.of(new PlaceDTO("place1", 1), new PlaceDTO("place2", 0), new PlaceDTO("place3", 0)),
+                List.of(new TransitionDTO("trans1", false, List.of("arc1", "arc2")),
+                        new TransitionDTO("trans2", false, List.of("arc3", "arc4"))),
+                List.of(new ArcDTO("arc1", "REGULAR", "place1", "trans1"),
+                        new ArcDTO("arc2", "REGULAR", "trans1", "place2"),
+                        new ArcDTO("arc3", "REGULAR", "place1", "trans2"),
+                        new ArcDTO("arc4", "REGULAR", "trans2", "place3"))
+        );
+        conflictNet.setDeterministicMode(true);
+
+        PetriNetService service = new PetriNetService();
+
+        // When
+        SimulationRunResultDTO result = service.runPetriNet(conflictNet, 10, "deadlock");
+
+        // Then: Nothing fires and both transitions are reported
+        assertEquals(0, result.getStepsExecuted());
+        assertEquals("CONFLICT", result.getStopReason());
+        assertEquals(List.of("trans1", "trans2"), result.getEnabledTransitions());
+        assertEquals(1, result.getFinalMarking().get("place1"));
+    }
+
+    @Test
+    void runPetriNet_InvalidArguments_ThrowsException() {
+        PetriNetDTO emptyNet = new PetriNetDTO(List.of(), List.of(), List.of());
+        PetriNetService service = new PetriNetService();
+
+        assertThrows(IllegalArgumentException.class, () -> service.runPetriNet(emptyNet, -1, null));
+        assertThrows(IllegalArgumentException.class, () -> service.runPetriNet(emptyNet, PetriNetService.MAX_RUN_STEPS + 1, null));
+        assertThrows(IllegalArgumentException.class, () -> service.runPetriNet(emptyNet, 1, "forever"));
+    }
+
+    /**
+     compiled net cache Unit Tests
+     ___________________________________________________________________
+      **/
+    @Test
+    void compiledNetCache_RepeatedSteps_CompileStructureOnce() {
+        // Given: Two steps of the same net, in different markings
+        CompiledNetCache cache = new CompiledNetCache();
+        PetriNetService service = new PetriNetService(cache);
+        PetriNetDTO inputDto = new PetriNetDTO(
+                List.of(new PlaceDTO("place1", 2), new PlaceDTO("place2", 0)),
+                List.of(new TransitionDTO("trans1", true, List.of("arc1", "arc2"))),
+                List.of(new ArcDTO("arc1", "REGULAR", "place1", "trans1"),
+                        new ArcDTO("arc2", "REGULAR", "trans1", "place2"))
+        );
+
+        // When
+        PetriNetDTO afterFirstStep = service.processPetriNet(inputDto);
+        PetriNetDTO afterSecondStep = service.processPetriNet(afterFirstStep);
+
+        // Then: The second step reuses the compiled net and still fires on its own marking
+        assertEquals(0, afterSecondStep.getPlaces().get(0).getTokens());
+        assertEquals(2, afterSecondStep.getPlaces().get(1).getTokens());
+        CompiledNetCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getEntries());
+    }
+
+    @Test
+    void compiledNetCache_Symmetries_ComputedOncePerNet() {
+        // Given: A cached net with two interchangeable places
+        CompiledNetCache cache = new CompiledNetCache();
+        PetriNetDTO inputDto = new PetriNetDTO(
+                List.of(new PlaceDTO("place1", 1), new PlaceDTO("place2", 0)),
+                List.of(), List.of());
+        CompiledNet net = cache.get(inputDto);
+        Deadline expired = Deadline.unlimited();
+        expired.cancel();
+
+        // When
+        NetSymmetries cutShort = cache.getSymmetries(net, expired);
+        NetSymmetries first = cache.getSymmetries(net, Deadline.after(10_000));
+        NetSymmetries second = cache.getSymmetries(cache.get(inputDto), Deadline.after(10_000));
+
+        // Then: A search stopped by its deadline is not kept, a complete one is shared
+        assertTrue(cutShort.isTimeLimitReached());
+        assertFalse(cutShort.isComplete());
+        assertNotSame(cutShort, first);
+        assertEquals(2, first.getGroupSize().intValue());
+        assertTrue(first.isComplete());
+        assertSame(first, second);
+    }
+
+    @Test
+    void dtoToFingerprint_IgnoresMarkingButNotStructure() {
+        // Given
+        PetriNetDTO net = new PetriNetDTO(
+                List.of(new PlaceDTO("place1", 1)),
+                List.of(new TransitionDTO("trans1", true, List.of("arc1"))),
+                List.of(new ArcDTO("arc1", "REGULAR", "place1", "trans1"))
+        );
+        PetriNetDTO otherMarking = new PetriNetDTO(
+                List.of(new PlaceDTO("place1", 7)),
+                List.of(new TransitionDTO("trans1", false, List.of("arc1"))),
+                List.of(new ArcDTO("arc1", "REGULAR", "place1", "trans1"))
+        );
+        PetriNetDTO otherArcType = new PetriNetDTO(
+                List.of(new PlaceDTO("place1", 1)),
+                List.of(new TransitionDTO("trans1", true, List.of("arc1"))),
+                List.of(new ArcDTO("arc1", "INHIBITOR", "place1", "trans1"))
+        );
+        PetriNetDTO shiftedIds = new PetriNetDTO(
+                List.of(new PlaceDTO("place1t", 1)),
+                List.of(new TransitionDTO("rans1", true, List.of("arc1"))),
+                List.of(new ArcDTO("arc1", "REGULAR", "place1", "trans1"))
+        );
+
+        // When / Then
+        assertEquals(PetriNetMapper.dtoToFingerprint(net), PetriNetMapper.dtoToFingerprint(otherMarking));
+        assertNotEquals(PetriNetMapper.dtoToFingerprint(net), PetriNetMapper.dtoToFingerprint(otherArcType));
+        assertNotEquals(PetriNetMapper.dtoToFingerprint(net), PetriNetMapper.dtoToFingerprint(shiftedIds));
+    }
+
+    @Test
+    void compiledNetCache_OverSize_EvictsLeastRecentlyUsed() {
+        // Given: Room for two nets of one place and one transition each
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.setCompiledNetCacheSize(4);
+        CompiledNetCache cache = new CompiledNetCache(properties);
+        PetriNetDTO first = new PetriNetDTO(List.of(new PlaceDTO("p1", 0)), List.of(new TransitionDTO("t1", false, List.of())), List.of());
+        PetriNetDTO second = new PetriNetDTO(List.of(new PlaceDTO("p2", 0)), List.of(new TransitionDTO("t2", false, List.of())), List.of());
+        PetriNetDTO third = new PetriNetDTO(List.of(new PlaceDTO("p3", 0)), List.of(new TransitionDTO("t3", false, List.of())), List.of());
+
+        // When: The first net is used again before the third one is added
+        CompiledNet firstNet = cache.get(first);
+        cache.get(second);
+        assertSame(firstNet, cache.get(first));
+        cache.get(third);
+
+        // Then: The second net was evicted and the first one is still cached
+        assertSame(firstNet, cache.get(first));
+        CompiledNetCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.getEvictions());
+        assertEquals(2, stats.getEntries());
+        assertEquals(4, stats.getSize());
+        assertEquals(2, stats.getHits());
+        assertEquals(3, stats.getMisses());
+    }
+
+    /**
+     simulation session Unit Tests
+     ___________________________________________________________________
+      **/
+    @Test
+    void simulationSession_Steps_ReturnOnlyChangedPlaces() {
+        // Given: A chain place1 -> trans1 -> place2 -> trans2 -> place3, with an untouched place4
+        PetriNetDTO inputDto = new PetriNetDTO(
+                List.of(new PlaceDTO("place1", 1), new PlaceDTO("place2", 0), new PlaceDTO("place3", 0), new PlaceDTO("place4", 5)),
+                List.of(new TransitionDTO("trans1", false, List.of("arc1", "arc2")),
+                        new TransitionDTO("trans2", false, List.of("arc3", "arc4"))),
+                List.of(new ArcDTO("arc1", "REGULAR", "place1", "trans1"),
+                        new ArcDTO("arc2", "REGULAR", "trans1", "place2"),
+                        new ArcDTO("arc3", "REGULAR", "place2", "trans2"),
+                        new ArcDTO("arc4", "REGULAR", "trans2", "place3"))
+        );
+        SimulationSessionService sessions = new SimulationSessionService();
+
+        // When
+        SimulationDeltaDTO created = sessions.createSession(inputDto);
+        SimulationDeltaDTO first = sessions.step(created.getSessionId());
+        SimulationDeltaDTO second = sessions.step(created.getSessionId());
+        SimulationDeltaDTO third = sessions.step(created.getSessionId());
+
+        // Then
+        assertEquals("CREATED", created.getOutcome());
+        assertEquals(List.of("trans1"), created.getEnabledTransitions());
+        assertEquals("trans1", first.getFiredTransitionId());
+        assertEquals(Map.of("place1", 0, "place2", 1), first.getChangedPlaces());
+        assertEquals(List.of("trans2"), first.getEnabledTransitions());
+        assertEquals("trans2", second.getFiredTransitionId());
+        assertEquals(Map.of("place2", 0, "place3", 1), second.getChangedPlaces());
+        assertEquals(2, second.getStep());
+        assertEquals("DEADLOCK", third.getOutcome());
+        assertNull(third.getFiredTransitionId());
+        assertTrue(third.getChangedPlaces().isEmpty());
+    }
+
+    @Test
+    void simulationSession_DeterministicConflict_WaitsForSelectedTransition() {
+        // Given: Two transitions competing for the token in place1
+        PetriNetDTO conflictNet = new PetriNetDTO(
+                List.of(new PlaceDTO("place1", 1), new PlaceDTO("place2", 0), new PlaceDTO("place3", 0)),
+                List.of(new TransitionDTO("trans1", false, List.of("arc1", "arc2")),
+                        new TransitionDTO("trans2", false, List.of("arc3", "arc4"))),
+                List.of(new ArcDTO("arc1", "REGULAR", "place1", "trans1"),
+                        new ArcDTO("arc2", "REGULAR", "trans1", "place2"),
+                        new ArcDTO("arc3", "REGULAR", "place1", "trans2"),
+                        new ArcDTO("arc4", "REGULAR", "trans2", "place3"))
+        );
+        conflictNet.setDeterministicMode(true);
+        SimulationSessionService sessions = new SimulationSessionService();
+        String sessionId = sessions.createSession(conflictNet).getSessionId();
+
+        // When
+        SimulationDeltaDTO conflict = sessions.step(sessionId);
+        SimulationDeltaDTO resolved = sessions.fire(sessionId, "trans2");
+
+        // Then
+        assertEquals("CONFLICT", conflict.getOutcome());
+        assertEquals(List.of("trans1", "trans2"), conflict.getEnabledTransitions());
+        assertEquals("trans2", resolved.getFiredTransitionId());
+        assertEquals(Map.of("place1", 0, "place3", 1), resolved.getChangedPlaces());
+        assertThrows(IllegalArgumentException.class, () -> sessions.fire(sessionId, "trans1"));
+        assertThrows(IllegalArgumentException.class, () -> sessions.fire(sessionId, "missing"));
+    }
+
+    @Test
+    void simulationSession_StoreFullOrClosed_ForgetsSessions() {
+        // Given: Room for a single session
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.setMaxSessions(1);
+        SimulationSessionService sessions = new SimulationSessionService(new CompiledNetCache(), properties);
+        PetriNetDTO net = new PetriNetDTO(List.of(new PlaceDTO("place1", 0)), List.of(), List.of());
+
+        // When
+        String first = sessions.createSession(net).getSessionId();
+        String second = sessions.createSession(net).getSessionId();
+
+        // Then: The first session made room for the second, which can be closed once
+        assertThrows(NoSuchElementException.class, () -> sessions.step(first));
+        assertEquals("DEADLOCK", sessions.step(second).getOutcome());
+        assertTrue(sessions.closeSession(second));
+        assertFalse(sessions.closeSession(second));
+        assertEquals(0, sessions.getSessionCount());
+    }
+
+    @Test
+    void simulationSession_Pinned_OutlivesIdleTimeoutAndNewerSessions() throws InterruptedException {
+        // Given: Room for two sessions, one of them pinned, and a short idle timeout
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.setMaxSessions(2);
+        properties.setSessionIdleTimeout(java.time.Duration.ofMillis(20));
+        SimulationSessionService sessions = new SimulationSessionService(new CompiledNetCache(), properties);
+        PetriNetDTO net = new PetriNetDTO(List.of(new PlaceDTO("place1", 0)), List.of(), List.of());
+        String pinned = sessions.createSession(net, true).getSessionId();
+
+        // When: The pinned session stays idle while newer sessions fill the store
+        Thread.sleep(50);
+        String first = sessions.createSession(net).getSessionId();
+        String second = sessions.createSession(net).getSessionId();
+
+        // Then: Only the unpinned session made room, and the pinned one lasts until it is closed
+        assertEquals("DEADLOCK", sessions.step(pinned).getOutcome());
+        assertThrows(NoSuchElementException.class, () -> sessions.step(first));
+        assertEquals("DEADLOCK", sessions.step(second).getOutcome());
+        assertTrue(sessions.closeSession(pinned));
+    }
+
+    @Test
+    void simulationSession_StoreFullOfPinnedSessions_RefusesNewOnes() {
+        // Given: Room for a single session, taken by a pinned one
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.setMaxSessions(1);
+        SimulationSessionService sessions = new SimulationSessionService(new CompiledNetCache(), properties);
+        PetriNetDTO net = new PetriNetDTO(List.of(new PlaceDTO("place1", 0)), List.of(), List.of());
+        String pinned = sessions.createSession(net, true).getSessionId();
+
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> sessions.createSession(net));
+        assertEquals("DEADLOCK", sessions.step(pinned).getOutcome());
+    }
+
+    @Test
+    void simulationSession_Idle_IsEvicted() throws InterruptedException {
+        // Given
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.setSessionIdleTimeout(java.time.Duration.ofMillis(20));
+        SimulationSessionService sessions = new SimulationSessionService(new CompiledNetCache(), properties);
+        String sessionId = sessions.createSession(new PetriNetDTO(List.of(), List.of(), List.of())).getSessionId();
+
+        // When
+        Thread.sleep(50);
+
+        // Then
+        assertThrows(NoSuchElementException.class, () -> sessions.step(sessionId));
+        assertEquals(0, sessions.getSessionCount());
+    }
+
+    /**
+     streamed run Unit Tests
+     ___________________________________________________________________
+      **/
+    @Test
+    void openRun_StreamedInBatches_CoalescesChangedPlaces() throws Exception {
+        // Given: A token cycling between place1 and place2
+        PetriNetDTO cycleNet = new PetriNetDTO(
+                List.of(new PlaceDTO("place1", 1), new PlaceDTO("place2", 0)),
+                List.of(new TransitionDTO("trans1", false, List.of("arc1", "arc2")),
+                        new TransitionDTO("trans2", false, List.of("arc3", "arc4"))),
+                List.of(new ArcDTO("arc1", "REGULAR", "place1", "trans1"),
+                        new ArcDTO("arc2", "REGULAR", "trans1", "place2"),
+                        new ArcDTO("arc3", "REGULAR", "place2", "trans2"),
+                        new ArcDTO("arc4", "REGULAR", "trans2", "place1"))
+        );
+        PetriNetService service = new PetriNetService();
+        List<SimulationBatchDTO> batches = new ArrayList<>();
+
+        // When
+        service.openRun(cycleNet, 10, null, 3).streamTo(batches::add);
+
+        // Then: Batches of three firings, each with the net change of its places
+        assertEquals(4, batches.size());
+        assertEquals(List.of("trans1", "trans2", "trans1"), batches.get(0).getFiredTransitions());
+        assertEquals(Map.of("place1", 0, "place2", 1), batches.get(0).getChangedPlaces());
+        assertEquals(Map.of("place1", 1, "place2", 0), batches.get(1).getChangedPlaces());
+        assertNull(batches.get(2).getStopReason());
+        assertEquals(9, batches.get(3).getFirstStep());
+        assertEquals(List.of("trans2"), batches.get(3).getFiredTransitions());
+        assertEquals("STEP_LIMIT", batches.get(3).getStopReason());
+        assertEquals(List.of("trans1"), batches.get(3).getEnabledTransitions());
+    }
+
+    @Test
+    void openRun_Deadlock_EndsWithinFirstBatch() throws Exception {
+        // Given
+        PetriNetDTO chainNet = new PetriNetDTO(
+                List.of(new PlaceDTO("place1", 1), new PlaceDTO("place2", 0)),
+                List.of(new TransitionDTO("trans1", false, List.of("arc1", "arc2"))),
+                List.of(new ArcDTO("arc1", "REGULAR", "place1", "trans1"),
+                        new ArcDTO("arc2", "REGULAR", "trans1", "place2"))
+        );
+        PetriNetService service = new PetriNetService();
+        List<SimulationBatchDTO> batches = new ArrayList<>();
+
+        // When
+        service.openRun(chainNet, 1_000_000, "deadlock", 64).streamTo(batches::add);
+
+        // Then
+        assertEquals(1, batches.size());
+        assertEquals(List.of("trans1"), batches.get(0).getFiredTransitions());
+        assertEquals("DEADLOCK", batches.get(0).getStopReason());
+        assertTrue(batches.get(0).getEnabledTransitions().isEmpty());
+    }
+
+    @Test
+    void openRun_StepsAboveServerMaximum_AreCapped() throws Exception {
+        // Given: A server allowing at most 5 steps per request, and a token cycling between two places
+        AnalysisProperties properties = new AnalysisProperties();
+        properties.setMaxRequestSteps(5);
+        PetriNetService service = new PetriNetService(new CompiledNetCache(), properties);
+        PetriNetDTO cycleNet = new PetriNetDTO(
+                List.of(new PlaceDTO("place1", 1), new PlaceDTO("place2", 0)),
+                List.of(new TransitionDTO("trans1", false, List.of("arc1", "arc2")),
+                        new TransitionDTO("trans2", false, List.of("arc3", "arc4"))),
+                List.of(new ArcDTO("arc1", "REGULAR", "place1", "trans1"),
+                        new ArcDTO("arc2", "REGULAR", "trans1", "place2"),
+                        new ArcDTO("arc3", "REGULAR", "place2", "trans2"),
+                        new ArcDTO("arc4", "REGULAR", "trans2", "place1"))
+        );
+        List<SimulationBatchDTO> batches = new ArrayList<>();
+
+        // When: Asking for a billion steps
+        service.openRun(cycleNet, 1_000_000_000L, null, 64).streamTo(batches::add);
+
+        // Then: The run stops at the server maximum
+        assertEquals(1, batches.size());
+        assertEquals(5, batches.get(0).getFiredTransitions().size());
+        assertEquals("STEP_LIMIT", batches.get(0).getStopReason());
+    }
+
+    @Test
+    void openRun_Cancelled_StopsWithTimeLimit() throws Exception {
+        // Given: A run of a token cycling forever between two places
+        PetriNetDTO cycleNet = new PetriNetDTO(
+                List.of(new PlaceDTO("place1", 1), new PlaceDTO("place2", 0)),
+                List.of(new TransitionDTO("trans1", false, List.of("arc1", "arc2")),
+                        new TransitionDTO("trans2", false, List.of("arc3", "arc4"))),
+                List.of(new ArcDTO("arc1", "REGULAR", "place1", "trans1"),
+                        new ArcDTO("arc2", "REGULAR", "trans1", "place2"),
+                        new ArcDTO("arc3", "REGULAR", "place2", "trans2"),
+                        new ArcDTO("arc4", "REGULAR", "trans2", "place1"))
+        );
+        SimulationRun run = new PetriNetService().openRun(cycleNet, 1_000_000, null, 64);
+        List<SimulationBatchDTO> batches = new ArrayList<>();
+
+        // When: The run is cancelled after its first batch, e.g. because its emitter timed out
+        run.streamTo(batch -> {
+            batches.add(batch);
+            run.cancel();
+        });
+
+        // Then: The next batch ends the run without firing
+        assertEquals(2, batches.size());
+        assertEquals(64, batches.get(0).getFiredTransitions().size());
+        assertTrue(batches.get(1).getFiredTransitions().isEmpty());
+        assertEquals("TIME_LIMIT", batches.get(1).getStopReason());
+    }
+
+    @Test
+    void openRun_InvalidArguments_ThrowsException() {
+        PetriNetDTO emptyNet = new PetriNetDTO(List.of(), List.of(), List.of());
+        PetriNetService service = new PetriNetService();
+
+        assertThrows(IllegalArgumentException.class, () -> service.openRun(emptyNet, -1, null, 64));
+        assertThrows(IllegalArgumentException.class, () -> service.openRun(emptyNet, 10, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> service.openRun(emptyNet, 10, null, SimulationRun.MAX_BATCH_SIZE + 1));
+        assertThrows(IllegalArgumentException.class, () -> service.openRun(emptyNet, 10, "forever", 64));
+    }
 }